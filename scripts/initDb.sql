@@ -7,6 +7,7 @@ DROP TABLE IF EXISTS airports;
 DROP TABLE IF EXISTS aircraft_models;
 DROP TABLE IF EXISTS aircraft;
 DROP TABLE IF EXISTS flights;
+DROP TABLE IF EXISTS timetable_rules;
 DROP TABLE IF EXISTS tariffs_details;
 DROP TABLE IF EXISTS tickets;
 SET FOREIGN_KEY_CHECKS = 1;
@@ -80,10 +81,34 @@ CREATE TABLE flights (
   initial_ticket_base_price DECIMAL(13, 6) NOT NULL,
   max_ticket_base_price     DECIMAL(13, 6) NOT NULL,
   canceled                  BOOLEAN            DEFAULT FALSE,
+  tickets_count             INT            NOT NULL DEFAULT 0,
   FOREIGN KEY (departure_airport_id) REFERENCES airports (id),
   FOREIGN KEY (arrival_airport_id) REFERENCES airports (id),
 FOREIGN KEY (aircraft_id) REFERENCES aircraft (id)
 );
+CREATE INDEX flights_route_idx
+  ON flights (departure_airport_id, arrival_airport_id, id);
+
+/*
+ * Recurring flight of timetable: flights depart at departure_local_time (time of departure airport city)
+ * on days of week of days_of_week (bit 0 - Monday ... bit 6 - Sunday) from valid_from till valid_to inclusive.
+ */
+CREATE TABLE timetable_rules (
+  id                        BIGINT PRIMARY KEY AUTO_INCREMENT,
+  departure_airport_id      BIGINT         NOT NULL,
+  arrival_airport_id        BIGINT         NOT NULL,
+  aircraft_id               BIGINT         NOT NULL,
+  departure_local_time      TIME           NOT NULL,
+  duration_minutes          INT            NOT NULL,
+  days_of_week              TINYINT        NOT NULL,
+  valid_from                DATE           NOT NULL,
+  valid_to                  DATE           NOT NULL,
+  initial_ticket_base_price DECIMAL(13, 6) NOT NULL,
+  max_ticket_base_price     DECIMAL(13, 6) NOT NULL,
+  FOREIGN KEY (departure_airport_id) REFERENCES airports (id),
+  FOREIGN KEY (arrival_airport_id) REFERENCES airports (id),
+  FOREIGN KEY (aircraft_id) REFERENCES aircraft (id)
+);
 
 /*
  * That is general airline pricing policy.
@@ -124,7 +149,8 @@ CREATE TABLE tariffs_details (
   weight_of_time_growth_factor                 DECIMAL(8, 6)  NOT NULL,
   baggage_surcharge_over_max_base_ticket_price DECIMAL(10, 6) NOT NULL,
   priority_registration_and_boarding_tariff    DECIMAL(11, 6) NOT NULL,
-  active                                       BOOLEAN            DEFAULT FALSE
+  active                                       BOOLEAN            DEFAULT FALSE,
+  version                                      INT            NOT NULL DEFAULT 0
 );
 
 
@@ -147,8 +173,17 @@ CREATE TABLE tickets (
   arrival_offset_datetime   VARCHAR(22)    NOT NULL,
   seat_number               SMALLINT       NOT NULL,
   status                    VARCHAR(10)    NOT NULL,
+  booked_until              DATETIME,
+  expiry_claim              VARCHAR(36),
+  expiry_claimed_at         DATETIME,
   CONSTRAINT flight_seat_unique_constraint UNIQUE (flight_id, seat_number)
 );
+CREATE INDEX tickets_booked_until_idx
+  ON tickets (booked_until, flight_id, seat_number);
+CREATE INDEX tickets_user_departure_idx
+  ON tickets (user_id, departure_utc_datetime, id);
+CREATE INDEX tickets_expiry_claim_idx
+  ON tickets (expiry_claim);
 
 
 
@@ -7,6 +7,7 @@ TRUNCATE TABLE airports;
 TRUNCATE TABLE aircraft_models;
 TRUNCATE TABLE aircraft;
 TRUNCATE TABLE flights;
+TRUNCATE TABLE timetable_rules;
 TRUNCATE TABLE tariffs_details;
 TRUNCATE TABLE tickets;
 SET FOREIGN_KEY_CHECKS = 1;
@@ -18,6 +19,7 @@ ALTER TABLE airports AUTO_INCREMENT 1;
 ALTER TABLE aircraft_models AUTO_INCREMENT 1;
 ALTER TABLE aircraft AUTO_INCREMENT 1;
 ALTER TABLE flights AUTO_INCREMENT 1;
+ALTER TABLE timetable_rules AUTO_INCREMENT 1;
 ALTER TABLE tickets AUTO_INCREMENT 1;
 
 INSERT INTO users (name, last_name, email, password, phone_number) VALUES
@@ -256,3 +258,4 @@ VALUES
   (8, 1, 115, '2017-03-20T14:30+03:00', TRUE, TRUE, 'Eduard', 'Eduardov', 'Boryspil International Airport', 'Kyiv',
       'Leonardo da Vinci International Airport', 'Rome', '2017-05-21T08:00', 'Europe/Kiev', '2017-05-21T13:00+02:00', 2, 'PAID');
 
+UPDATE flights f SET tickets_count = (SELECT COUNT(*) FROM tickets t WHERE t.flight_id = f.id);
@@ -0,0 +1,71 @@
+package com.malikov.ticketsystem.dto;
+
+/**
+ * Counters of cache since application start
+ *
+ * @author Yurii Malikov
+ */
+public class CacheStatsDTO {
+
+    private long hitsCount;
+
+    private long missesCount;
+
+    /**
+     * Entries removed because of size limit, expiration or invalidation
+     */
+    private long evictionsCount;
+
+    private int size;
+
+    public CacheStatsDTO() {}
+
+    public CacheStatsDTO(long hitsCount, long missesCount, long evictionsCount, int size) {
+        this.hitsCount = hitsCount;
+        this.missesCount = missesCount;
+        this.evictionsCount = evictionsCount;
+        this.size = size;
+    }
+
+    public long getHitsCount() {
+        return hitsCount;
+    }
+
+    public void setHitsCount(long hitsCount) {
+        this.hitsCount = hitsCount;
+    }
+
+    public long getMissesCount() {
+        return missesCount;
+    }
+
+    public void setMissesCount(long missesCount) {
+        this.missesCount = missesCount;
+    }
+
+    public long getEvictionsCount() {
+        return evictionsCount;
+    }
+
+    public void setEvictionsCount(long evictionsCount) {
+        this.evictionsCount = evictionsCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatsDTO{" +
+                "hitsCount=" + hitsCount +
+                ", missesCount=" + missesCount +
+                ", evictionsCount=" + evictionsCount +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package com.malikov.ticketsystem.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.malikov.ticketsystem.util.serializers.MoneySerializer;
+
+import java.time.LocalDate;
+
+/**
+ * Cheapest current ticket price of route flights departing at date
+ *
+ * @author Yurii Malikov
+ */
+public class DayFareDTO {
+
+    /**
+     * Local date of departure airport
+     */
+    private LocalDate departureDate;
+
+    /**
+     * In micro-units (see MoneyUtil)
+     */
+    @JsonSerialize(using = MoneySerializer.class)
+    private long minTicketPrice;
+
+    public DayFareDTO() {}
+
+    public DayFareDTO(LocalDate departureDate, long minTicketPrice) {
+        this.departureDate = departureDate;
+        this.minTicketPrice = minTicketPrice;
+    }
+
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
+    public void setDepartureDate(LocalDate departureDate) {
+        this.departureDate = departureDate;
+    }
+
+    public long getMinTicketPrice() {
+        return minTicketPrice;
+    }
+
+    public void setMinTicketPrice(long minTicketPrice) {
+        this.minTicketPrice = minTicketPrice;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        DayFareDTO that = (DayFareDTO) o;
+
+        return minTicketPrice == that.minTicketPrice
+                && (departureDate != null ? departureDate.equals(that.departureDate) : that.departureDate == null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = departureDate != null ? departureDate.hashCode() : 0;
+        result = 31 * result + Long.hashCode(minTicketPrice);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DayFareDTO{" +
+                "departureDate=" + departureDate +
+                ", minTicketPrice=" + minTicketPrice +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package com.malikov.ticketsystem.dto;
+
+/**
+ * Counters of second level cache region since application start
+ *
+ * @author Yurii Malikov
+ */
+public class EntityCacheStatsDTO {
+
+    private long hitsCount;
+
+    private long missesCount;
+
+    private long putsCount;
+
+    private long size;
+
+    public EntityCacheStatsDTO() {}
+
+    public EntityCacheStatsDTO(long hitsCount, long missesCount, long putsCount, long size) {
+        this.hitsCount = hitsCount;
+        this.missesCount = missesCount;
+        this.putsCount = putsCount;
+        this.size = size;
+    }
+
+    public long getHitsCount() {
+        return hitsCount;
+    }
+
+    public void setHitsCount(long hitsCount) {
+        this.hitsCount = hitsCount;
+    }
+
+    public long getMissesCount() {
+        return missesCount;
+    }
+
+    public void setMissesCount(long missesCount) {
+        this.missesCount = missesCount;
+    }
+
+    public long getPutsCount() {
+        return putsCount;
+    }
+
+    public void setPutsCount(long putsCount) {
+        this.putsCount = putsCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityCacheStatsDTO{" +
+                "hitsCount=" + hitsCount +
+                ", missesCount=" + missesCount +
+                ", putsCount=" + putsCount +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -1,12 +1,13 @@
 package com.malikov.ticketsystem.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.serializers.MoneySerializer;
 import org.hibernate.validator.constraints.NotBlank;
 import org.hibernate.validator.constraints.SafeHtml;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import javax.validation.constraints.Size;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -30,19 +31,23 @@ public class FlightDTO extends BaseDTO {
     @DateTimeFormat(pattern = DateTimeUtil.DATE_TIME_PATTERN)
     private LocalDateTime arrivalLocalDateTime;
 
-    private BigDecimal ticketPrice;
+    /**
+     * In micro-units (see MoneyUtil)
+     */
+    @JsonSerialize(using = MoneySerializer.class)
+    private long ticketPrice;
 
 
     public FlightDTO() {}
 
     public FlightDTO(Long id, String departureAirport, String arrivalAirport, LocalDateTime departureLocalDateTime,
-                     LocalDateTime arrivalLocalDateTime, BigDecimal ticketPrice) {
+                     LocalDateTime arrivalLocalDateTime, long ticketPrice) {
         super(id);
         this.departureAirport = departureAirport != null ? departureAirport : "";
         this.arrivalAirport = arrivalAirport != null ? arrivalAirport : "";
         this.departureLocalDateTime = departureLocalDateTime;
         this.arrivalLocalDateTime = arrivalLocalDateTime;
-        this.ticketPrice = ticketPrice != null ? ticketPrice : new BigDecimal(0);
+        this.ticketPrice = ticketPrice;
     }
 
 
@@ -78,11 +83,11 @@ public class FlightDTO extends BaseDTO {
         this.arrivalLocalDateTime = arrivalLocalDateTime;
     }
 
-    public BigDecimal getTicketPrice() {
+    public long getTicketPrice() {
         return ticketPrice;
     }
 
-    public void setTicketPrice(BigDecimal ticketPrice) {
+    public void setTicketPrice(long ticketPrice) {
         this.ticketPrice = ticketPrice;
     }
 
@@ -113,9 +118,7 @@ public class FlightDTO extends BaseDTO {
                 : flightDTO.arrivalLocalDateTime != null)
             return false;
 
-        return ticketPrice != null
-                ? ticketPrice.equals(flightDTO.ticketPrice)
-                : flightDTO.ticketPrice == null;
+        return ticketPrice == flightDTO.ticketPrice;
     }
 
     @Override
@@ -124,7 +127,7 @@ public class FlightDTO extends BaseDTO {
         result = 31 * result + (arrivalAirport != null ? arrivalAirport.hashCode() : 0);
         result = 31 * result + (departureLocalDateTime != null ? departureLocalDateTime.hashCode() : 0);
         result = 31 * result + (arrivalLocalDateTime != null ? arrivalLocalDateTime.hashCode() : 0);
-        result = 31 * result + (ticketPrice != null ? ticketPrice.hashCode() : 0);
+        result = 31 * result + Long.hashCode(ticketPrice);
         return result;
     }
 
@@ -0,0 +1,65 @@
+package com.malikov.ticketsystem.dto;
+
+/**
+ * Reason why row of imported flight schedule was not imported
+ *
+ * @author Yurii Malikov
+ */
+public class FlightImportErrorDTO {
+
+    /**
+     * Starting from 1, header row of CSV is not counted
+     */
+    private int rowNumber;
+
+    private String message;
+
+    public FlightImportErrorDTO() {}
+
+    public FlightImportErrorDTO(int rowNumber, String message) {
+        this.rowNumber = rowNumber;
+        this.message = message;
+    }
+
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public void setRowNumber(int rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FlightImportErrorDTO that = (FlightImportErrorDTO) o;
+
+        return rowNumber == that.rowNumber
+                && (message != null ? message.equals(that.message) : that.message == null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = rowNumber;
+        result = 31 * result + (message != null ? message.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightImportErrorDTO{" +
+                "rowNumber=" + rowNumber +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
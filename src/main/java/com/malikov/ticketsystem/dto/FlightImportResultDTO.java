@@ -0,0 +1,48 @@
+package com.malikov.ticketsystem.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Yurii Malikov
+ */
+public class FlightImportResultDTO {
+
+    private int importedQuantity;
+
+    /**
+     * Ordered by row number
+     */
+    private List<FlightImportErrorDTO> errors = new ArrayList<>();
+
+    public FlightImportResultDTO() {}
+
+    public FlightImportResultDTO(int importedQuantity, List<FlightImportErrorDTO> errors) {
+        this.importedQuantity = importedQuantity;
+        this.errors = errors;
+    }
+
+    public int getImportedQuantity() {
+        return importedQuantity;
+    }
+
+    public void setImportedQuantity(int importedQuantity) {
+        this.importedQuantity = importedQuantity;
+    }
+
+    public List<FlightImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<FlightImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightImportResultDTO{" +
+                "importedQuantity=" + importedQuantity +
+                ", errors=" + errors +
+                '}';
+    }
+}
@@ -9,6 +9,7 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * @author Yurii Malikov
@@ -66,6 +67,19 @@ public class FlightManageableDTO extends BaseDTO {
         this.canceled = canceled;
     }
 
+    /**
+     * Constructor of JPQL projection, local datetimes are calculated using time zones of airports cities
+     */
+    public FlightManageableDTO(Long id, String departureAirport, String arrivalAirport,
+                               LocalDateTime departureUtcDateTime, ZoneId departureZoneId,
+                               LocalDateTime arrivalUtcDateTime, ZoneId arrivalZoneId,
+                               String aircraftName, BigDecimal initialBaseTicketPrice, BigDecimal maxBaseTicketPrice,
+                               Boolean canceled) {
+        this(id, departureAirport, arrivalAirport, DateTimeUtil.utcToZoneId(departureUtcDateTime, departureZoneId),
+                DateTimeUtil.utcToZoneId(arrivalUtcDateTime, arrivalZoneId), aircraftName, initialBaseTicketPrice,
+                maxBaseTicketPrice, canceled);
+    }
+
 
     public String getDepartureAirport() {
         return departureAirport;
@@ -0,0 +1,102 @@
+package com.malikov.ticketsystem.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.malikov.ticketsystem.util.serializers.MoneySerializer;
+
+/**
+ * Current prices and free seats quantity of flight with id.
+ * Prices are in micro-units (see MoneyUtil)
+ *
+ * @author Yurii Malikov
+ */
+public class FlightQuoteDTO extends BaseDTO {
+
+    @JsonSerialize(using = MoneySerializer.class)
+    private long ticketPrice;
+
+    @JsonSerialize(using = MoneySerializer.class)
+    private long baggagePrice;
+
+    @JsonSerialize(using = MoneySerializer.class)
+    private long priorityRegistrationAndBoardingPrice;
+
+    private int freeSeatsQuantity;
+
+    public FlightQuoteDTO() {}
+
+    public FlightQuoteDTO(Long id, long ticketPrice, long baggagePrice, long priorityRegistrationAndBoardingPrice,
+                          int freeSeatsQuantity) {
+        super(id);
+        this.ticketPrice = ticketPrice;
+        this.baggagePrice = baggagePrice;
+        this.priorityRegistrationAndBoardingPrice = priorityRegistrationAndBoardingPrice;
+        this.freeSeatsQuantity = freeSeatsQuantity;
+    }
+
+    public long getTicketPrice() {
+        return ticketPrice;
+    }
+
+    public void setTicketPrice(long ticketPrice) {
+        this.ticketPrice = ticketPrice;
+    }
+
+    public long getBaggagePrice() {
+        return baggagePrice;
+    }
+
+    public void setBaggagePrice(long baggagePrice) {
+        this.baggagePrice = baggagePrice;
+    }
+
+    public long getPriorityRegistrationAndBoardingPrice() {
+        return priorityRegistrationAndBoardingPrice;
+    }
+
+    public void setPriorityRegistrationAndBoardingPrice(long priorityRegistrationAndBoardingPrice) {
+        this.priorityRegistrationAndBoardingPrice = priorityRegistrationAndBoardingPrice;
+    }
+
+    public int getFreeSeatsQuantity() {
+        return freeSeatsQuantity;
+    }
+
+    public void setFreeSeatsQuantity(int freeSeatsQuantity) {
+        this.freeSeatsQuantity = freeSeatsQuantity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FlightQuoteDTO that = (FlightQuoteDTO) o;
+
+        return ticketPrice == that.ticketPrice
+                && baggagePrice == that.baggagePrice
+                && priorityRegistrationAndBoardingPrice == that.priorityRegistrationAndBoardingPrice
+                && freeSeatsQuantity == that.freeSeatsQuantity
+                && (id != null ? id.equals(that.id) : that.id == null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = id != null ? id.hashCode() : 0;
+        result = 31 * result + Long.hashCode(ticketPrice);
+        result = 31 * result + Long.hashCode(baggagePrice);
+        result = 31 * result + Long.hashCode(priorityRegistrationAndBoardingPrice);
+        result = 31 * result + freeSeatsQuantity;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightQuoteDTO{" +
+                "id=" + id +
+                ", ticketPrice=" + ticketPrice +
+                ", baggagePrice=" + baggagePrice +
+                ", priorityRegistrationAndBoardingPrice=" + priorityRegistrationAndBoardingPrice +
+                ", freeSeatsQuantity=" + freeSeatsQuantity +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.malikov.ticketsystem.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.malikov.ticketsystem.util.serializers.MoneySerializer;
+
+import java.util.List;
+
+/**
+ * Flights of journey with connections in order of departure
+ *
+ * @author Yurii Malikov
+ */
+public class ItineraryDTO {
+
+    private List<FlightDTO> flights;
+
+    /**
+     * Sum of flights ticket prices in micro-units (see MoneyUtil)
+     */
+    @JsonSerialize(using = MoneySerializer.class)
+    private long ticketsPrice;
+
+    public ItineraryDTO() {}
+
+    public ItineraryDTO(List<FlightDTO> flights, long ticketsPrice) {
+        this.flights = flights;
+        this.ticketsPrice = ticketsPrice;
+    }
+
+    public List<FlightDTO> getFlights() {
+        return flights;
+    }
+
+    public void setFlights(List<FlightDTO> flights) {
+        this.flights = flights;
+    }
+
+    public long getTicketsPrice() {
+        return ticketsPrice;
+    }
+
+    public void setTicketsPrice(long ticketsPrice) {
+        this.ticketsPrice = ticketsPrice;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ItineraryDTO that = (ItineraryDTO) o;
+
+        return ticketsPrice == that.ticketsPrice
+                && (flights != null ? flights.equals(that.flights) : that.flights == null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = flights != null ? flights.hashCode() : 0;
+        result = 31 * result + Long.hashCode(ticketsPrice);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ItineraryDTO{" +
+                "flights=" + flights +
+                ", ticketsPrice=" + ticketsPrice +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.malikov.ticketsystem.dto;
+
+import com.malikov.ticketsystem.util.PageCursor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Page of keyset pagination
+ *
+ * @author Yurii Malikov
+ */
+public class KeysetPageDTO<T> {
+
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    /**
+     * @param nextCursor encoded cursor of last element or null if there is no next page
+     */
+    public KeysetPageDTO(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @param rows fetched with limit + 1 to find out if there is next page
+     * @param limit page size
+     * @param converter converts row to page element
+     * @param cursorExtractor gets cursor of row
+     */
+    public static <R, T> KeysetPageDTO<T> of(List<R> rows, int limit, Function<R, T> converter,
+                                             Function<R, PageCursor> cursorExtractor) {
+        List<R> pageRows = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String nextCursor = rows.size() > limit && limit > 0
+                ? cursorExtractor.apply(pageRows.get(limit - 1)).encode()
+                : null;
+        return new KeysetPageDTO<>(pageRows.stream().map(converter).collect(Collectors.toList()), nextCursor);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetPageDTO{" +
+                "content=" + content +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.malikov.ticketsystem.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Booked ticket awaiting payment. Holds only data needed to remove ticket and free its seat
+ * once booking expires.
+ *
+ * @author Yurii Malikov
+ */
+public class TicketBookingDTO extends BaseDTO {
+
+    private long flightId;
+
+    private int seatNumber;
+
+    private LocalDateTime bookedUntilUtcDateTime;
+
+    public TicketBookingDTO() {}
+
+    public TicketBookingDTO(Long id, long flightId, int seatNumber, LocalDateTime bookedUntilUtcDateTime) {
+        super(id);
+        this.flightId = flightId;
+        this.seatNumber = seatNumber;
+        this.bookedUntilUtcDateTime = bookedUntilUtcDateTime;
+    }
+
+    public long getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(long flightId) {
+        this.flightId = flightId;
+    }
+
+    public int getSeatNumber() {
+        return seatNumber;
+    }
+
+    public void setSeatNumber(int seatNumber) {
+        this.seatNumber = seatNumber;
+    }
+
+    public LocalDateTime getBookedUntilUtcDateTime() {
+        return bookedUntilUtcDateTime;
+    }
+
+    public void setBookedUntilUtcDateTime(LocalDateTime bookedUntilUtcDateTime) {
+        this.bookedUntilUtcDateTime = bookedUntilUtcDateTime;
+    }
+
+    @Override
+    public String toString() {
+        return "TicketBookingDTO{" +
+                "id=" + id +
+                ", flightId=" + flightId +
+                ", seatNumber=" + seatNumber +
+                ", bookedUntilUtcDateTime=" + bookedUntilUtcDateTime +
+                '}';
+    }
+}
@@ -1,5 +1,6 @@
 package com.malikov.ticketsystem.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.malikov.ticketsystem.model.TicketStatus;
 import com.malikov.ticketsystem.util.DateTimeUtil;
 import org.hibernate.validator.constraints.SafeHtml;
@@ -10,6 +11,8 @@ import javax.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 
 /**
  * @author Yurii Malikov
@@ -66,6 +69,12 @@ public class TicketDTO extends BaseDTO {
 
     private TicketStatus status;
 
+    /**
+     * Sort key of keyset pagination, is not sent to client
+     */
+    @JsonIgnore
+    private LocalDateTime departureUtcDateTime;
+
     public TicketDTO() {}
 
     public TicketDTO(Long id, String passengerFirstName, String passengerLastName, String departureAirportName,
@@ -91,6 +100,21 @@ public class TicketDTO extends BaseDTO {
         this.status = status;
     }
 
+    /**
+     * Constructor of JPQL projection, local datetimes are calculated from stored in ticket ones
+     */
+    public TicketDTO(Long id, String passengerFirstName, String passengerLastName, String departureAirportName,
+                     String arrivalAirportName, String departureCityName, String arrivalCityName,
+                     LocalDateTime departureUtcDateTime, ZoneId departureZoneId,
+                     OffsetDateTime arrivalOffsetDateTime, BigDecimal price, Boolean hasBaggage,
+                     Boolean hasPriorityRegistrationAndBoarding, Integer seatNumber, TicketStatus status) {
+        this(id, passengerFirstName, passengerLastName, departureAirportName, arrivalAirportName,
+                departureCityName, arrivalCityName, DateTimeUtil.utcToZoneId(departureUtcDateTime, departureZoneId),
+                arrivalOffsetDateTime.toLocalDateTime(), price, hasBaggage, hasPriorityRegistrationAndBoarding,
+                seatNumber, status);
+        this.departureUtcDateTime = departureUtcDateTime;
+    }
+
 
     public String getPassengerFirstName() {
         return passengerFirstName;
@@ -196,6 +220,10 @@ public class TicketDTO extends BaseDTO {
         this.status = status;
     }
 
+    public LocalDateTime getDepartureUtcDateTime() {
+        return departureUtcDateTime;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,56 +1,54 @@
 package com.malikov.ticketsystem.dto;
 
-import javax.validation.constraints.NotNull;
-import java.math.BigDecimal;
-
-import static java.math.BigDecimal.ROUND_HALF_UP;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.malikov.ticketsystem.util.serializers.MoneySerializer;
 
 /**
+ * Prices are in micro-units (see MoneyUtil)
+ *
  * @author Yurii Malikov
  */
 public class TicketPriceDetailsDTO {
 
-    @NotNull
-    private BigDecimal baseTicketPrice;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long baseTicketPrice;
 
-    @NotNull
-    private BigDecimal baggagePrice;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long baggagePrice;
 
-    @NotNull
-    private BigDecimal priorityRegistrationAndBoardingPrice;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long priorityRegistrationAndBoardingPrice;
 
     public TicketPriceDetailsDTO() {}
 
-    public TicketPriceDetailsDTO(BigDecimal baseTicketPrice, BigDecimal baggagePrice,
-                                 BigDecimal priorityRegistrationAndBoardingPrice) {
-        this.baseTicketPrice = baseTicketPrice.setScale(6, ROUND_HALF_UP);
-        this.baggagePrice = baggagePrice.setScale(6, ROUND_HALF_UP);
-        this.priorityRegistrationAndBoardingPrice = priorityRegistrationAndBoardingPrice
-                .setScale(6, ROUND_HALF_UP);
+    public TicketPriceDetailsDTO(long baseTicketPrice, long baggagePrice, long priorityRegistrationAndBoardingPrice) {
+        this.baseTicketPrice = baseTicketPrice;
+        this.baggagePrice = baggagePrice;
+        this.priorityRegistrationAndBoardingPrice = priorityRegistrationAndBoardingPrice;
     }
 
-    public BigDecimal getBaseTicketPrice() {
+    public long getBaseTicketPrice() {
         return baseTicketPrice;
     }
 
-    public void setBaseTicketPrice(BigDecimal baseTicketPrice) {
-        this.baseTicketPrice = baseTicketPrice.setScale(6, ROUND_HALF_UP);
+    public void setBaseTicketPrice(long baseTicketPrice) {
+        this.baseTicketPrice = baseTicketPrice;
     }
 
-    public BigDecimal getBaggagePrice() {
+    public long getBaggagePrice() {
         return baggagePrice;
     }
 
-    public void setBaggagePrice(BigDecimal baggagePrice) {
-        this.baggagePrice = baggagePrice.setScale(6, ROUND_HALF_UP);
+    public void setBaggagePrice(long baggagePrice) {
+        this.baggagePrice = baggagePrice;
     }
 
-    public BigDecimal getPriorityRegistrationAndBoardingPrice() {
+    public long getPriorityRegistrationAndBoardingPrice() {
         return priorityRegistrationAndBoardingPrice;
     }
 
-    public void setPriorityRegistrationAndBoardingPrice(BigDecimal priorityRegistrationAndBoardingPrice) {
-        this.priorityRegistrationAndBoardingPrice = priorityRegistrationAndBoardingPrice.setScale(6, ROUND_HALF_UP);
+    public void setPriorityRegistrationAndBoardingPrice(long priorityRegistrationAndBoardingPrice) {
+        this.priorityRegistrationAndBoardingPrice = priorityRegistrationAndBoardingPrice;
     }
 
     @Override
@@ -60,27 +58,16 @@ public class TicketPriceDetailsDTO {
 
         TicketPriceDetailsDTO that = (TicketPriceDetailsDTO) o;
 
-        if (baseTicketPrice != null
-                ? !baseTicketPrice.equals(that.baseTicketPrice)
-                : that.baseTicketPrice != null) {
-            return false;
-        }
-        if (baggagePrice != null
-                ? !baggagePrice.equals(that.baggagePrice)
-                : that.baggagePrice != null) {
-            return false;
-        }
-        return priorityRegistrationAndBoardingPrice != null
-                ? priorityRegistrationAndBoardingPrice.equals(that.priorityRegistrationAndBoardingPrice)
-                : that.priorityRegistrationAndBoardingPrice == null;
+        return baseTicketPrice == that.baseTicketPrice
+                && baggagePrice == that.baggagePrice
+                && priorityRegistrationAndBoardingPrice == that.priorityRegistrationAndBoardingPrice;
     }
 
     @Override
     public int hashCode() {
-        int result = baseTicketPrice != null ? baseTicketPrice.hashCode() : 0;
-        result = 31 * result + (baggagePrice != null ? baggagePrice.hashCode() : 0);
-        result = 31 * result + (priorityRegistrationAndBoardingPrice != null
-                ? priorityRegistrationAndBoardingPrice.hashCode() : 0);
+        int result = Long.hashCode(baseTicketPrice);
+        result = 31 * result + Long.hashCode(baggagePrice);
+        result = 31 * result + Long.hashCode(priorityRegistrationAndBoardingPrice);
         return result;
     }
 
@@ -1,5 +1,6 @@
 package com.malikov.ticketsystem.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.malikov.ticketsystem.model.TicketStatus;
 import com.malikov.ticketsystem.util.DateTimeUtil;
@@ -8,6 +9,8 @@ import org.springframework.format.annotation.DateTimeFormat;
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS;
 
@@ -61,6 +64,17 @@ public class TicketWithRemainingDelayDTO extends BaseDTO {
 
     private Long remainingDelay;
 
+    /**
+     * Sort key of keyset pagination, is not sent to client
+     */
+    @JsonIgnore
+    private LocalDateTime departureUtcDateTime;
+
+    /**
+     * Booking expiration moment remaining delay is calculated from, is not sent to client
+     */
+    @JsonIgnore
+    private LocalDateTime bookedUntilUtcDateTime;
 
     public TicketWithRemainingDelayDTO() {}
 
@@ -89,6 +103,25 @@ public class TicketWithRemainingDelayDTO extends BaseDTO {
         this.remainingDelay = remainingDelay;
     }
 
+    /**
+     * Constructor of JPQL projection, local datetimes are calculated from stored in ticket ones.
+     * Remaining delay is not known till it is set by service.
+     */
+    public TicketWithRemainingDelayDTO(Long id, String passengerFirstName, String passengerLastName,
+                                       String departureAirportName, String arrivalAirportName,
+                                       String departureCityName, String arrivalCityName,
+                                       LocalDateTime departureUtcDateTime, ZoneId departureZoneId,
+                                       OffsetDateTime arrivalOffsetDateTime, BigDecimal price, Boolean hasBaggage,
+                                       Boolean hasPriorityRegistrationAndBoarding, Integer seatNumber,
+                                       TicketStatus status, LocalDateTime bookedUntilUtcDateTime) {
+        this(id, passengerFirstName, passengerLastName, departureAirportName, arrivalAirportName,
+                departureCityName, arrivalCityName, DateTimeUtil.utcToZoneId(departureUtcDateTime, departureZoneId),
+                arrivalOffsetDateTime.toLocalDateTime(), price, hasBaggage, hasPriorityRegistrationAndBoarding,
+                seatNumber, status, null);
+        this.departureUtcDateTime = departureUtcDateTime;
+        this.bookedUntilUtcDateTime = bookedUntilUtcDateTime;
+    }
+
 
     public String getPassengerFirstName() {
         return passengerFirstName;
@@ -202,6 +235,14 @@ public class TicketWithRemainingDelayDTO extends BaseDTO {
         this.remainingDelay = remainingDelay;
     }
 
+    public LocalDateTime getDepartureUtcDateTime() {
+        return departureUtcDateTime;
+    }
+
+    public LocalDateTime getBookedUntilUtcDateTime() {
+        return bookedUntilUtcDateTime;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
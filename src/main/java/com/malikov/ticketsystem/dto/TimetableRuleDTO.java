@@ -0,0 +1,180 @@
+package com.malikov.ticketsystem.dto;
+
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import org.hibernate.validator.constraints.NotBlank;
+import org.hibernate.validator.constraints.NotEmpty;
+import org.hibernate.validator.constraints.SafeHtml;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * @author Yurii Malikov
+ */
+public class TimetableRuleDTO extends BaseDTO {
+
+    @SafeHtml
+    @NotBlank
+    @Size(min = 2)
+    private String departureAirport;
+
+    @SafeHtml
+    @NotBlank
+    @Size(min = 2)
+    private String arrivalAirport;
+
+    @SafeHtml
+    @NotBlank
+    @Size(min = 2)
+    private String aircraftName;
+
+    /**
+     * Local time of departure airport city
+     */
+    @NotNull
+    @DateTimeFormat(pattern = DateTimeUtil.TIME_PATTERN)
+    private LocalTime departureLocalTime;
+
+    @NotNull
+    @Min(1)
+    private Integer durationMinutes;
+
+    @NotEmpty
+    private Set<DayOfWeek> daysOfWeek;
+
+    @NotNull
+    @DateTimeFormat(pattern = DateTimeUtil.DATE_PATTERN)
+    private LocalDate validFrom;
+
+    @NotNull
+    @DateTimeFormat(pattern = DateTimeUtil.DATE_PATTERN)
+    private LocalDate validTo;
+
+    @NotNull
+    private BigDecimal initialBaseTicketPrice;
+
+    @NotNull
+    private BigDecimal maxBaseTicketPrice;
+
+
+    public TimetableRuleDTO() {}
+
+    public TimetableRuleDTO(Long id, String departureAirport, String arrivalAirport, String aircraftName,
+                            LocalTime departureLocalTime, Integer durationMinutes, Set<DayOfWeek> daysOfWeek,
+                            LocalDate validFrom, LocalDate validTo,
+                            BigDecimal initialBaseTicketPrice, BigDecimal maxBaseTicketPrice) {
+        super(id);
+        this.departureAirport = departureAirport;
+        this.arrivalAirport = arrivalAirport;
+        this.aircraftName = aircraftName;
+        this.departureLocalTime = departureLocalTime;
+        this.durationMinutes = durationMinutes;
+        this.daysOfWeek = daysOfWeek;
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+        this.initialBaseTicketPrice = initialBaseTicketPrice;
+        this.maxBaseTicketPrice = maxBaseTicketPrice;
+    }
+
+    public String getDepartureAirport() {
+        return departureAirport;
+    }
+
+    public void setDepartureAirport(String departureAirport) {
+        this.departureAirport = departureAirport;
+    }
+
+    public String getArrivalAirport() {
+        return arrivalAirport;
+    }
+
+    public void setArrivalAirport(String arrivalAirport) {
+        this.arrivalAirport = arrivalAirport;
+    }
+
+    public String getAircraftName() {
+        return aircraftName;
+    }
+
+    public void setAircraftName(String aircraftName) {
+        this.aircraftName = aircraftName;
+    }
+
+    public LocalTime getDepartureLocalTime() {
+        return departureLocalTime;
+    }
+
+    public void setDepartureLocalTime(LocalTime departureLocalTime) {
+        this.departureLocalTime = departureLocalTime;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public BigDecimal getInitialBaseTicketPrice() {
+        return initialBaseTicketPrice;
+    }
+
+    public void setInitialBaseTicketPrice(BigDecimal initialBaseTicketPrice) {
+        this.initialBaseTicketPrice = initialBaseTicketPrice;
+    }
+
+    public BigDecimal getMaxBaseTicketPrice() {
+        return maxBaseTicketPrice;
+    }
+
+    public void setMaxBaseTicketPrice(BigDecimal maxBaseTicketPrice) {
+        this.maxBaseTicketPrice = maxBaseTicketPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "TimetableRuleDTO{" +
+                "id=" + id +
+                ", departureAirport='" + departureAirport + '\'' +
+                ", arrivalAirport='" + arrivalAirport + '\'' +
+                ", aircraftName='" + aircraftName + '\'' +
+                ", departureLocalTime=" + departureLocalTime +
+                ", durationMinutes=" + durationMinutes +
+                ", daysOfWeek=" + daysOfWeek +
+                ", validFrom=" + validFrom +
+                ", validTo=" + validTo +
+                '}';
+    }
+}
@@ -1,5 +1,7 @@
 package com.malikov.ticketsystem.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.Range;
 
 import javax.persistence.*;
@@ -8,6 +10,8 @@ import javax.persistence.*;
  * @author Yurii Malikov
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "aircraft_models")
 @AttributeOverride(name = "name", column = @Column(name = "model_name"))
 public class AircraftModel extends NamedEntity {
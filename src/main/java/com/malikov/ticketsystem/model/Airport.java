@@ -1,11 +1,16 @@
 package com.malikov.ticketsystem.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 /**
  * @author Yurii Malikov
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "airports", uniqueConstraints = @UniqueConstraint(columnNames = "name",
         name = "airports_unique_name_idx"))
 public class Airport extends NamedEntity {
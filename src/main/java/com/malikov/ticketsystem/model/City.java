@@ -1,6 +1,8 @@
 package com.malikov.ticketsystem.model;
 
 import com.malikov.ticketsystem.util.converter.ZoneIdConverter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.time.ZoneId;
@@ -9,6 +11,8 @@ import java.time.ZoneId;
  * @author Yurii Malikov
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "cities")
 public class City extends NamedEntity {
 
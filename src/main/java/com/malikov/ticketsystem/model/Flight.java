@@ -10,12 +10,34 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 /**
+ * Entity graphs are fetch plans of pages: {@link #GRAPH_WITH_AIRCRAFT} for booking and quotes,
+ * which need seats quantity of aircraft model only, {@link #GRAPH_WITH_AIRPORTS_AND_AIRCRAFT}
+ * for flight lists which show airports with their cities. Public search reads flights of route index,
+ * which are loaded by {@code FlightRepository.getUpcoming} with the same associations fetched by joins.
+ *
  * @author Yurii Malikov
  */
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Flight.GRAPH_WITH_AIRCRAFT,
+                attributeNodes = @NamedAttributeNode(value = "aircraft", subgraph = "aircraft"),
+                subgraphs = @NamedSubgraph(name = "aircraft", attributeNodes = @NamedAttributeNode("model"))),
+        @NamedEntityGraph(name = Flight.GRAPH_WITH_AIRPORTS_AND_AIRCRAFT,
+                attributeNodes = {
+                        @NamedAttributeNode(value = "aircraft", subgraph = "aircraft"),
+                        @NamedAttributeNode(value = "departureAirport", subgraph = "airport"),
+                        @NamedAttributeNode(value = "arrivalAirport", subgraph = "airport")},
+                subgraphs = {
+                        @NamedSubgraph(name = "aircraft", attributeNodes = @NamedAttributeNode("model")),
+                        @NamedSubgraph(name = "airport", attributeNodes = @NamedAttributeNode("city"))})
+})
 @Entity
 @Table(name = "flights")
 public class Flight extends BaseEntity {
 
+    public static final String GRAPH_WITH_AIRCRAFT = "Flight.withAircraft";
+
+    public static final String GRAPH_WITH_AIRPORTS_AND_AIRCRAFT = "Flight.withAirportsAndAircraft";
+
     @OneToOne
     @JoinColumn(name = "departure_airport_id")
     private Airport departureAirport;
@@ -46,6 +68,13 @@ public class Flight extends BaseEntity {
     @Type(type = "org.hibernate.type.NumericBooleanType")
     private Boolean canceled;
 
+    /**
+     * Quantity of booked or purchased tickets. Maintained by ticket repository with UPDATE statements,
+     * so is never written from entity state
+     */
+    @Column(name = "tickets_count", insertable = false, updatable = false)
+    private int ticketsCount;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "flight")
     private List<Ticket> tickets;
 
@@ -146,6 +175,14 @@ public class Flight extends BaseEntity {
         this.canceled = canceled;
     }
 
+    public int getTicketsCount() {
+        return ticketsCount;
+    }
+
+    public void setTicketsCount(int ticketsCount) {
+        this.ticketsCount = ticketsCount;
+    }
+
     public List<Ticket> getTickets() {
         return tickets;
     }
@@ -223,6 +260,7 @@ public class Flight extends BaseEntity {
                 ", initialTicketBasePrice=" + initialTicketBasePrice +
                 ", maxTicketBasePrice=" + maxTicketBasePrice +
                 ", canceled=" + canceled +
+                ", ticketsCount=" + ticketsCount +
                 '}';
     }
 }
@@ -1,5 +1,7 @@
 package com.malikov.ticketsystem.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 
 import javax.persistence.*;
@@ -8,6 +10,8 @@ import javax.persistence.*;
  * @author Yurii Malikov
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "roles", uniqueConstraints = {@UniqueConstraint(columnNames = {"role"},
         name = "unique_role_constraint")})
 @AttributeOverride(name = "name", column = @Column(name = "role"))
@@ -5,6 +5,7 @@ import org.hibernate.annotations.Type;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.math.BigDecimal;
 
 /**
@@ -30,6 +31,12 @@ public class TariffsDetails extends BaseEntity {
     @Type(type = "org.hibernate.type.NumericBooleanType")
     private Boolean active;
 
+    /**
+     * Incremented by every update, so changes made by other nodes are detected by reading version only
+     */
+    @Version
+    @Column(name = "version")
+    private Integer version;
 
     public TariffsDetails() {
     }
@@ -44,6 +51,19 @@ public class TariffsDetails extends BaseEntity {
         this.active = active;
     }
 
+    /**
+     * Detached copy, see TariffsDetailsSnapshotService
+     */
+    public TariffsDetails(TariffsDetails tariffsDetails) {
+        super(tariffsDetails.getId());
+        this.daysCountBeforeTicketPriceStartsToGrow = tariffsDetails.daysCountBeforeTicketPriceStartsToGrow;
+        this.weightOfTimeGrowthFactor = tariffsDetails.weightOfTimeGrowthFactor;
+        this.baggageSurchargeOverMaxBaseTicketPrice = tariffsDetails.baggageSurchargeOverMaxBaseTicketPrice;
+        this.priorityRegistrationAndBoardingTariff = tariffsDetails.priorityRegistrationAndBoardingTariff;
+        this.active = tariffsDetails.active;
+        this.version = tariffsDetails.version;
+    }
+
 
     public Integer getDaysCountBeforeTicketPriceStartsToGrow() {
         return daysCountBeforeTicketPriceStartsToGrow;
@@ -85,6 +105,14 @@ public class TariffsDetails extends BaseEntity {
         this.active = active;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
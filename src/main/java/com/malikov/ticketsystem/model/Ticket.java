@@ -82,6 +82,24 @@ public class Ticket extends BaseEntity {
     @Column(name = "status")
     private TicketStatus status;
 
+    /**
+     * Booking expiration moment, is null when ticket is not booked
+     */
+    @Column(name = "booked_until")
+    private LocalDateTime bookedUntilUtcDateTime;
+
+    /**
+     * Token of expiry batch which has claimed booking, used in cluster booking expiry mode only
+     */
+    @Column(name = "expiry_claim")
+    private String expiryClaim;
+
+    /**
+     * Moment when booking was claimed, claim older than abandoned claim timeout is taken over by another node
+     */
+    @Column(name = "expiry_claimed_at")
+    private LocalDateTime expiryClaimedAtUtcDateTime;
+
 
     public Ticket() {
     }
@@ -247,6 +265,30 @@ public class Ticket extends BaseEntity {
         this.status = status;
     }
 
+    public LocalDateTime getBookedUntilUtcDateTime() {
+        return bookedUntilUtcDateTime;
+    }
+
+    public void setBookedUntilUtcDateTime(LocalDateTime bookedUntilUtcDateTime) {
+        this.bookedUntilUtcDateTime = bookedUntilUtcDateTime;
+    }
+
+    public String getExpiryClaim() {
+        return expiryClaim;
+    }
+
+    public void setExpiryClaim(String expiryClaim) {
+        this.expiryClaim = expiryClaim;
+    }
+
+    public LocalDateTime getExpiryClaimedAtUtcDateTime() {
+        return expiryClaimedAtUtcDateTime;
+    }
+
+    public void setExpiryClaimedAtUtcDateTime(LocalDateTime expiryClaimedAtUtcDateTime) {
+        this.expiryClaimedAtUtcDateTime = expiryClaimedAtUtcDateTime;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
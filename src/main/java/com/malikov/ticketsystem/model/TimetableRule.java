@@ -0,0 +1,169 @@
+package com.malikov.ticketsystem.model;
+
+import com.malikov.ticketsystem.util.converter.DaysOfWeekConverter;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Recurring flight of timetable. Flights are generated for local dates of departure airport city
+ * from validFrom till validTo inclusive, which fall on daysOfWeek. Arrival is departure plus duration,
+ * so arrival local time follows DST changes of both cities.
+ *
+ * @author Yurii Malikov
+ */
+@Entity
+@Table(name = "timetable_rules")
+public class TimetableRule extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "departure_airport_id")
+    private Airport departureAirport;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "arrival_airport_id")
+    private Airport arrivalAirport;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "aircraft_id")
+    private Aircraft aircraft;
+
+    @Column(name = "departure_local_time")
+    private LocalTime departureLocalTime;
+
+    @Column(name = "duration_minutes")
+    private int durationMinutes;
+
+    @Column(name = "days_of_week")
+    @Convert(converter = DaysOfWeekConverter.class)
+    private Set<DayOfWeek> daysOfWeek;
+
+    @Column(name = "valid_from")
+    private LocalDate validFrom;
+
+    @Column(name = "valid_to")
+    private LocalDate validTo;
+
+    @Column(name = "initial_ticket_base_price")
+    private BigDecimal initialTicketBasePrice;
+
+    @Column(name = "max_ticket_base_price")
+    private BigDecimal maxTicketBasePrice;
+
+
+    public TimetableRule() {}
+
+    public TimetableRule(Long id, Airport departureAirport, Airport arrivalAirport, Aircraft aircraft,
+                         LocalTime departureLocalTime, int durationMinutes, Set<DayOfWeek> daysOfWeek,
+                         LocalDate validFrom, LocalDate validTo,
+                         BigDecimal initialTicketBasePrice, BigDecimal maxTicketBasePrice) {
+        super(id);
+        this.departureAirport = departureAirport;
+        this.arrivalAirport = arrivalAirport;
+        this.aircraft = aircraft;
+        this.departureLocalTime = departureLocalTime;
+        this.durationMinutes = durationMinutes;
+        this.daysOfWeek = daysOfWeek;
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+        this.initialTicketBasePrice = initialTicketBasePrice;
+        this.maxTicketBasePrice = maxTicketBasePrice;
+    }
+
+
+    public Airport getDepartureAirport() {
+        return departureAirport;
+    }
+
+    public void setDepartureAirport(Airport departureAirport) {
+        this.departureAirport = departureAirport;
+    }
+
+    public Airport getArrivalAirport() {
+        return arrivalAirport;
+    }
+
+    public void setArrivalAirport(Airport arrivalAirport) {
+        this.arrivalAirport = arrivalAirport;
+    }
+
+    public Aircraft getAircraft() {
+        return aircraft;
+    }
+
+    public void setAircraft(Aircraft aircraft) {
+        this.aircraft = aircraft;
+    }
+
+    public LocalTime getDepartureLocalTime() {
+        return departureLocalTime;
+    }
+
+    public void setDepartureLocalTime(LocalTime departureLocalTime) {
+        this.departureLocalTime = departureLocalTime;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(int durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public BigDecimal getInitialTicketBasePrice() {
+        return initialTicketBasePrice;
+    }
+
+    public void setInitialTicketBasePrice(BigDecimal initialTicketBasePrice) {
+        this.initialTicketBasePrice = initialTicketBasePrice;
+    }
+
+    public BigDecimal getMaxTicketBasePrice() {
+        return maxTicketBasePrice;
+    }
+
+    public void setMaxTicketBasePrice(BigDecimal maxTicketBasePrice) {
+        this.maxTicketBasePrice = maxTicketBasePrice;
+    }
+
+    @Override
+    public String toString() {
+        return "TimetableRule{" +
+                "id=" + getId() +
+                ", departureLocalTime=" + departureLocalTime +
+                ", durationMinutes=" + durationMinutes +
+                ", daysOfWeek=" + daysOfWeek +
+                ", validFrom=" + validFrom +
+                ", validTo=" + validTo +
+                '}';
+    }
+}
@@ -1,11 +1,14 @@
 package com.malikov.ticketsystem.repository;
 
+import com.malikov.ticketsystem.dto.FlightManageableDTO;
 import com.malikov.ticketsystem.model.Airport;
 import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.util.PageCursor;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Yurii Malikov
@@ -13,28 +16,72 @@ import java.util.Map;
 public interface FlightRepository extends GenericRepository<Flight> {
 
     /**
-     * All parameters should be not null.
-     * @param departureAirportCondition filter flights by departure airport
-     * @param arrivalAirportCondition filter flights by arrival airport
-     * @param fromDepartureUtcDateTimeCondition filter flights excluding previous flights
-     *                                          (using departure datetime)
-     * @param toDepartureUtcDateTimeCondition filter flights excluding next to that param flights
-     *                                        (using departure datetime)
-     * @param first excludes from result list firsts flights from
-     *              filtered and ordered by departure date time desc list of flights
-     * @param limit excludes from result list flights next to flights[start + limit] from
-     *              filtered and ordered by departure date time desc list of flights
-     * @return filtered, limited by conditions map of flight as keys and current ticket price
-     *              calculated using tariff details from database.
-     *              Flights without available free tickets are excluded from result map.
-     *              Or returns empty map if not found any
+     * Aircraft and aircraft model are fetched with flight in the same select
+     */
+    @Override
+    Flight get(long id);
+
+    /**
+     * Aircraft, aircraft model, airports and their cities are fetched with flights in the same select
+     */
+    @Override
+    List<Flight> getAll();
+
+    /**
+     * Aircraft and aircraft model are fetched with flights
+     * @return found flights in no particular order. Not found ids are skipped
+     */
+    List<Flight> getByIds(Collection<Long> ids);
+
+    /**
+     * Inserts new flights with JDBC batch bypassing persistence context, so batch is sent
+     * as multi-row statements when rewriteBatchedStatements is enabled for connection.
+     * Airports and aircraft of flights should exist, ids of flights are not set.
+     */
+    void insertAll(List<Flight> flights);
+
+    /**
+     * @return ids of up to limit flights following afterFlightId in id order
+     */
+    List<Long> getIdsAfter(long afterFlightId, int limit);
+
+    /**
+     * Fetch plan of public search: flights are loaded into route index, so aircraft, aircraft model,
+     * airports and their cities are fetched with flights in single statement
+     * @return not canceled flights which depart not earlier than fromDepartureUtcDateTime
+     */
+    List<Flight> getUpcoming(LocalDateTime fromDepartureUtcDateTime);
+
+    /**
+     * Canceled flights are included
+     * @return departure datetimes of route flights which depart in [fromDepartureUtcDateTime, toDepartureUtcDateTime]
+     */
+    Set<LocalDateTime> getDepartureUtcDateTimes(long departureAirportId, long arrivalAirportId,
+                                                LocalDateTime fromDepartureUtcDateTime,
+                                                LocalDateTime toDepartureUtcDateTime);
+
+    /**
+     * @return ids of flights which tickets count differs from quantity of their rows in tickets table
+     */
+    List<Long> getTicketsCountMismatchedIds(Collection<Long> flightIds);
+
+    /**
+     * Sets tickets count of flights to quantity of their rows in tickets table with single statement
+     */
+    void recountTickets(Collection<Long> flightIds);
+
+    /**
+     * Keyset pagination version of
+     * {@link #getFiltered(Airport, Airport, LocalDateTime, LocalDateTime, Integer, Integer)}
+     * @param after cursor of last flight of previous page (flights are ordered by id) or null for first page
      */
-    Map<Flight, Long> getFilteredFlightTicketCountMap(Airport departureAirportCondition, Airport arrivalAirportCondition,
-                                                      LocalDateTime fromDepartureUtcDateTimeCondition,
-                                                      LocalDateTime toDepartureUtcDateTimeCondition,
-                                                      Integer first, Integer limit);
+    List<FlightManageableDTO> getFiltered(Airport departureAirportCondition, Airport arrivalAirportCondition,
+                                          LocalDateTime fromDepartureUtcDateTimeCondition,
+                                          LocalDateTime toDepartureUtcDateTimeCondition,
+                                          PageCursor after, int limit);
 
     /**
+     * Only columns shown in admin grid are selected, straight into DTOs.
      * Any condition may be null.
      * @param departureAirportCondition filter flights by departure airport
      * @param arrivalAirportCondition filter flights by arrival airport
@@ -44,11 +91,11 @@ public interface FlightRepository extends GenericRepository<Flight> {
      *                                        (using departure datetime)
      * @param first excludes from result list first flights
      * @param limit excludes from result list flights next to flights[start + limit]
-     * @return filtered, limited by conditions and ordered by departure datetime desc flights.
+     * @return filtered, limited by conditions and ordered by id flights.
      *              Or returns empty list if not found any.
      */
-    List<Flight> getFiltered(Airport departureAirportCondition, Airport arrivalAirportCondition,
-                             LocalDateTime fromDepartureUtcDateTimeCondition,
-                             LocalDateTime toDepartureUtcDateTimeCondition,
-                             Integer first, Integer limit);
+    List<FlightManageableDTO> getFiltered(Airport departureAirportCondition, Airport arrivalAirportCondition,
+                                          LocalDateTime fromDepartureUtcDateTimeCondition,
+                                          LocalDateTime toDepartureUtcDateTimeCondition,
+                                          Integer first, Integer limit);
 }
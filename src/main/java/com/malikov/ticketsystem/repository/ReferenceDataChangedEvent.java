@@ -0,0 +1,29 @@
+package com.malikov.ticketsystem.repository;
+
+import com.malikov.ticketsystem.model.BaseEntity;
+
+/**
+ * Published by repositories of rarely changed reference data (airports, cities, aircraft) on save and delete,
+ * so in-memory indexes built from this data are rebuilt.
+ *
+ * @author Yurii Malikov
+ */
+public class ReferenceDataChangedEvent {
+
+    private final Class<? extends BaseEntity> entityClass;
+
+    public ReferenceDataChangedEvent(Class<? extends BaseEntity> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    public Class<? extends BaseEntity> getEntityClass() {
+        return entityClass;
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceDataChangedEvent{" +
+                "entityClass=" + entityClass.getSimpleName() +
+                '}';
+    }
+}
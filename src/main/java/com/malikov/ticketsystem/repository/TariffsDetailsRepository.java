@@ -8,7 +8,12 @@ import com.malikov.ticketsystem.model.TariffsDetails;
 public interface TariffsDetailsRepository extends GenericRepository<TariffsDetails> {
 
     /**
-     * @return active tariff details
+     * @return active tariff details or null if no tariff details are active
      */
     TariffsDetails getActiveTariffsDetails();
+
+    /**
+     * @return version of tariff details with id if they are still active, otherwise null
+     */
+    Integer getVersionIfActive(long id);
 }
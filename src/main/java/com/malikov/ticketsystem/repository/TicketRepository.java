@@ -1,10 +1,22 @@
 package com.malikov.ticketsystem.repository;
 
+import com.malikov.ticketsystem.dto.TicketBookingDTO;
+import com.malikov.ticketsystem.dto.TicketDTO;
+import com.malikov.ticketsystem.dto.TicketWithRemainingDelayDTO;
 import com.malikov.ticketsystem.model.Ticket;
+import com.malikov.ticketsystem.util.PageCursor;
+import com.malikov.ticketsystem.util.ticketexport.TicketExportWriter;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
+ * Ticket creation and deletion keep flights.tickets_count up to date in same transaction.
+ * Tickets for grids are selected straight into DTOs, so they are neither hydrated
+ * nor added to persistence context.
+ *
  * @author Yurii Malikov
  */
 public interface TicketRepository extends GenericRepository<Ticket> {
@@ -15,11 +27,31 @@ public interface TicketRepository extends GenericRepository<Ticket> {
      */
     boolean deleteIfNotPaid(long ticketId);
 
+    /**
+     * Deletes tickets which still have status booked with single statement.
+     * Selected tickets are locked till deletion, so concurrent payment can not slip in between.
+     * @return ids of deleted tickets
+     */
+    List<Long> deleteIfNotPaid(Collection<Long> ticketIds);
+
+    /**
+     * Reads only tickets_booked_until_idx index, so is suitable for loading all pending bookings at once
+     * @return bookings of tickets which have booking expiration moment (which are booked and not paid)
+     */
+    List<TicketBookingDTO> getPendingBookings();
 
     /**
-     * @return quantity of booked or purchased tickets for flight
+     * Marks with claimToken and claim moment now up to limit booked tickets which booking has expired
+     * before now and which are not claimed yet. Claims made before abandonedClaimBefore are treated as abandoned
+     * (claiming node has stopped before deleting tickets) and are taken over.
+     * Claim is committed in own transaction, so concurrent claimers do not get same bookings while claim is live.
+     * Claim taken over from node which was only slow may be processed twice, so claimed bookings must be
+     * expired idempotently (see {@link #deleteIfNotPaid(Collection)}).
+     * @return claimed bookings
      */
-    Integer countTickets(Long flightId);
+    List<TicketBookingDTO> claimDueBookings(String claimToken, LocalDateTime now,
+                                            LocalDateTime abandonedClaimBefore, int limit);
+
 
     /**
      * @return numbers of not free seats (which have booked of purchased status) for flight
@@ -32,15 +64,35 @@ public interface TicketRepository extends GenericRepository<Ticket> {
      * @return filtered by user email, limited by conditions tickets
      *              Or returns empty list if not found any.
      */
-    List<Ticket> getByEmail(String userEmail, Integer start, Integer limit);
+    List<TicketDTO> getByEmail(String userEmail, Integer start, Integer limit);
+
+    /**
+     * Keyset pagination version of {@link #getByEmail(String, Integer, Integer)}
+     * @param after cursor of last ticket of previous page (tickets are ordered by departure datetime desc
+     *              and id desc) or null for first page
+     */
+    List<TicketDTO> getByEmail(String userEmail, PageCursor after, int limit);
+
+    /**
+     * Streams tickets ordered by id from forward-only cursor to writer within one read-only transaction,
+     * so memory used does not depend on quantity of tickets. Writer is not closed.
+     */
+    void exportByDepartureUtcDateTime(LocalDateTime fromDepartureUtcDateTime, LocalDateTime toDepartureUtcDateTime,
+                                      TicketExportWriter writer) throws IOException;
 
     /**
      * @param start excludes from result list first tickets
      * @param limit excludes from result list tickets next to tickets[start + limit]
      * @return filtered by user id, limited by conditions active (which flight departure is after current moment)
-     *          tickets. Or returns empty list if not found any.
+     *          tickets without remaining delays. Or returns empty list if not found any.
      */
-    List<Ticket> getActiveByUserId(long userId, Integer start, Integer limit);
+    List<TicketWithRemainingDelayDTO> getActiveByUserId(long userId, Integer start, Integer limit);
+
+    /**
+     * Keyset pagination version of {@link #getActiveByUserId(long, Integer, Integer)}
+     * @param after cursor of last ticket of previous page or null for first page
+     */
+    List<TicketWithRemainingDelayDTO> getActiveByUserId(long userId, PageCursor after, int limit);
 
     /**
      * @param start excludes from result list first tickets
@@ -48,5 +100,11 @@ public interface TicketRepository extends GenericRepository<Ticket> {
      * @return filtered by user id, limited by conditions archived (which flight departure was before current moment)
      *          tickets. Or returns empty list if not found any.
      */
-    List<Ticket> getArchivedByUserId(Long userId, Integer start, Integer limit);
+    List<TicketDTO> getArchivedByUserId(Long userId, Integer start, Integer limit);
+
+    /**
+     * Keyset pagination version of {@link #getArchivedByUserId(Long, Integer, Integer)}
+     * @param after cursor of last ticket of previous page or null for first page
+     */
+    List<TicketDTO> getArchivedByUserId(Long userId, PageCursor after, int limit);
 }
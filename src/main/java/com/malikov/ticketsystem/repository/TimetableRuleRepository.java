@@ -0,0 +1,19 @@
+package com.malikov.ticketsystem.repository;
+
+import com.malikov.ticketsystem.model.TimetableRule;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Airports with their cities and aircraft are fetched with rules
+ *
+ * @author Yurii Malikov
+ */
+public interface TimetableRuleRepository extends GenericRepository<TimetableRule> {
+
+    /**
+     * @return rules which are valid till date or later, ordered by id
+     */
+    List<TimetableRule> getValidTill(LocalDate date);
+}
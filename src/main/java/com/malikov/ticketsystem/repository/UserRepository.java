@@ -28,4 +28,9 @@ public interface UserRepository extends GenericRepository<User> {
      * @return list of user last names found by last name mask
      */
     List<String> getLastNamesBy(String lastNameMask);
+
+    /**
+     * @return id, email and last name of every user
+     */
+    List<Object[]> getAllIdsEmailsAndLastNames();
 }
@@ -38,9 +38,13 @@ public class AircraftModelRepositoryImpl implements AircraftModelRepository {
     @Override
     @Transactional
     public boolean delete(long id) {
-        return em.createQuery("DELETE FROM AircraftModel am WHERE am.id=:id")
+        boolean deleted = em.createQuery("DELETE FROM AircraftModel am WHERE am.id=:id")
                 .setParameter("id", id)
                 .executeUpdate() != 0;
+        if (deleted) {
+            em.getEntityManagerFactory().getCache().evict(AircraftModel.class, id);
+        }
+        return deleted;
     }
 
     @Override
@@ -3,8 +3,11 @@ package com.malikov.ticketsystem.repository.jpa;
 import com.malikov.ticketsystem.model.Aircraft;
 import com.malikov.ticketsystem.model.AircraftModel;
 import com.malikov.ticketsystem.repository.AircraftRepository;
+import com.malikov.ticketsystem.repository.ReferenceDataChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,24 +29,38 @@ public class AircraftRepositoryImpl implements AircraftRepository {
     @PersistenceContext
     protected EntityManager em;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional
     public Aircraft save(Aircraft aircraft) {
         aircraft.setModel(em.getReference(AircraftModel.class, aircraft.getModel().getId()));
+        Aircraft saved;
         if (aircraft.isNew()) {
             em.persist(aircraft);
             LOG.info("New {} created.", aircraft);
-            return aircraft;
+            saved = aircraft;
+        } else {
+            saved = get(aircraft.getId()) != null ? em.merge(aircraft) : null;
+        }
+        if (saved != null) {
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(Aircraft.class));
         }
-        return get(aircraft.getId()) != null ? em.merge(aircraft) : null;
+        return saved;
     }
 
     @Override
     @Transactional
     public boolean delete(long id) {
-        return em.createQuery("DELETE FROM Aircraft a WHERE a.id=:id")
+        boolean deleted = em.createQuery("DELETE FROM Aircraft a WHERE a.id=:id")
                 .setParameter("id", id)
                 .executeUpdate() != 0;
+        if (deleted) {
+            em.getEntityManagerFactory().getCache().evict(Aircraft.class, id);
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(Aircraft.class));
+        }
+        return deleted;
     }
 
     @Override
@@ -3,8 +3,11 @@ package com.malikov.ticketsystem.repository.jpa;
 import com.malikov.ticketsystem.model.Airport;
 import com.malikov.ticketsystem.model.City;
 import com.malikov.ticketsystem.repository.AirportRepository;
+import com.malikov.ticketsystem.repository.ReferenceDataChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,24 +29,38 @@ public class AirportRepositoryImpl implements AirportRepository {
     @PersistenceContext
     protected EntityManager em;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional
     public Airport save(Airport airport) {
         airport.setCity(em.getReference(City.class, airport.getCity().getId()));
+        Airport saved;
         if (airport.isNew()) {
             em.persist(airport);
             LOG.info("New {} created.", airport);
-            return airport;
+            saved = airport;
+        } else {
+            saved = get(airport.getId()) != null ? em.merge(airport) : null;
+        }
+        if (saved != null) {
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(Airport.class));
         }
-        return get(airport.getId()) != null ? em.merge(airport) : null;
+        return saved;
     }
 
     @Override
     @Transactional
     public boolean delete(long id) {
-        return em.createQuery("DELETE FROM Airport a WHERE a.id=:id")
+        boolean deleted = em.createQuery("DELETE FROM Airport a WHERE a.id=:id")
                 .setParameter("id", id)
                 .executeUpdate() != 0;
+        if (deleted) {
+            em.getEntityManagerFactory().getCache().evict(Airport.class, id);
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(Airport.class));
+        }
+        return deleted;
     }
 
     @Override
@@ -2,8 +2,11 @@ package com.malikov.ticketsystem.repository.jpa;
 
 import com.malikov.ticketsystem.model.City;
 import com.malikov.ticketsystem.repository.CityRepository;
+import com.malikov.ticketsystem.repository.ReferenceDataChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,23 +27,37 @@ public class CityRepositoryImpl implements CityRepository {
     @PersistenceContext
     protected EntityManager em;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional
     public City save(City city) {
+        City saved;
         if (city.isNew()) {
             em.persist(city);
             LOG.info("New {} created.", city);
-            return city;
+            saved = city;
+        } else {
+            saved = get(city.getId()) != null ? em.merge(city) : null;
+        }
+        if (saved != null) {
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(City.class));
         }
-        return get(city.getId()) != null ? em.merge(city) : null;
+        return saved;
     }
 
     @Override
     @Transactional
     public boolean delete(long id) {
-        return em.createQuery("DELETE FROM City c WHERE c.id=:id")
+        boolean deleted = em.createQuery("DELETE FROM City c WHERE c.id=:id")
                 .setParameter("id", id)
                 .executeUpdate() != 0;
+        if (deleted) {
+            em.getEntityManagerFactory().getCache().evict(City.class, id);
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(City.class));
+        }
+        return deleted;
     }
 
     @Override
@@ -1,27 +1,35 @@
 package com.malikov.ticketsystem.repository.jpa;
 
+import com.malikov.ticketsystem.dto.FlightManageableDTO;
 import com.malikov.ticketsystem.model.Aircraft;
 import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.City;
 import com.malikov.ticketsystem.model.Flight;
 import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.util.PageCursor;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
-import javax.persistence.Query;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * @author Yurii Malikov
@@ -33,9 +41,21 @@ public class FlightRepositoryImpl implements FlightRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(FlightRepositoryImpl.class);
 
+    /**
+     * Unlike fetch graph, attributes which are not in load graph keep their mapped fetch type
+     */
+    private static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+
+    private static final String INSERT_SQL = "INSERT INTO flights (departure_airport_id, arrival_airport_id, " +
+            "aircraft_id, departure_utc_datetime, arrival_utc_datetime, initial_ticket_base_price, " +
+            "max_ticket_base_price, canceled) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
     @PersistenceContext
     protected EntityManager em;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Override
     @Transactional
     public Flight save(Flight flight) {
@@ -60,59 +80,172 @@ public class FlightRepositoryImpl implements FlightRepository {
 
     @Override
     public Flight get(long id) {
-        return em.find(Flight.class, id);
+        return em.find(Flight.class, id,
+                Collections.singletonMap(LOAD_GRAPH_HINT, em.getEntityGraph(Flight.GRAPH_WITH_AIRCRAFT)));
+    }
+
+    @Override
+    public List<Flight> getByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return em.createQuery("SELECT f FROM Flight f WHERE f.id IN :ids", Flight.class)
+                .setParameter("ids", ids)
+                .setHint(LOAD_GRAPH_HINT, em.getEntityGraph(Flight.GRAPH_WITH_AIRCRAFT))
+                .getResultList();
+    }
+
+    /**
+     * JPA transaction manager exposes its connection to JdbcTemplate, so flights are inserted
+     * in current transaction
+     */
+    @Override
+    @Transactional
+    public void insertAll(List<Flight> flights) {
+        if (flights.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, flights, flights.size(), (preparedStatement, flight) -> {
+            preparedStatement.setLong(1, flight.getDepartureAirport().getId());
+            preparedStatement.setLong(2, flight.getArrivalAirport().getId());
+            preparedStatement.setLong(3, flight.getAircraft().getId());
+            preparedStatement.setTimestamp(4, Timestamp.valueOf(flight.getDepartureUtcDateTime()));
+            preparedStatement.setTimestamp(5, Timestamp.valueOf(flight.getArrivalUtcDateTime()));
+            preparedStatement.setBigDecimal(6, flight.getInitialTicketBasePrice());
+            preparedStatement.setBigDecimal(7, flight.getMaxTicketBasePrice());
+            preparedStatement.setBoolean(8, Boolean.TRUE.equals(flight.isCanceled()));
+        });
+        LOG.info("{} new flights inserted.", flights.size());
+    }
+
+    @Override
+    public List<Long> getIdsAfter(long afterFlightId, int limit) {
+        return em.createQuery("SELECT f.id FROM Flight f WHERE f.id>:afterFlightId ORDER BY f.id ASC", Long.class)
+                .setParameter("afterFlightId", afterFlightId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long> getTicketsCountMismatchedIds(Collection<Long> flightIds) {
+        if (flightIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return em.createQuery("SELECT f.id FROM Flight f WHERE f.id IN :flightIds"
+                + " AND f.ticketsCount<>(SELECT COUNT(t) FROM Ticket t WHERE t.flight=f)", Long.class)
+                .setParameter("flightIds", flightIds)
+                .getResultList();
+    }
+
+    /**
+     * Flight row lock taken by update waits for transactions which have changed counter,
+     * so tickets they have created or deleted are counted.
+     * Update is synchronized with Flight only, so Hibernate does not evict other second level cache regions.
+     */
+    @Override
+    @Transactional
+    public void recountTickets(Collection<Long> flightIds) {
+        if (flightIds.isEmpty()) {
+            return;
+        }
+        em.createNativeQuery("UPDATE flights f SET tickets_count="
+                + "(SELECT COUNT(*) FROM tickets t WHERE t.flight_id=f.id) WHERE f.id IN (:flightIds)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Flight.class)
+                .setParameter("flightIds", flightIds)
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Flight> getUpcoming(LocalDateTime fromDepartureUtcDateTime) {
+        return em.createQuery("SELECT f FROM Flight f"
+                + " JOIN FETCH f.aircraft AS a"
+                + " JOIN FETCH a.model"
+                + " JOIN FETCH f.departureAirport AS da"
+                + " JOIN FETCH da.city"
+                + " JOIN FETCH f.arrivalAirport AS aa"
+                + " JOIN FETCH aa.city"
+                + " WHERE f.departureUtcDateTime>=:fromDepartureUtcDateTime"
+                + " AND (f.canceled IS NULL OR f.canceled=:canceled)"
+                + " ORDER BY f.departureUtcDateTime ASC, f.id ASC", Flight.class)
+                .setParameter("fromDepartureUtcDateTime", fromDepartureUtcDateTime)
+                .setParameter("canceled", false)
+                .getResultList();
+    }
+
+    @Override
+    public Set<LocalDateTime> getDepartureUtcDateTimes(long departureAirportId, long arrivalAirportId,
+                                                       LocalDateTime fromDepartureUtcDateTime,
+                                                       LocalDateTime toDepartureUtcDateTime) {
+        return new HashSet<>(em.createQuery("SELECT f.departureUtcDateTime FROM Flight f"
+                + " WHERE f.departureAirport.id=:departureAirportId AND f.arrivalAirport.id=:arrivalAirportId"
+                + " AND f.departureUtcDateTime BETWEEN :fromDepartureUtcDateTime AND :toDepartureUtcDateTime",
+                LocalDateTime.class)
+                .setParameter("departureAirportId", departureAirportId)
+                .setParameter("arrivalAirportId", arrivalAirportId)
+                .setParameter("fromDepartureUtcDateTime", fromDepartureUtcDateTime)
+                .setParameter("toDepartureUtcDateTime", toDepartureUtcDateTime)
+                .getResultList());
     }
 
     @Override
     public List<Flight> getAll() {
         return em.createQuery("SELECT f FROM Flight f ORDER BY f.id ASC", Flight.class)
+                .setHint(LOAD_GRAPH_HINT, em.getEntityGraph(Flight.GRAPH_WITH_AIRPORTS_AND_AIRCRAFT))
                 .getResultList();
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public Map<Flight, Long> getFilteredFlightTicketCountMap(Airport departureAirportCondition,
-                                                             Airport arrivalAirportCondition,
-                                                             LocalDateTime fromDepartureUtcDateTimeCondition,
-                                                             LocalDateTime toDepartureUtcDateTimeCondition,
-                                                             Integer first, Integer limit) {
-        String queryString = "SELECT f, COUNT(t)"
-                + " FROM Flight f"
-                + " JOIN FETCH f.tickets AS t"
-                + " JOIN f.aircraft"
-                + " JOIN f.aircraft.model AS aircraftmo3_"
-                + " WHERE f.departureAirport=:departureAirport"
-                + " AND f.arrivalAirport=:arrivalAirport"
-                + " AND f.departureUtcDateTime>=:fromDepartureUtcDateTime"
-                + " AND f.departureUtcDateTime<=:toDepartureUtcDateTime"
-                + " GROUP BY t.flight"
-                + " ORDER BY f.id ASC";
-
-        Query query = em.createQuery(queryString);
-        query.setParameter("departureAirport", departureAirportCondition);
-        query.setParameter("arrivalAirport", arrivalAirportCondition);
-        query.setParameter("fromDepartureUtcDateTime", fromDepartureUtcDateTimeCondition);
-        query.setParameter("toDepartureUtcDateTime", toDepartureUtcDateTimeCondition);
-        query.setFirstResult(first);
-        query.setMaxResults(limit);
-
-        return (Map<Flight, Long>) query.getResultList().stream()
-                .collect(Collectors.toMap(resultElement -> (Flight) (((Object[]) resultElement)[0]),
-                                            resultElement -> (Long) (((Object[]) resultElement)[1])));
+    public List<FlightManageableDTO> getFiltered(Airport departureAirport, Airport arrivalAirport,
+                                                 LocalDateTime fromDepartureUtcDateTime,
+                                                 LocalDateTime toDepartureUtcDateTime,
+                                                 Integer first, Integer limit) {
+        return getFiltered(departureAirport, arrivalAirport, fromDepartureUtcDateTime, toDepartureUtcDateTime,
+                null, first, limit);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public List<Flight> getFiltered(Airport departureAirport, Airport arrivalAirport,
-                                    LocalDateTime fromDepartureUtcDateTime,
-                                    LocalDateTime toDepartureUtcDateTime,
-                                    Integer first, Integer limit) {
+    public List<FlightManageableDTO> getFiltered(Airport departureAirport, Airport arrivalAirport,
+                                                 LocalDateTime fromDepartureUtcDateTime,
+                                                 LocalDateTime toDepartureUtcDateTime,
+                                                 PageCursor after, int limit) {
+        return getFiltered(departureAirport, arrivalAirport, fromDepartureUtcDateTime, toDepartureUtcDateTime,
+                after, 0, limit);
+    }
+
+    /**
+     * Selects only columns shown in admin grid, so flights are not hydrated and not added to persistence context
+     */
+    private List<FlightManageableDTO> getFiltered(Airport departureAirport, Airport arrivalAirport,
+                                                  LocalDateTime fromDepartureUtcDateTime,
+                                                  LocalDateTime toDepartureUtcDateTime,
+                                                  PageCursor after, int first, int limit) {
         CriteriaBuilder criteriaBuilder = em.getCriteriaBuilder();
-        CriteriaQuery<Flight> criteriaQuery = criteriaBuilder.createQuery(Flight.class);
+        CriteriaQuery<FlightManageableDTO> criteriaQuery = criteriaBuilder.createQuery(FlightManageableDTO.class);
         Root<Flight> root = criteriaQuery.from(Flight.class);
+        Join<Flight, Airport> departureAirportJoin = root.join("departureAirport");
+        Join<Airport, City> departureCityJoin = departureAirportJoin.join("city");
+        Join<Flight, Airport> arrivalAirportJoin = root.join("arrivalAirport");
+        Join<Airport, City> arrivalCityJoin = arrivalAirportJoin.join("city");
+        criteriaQuery.select(criteriaBuilder.construct(FlightManageableDTO.class,
+                root.get("id"),
+                departureAirportJoin.get("name"),
+                arrivalAirportJoin.get("name"),
+                root.get("departureUtcDateTime"),
+                departureCityJoin.get("zoneId"),
+                root.get("arrivalUtcDateTime"),
+                arrivalCityJoin.get("zoneId"),
+                root.join("aircraft").get("name"),
+                root.get("initialTicketBasePrice"),
+                root.get("maxTicketBasePrice"),
+                root.get("canceled")));
+
+        List<Predicate> filterPredicates = new ArrayList<>(buildPredicatesList(criteriaBuilder, root,
+                departureAirport, arrivalAirport, fromDepartureUtcDateTime, toDepartureUtcDateTime));
 
-        List<Predicate> filterPredicates = buildPredicatesList(criteriaBuilder, root,
-                departureAirport, arrivalAirport, fromDepartureUtcDateTime, toDepartureUtcDateTime);
+        if (after != null) {
+            filterPredicates.add(criteriaBuilder.greaterThan(root.get("id"), after.getId()));
+        }
 
         if (filterPredicates.size() != 0) {
             criteriaQuery.where(criteriaBuilder.and(filterPredicates.toArray(new Predicate[filterPredicates.size()])));
@@ -120,11 +253,10 @@ public class FlightRepositoryImpl implements FlightRepository {
 
         criteriaQuery.orderBy(criteriaBuilder.asc(root.get("id")));
 
-        Query query = em.createQuery(criteriaQuery);
-        query.setFirstResult(first);
-        query.setMaxResults(limit);
-
-        return query.getResultList();
+        return em.createQuery(criteriaQuery)
+                .setFirstResult(first)
+                .setMaxResults(limit)
+                .getResultList();
     }
 
     private List<Predicate> buildPredicatesList(CriteriaBuilder criteriaBuilder, Root<Flight> root,
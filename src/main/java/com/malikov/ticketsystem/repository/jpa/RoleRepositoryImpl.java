@@ -40,8 +40,12 @@ public class RoleRepositoryImpl implements RoleRepository {
     @Override
     @Transactional
     public boolean delete(long id) {
-        return em.createQuery("DELETE FROM Role r WHERE r.id = :id")
+        boolean deleted = em.createQuery("DELETE FROM Role r WHERE r.id = :id")
                 .setParameter("id", id).executeUpdate() != 0;
+        if (deleted) {
+            em.getEntityManagerFactory().getCache().evict(Role.class, id);
+        }
+        return deleted;
     }
 
     @Override
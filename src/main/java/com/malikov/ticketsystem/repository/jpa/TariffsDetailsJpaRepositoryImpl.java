@@ -25,6 +25,7 @@ public class TariffsDetailsJpaRepositoryImpl implements TariffsDetailsRepository
     protected EntityManager em;
 
     @Override
+    @Transactional
     public TariffsDetails save(TariffsDetails tariffsDetails) {
         if (tariffsDetails.isNew()) {
             em.persist(tariffsDetails);
@@ -54,7 +55,18 @@ public class TariffsDetailsJpaRepositoryImpl implements TariffsDetailsRepository
 
     @Override
     public TariffsDetails getActiveTariffsDetails() {
-        return em.createQuery("SELECT td FROM TariffsDetails td WHERE td.active=true", TariffsDetails.class)
-                .getSingleResult();
+        List<TariffsDetails> active = em.createQuery("SELECT td FROM TariffsDetails td WHERE td.active=true",
+                TariffsDetails.class)
+                .getResultList();
+        return active.isEmpty() ? null : active.get(0);
+    }
+
+    @Override
+    public Integer getVersionIfActive(long id) {
+        List<Integer> versions = em.createQuery("SELECT td.version FROM TariffsDetails td " +
+                "WHERE td.id=:id AND td.active=true", Integer.class)
+                .setParameter("id", id)
+                .getResultList();
+        return versions.isEmpty() ? null : versions.get(0);
     }
 }
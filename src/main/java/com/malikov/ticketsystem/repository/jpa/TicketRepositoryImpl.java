@@ -1,20 +1,35 @@
 package com.malikov.ticketsystem.repository.jpa;
 
+import com.malikov.ticketsystem.dto.TicketBookingDTO;
+import com.malikov.ticketsystem.dto.TicketDTO;
+import com.malikov.ticketsystem.dto.TicketWithRemainingDelayDTO;
 import com.malikov.ticketsystem.model.Ticket;
 import com.malikov.ticketsystem.model.TicketStatus;
 import com.malikov.ticketsystem.model.User;
 import com.malikov.ticketsystem.repository.TicketRepository;
+import com.malikov.ticketsystem.util.PageCursor;
+import com.malikov.ticketsystem.util.ticketexport.TicketExportWriter;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.io.IOException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * @author Yurii Malikov
@@ -26,6 +41,22 @@ public class TicketRepositoryImpl implements TicketRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(TicketRepositoryImpl.class);
 
+    private static final String TICKET_COLUMNS = "t.id, t.passengerFirstName, t.passengerLastName, " +
+            "t.departureAirportName, t.arrivalAirportName, t.departureCityName, t.arrivalCityName, " +
+            "t.departureUtcDateTime, t.departureZoneId, t.arrivalOffsetDateTime, t.price, t.hasBaggage, " +
+            "t.hasPriorityRegistration, t.seatNumber, t.status";
+
+    private static final String SELECT_TICKET_DTO =
+            "SELECT new com.malikov.ticketsystem.dto.TicketDTO(" + TICKET_COLUMNS + ") ";
+
+    private static final String SELECT_TICKET_WITH_REMAINING_DELAY_DTO =
+            "SELECT new com.malikov.ticketsystem.dto.TicketWithRemainingDelayDTO(" + TICKET_COLUMNS +
+                    ", t.bookedUntilUtcDateTime) ";
+
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final int EXPORT_CLEAR_PERIOD = 1000;
+
     @PersistenceContext
     protected EntityManager em;
 
@@ -40,46 +71,136 @@ public class TicketRepositoryImpl implements TicketRepository {
         ticket.setUser(em.getReference(User.class, ticket.getUser().getId()));
         if (ticket.isNew()){
             em.persist(ticket);
+            changeTicketsCount(ticket.getFlight().getId(), 1);
             LOG.info("New {} created.", ticket);
             return ticket;
         }
         return get(ticket.getId()) != null ? em.merge(ticket) : null;
     }
 
+    /**
+     * Flight id is taken from ticket which is usually already loaded to persistence context by caller
+     */
     @Override
     @Transactional
     public boolean delete(long id) {
-        return em.createQuery("DELETE FROM Ticket t WHERE t.id=:id")
+        Ticket ticket = get(id);
+        if (ticket == null) {
+            return false;
+        }
+        int deletedQuantity = em.createQuery("DELETE FROM Ticket t WHERE t.id=:id")
                 .setParameter("id", id)
-                .executeUpdate() != 0;
+                .executeUpdate();
+        changeTicketsCount(ticket.getFlight().getId(), -deletedQuantity);
+        return deletedQuantity != 0;
     }
 
     @Override
-    public List<Ticket> getActiveByUserId(long userId, Integer start, Integer limit) {
-        return em.createQuery("SELECT t FROM Ticket t JOIN t.user AS u " +
-                                        "WHERE u.id=:userId AND t.departureUtcDateTime>=:now " +
-                                        "ORDER BY t.departureUtcDateTime " +
-                                        "DESC", Ticket.class)
-                .setParameter("userId", userId)
-                .setParameter("now", LocalDateTime.now(ZoneId.of("UTC")))
+    public List<TicketWithRemainingDelayDTO> getActiveByUserId(long userId, Integer start, Integer limit) {
+        return createActiveByUserIdQuery(userId, null)
                 .setFirstResult(start)
                 .setMaxResults(limit)
                 .getResultList();
     }
 
     @Override
-    public List<Ticket> getArchivedByUserId(Long userId, Integer start, Integer limit) {
-        return em.createQuery("SELECT t FROM Ticket t " +
-                                        "JOIN t.user AS u " +
-                                        "WHERE u.id=:userId AND t.departureUtcDateTime<:now " +
-                                        "ORDER BY t.departureUtcDateTime DESC", Ticket.class)
-                .setParameter("userId", userId)
-                .setParameter("now", LocalDateTime.now(ZoneId.of("UTC")))
+    public List<TicketWithRemainingDelayDTO> getActiveByUserId(long userId, PageCursor after, int limit) {
+        return createActiveByUserIdQuery(userId, after)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<TicketDTO> getArchivedByUserId(Long userId, Integer start, Integer limit) {
+        return createArchivedByUserIdQuery(userId, null)
                 .setFirstResult(start)
                 .setMaxResults(limit)
                 .getResultList();
     }
 
+    @Override
+    public List<TicketDTO> getArchivedByUserId(Long userId, PageCursor after, int limit) {
+        return createArchivedByUserIdQuery(userId, after)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private TypedQuery<TicketWithRemainingDelayDTO> createActiveByUserIdQuery(long userId, PageCursor after) {
+        return createPageQuery(SELECT_TICKET_WITH_REMAINING_DELAY_DTO, TicketWithRemainingDelayDTO.class,
+                "FROM Ticket t WHERE t.user.id=:userId AND t.departureUtcDateTime>=:now", after)
+                .setParameter("userId", userId)
+                .setParameter("now", LocalDateTime.now(ZoneId.of("UTC")));
+    }
+
+    private TypedQuery<TicketDTO> createArchivedByUserIdQuery(Long userId, PageCursor after) {
+        return createPageQuery(SELECT_TICKET_DTO, TicketDTO.class,
+                "FROM Ticket t WHERE t.user.id=:userId AND t.departureUtcDateTime<:now", after)
+                .setParameter("userId", userId)
+                .setParameter("now", LocalDateTime.now(ZoneId.of("UTC")));
+    }
+
+    /**
+     * Tickets are ordered by departure datetime desc and id desc, so rows after cursor are found
+     * by range scan of tickets_user_departure_idx instead of skipping offset rows
+     */
+    private <T> TypedQuery<T> createPageQuery(String select, Class<T> resultClass, String fromWhere,
+                                              PageCursor after) {
+        TypedQuery<T> query = em.createQuery(select + fromWhere +
+                (after != null
+                        ? " AND (t.departureUtcDateTime<:afterDateTime " +
+                                "OR (t.departureUtcDateTime=:afterDateTime AND t.id<:afterId))"
+                        : "") +
+                " ORDER BY t.departureUtcDateTime DESC, t.id DESC", resultClass);
+        if (after != null) {
+            query.setParameter("afterDateTime", after.getSortDateTime())
+                    .setParameter("afterId", after.getId());
+        }
+        return query;
+    }
+
+    @Override
+    public List<TicketBookingDTO> getPendingBookings() {
+        return em.createQuery("SELECT new com.malikov.ticketsystem.dto.TicketBookingDTO(" +
+                                        "t.id, t.flight.id, t.seatNumber, t.bookedUntilUtcDateTime) " +
+                                        "FROM Ticket t WHERE t.bookedUntilUtcDateTime IS NOT NULL",
+                TicketBookingDTO.class)
+                .getResultList();
+    }
+
+    /**
+     * MySQL 5 has no SKIP LOCKED, so bookings are claimed by short UPDATE ... LIMIT transaction instead of
+     * holding row locks while tickets are deleted. Concurrent claimers wait only for this update.
+     * Claimed bookings are then found by tickets_expiry_claim_idx.
+     * Update is synchronized with Ticket only, so Hibernate does not evict other second level cache regions.
+     */
+    @Override
+    @Transactional
+    public List<TicketBookingDTO> claimDueBookings(String claimToken, LocalDateTime now,
+                                                   LocalDateTime abandonedClaimBefore, int limit) {
+        int claimedQuantity = em.createNativeQuery("UPDATE tickets " +
+                                        "SET expiry_claim=:claimToken, expiry_claimed_at=:now " +
+                                        "WHERE status=:status AND booked_until<=:now " +
+                                        "AND (expiry_claim IS NULL OR expiry_claimed_at<=:abandonedClaimBefore) " +
+                                        "ORDER BY booked_until LIMIT :limit")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Ticket.class)
+                .setParameter("claimToken", claimToken)
+                .setParameter("status", TicketStatus.BOOKED.name())
+                .setParameter("now", Timestamp.valueOf(now))
+                .setParameter("abandonedClaimBefore", Timestamp.valueOf(abandonedClaimBefore))
+                .setParameter("limit", limit)
+                .executeUpdate();
+        if (claimedQuantity == 0) {
+            return Collections.emptyList();
+        }
+        return em.createQuery("SELECT new com.malikov.ticketsystem.dto.TicketBookingDTO(" +
+                                        "t.id, t.flight.id, t.seatNumber, t.bookedUntilUtcDateTime) " +
+                                        "FROM Ticket t WHERE t.expiryClaim=:claimToken",
+                TicketBookingDTO.class)
+                .setParameter("claimToken", claimToken)
+                .getResultList();
+    }
+
     @Override
     public List<Integer> getOccupiedSeatNumbers(Long flightId) {
         return em.createQuery("SELECT t.seatNumber FROM Ticket t " +
@@ -88,21 +209,59 @@ public class TicketRepositoryImpl implements TicketRepository {
                 .getResultList();
     }
 
-    @Override
-    public Integer countTickets(Long flightId) {
-        Query query = em.createQuery("SELECT count(t) FROM Ticket t WHERE t.flight.id=:flightId");
-        query.setParameter("flightId", flightId);
-        Long count = (Long)query.getSingleResult();
-        return count != null ? count.intValue() : null;
-    }
-
     @Override
     @Transactional
     public boolean deleteIfNotPaid(long ticketId) {
+        Ticket ticket = get(ticketId);
+        if (ticket == null) {
+            return false;
+        }
         Query query = em.createQuery("DELETE FROM Ticket t WHERE t.id=:ticketId AND t.status=:status");
         query.setParameter("ticketId", ticketId);
         query.setParameter("status", TicketStatus.BOOKED);
-        return query.executeUpdate() != 0;
+        int deletedQuantity = query.executeUpdate();
+        changeTicketsCount(ticket.getFlight().getId(), -deletedQuantity);
+        return deletedQuantity != 0;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> deleteIfNotPaid(Collection<Long> ticketIds) {
+        if (ticketIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object[]> bookedTickets = em.createQuery("SELECT t.id, t.flight.id FROM Ticket t " +
+                                        "WHERE t.id IN :ticketIds AND t.status=:status", Object[].class)
+                .setParameter("ticketIds", ticketIds)
+                .setParameter("status", TicketStatus.BOOKED)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        if (bookedTickets.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> bookedTicketIds = bookedTickets.stream()
+                .map(row -> (Long) row[0])
+                .collect(Collectors.toList());
+        em.createQuery("DELETE FROM Ticket t WHERE t.id IN :ticketIds AND t.status=:status")
+                .setParameter("ticketIds", bookedTicketIds)
+                .setParameter("status", TicketStatus.BOOKED)
+                .executeUpdate();
+        bookedTickets.stream()
+                .collect(Collectors.groupingBy(row -> (Long) row[1], Collectors.counting()))
+                .forEach((flightId, deletedQuantity) -> changeTicketsCount(flightId, -deletedQuantity));
+        return bookedTicketIds;
+    }
+
+    /**
+     * Single UPDATE statement, so concurrent changes of same counter are not lost
+     */
+    private void changeTicketsCount(long flightId, long delta) {
+        if (delta != 0) {
+            em.createQuery("UPDATE Flight f SET f.ticketsCount=f.ticketsCount+:delta WHERE f.id=:flightId")
+                    .setParameter("delta", (int) delta)
+                    .setParameter("flightId", flightId)
+                    .executeUpdate();
+        }
     }
 
     @Override
@@ -112,13 +271,55 @@ public class TicketRepositoryImpl implements TicketRepository {
     }
 
     @Override
-    public List<Ticket> getByEmail(String userEmail, Integer start, Integer limit) {
-        return em.createQuery("SELECT t FROM Ticket t JOIN t.user AS u " +
-                                        "WHERE u.email=:email " +
-                                        "ORDER BY t.departureUtcDateTime DESC", Ticket.class)
-                .setParameter("email", userEmail)
+    public List<TicketDTO> getByEmail(String userEmail, Integer start, Integer limit) {
+        return createByEmailQuery(userEmail, null)
                 .setFirstResult(start)
                 .setMaxResults(limit)
                 .getResultList();
     }
+
+    @Override
+    public List<TicketDTO> getByEmail(String userEmail, PageCursor after, int limit) {
+        return createByEmailQuery(userEmail, after)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * MySQL Connector/J buffers whole result set for any positive fetch size (unless cursor fetch is enabled
+     * for all statements), Integer.MIN_VALUE makes it stream rows one by one. Projection rows are not managed,
+     * persistence context is still cleared periodically, so nothing loaded meanwhile is accumulated.
+     */
+    @Override
+    public void exportByDepartureUtcDateTime(LocalDateTime fromDepartureUtcDateTime,
+                                             LocalDateTime toDepartureUtcDateTime,
+                                             TicketExportWriter writer) throws IOException {
+        ScrollableResults results = em.createQuery(SELECT_TICKET_DTO + "FROM Ticket t " +
+                "WHERE t.departureUtcDateTime BETWEEN :fromDepartureUtcDateTime AND :toDepartureUtcDateTime " +
+                "ORDER BY t.id ASC")
+                .setParameter("fromDepartureUtcDateTime", fromDepartureUtcDateTime)
+                .setParameter("toDepartureUtcDateTime", toDepartureUtcDateTime)
+                .unwrap(org.hibernate.query.Query.class)
+                .setReadOnly(true)
+                .setFetchSize(STREAMING_FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        long exportedQuantity = 0;
+        try {
+            while (results.next()) {
+                writer.write((TicketDTO) results.get(0));
+                if (++exportedQuantity % EXPORT_CLEAR_PERIOD == 0) {
+                    em.clear();
+                }
+            }
+        } finally {
+            results.close();
+        }
+        LOG.info("{} tickets exported.", exportedQuantity);
+    }
+
+    private TypedQuery<TicketDTO> createByEmailQuery(String userEmail, PageCursor after) {
+        return createPageQuery(SELECT_TICKET_DTO, TicketDTO.class, "FROM Ticket t JOIN t.user AS u " +
+                                        "WHERE u.email=:email", after)
+                .setParameter("email", userEmail);
+    }
 }
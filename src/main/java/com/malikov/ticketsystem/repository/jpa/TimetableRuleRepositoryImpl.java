@@ -0,0 +1,80 @@
+package com.malikov.ticketsystem.repository.jpa;
+
+import com.malikov.ticketsystem.model.Aircraft;
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.TimetableRule;
+import com.malikov.ticketsystem.repository.TimetableRuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * @author Yurii Malikov
+ */
+@SuppressWarnings("JpaQlInspection")
+@Repository
+@Transactional(readOnly = true)
+public class TimetableRuleRepositoryImpl implements TimetableRuleRepository {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimetableRuleRepositoryImpl.class);
+
+    private static final String SELECT_WITH_REFERENCES = "SELECT r FROM TimetableRule r " +
+            "JOIN FETCH r.departureAirport da JOIN FETCH da.city " +
+            "JOIN FETCH r.arrivalAirport aa JOIN FETCH aa.city " +
+            "JOIN FETCH r.aircraft a JOIN FETCH a.model ";
+
+    @PersistenceContext
+    protected EntityManager em;
+
+    @Override
+    @Transactional
+    public TimetableRule save(TimetableRule timetableRule) {
+        timetableRule.setDepartureAirport(em.getReference(Airport.class,
+                timetableRule.getDepartureAirport().getId()));
+        timetableRule.setArrivalAirport(em.getReference(Airport.class, timetableRule.getArrivalAirport().getId()));
+        timetableRule.setAircraft(em.getReference(Aircraft.class, timetableRule.getAircraft().getId()));
+        if (timetableRule.isNew()) {
+            em.persist(timetableRule);
+            LOG.info("New {} created.", timetableRule);
+            return timetableRule;
+        }
+        return get(timetableRule.getId()) != null ? em.merge(timetableRule) : null;
+    }
+
+    @Override
+    @Transactional
+    public boolean delete(long id) {
+        return em.createQuery("DELETE FROM TimetableRule r WHERE r.id=:id")
+                .setParameter("id", id)
+                .executeUpdate() != 0;
+    }
+
+    @Override
+    public TimetableRule get(long id) {
+        return DataAccessUtils.singleResult(em.createQuery(SELECT_WITH_REFERENCES +
+                "WHERE r.id=:id", TimetableRule.class)
+                .setParameter("id", id)
+                .getResultList());
+    }
+
+    @Override
+    public List<TimetableRule> getAll() {
+        return em.createQuery(SELECT_WITH_REFERENCES + "ORDER BY r.id ASC", TimetableRule.class)
+                .getResultList();
+    }
+
+    @Override
+    public List<TimetableRule> getValidTill(LocalDate date) {
+        return em.createQuery(SELECT_WITH_REFERENCES +
+                "WHERE r.validTo>=:date ORDER BY r.id ASC", TimetableRule.class)
+                .setParameter("date", date)
+                .getResultList();
+    }
+}
@@ -98,4 +98,10 @@ public class UserRepositoryImpl implements UserRepository {
                 .setParameter("lastNameMask", '%' + lastNameMask + '%')
                 .getResultList();
     }
+
+    @Override
+    public List<Object[]> getAllIdsEmailsAndLastNames() {
+        return em.createQuery("SELECT u.id, u.email, u.lastName FROM User u", Object[].class)
+                .getResultList();
+    }
 }
@@ -15,7 +15,8 @@ public interface AircraftService {
     Aircraft getByName(String name);
 
     /**
-     * @return list of aircraft names which matches nameMask or empty list if not found any
+     * @return limited list of aircraft names which contain nameMask (case insensitive),
+     * names starting with nameMask go first, or empty list if not found any
      */
     List<String> getNamesByNameMask(String nameMask);
 }
@@ -10,12 +10,14 @@ import java.util.List;
 public interface AirportService {
 
     /**
-     * @return airport which full name exactly matches parameter or null if not found
+     * @return airport which full name matches parameter (case insensitive) or null if not found.
+     * Returned airport is shared and must not be changed
      */
     Airport getByName(String name);
 
     /**
-     * @return list of airport names which matches nameMask or empty list if not found any
+     * @return limited list of names of airports which name or city name contains nameMask (case insensitive),
+     * names starting with nameMask go first, or empty list if not found any
      */
     List<String> getNamesByNameMask(String nameMask);
 }
@@ -0,0 +1,31 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.model.Ticket;
+
+import java.time.LocalDateTime;
+
+/**
+ * Removes booked tickets which have not been paid during booking duration and frees their seats.
+ *
+ * @author Yurii Malikov
+ */
+public interface BookingExpiryService {
+
+    /**
+     * Schedules booking expiration once current transaction (if any) is committed.
+     * Expiration moment is taken from ticket booked until datetime.
+     */
+    void schedule(Ticket bookedTicket);
+
+    /**
+     * Cancels booking expiration once current transaction (if any) is committed.
+     * Does nothing if expiration of ticket is not scheduled.
+     */
+    void cancel(long ticketId);
+
+    /**
+     * @param bookedUntilUtcDateTime booking expiration moment of ticket, null if ticket is not booked
+     * @return milliseconds till booking expiration or null if ticket is not booked
+     */
+    Long getRemainingDelay(LocalDateTime bookedUntilUtcDateTime);
+}
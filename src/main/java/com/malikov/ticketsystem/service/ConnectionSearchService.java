@@ -0,0 +1,32 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.dto.ItineraryDTO;
+import com.malikov.ticketsystem.util.exception.NotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Search of journeys with connections over upcoming flights of route index
+ *
+ * @author Yurii Malikov
+ */
+public interface ConnectionSearchService {
+
+    int MAX_STOPS = 2;
+
+    /**
+     * Connection is possible if next flight departs from arrival airport of previous one not earlier than
+     * minimal connection time and not later than maximal layover after its arrival.
+     * Full flights are skipped, journeys do not visit same airport twice.
+     *
+     * @param fromDepartureDateTime first flight departs not earlier (departure airport local datetime)
+     * @param toDepartureDateTime first flight departs not later (departure airport local datetime)
+     * @param maxStops from 0 (direct flights only) to {@link #MAX_STOPS}
+     * @return priced itineraries ordered by arrival datetime, ticket price and departure datetime
+     * @throws NotFoundException if airport not found by name
+     */
+    List<ItineraryDTO> search(String departureAirportName, String arrivalAirportName,
+                              LocalDateTime fromDepartureDateTime, LocalDateTime toDepartureDateTime,
+                              int maxStops) throws NotFoundException;
+}
@@ -0,0 +1,23 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.dto.EntityCacheStatsDTO;
+
+import java.util.Map;
+
+/**
+ * Hibernate second level cache of reference data (cities, airports, aircraft, aircraft models, roles)
+ *
+ * @author Yurii Malikov
+ */
+public interface EntityCacheService {
+
+    /**
+     * @return statistics by cache region name, empty if statistics are not generated
+     */
+    Map<String, EntityCacheStatsDTO> getStats();
+
+    /**
+     * Drops all cached entities, e.g. after reference data has been changed directly in database
+     */
+    void evictAll();
+}
@@ -0,0 +1,38 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.TariffsDetails;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * Cheapest current ticket prices of route flights per departure date. Prices of route day are cached
+ * and are recalculated only for days which could have been changed: when seats of one of day flights
+ * are booked or released, when price of one of day flights grows with time, when indexed flights
+ * or tariff details are changed.
+ *
+ * @author Yurii Malikov
+ */
+public interface FareCalendarService {
+
+    /**
+     * @param month month of departure in departure airport zone
+     * @return minimal current ticket price in micro-units (see MoneyUtil) of not full upcoming flights
+     *          by departure date in departure airport zone, ordered by date. Dates without such flights are absent
+     */
+    Map<LocalDate, Long> getMinTicketPriceMap(TariffsDetails tariffsDetails, Airport departureAirport,
+                                              Airport arrivalAirport, YearMonth month);
+
+    /**
+     * Drops cached price of departure day of flight. Should be called when tickets quantity of flight
+     * could have been changed.
+     */
+    void evict(long flightId);
+
+    /**
+     * Drops all cached prices. Should be called when tariff details are changed.
+     */
+    void evictAll();
+}
@@ -0,0 +1,20 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.dto.FlightImportResultDTO;
+import com.malikov.ticketsystem.util.flightimport.FlightScheduleReader;
+
+import java.io.IOException;
+
+/**
+ * @author Yurii Malikov
+ */
+public interface FlightImportService {
+
+    /**
+     * Creates flights from all valid rows of schedule. Rows are imported by batches, each in own transaction,
+     * so batches inserted before failure of following one stay imported.
+     *
+     * @return quantity of imported flights and reasons why other rows were not imported
+     */
+    FlightImportResultDTO importFlights(FlightScheduleReader reader) throws IOException;
+}
@@ -0,0 +1,45 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.dto.CacheStatsDTO;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.model.TariffsDetails;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of public flight search results. Least recently used results are evicted when cache is full,
+ * results older than configured time to live are searched again. Result is dropped as soon as it could
+ * have been changed: when flights of searched route are changed, when tickets quantity of one of found
+ * flights is changed, when price of one of found flights grows with time and when tariff details are changed.
+ *
+ * @author Yurii Malikov
+ */
+public interface FlightSearchCacheService {
+
+    /**
+     * @param search calculates result from flights of route index departing in searched period
+     * @return cached result of search with same parameters or result of search
+     */
+    Map<Flight, Long> getFlightTicketPriceMap(TariffsDetails tariffsDetails,
+                                              long departureAirportId, long arrivalAirportId,
+                                              LocalDateTime fromDepartureUtcDateTime,
+                                              LocalDateTime toDepartureUtcDateTime,
+                                              int first, int limit,
+                                              Function<List<Flight>, Map<Flight, Long>> search);
+
+    /**
+     * Drops results which contain flight. Should be called when tickets quantity of flight
+     * could have been changed.
+     */
+    void evict(long flightId);
+
+    /**
+     * Drops all results. Should be called when tariff details are changed.
+     */
+    void evictAll();
+
+    CacheStatsDTO getStats();
+}
@@ -1,12 +1,17 @@
 package com.malikov.ticketsystem.service;
 
 import com.malikov.ticketsystem.dto.FlightManageableDTO;
+import com.malikov.ticketsystem.dto.FlightQuoteDTO;
 import com.malikov.ticketsystem.dto.TicketPriceDetailsDTO;
+import com.malikov.ticketsystem.dto.FlightDTO;
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
 import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.util.PageCursor;
 import com.malikov.ticketsystem.util.exception.NotFoundException;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,6 +51,7 @@ public interface FlightService {
     void setCanceledStatus(long flightId, boolean cancelStatus) throws NotFoundException;
 
     /**
+     * Tickets are counted by seat inventory, as in flight search, so booking price matches searched one
      * @return object which has information about pricing policy for flight tickets
      */
     TicketPriceDetailsDTO getTicketPriceDetails(Long flightId);
@@ -55,6 +61,23 @@ public interface FlightService {
      */
     Set<Integer> getFreeSeats(Long flightId);
 
+    /**
+     * Quotes all flights using single flights query. Tickets are counted by seat inventory, as for booking,
+     * so quoted price is the one booking is checked against.
+     * @param flightIds not more than 100 flight ids
+     * @return current prices and free seats quantity in order of flightIds. Not found flights are skipped
+     */
+    List<FlightQuoteDTO> getQuotes(List<Long> flightIds);
+
+    /**
+     * Low-fare calendar of route. All parameters should be not null.
+     * @param month month of departure in departure airport zone
+     * @return minimal current ticket price in micro-units (see MoneyUtil) of not full upcoming flights
+     *          by departure date, ordered by date. Dates without such flights are absent
+     */
+    Map<LocalDate, Long> getMinTicketPriceMap(String departureAirportName, String arrivalAirportName,
+                                              YearMonth month);
+
     /**
      * Any condition may be null.
      * @param departureAirportNameCondition filter flights by departure airport name
@@ -65,13 +88,26 @@ public interface FlightService {
      *                                        (using departure local datetime)
      * @param first excludes from result list first flights
      * @param limit excludes from result list flights next to flights[start + limit]
-     * @return filtered, limited by conditions and ordered by departure datetime desc flights
+     * @return filtered, limited by conditions and ordered by id flights for admin grid
      *              Or returns empty list if not found any.
      */
-    List<Flight> getAllFiltered( String departureAirportNameCondition, String arrivalAirportNameCondition,
-                                 LocalDateTime fromDepartureDateTimeCondition,
-                                 LocalDateTime toDepartureDateTimeCondition,
-                                 Integer first, Integer limit);
+    List<FlightManageableDTO> getAllFiltered(String departureAirportNameCondition,
+                                             String arrivalAirportNameCondition,
+                                             LocalDateTime fromDepartureDateTimeCondition,
+                                             LocalDateTime toDepartureDateTimeCondition,
+                                             Integer first, Integer limit);
+
+    /**
+     * Keyset pagination version of
+     * {@link #getAllFiltered(String, String, LocalDateTime, LocalDateTime, Integer, Integer)}
+     * @param after cursor of last flight of previous page (flights are ordered by id) or null for first page
+     * @param limit page size
+     */
+    KeysetPageDTO<FlightManageableDTO> getAllFilteredPage(String departureAirportNameCondition,
+                                                          String arrivalAirportNameCondition,
+                                                          LocalDateTime fromDepartureDateTimeCondition,
+                                                          LocalDateTime toDepartureDateTimeCondition,
+                                                          PageCursor after, int limit);
 
     /**
      * All parameters should be not null.
@@ -83,12 +119,27 @@ public interface FlightService {
      *                                        (using departure local datetime)
      * @param first excludes from result list first flights
      * @param limit excludes from result list flights next to flights[start + limit]
-     * @return filtered, limited by conditions and ordered by departure datetime desc flights
-     *          with current ticket price.  Full flights excluded. Or returns empty map if not found any.
+     * @return filtered, limited by conditions and ordered by departure datetime flights
+     *          with current ticket price in micro-units (see MoneyUtil). Full, canceled and departed
+     *          flights excluded. Or returns empty map if not found any.
+     */
+    Map<Flight, Long> getFlightTicketPriceMap(String departureAirportNameCondition,
+                                              String arrivalAirportNameCondition,
+                                              LocalDateTime fromDepartureDateTimeCondition,
+                                              LocalDateTime toDepartureDateTimeCondition,
+                                              Integer first, Integer limit);
+
+    /**
+     * Keyset pagination version of
+     * {@link #getFlightTicketPriceMap(String, String, LocalDateTime, LocalDateTime, Integer, Integer)}
+     * @param after cursor of last flight of previous page (flights are ordered by departure datetime and id)
+     *              or null for first page
+     * @param limit page size
+     * @return flights with ticket prices ordered by departure datetime and id
      */
-    Map<Flight, BigDecimal> getFlightTicketPriceMap(String departureAirportNameCondition,
-                                                    String arrivalAirportNameCondition,
-                                                    LocalDateTime fromDepartureDateTimeCondition,
-                                                    LocalDateTime toDepartureDateTimeCondition,
-                                                    Integer first, Integer limit);
+    KeysetPageDTO<FlightDTO> getFlightTicketPricePage(String departureAirportNameCondition,
+                                                      String arrivalAirportNameCondition,
+                                                      LocalDateTime fromDepartureDateTimeCondition,
+                                                      LocalDateTime toDepartureDateTimeCondition,
+                                                      PageCursor after, int limit);
 }
@@ -0,0 +1,63 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.model.Flight;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory index of upcoming not canceled flights by route (departure airport, arrival airport).
+ * Flights of route are kept in array sorted by departure datetime, so flights departing in period
+ * are found by binary search. Index is loaded from database on first access and is kept up to date
+ * by flight creation, update, deletion and cancellation.
+ *
+ * @author Yurii Malikov
+ */
+public interface RouteIndexService {
+
+    /**
+     * @return flights of route which depart in [fromDepartureUtcDateTime, toDepartureUtcDateTime]
+     *          and not earlier than current moment, ordered by departure datetime and id
+     */
+    List<Flight> getFlights(long departureAirportId, long arrivalAirportId,
+                            LocalDateTime fromDepartureUtcDateTime, LocalDateTime toDepartureUtcDateTime);
+
+    /**
+     * @return ids of airports which have upcoming flights from departure airport
+     */
+    Set<Long> getArrivalAirportIds(long departureAirportId);
+
+    /**
+     * @return ids of airports which have upcoming flights to arrival airport
+     */
+    Set<Long> getDepartureAirportIds(long arrivalAirportId);
+
+    /**
+     * @return number which is changed whenever indexed flights are changed or index is reloaded,
+     *          so data derived from index can be checked for staleness
+     */
+    long getVersion();
+
+    /**
+     * @return number which is changed whenever flights of route are changed or index is reloaded
+     */
+    long getRouteVersion(long departureAirportId, long arrivalAirportId);
+
+    /**
+     * Reloads flight from database once current transaction (if any) is committed.
+     * Should be called when flight has been created or changed.
+     */
+    void refresh(long flightId);
+
+    /**
+     * Removes flight once current transaction (if any) is committed
+     */
+    void remove(long flightId);
+
+    /**
+     * Reloads whole index from database once current transaction (if any) is committed.
+     * Should be called when too many flights have been created or changed to refresh them one by one.
+     */
+    void reload();
+}
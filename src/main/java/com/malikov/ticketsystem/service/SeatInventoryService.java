@@ -0,0 +1,60 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.util.exception.NotFoundException;
+import com.malikov.ticketsystem.util.exception.SeatNotFreeException;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * In-memory view of occupied seats per flight. Flight seats are loaded from database on first access
+ * and are kept up to date by booking, ticket removal and booking expiration.
+ *
+ * @author Yurii Malikov
+ */
+public interface SeatInventoryService {
+
+    /**
+     * @return set of free seats numbers of flight
+     * @throws NotFoundException if flight not found by flightId
+     */
+    Set<Integer> getFreeSeats(long flightId) throws NotFoundException;
+
+    /**
+     * @return quantity of booked or purchased seats of flight
+     * @throws NotFoundException if flight not found by flightId
+     */
+    int getOccupiedSeatsQuantity(long flightId) throws NotFoundException;
+
+    /**
+     * Fast check done before booking starts, so request for seat which is already taken is rejected
+     * before ticket price is calculated and before transaction is opened. Seat is not claimed,
+     * {@link #bookSeat} still decides which of concurrent bookings of free seat wins.
+     *
+     * @throws SeatNotFreeException if seat is already booked or purchased
+     * @throws NotFoundException if flight not found by flightId or flight has no seat with seatNumber
+     */
+    void checkSeatIsFree(long flightId, int seatNumber) throws SeatNotFreeException, NotFoundException;
+
+    /**
+     * Atomically claims seat and then runs booking. Seat claim is done in memory, so request for seat
+     * which is already taken is rejected before booking touches database.
+     * Claimed seat is released if booking throws exception or if current transaction (if any) is rolled back.
+     *
+     * @return result of booking
+     * @throws SeatNotFreeException if seat is already booked or purchased
+     * @throws NotFoundException if flight not found by flightId or flight has no seat with seatNumber
+     */
+    <T> T bookSeat(long flightId, int seatNumber, Supplier<T> booking) throws SeatNotFreeException, NotFoundException;
+
+    /**
+     * Marks seat as free once current transaction (if any) is committed
+     */
+    void release(long flightId, int seatNumber);
+
+    /**
+     * Drops loaded seats of flight, so they would be reloaded from database on next access.
+     * Should be called when flight aircraft (and therefore seats quantity) could have been changed.
+     */
+    void evict(long flightId);
+}
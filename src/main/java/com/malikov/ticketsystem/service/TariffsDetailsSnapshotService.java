@@ -0,0 +1,25 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.model.TariffsDetails;
+
+/**
+ * In-memory copy of active tariff details, so pricing does not query database. Snapshot is loaded
+ * at startup and is replaced when tariff details are updated by this node or (if polling is enabled)
+ * when their version is changed by another node.
+ *
+ * @author Yurii Malikov
+ */
+public interface TariffsDetailsSnapshotService {
+
+    /**
+     * @return detached copy of active tariff details, which is shared by all callers and must not be changed,
+     * or null if no tariff details are active
+     */
+    TariffsDetails getActive();
+
+    /**
+     * Reloads snapshot once current transaction (if any) is committed.
+     * Should be called when tariff details have been changed.
+     */
+    void refresh();
+}
@@ -0,0 +1,38 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.model.TariffsDetails;
+
+/**
+ * Calculates current base ticket price of flight. Price grows linearly with quantity of sold tickets
+ * and with days passed since price starts to grow (see tariffs_details description in initDb.sql).
+ * Growth coefficients are calculated once per flight and are reused till flight or tariff is changed.
+ *
+ * @author Yurii Malikov
+ */
+public interface TicketPricingService {
+
+    /**
+     * @param ticketsQuantity current quantity of purchased or booked tickets
+     * @return current ticket price for flight in micro-units (see MoneyUtil) calculated using tariff details
+     *          and ticketsQuantity
+     */
+    long calculateTicketPrice(TariffsDetails tariffsDetails, Flight flight, long ticketsQuantity);
+
+    /**
+     * @return UTC epoch second when ticket price of flight calculated now grows next because of passed time,
+     *          or Long.MAX_VALUE if price does not grow with time
+     */
+    long getNextPriceGrowthEpochSecond(TariffsDetails tariffsDetails, Flight flight);
+
+    /**
+     * Drops price coefficients of flight. Should be called when flight prices, departure or aircraft
+     * could have been changed.
+     */
+    void evict(long flightId);
+
+    /**
+     * Drops price coefficients of all flights. Should be called when tariff details are changed.
+     */
+    void evictAll();
+}
@@ -1,11 +1,16 @@
 package com.malikov.ticketsystem.service;
 
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
 import com.malikov.ticketsystem.dto.TicketDTO;
 import com.malikov.ticketsystem.dto.TicketPriceDetailsDTO;
 import com.malikov.ticketsystem.dto.TicketWithRemainingDelayDTO;
 import com.malikov.ticketsystem.model.Ticket;
+import com.malikov.ticketsystem.util.PageCursor;
 import com.malikov.ticketsystem.util.exception.NotFoundException;
+import com.malikov.ticketsystem.util.ticketexport.TicketExportWriter;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.List;
 
@@ -52,7 +57,22 @@ public interface TicketService {
      *             (last element is resultList[start + limit]
      * @return filtered and limited list of tickets for user with provided email
      */
-    List<Ticket> getByUserEmail(String email, Integer start, Integer limit);
+    List<TicketDTO> getByUserEmail(String email, Integer start, Integer limit);
+
+    /**
+     * Keyset pagination version of {@link #getByUserEmail(String, Integer, Integer)}
+     * @param after cursor of last ticket of previous page or null for first page
+     * @param limit page size
+     */
+    KeysetPageDTO<TicketDTO> getByUserEmailPage(String email, PageCursor after, int limit);
+
+    /**
+     * Writes tickets departing in [fromDepartureUtcDateTime, toDepartureUtcDateTime] to writer as they are read
+     * from database, so any quantity of tickets is exported in constant memory. Writer is neither closed
+     * nor aborted.
+     */
+    void exportByDepartureUtcDateTime(LocalDateTime fromDepartureUtcDateTime, LocalDateTime toDepartureUtcDateTime,
+                                      TicketExportWriter writer) throws IOException;
 
     /**
      * @param userId method searches for ticket of User with userId
@@ -66,6 +86,14 @@ public interface TicketService {
      */
     List<TicketWithRemainingDelayDTO> getActiveTicketsWithDelays(long userId, Integer start, Integer limit);
 
+    /**
+     * Keyset pagination version of {@link #getActiveTicketsWithDelays(long, Integer, Integer)}
+     * @param after cursor of last ticket of previous page or null for first page
+     * @param limit page size
+     */
+    KeysetPageDTO<TicketWithRemainingDelayDTO> getActiveTicketsWithDelaysPage(long userId, PageCursor after,
+                                                                              int limit);
+
     /**
      * @param userId method searches for ticket of User with userId
      * @param start enforce query ignore particular quantity of first results in list.
@@ -75,4 +103,11 @@ public interface TicketService {
      * @return active tickets (which departure datetime is <b>before</b> current moment)
      */
     List<TicketDTO> getArchivedTickets(Long userId, Integer start, Integer limit);
+
+    /**
+     * Keyset pagination version of {@link #getArchivedTickets(Long, Integer, Integer)}
+     * @param after cursor of last ticket of previous page or null for first page
+     * @param limit page size
+     */
+    KeysetPageDTO<TicketDTO> getArchivedTicketsPage(Long userId, PageCursor after, int limit);
 }
@@ -0,0 +1,17 @@
+package com.malikov.ticketsystem.service;
+
+/**
+ * Verifies flights tickets counters against tickets table. Flights are checked in small batches,
+ * so tickets table is never scanned at once.
+ *
+ * @author Yurii Malikov
+ */
+public interface TicketsCountReconciliationService {
+
+    /**
+     * Checks next batch of flights in id order (starting over after last flight)
+     * and recounts tickets of flights which counter differs from tickets table
+     * @return quantity of corrected counters
+     */
+    int reconcileNextBatch();
+}
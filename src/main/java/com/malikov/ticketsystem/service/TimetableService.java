@@ -0,0 +1,35 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.dto.TimetableRuleDTO;
+import com.malikov.ticketsystem.model.TimetableRule;
+import com.malikov.ticketsystem.util.exception.NotFoundException;
+
+import java.util.List;
+
+/**
+ * @author Yurii Malikov
+ */
+public interface TimetableService {
+
+    List<TimetableRuleDTO> getAll();
+
+    /**
+     * Flights of rule are not created till next {@link #generateFlights()}
+     * @return created rule
+     */
+    TimetableRule create(TimetableRuleDTO timetableRuleDTO);
+
+    /**
+     * Flights already generated by rule are kept
+     * @throws NotFoundException if not found by timetableRuleId
+     */
+    void delete(long timetableRuleId) throws NotFoundException;
+
+    /**
+     * Creates flights of rules which depart from now till generation horizon and are missing,
+     * i.e. there is no flight (canceled too) of same route departing at same moment.
+     * So generation may be repeated any time, already generated or manually created flights are not duplicated.
+     * @return quantity of created flights
+     */
+    int generateFlights();
+}
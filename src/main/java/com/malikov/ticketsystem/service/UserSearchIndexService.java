@@ -0,0 +1,41 @@
+package com.malikov.ticketsystem.service;
+
+import com.malikov.ticketsystem.model.User;
+
+import java.util.List;
+
+/**
+ * In-memory index of emails and last names of all users for autocomplete in admin console.
+ * Index is loaded from database on first access and is kept up to date by user creation, update and deletion.
+ *
+ * @author Yurii Malikov
+ */
+public interface UserSearchIndexService {
+
+    /**
+     * @return limited list of user emails which contain emailMask (case insensitive),
+     * emails starting with emailMask go first
+     */
+    List<String> getEmailsByMask(String emailMask);
+
+    /**
+     * @return limited list of distinct user last names which contain lastNameMask (case insensitive),
+     * last names starting with lastNameMask go first
+     */
+    List<String> getLastNamesByMask(String lastNameMask);
+
+    /**
+     * Created user is indexed once current transaction is committed
+     */
+    void add(User user);
+
+    /**
+     * Index is changed once current transaction is committed
+     */
+    void update(String previousEmail, String previousLastName, User user);
+
+    /**
+     * Deleted user is removed from index once current transaction is committed
+     */
+    void remove(User user);
+}
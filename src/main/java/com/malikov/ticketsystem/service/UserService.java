@@ -41,7 +41,7 @@ public interface UserService {
     User getByEmail(String email) throws NotFoundException;
 
     /**
-     * @return user emails found by emailMask
+     * @return limited list of user emails found by emailMask, emails starting with emailMask go first
      */
     List<String> getEmailsByMask(String emailMask);
 
@@ -51,7 +51,8 @@ public interface UserService {
     List<User> getByLastName(String lastName);
 
     /**
-     * @return list of user last names found by lastNameMask
+     * @return limited list of distinct user last names found by lastNameMask,
+     * last names starting with lastNameMask go first
      */
     List<String> getLastNamesByMask(String lastNameMask);
 }
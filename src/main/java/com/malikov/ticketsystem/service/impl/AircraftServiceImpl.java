@@ -2,14 +2,21 @@ package com.malikov.ticketsystem.service.impl;
 
 import com.malikov.ticketsystem.model.Aircraft;
 import com.malikov.ticketsystem.repository.AircraftRepository;
+import com.malikov.ticketsystem.repository.ReferenceDataChangedEvent;
 import com.malikov.ticketsystem.service.AircraftService;
+import com.malikov.ticketsystem.util.search.NGramIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
+ * Aircraft are found for autocomplete by name in memory, index is rebuilt on first search after aircraft is changed.
+ *
  * @author Yurii Malikov
  */
 @Service
@@ -18,6 +25,16 @@ public class AircraftServiceImpl implements AircraftService {
     @Autowired
     private AircraftRepository repository;
 
+    @Value("${autocomplete.maxResults:10}")
+    private int autocompleteMaxResults;
+
+    private volatile NGramIndex<Aircraft> namesIndex;
+
+    /**
+     * Index loaded concurrently with change is not published, guarded by this
+     */
+    private long changesCount;
+
     @Override
     public Aircraft getByName(String name) {
         return repository.getByName(name);
@@ -25,8 +42,33 @@ public class AircraftServiceImpl implements AircraftService {
 
     @Override
     public List<String> getNamesByNameMask(String nameMask) {
-        return repository.getByNameMask(nameMask).stream()
+        return getNamesIndex().search(nameMask, autocompleteMaxResults).stream()
                 .map(Aircraft::getName)
                 .collect(Collectors.toList());
     }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        if (event.getEntityClass() == Aircraft.class) {
+            changesCount++;
+            namesIndex = null;
+        }
+    }
+
+    private NGramIndex<Aircraft> getNamesIndex() {
+        NGramIndex<Aircraft> index = namesIndex;
+        if (index == null) {
+            long loadedChangesCount;
+            synchronized (this) {
+                loadedChangesCount = changesCount;
+            }
+            index = new NGramIndex<>(repository.getAll(), aircraft -> Collections.singletonList(aircraft.getName()));
+            synchronized (this) {
+                if (loadedChangesCount == changesCount) {
+                    namesIndex = index;
+                }
+            }
+        }
+        return index;
+    }
 }
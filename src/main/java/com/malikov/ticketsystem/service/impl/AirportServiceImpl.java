@@ -1,34 +1,103 @@
 package com.malikov.ticketsystem.service.impl;
 
 import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.City;
 import com.malikov.ticketsystem.repository.AirportRepository;
+import com.malikov.ticketsystem.repository.ReferenceDataChangedEvent;
 import com.malikov.ticketsystem.service.AirportService;
+import com.malikov.ticketsystem.util.search.NGramIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
+ * Airports are kept in memory: they are resolved by name on every search, booking and flight change,
+ * and found for autocomplete by airport or city name. Airports are reloaded on first access
+ * after airport or city is changed.
+ *
  * @author Yurii Malikov
  */
 @Service
-@Transactional
 public class AirportServiceImpl implements AirportService {
 
     @Autowired
     private AirportRepository airportRepository;
 
+    @Value("${autocomplete.maxResults:10}")
+    private int autocompleteMaxResults;
+
+    private volatile LoadedAirports loadedAirports;
+
+    /**
+     * Airports loaded concurrently with change are not published, guarded by this
+     */
+    private long changesCount;
+
     @Override
     public List<String> getNamesByNameMask(String nameMask) {
-        return airportRepository.getByNameMask(nameMask).stream()
+        return getLoadedAirports().namesIndex.search(nameMask, autocompleteMaxResults).stream()
                 .map(Airport::getName)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Airport getByName(String name) {
-        return airportRepository.getByName(name);
+        return name != null ? getLoadedAirports().airportsByName.get(normalize(name)) : null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        if (event.getEntityClass() == Airport.class || event.getEntityClass() == City.class) {
+            changesCount++;
+            loadedAirports = null;
+        }
+    }
+
+    private LoadedAirports getLoadedAirports() {
+        LoadedAirports loaded = loadedAirports;
+        if (loaded == null) {
+            long loadedChangesCount;
+            synchronized (this) {
+                loadedChangesCount = changesCount;
+            }
+            loaded = new LoadedAirports(airportRepository.getAll());
+            synchronized (this) {
+                if (loadedChangesCount == changesCount) {
+                    loadedAirports = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Names are compared case insensitive, as by lower(name) = lower(:name) in database
+     */
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class LoadedAirports {
+
+        private final Map<String, Airport> airportsByName;
+
+        private final NGramIndex<Airport> namesIndex;
+
+        private LoadedAirports(List<Airport> airports) {
+            Map<String, Airport> airportsByName = new HashMap<>(airports.size() * 4 / 3 + 1);
+            airports.forEach(airport -> airportsByName.put(normalize(airport.getName()), airport));
+            this.airportsByName = Collections.unmodifiableMap(airportsByName);
+            this.namesIndex = new NGramIndex<>(airports,
+                    airport -> Arrays.asList(airport.getName(), airport.getCity().getName()));
+        }
     }
 }
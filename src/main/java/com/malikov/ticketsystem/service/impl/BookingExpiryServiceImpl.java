@@ -0,0 +1,219 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.dto.TicketBookingDTO;
+import com.malikov.ticketsystem.model.Ticket;
+import com.malikov.ticketsystem.repository.TicketRepository;
+import com.malikov.ticketsystem.service.BookingExpiryService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.util.scheduling.HashedTimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.malikov.ticketsystem.util.TransactionUtil.runAfterCommit;
+
+/**
+ * All pending bookings share single timing wheel which is advanced by injected task scheduler,
+ * so pending bookings quantity does not affect threads quantity.
+ * Booking expiration moment is stored in ticket row, so pending bookings are rescheduled after restart.
+ * <p>
+ * In cluster mode (booking.expiry.mode=cluster) timing wheel is not used: on every tick node claims batches
+ * of due bookings in database and deletes claimed tickets, so bookings are expired by any running node.
+ * Live claim keeps booking from other nodes, but claim taken over after ABANDONED_CLAIM_MILLIS could still
+ * be processed by its slow owner as well. Deletion of still BOOKED tickets under row lock makes it harmless:
+ * ticket is deleted and its seat is released once.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class BookingExpiryServiceImpl implements BookingExpiryService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookingExpiryServiceImpl.class);
+
+    private static final long TICK_DURATION_MILLIS = 1000;
+
+    private static final int TICKS_PER_WHEEL = 256;
+
+    /**
+     * Limits length of IN list of single delete statement
+     */
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    /**
+     * Claimed bookings are deleted within milliseconds, so claim which is still present this long
+     * after it was made belongs to stopped node
+     */
+    private static final long ABANDONED_CLAIM_MILLIS = 60_000;
+
+    private static final String CLUSTER_EXPIRY_MODE = "cluster";
+
+    private final ConcurrentMap<Long, HashedTimingWheel.Timeout<TicketBookingDTO>> ticketIdTimeoutMap =
+            new ConcurrentHashMap<>();
+
+    private final HashedTimingWheel<TicketBookingDTO> timingWheel =
+            new HashedTimingWheel<>(TICK_DURATION_MILLIS, TICKS_PER_WHEEL, System.currentTimeMillis());
+
+    private final AtomicBoolean recovered = new AtomicBoolean();
+
+    private ScheduledFuture<?> ticking;
+
+    @Value("${booking.expiry.mode:local}")
+    private String expiryMode;
+
+    @Autowired
+    private TaskScheduler scheduler;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @PostConstruct
+    public void startTicking() {
+        ticking = scheduler.scheduleAtFixedRate(isClusterMode()
+                ? this::claimAndExpireDueBookings
+                : this::expireElapsedBookings, TICK_DURATION_MILLIS);
+        LOG.info("Booking expiry started in {} mode.", isClusterMode() ? CLUSTER_EXPIRY_MODE : "local");
+    }
+
+    @PreDestroy
+    public void stopTicking() {
+        if (ticking != null) {
+            ticking.cancel(false);
+        }
+    }
+
+    /**
+     * Reschedules bookings which were pending when application stopped. Bookings expired during downtime
+     * are deleted on first tick. Context refresh event is published by both root and web contexts,
+     * so recovery is guarded to run once.
+     */
+    @EventListener
+    public void recoverPendingBookings(ContextRefreshedEvent event) {
+        if (isClusterMode() || !recovered.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<TicketBookingDTO> pendingBookings = ticketRepository.getPendingBookings();
+        for (TicketBookingDTO ticketBooking : pendingBookings) {
+            ticketIdTimeoutMap.computeIfAbsent(ticketBooking.getId(), ticketId ->
+                    timingWheel.schedule(ticketBooking, toMillis(ticketBooking.getBookedUntilUtcDateTime())));
+        }
+        LOG.info("{} pending bookings recovered in {} ms.", pendingBookings.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void schedule(Ticket bookedTicket) {
+        if (isClusterMode()) {
+            return;
+        }
+        TicketBookingDTO ticketBooking = new TicketBookingDTO(bookedTicket.getId(),
+                bookedTicket.getFlight().getId(), bookedTicket.getSeatNumber(),
+                bookedTicket.getBookedUntilUtcDateTime());
+        long deadlineMillis = toMillis(ticketBooking.getBookedUntilUtcDateTime());
+        runAfterCommit(() -> {
+            ticketIdTimeoutMap.put(ticketBooking.getId(), timingWheel.schedule(ticketBooking, deadlineMillis));
+            LOG.info("Expiration of booking {} scheduled.", ticketBooking);
+        });
+    }
+
+    @Override
+    public void cancel(long ticketId) {
+        if (isClusterMode()) {
+            return;
+        }
+        runAfterCommit(() -> {
+            HashedTimingWheel.Timeout<TicketBookingDTO> timeout = ticketIdTimeoutMap.remove(ticketId);
+            if (timeout != null && timeout.cancel()) {
+                LOG.info("Expiration of booking for ticket with id={} canceled.", ticketId);
+            }
+        });
+    }
+
+    @Override
+    public Long getRemainingDelay(LocalDateTime bookedUntilUtcDateTime) {
+        return bookedUntilUtcDateTime != null
+                ? Math.max(0, toMillis(bookedUntilUtcDateTime) - System.currentTimeMillis())
+                : null;
+    }
+
+    /**
+     * Runs on scheduler thread only. Bookings expired during tick are deleted with one statement
+     * per DELETE_BATCH_SIZE bookings. Exceptions are not propagated,
+     * because periodic task is not executed anymore after it throws exception.
+     */
+    void expireElapsedBookings() {
+        List<TicketBookingDTO> expiredBookings = timingWheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < expiredBookings.size(); from += DELETE_BATCH_SIZE) {
+            expireBookings(expiredBookings.subList(from, Math.min(from + DELETE_BATCH_SIZE, expiredBookings.size())));
+        }
+    }
+
+    /**
+     * Runs on scheduler thread only, in cluster mode. Claims due bookings till there are no full batches left.
+     */
+    void claimAndExpireDueBookings() {
+        try {
+            List<TicketBookingDTO> claimedBookings;
+            do {
+                LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+                claimedBookings = ticketRepository.claimDueBookings(UUID.randomUUID().toString(), now,
+                        now.minus(ABANDONED_CLAIM_MILLIS, ChronoUnit.MILLIS), DELETE_BATCH_SIZE);
+                if (!claimedBookings.isEmpty()) {
+                    expireBookings(claimedBookings);
+                }
+            } while (claimedBookings.size() == DELETE_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            LOG.error("Claiming of due bookings failed.", e);
+        }
+    }
+
+    private boolean isClusterMode() {
+        return CLUSTER_EXPIRY_MODE.equals(expiryMode);
+    }
+
+    private static long toMillis(LocalDateTime utcDateTime) {
+        return utcDateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private void expireBookings(List<TicketBookingDTO> expiredBookings) {
+        Map<Long, TicketBookingDTO> ticketIdBookingMap = new LinkedHashMap<>();
+        for (TicketBookingDTO ticketBooking : expiredBookings) {
+            ticketIdTimeoutMap.remove(ticketBooking.getId());
+            ticketIdBookingMap.put(ticketBooking.getId(), ticketBooking);
+        }
+        try {
+            List<Long> deletedTicketIds = ticketRepository.deleteIfNotPaid(ticketIdBookingMap.keySet());
+            for (Long ticketId : deletedTicketIds) {
+                TicketBookingDTO ticketBooking = ticketIdBookingMap.get(ticketId);
+                seatInventoryService.release(ticketBooking.getFlightId(), ticketBooking.getSeatNumber());
+            }
+            LOG.info("{} bookings expired, {} unpaid tickets deleted.", expiredBookings.size(),
+                    deletedTicketIds.size());
+        } catch (RuntimeException e) {
+            LOG.error("Expiration of bookings " + ticketIdBookingMap.keySet() + " failed.", e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.dto.FlightDTO;
+import com.malikov.ticketsystem.dto.ItineraryDTO;
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.model.TariffsDetails;
+import com.malikov.ticketsystem.service.AirportService;
+import com.malikov.ticketsystem.service.ConnectionSearchService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.service.TariffsDetailsSnapshotService;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.dtoconverter.FlightDTOConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceAware;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.malikov.ticketsystem.util.MessageUtil.getMessage;
+import static com.malikov.ticketsystem.util.ValidationUtil.*;
+
+/**
+ * Round based search (like RAPTOR): round k extends journeys of k - 1 flights arrived to intermediate airports
+ * by flights of routes from these airports departing within connection window. Flights of route are found by
+ * binary search in route index. Journeys are extended only to airports from which arrival airport is reachable
+ * with remaining quantity of flights, so most of routes are never scanned.
+ * Journeys ending with same flight are compared like labels of stop in RAPTOR round: only journey which departs
+ * latest is extended (see {@link #findJourneys}), so each round extends at most one journey per flight.
+ * All datetimes are compared in UTC, so connections between airports of different time zones are correct.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class ConnectionSearchServiceImpl implements ConnectionSearchService, MessageSourceAware {
+
+    private static final Comparator<Journey> ARRIVAL_COMPARATOR =
+            Comparator.comparing(journey -> journey.flight.getArrivalUtcDateTime());
+
+    private static final Comparator<Journey> JOURNEY_COMPARATOR =
+            Comparator.comparing((Journey journey) -> journey.flight.getArrivalUtcDateTime())
+                    .thenComparingLong(journey -> journey.ticketsPrice)
+                    .thenComparing(journey -> journey.firstDepartureUtcDateTime);
+
+    private MessageSource messageSource;
+
+    @Value("${connection.minConnectionMinutes:60}")
+    private long minConnectionMinutes;
+
+    @Value("${connection.maxLayoverMinutes:720}")
+    private long maxLayoverMinutes;
+
+    @Value("${connection.maxItineraries:50}")
+    private int maxItineraries;
+
+    @Autowired
+    private AirportService airportService;
+
+    @Autowired
+    private TariffsDetailsSnapshotService tariffsDetailsSnapshotService;
+
+    @Autowired
+    private RouteIndexService routeIndexService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private TicketPricingService ticketPricingService;
+
+    @Override
+    public List<ItineraryDTO> search(String departureAirportName, String arrivalAirportName,
+                                     LocalDateTime fromDepartureDateTime, LocalDateTime toDepartureDateTime,
+                                     int maxStops) {
+        validate(maxStops >= 0 && maxStops <= MAX_STOPS,
+                getMessage(messageSource, "exception.tooManyStops") + MAX_STOPS);
+
+        Airport departureAirport = checkNotFound(airportService.getByName(departureAirportName),
+                getMessage(messageSource, "exception.notFoundByName") + departureAirportName);
+        Airport arrivalAirport = checkNotFound(airportService.getByName(arrivalAirportName),
+                getMessage(messageSource, "exception.notFoundByName") + arrivalAirportName);
+        checkNotEqual(departureAirport, arrivalAirport, getMessage(messageSource, "exception.mustNotBeSame"));
+
+        LocalDateTime fromDepartureUtcDateTime = DateTimeUtil.zoneIdToUtc(fromDepartureDateTime,
+                departureAirport.getCity().getZoneId());
+        LocalDateTime toDepartureUtcDateTime = DateTimeUtil.zoneIdToUtc(toDepartureDateTime,
+                departureAirport.getCity().getZoneId());
+        validateFromToDates(fromDepartureUtcDateTime, toDepartureUtcDateTime,
+                getMessage(messageSource, "exception.fromCannotBeAfterTo"));
+
+        TariffsDetails tariffsDetails = checkNotFound(tariffsDetailsSnapshotService.getActive(),
+                getMessage(messageSource, "exception.notFoundByActiveTariffDetails"));
+
+        List<Journey> arrivedJourneys = findJourneys(departureAirport.getId(), arrivalAirport.getId(),
+                fromDepartureUtcDateTime, toDepartureUtcDateTime, maxStops + 1);
+        return priceAndSort(arrivedJourneys, tariffsDetails);
+    }
+
+    /**
+     * Journey which ends with same flight as other one, but departs earlier (or departs at same time
+     * with more flights), is dominated: it arrives to same airport at same time, and everything reachable
+     * after it is reachable after better one. Rounds go in order of flights quantity, so best journey per flight
+     * found in earlier rounds prunes dominated journeys of later ones, and better journey found later in round
+     * replaces dominated one of same round.
+     * Journeys ending with different flights are not compared: next flight must depart within layover window
+     * after arrival, so journey arrived to airport earlier does not replace journey arrived later.
+     */
+    private List<Journey> findJourneys(long departureAirportId, long arrivalAirportId,
+                                       LocalDateTime fromDepartureUtcDateTime, LocalDateTime toDepartureUtcDateTime,
+                                       int maxFlights) {
+        List<Set<Long>> reachingAirportIds = getReachingAirportIds(arrivalAirportId, maxFlights - 1);
+        // best journey by id of its last flight
+        Map<Long, Journey> bestJourneyMap = new HashMap<>();
+        List<Journey> arrivedJourneys = new ArrayList<>();
+        // null is journey which has not started yet
+        Collection<Journey> journeys = Collections.singletonList(null);
+
+        for (int round = 1; round <= maxFlights && !journeys.isEmpty(); round++) {
+            int remainingFlights = maxFlights - round;
+            Map<Long, Journey> nextJourneyMap = new LinkedHashMap<>();
+            Map<Long, Journey> arrivedJourneyMap = new LinkedHashMap<>();
+            for (Journey journey : journeys) {
+                long airportId = journey == null ? departureAirportId : journey.flight.getArrivalAirport().getId();
+                LocalDateTime fromUtcDateTime = journey == null ? fromDepartureUtcDateTime
+                        : journey.flight.getArrivalUtcDateTime().plusMinutes(minConnectionMinutes);
+                LocalDateTime toUtcDateTime = journey == null ? toDepartureUtcDateTime
+                        : journey.flight.getArrivalUtcDateTime().plusMinutes(maxLayoverMinutes);
+
+                for (long nextAirportId : routeIndexService.getArrivalAirportIds(airportId)) {
+                    boolean arrived = nextAirportId == arrivalAirportId;
+                    if (!arrived && (remainingFlights == 0
+                            || !reachingAirportIds.get(remainingFlights).contains(nextAirportId)
+                            || nextAirportId == departureAirportId
+                            || journey != null && journey.visits(nextAirportId))) {
+                        continue;
+                    }
+                    for (Flight flight : routeIndexService.getFlights(airportId, nextAirportId,
+                            fromUtcDateTime, toUtcDateTime)) {
+                        Journey nextJourney = new Journey(journey, flight);
+                        Journey bestJourney = bestJourneyMap.get(flight.getId());
+                        if (bestJourney == null || nextJourney.firstDepartureUtcDateTime
+                                .isAfter(bestJourney.firstDepartureUtcDateTime)) {
+                            bestJourneyMap.put(flight.getId(), nextJourney);
+                            (arrived ? arrivedJourneyMap : nextJourneyMap).put(flight.getId(), nextJourney);
+                        }
+                    }
+                }
+            }
+            arrivedJourneys.addAll(arrivedJourneyMap.values());
+            journeys = nextJourneyMap.values();
+        }
+        return arrivedJourneys;
+    }
+
+    /**
+     * @return list where element k is set of airports from which arrival airport is reachable
+     *          with at most k flights
+     */
+    private List<Set<Long>> getReachingAirportIds(long arrivalAirportId, int maxFlights) {
+        List<Set<Long>> reachingAirportIds = new ArrayList<>(maxFlights + 1);
+        reachingAirportIds.add(Collections.singleton(arrivalAirportId));
+        for (int flights = 1; flights <= maxFlights; flights++) {
+            Set<Long> airportIds = new HashSet<>(reachingAirportIds.get(flights - 1));
+            for (long airportId : reachingAirportIds.get(flights - 1)) {
+                airportIds.addAll(routeIndexService.getDepartureAirportIds(airportId));
+            }
+            reachingAirportIds.add(airportIds);
+        }
+        return reachingAirportIds;
+    }
+
+    /**
+     * Flights are priced after search in order of journeys arrival. Pricing stops once maxItineraries journeys
+     * with free seats are priced and journeys arriving at same time as last of them (which could be cheaper)
+     * are priced too, so seats are loaded only for flights of journeys which can be returned.
+     * Journeys with full flights are dropped.
+     */
+    private List<ItineraryDTO> priceAndSort(List<Journey> arrivedJourneys, TariffsDetails tariffsDetails) {
+        arrivedJourneys.sort(ARRIVAL_COMPARATOR);
+        // price of flight by id, null if flight is full
+        Map<Long, Long> ticketPriceMap = new HashMap<>();
+        List<Journey> pricedJourneys = new ArrayList<>();
+        for (Journey arrivedJourney : arrivedJourneys) {
+            if (pricedJourneys.size() >= maxItineraries && !pricedJourneys.isEmpty()
+                    && ARRIVAL_COMPARATOR.compare(arrivedJourney, pricedJourneys.get(pricedJourneys.size() - 1)) > 0) {
+                break;
+            }
+            boolean hasFreeSeats = true;
+            long ticketsPrice = 0;
+            for (Journey journey = arrivedJourney; journey != null && hasFreeSeats; journey = journey.previous) {
+                Flight flight = journey.flight;
+                Long ticketPrice = ticketPriceMap.computeIfAbsent(flight.getId(),
+                        flightId -> getTicketPrice(tariffsDetails, flight));
+                hasFreeSeats = ticketPrice != null;
+                ticketsPrice += hasFreeSeats ? ticketPrice : 0;
+            }
+            if (hasFreeSeats) {
+                arrivedJourney.ticketsPrice = ticketsPrice;
+                pricedJourneys.add(arrivedJourney);
+            }
+        }
+        pricedJourneys.sort(JOURNEY_COMPARATOR);
+
+        List<ItineraryDTO> itineraries = new ArrayList<>(Math.min(maxItineraries, pricedJourneys.size()));
+        for (Journey arrivedJourney : pricedJourneys.subList(0, Math.min(maxItineraries, pricedJourneys.size()))) {
+            List<FlightDTO> flightDTOs = new ArrayList<>();
+            for (Journey journey = arrivedJourney; journey != null; journey = journey.previous) {
+                flightDTOs.add(FlightDTOConverter.asDTO(journey.flight, ticketPriceMap.get(journey.flight.getId())));
+            }
+            Collections.reverse(flightDTOs);
+            itineraries.add(new ItineraryDTO(flightDTOs, arrivedJourney.ticketsPrice));
+        }
+        return itineraries;
+    }
+
+    private Long getTicketPrice(TariffsDetails tariffsDetails, Flight flight) {
+        int ticketsQuantity = seatInventoryService.getOccupiedSeatsQuantity(flight.getId());
+        return flight.getAircraft().getModel().getPassengerSeatsQuantity() > ticketsQuantity
+                ? ticketPricingService.calculateTicketPrice(tariffsDetails, flight, ticketsQuantity)
+                : null;
+    }
+
+    @Override
+    public void setMessageSource(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Last flight of journey with link to journey before it
+     */
+    private static final class Journey {
+
+        private final Journey previous;
+
+        private final Flight flight;
+
+        private final LocalDateTime firstDepartureUtcDateTime;
+
+        private long ticketsPrice;
+
+        Journey(Journey previous, Flight flight) {
+            this.previous = previous;
+            this.flight = flight;
+            this.firstDepartureUtcDateTime = previous == null
+                    ? flight.getDepartureUtcDateTime()
+                    : previous.firstDepartureUtcDateTime;
+        }
+
+        boolean visits(long airportId) {
+            for (Journey journey = this; journey != null; journey = journey.previous) {
+                if (journey.flight.getDepartureAirport().getId() == airportId
+                        || journey.flight.getArrivalAirport().getId() == airportId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.dto.EntityCacheStatsDTO;
+import com.malikov.ticketsystem.service.EntityCacheService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author Yurii Malikov
+ */
+@Service
+public class EntityCacheServiceImpl implements EntityCacheService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCacheServiceImpl.class);
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Map<String, EntityCacheStatsDTO> getStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return Collections.emptyMap();
+        }
+        Map<String, EntityCacheStatsDTO> stats = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics(regionName);
+            stats.put(regionName, new EntityCacheStatsDTO(regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(), regionStatistics.getPutCount(),
+                    regionStatistics.getElementCountInMemory()));
+        }
+        return stats;
+    }
+
+    @Override
+    public void evictAll() {
+        entityManagerFactory.getCache().evictAll();
+        LOG.info("Second level cache evicted.");
+    }
+}
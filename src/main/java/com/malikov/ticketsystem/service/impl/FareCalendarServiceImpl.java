@@ -0,0 +1,221 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.model.TariffsDetails;
+import com.malikov.ticketsystem.service.FareCalendarService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Day price is calculated from flights of route index and tickets quantities of seat inventory, so calendar
+ * of month does not touch database. Flights of calculated days are remembered, so booking or release of seat
+ * drops price of single day of flight route.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class FareCalendarServiceImpl implements FareCalendarService {
+
+    private static final long NO_FARE = -1;
+
+    private final ConcurrentMap<DayKey, DayFare> dayFareMap = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, DayKey> flightDayKeyMap = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented by every eviction, so price calculated concurrently with eviction is not cached
+     */
+    private final AtomicLong evictionsCount = new AtomicLong();
+
+    private volatile long purgedEpochDay;
+
+    @Autowired
+    private RouteIndexService routeIndexService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private TicketPricingService ticketPricingService;
+
+    @Override
+    public Map<LocalDate, Long> getMinTicketPriceMap(TariffsDetails tariffsDetails, Airport departureAirport,
+                                                     Airport arrivalAirport, YearMonth month) {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+        long nowEpochSecond = now.toEpochSecond(ZoneOffset.UTC);
+        purgeDepartedDays(now.toLocalDate());
+        // read before flights, so days calculated from index changed in between are recalculated on next call
+        long routeIndexVersion = routeIndexService.getVersion();
+        ZoneId zoneId = departureAirport.getCity().getZoneId();
+
+        Map<LocalDate, Long> minTicketPriceMap = new LinkedHashMap<>();
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            LocalDate date = month.atDay(day);
+            LocalDateTime toDepartureUtcDateTime = DateTimeUtil.zoneIdToUtc(date.plusDays(1).atStartOfDay(), zoneId)
+                    .minusSeconds(1);
+            if (toDepartureUtcDateTime.isBefore(now)) {
+                continue;
+            }
+            DayKey dayKey = new DayKey(departureAirport.getId(), arrivalAirport.getId(), date);
+            DayFare dayFare = dayFareMap.get(dayKey);
+            if (dayFare == null || !dayFare.isValid(tariffsDetails, routeIndexVersion, nowEpochSecond)) {
+                dayFare = calculate(tariffsDetails, dayKey, DateTimeUtil.zoneIdToUtc(date.atStartOfDay(), zoneId),
+                        toDepartureUtcDateTime, routeIndexVersion);
+            }
+            if (dayFare.minTicketPrice != NO_FARE) {
+                minTicketPriceMap.put(date, dayFare.minTicketPrice);
+            }
+        }
+        return minTicketPriceMap;
+    }
+
+    @Override
+    public void evict(long flightId) {
+        DayKey dayKey = flightDayKeyMap.remove(flightId);
+        if (dayKey != null) {
+            evictionsCount.incrementAndGet();
+            dayFareMap.remove(dayKey);
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        evictionsCount.incrementAndGet();
+        dayFareMap.clear();
+        flightDayKeyMap.clear();
+    }
+
+    /**
+     * Flights are remembered before their tickets quantities are read, so seat booked after reading
+     * finds day to be evicted
+     */
+    private DayFare calculate(TariffsDetails tariffsDetails, DayKey dayKey, LocalDateTime fromDepartureUtcDateTime,
+                              LocalDateTime toDepartureUtcDateTime, long routeIndexVersion) {
+        long evictions = evictionsCount.get();
+        List<Flight> flights = routeIndexService.getFlights(dayKey.departureAirportId, dayKey.arrivalAirportId,
+                fromDepartureUtcDateTime, toDepartureUtcDateTime);
+        flights.forEach(flight -> flightDayKeyMap.put(flight.getId(), dayKey));
+
+        long minTicketPrice = NO_FARE;
+        long validUntilEpochSecond = Long.MAX_VALUE;
+        for (Flight flight : flights) {
+            validUntilEpochSecond = Math.min(validUntilEpochSecond,
+                    flight.getDepartureUtcDateTime().toEpochSecond(ZoneOffset.UTC));
+            int ticketsQuantity = seatInventoryService.getOccupiedSeatsQuantity(flight.getId());
+            if (flight.getAircraft().getModel().getPassengerSeatsQuantity() <= ticketsQuantity) {
+                continue;
+            }
+            long ticketPrice = ticketPricingService.calculateTicketPrice(tariffsDetails, flight, ticketsQuantity);
+            if (minTicketPrice == NO_FARE || ticketPrice < minTicketPrice) {
+                minTicketPrice = ticketPrice;
+            }
+            validUntilEpochSecond = Math.min(validUntilEpochSecond,
+                    ticketPricingService.getNextPriceGrowthEpochSecond(tariffsDetails, flight));
+        }
+
+        DayFare dayFare = new DayFare(tariffsDetails, routeIndexVersion, minTicketPrice, validUntilEpochSecond);
+        dayFareMap.put(dayKey, dayFare);
+        if (evictionsCount.get() != evictions) {
+            dayFareMap.remove(dayKey, dayFare);
+        }
+        return dayFare;
+    }
+
+    /**
+     * Runs once per UTC day. Local date of any zone is not earlier than previous UTC date,
+     * so days before it have no upcoming flights.
+     */
+    private void purgeDepartedDays(LocalDate utcDate) {
+        if (purgedEpochDay == utcDate.toEpochDay()) {
+            return;
+        }
+        purgedEpochDay = utcDate.toEpochDay();
+        LocalDate departedDate = utcDate.minusDays(1);
+        dayFareMap.keySet().removeIf(dayKey -> dayKey.date.isBefore(departedDate));
+        flightDayKeyMap.values().removeIf(dayKey -> dayKey.date.isBefore(departedDate));
+    }
+
+    private static final class DayKey {
+
+        private final long departureAirportId;
+
+        private final long arrivalAirportId;
+
+        private final LocalDate date;
+
+        DayKey(long departureAirportId, long arrivalAirportId, LocalDate date) {
+            this.departureAirportId = departureAirportId;
+            this.arrivalAirportId = arrivalAirportId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            DayKey that = (DayKey) o;
+
+            return departureAirportId == that.departureAirportId && arrivalAirportId == that.arrivalAirportId
+                    && date.equals(that.date);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(departureAirportId);
+            result = 31 * result + Long.hashCode(arrivalAirportId);
+            result = 31 * result + date.hashCode();
+            return result;
+        }
+    }
+
+    /**
+     * Cheapest price of day which stays actual till first departure or price growth of day flights
+     */
+    private static final class DayFare {
+
+        private final Long tariffsDetailsId;
+
+        private final Integer tariffsDetailsVersion;
+
+        private final long routeIndexVersion;
+
+        private final long minTicketPrice;
+
+        private final long validUntilEpochSecond;
+
+        DayFare(TariffsDetails tariffsDetails, long routeIndexVersion, long minTicketPrice,
+                long validUntilEpochSecond) {
+            this.tariffsDetailsId = tariffsDetails.getId();
+            this.tariffsDetailsVersion = tariffsDetails.getVersion();
+            this.routeIndexVersion = routeIndexVersion;
+            this.minTicketPrice = minTicketPrice;
+            this.validUntilEpochSecond = validUntilEpochSecond;
+        }
+
+        boolean isValid(TariffsDetails tariffsDetails, long routeIndexVersion, long nowEpochSecond) {
+            return Objects.equals(tariffsDetailsId, tariffsDetails.getId())
+                    && Objects.equals(tariffsDetailsVersion, tariffsDetails.getVersion())
+                    && this.routeIndexVersion == routeIndexVersion
+                    && nowEpochSecond < validUntilEpochSecond;
+        }
+    }
+}
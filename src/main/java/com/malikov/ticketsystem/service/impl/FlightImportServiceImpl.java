@@ -0,0 +1,264 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.dto.FlightImportErrorDTO;
+import com.malikov.ticketsystem.dto.FlightImportResultDTO;
+import com.malikov.ticketsystem.model.Aircraft;
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.service.AircraftService;
+import com.malikov.ticketsystem.service.AirportService;
+import com.malikov.ticketsystem.service.FlightImportService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.flightimport.FlightScheduleReader;
+import com.malikov.ticketsystem.util.flightimport.FlightScheduleRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceAware;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static com.malikov.ticketsystem.util.MessageUtil.getMessage;
+import static com.malikov.ticketsystem.util.ValidationUtil.*;
+
+/**
+ * Rows are read and imported by batches of batchSize, so memory used does not depend on schedule size.
+ * Rows of batch are validated in parallel against airports and aircraft looked up once per name,
+ * valid ones are inserted with one JDBC batch. Failed batch is rolled back and its flights are inserted
+ * one by one, so only rows rejected by database are reported.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class FlightImportServiceImpl implements FlightImportService, MessageSourceAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlightImportServiceImpl.class);
+
+    /**
+     * Prices are stored as DECIMAL(13, 6)
+     */
+    private static final int PRICE_SCALE = 6;
+
+    private static final int PRICE_INTEGER_DIGITS = 7;
+
+    private MessageSource messageSource;
+
+    @Value("${flights.import.batchSize:1000}")
+    private int batchSize;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private AirportService airportService;
+
+    @Autowired
+    private AircraftService aircraftService;
+
+    @Autowired
+    private RouteIndexService routeIndexService;
+
+    @Override
+    public FlightImportResultDTO importFlights(FlightScheduleReader reader) throws IOException {
+        long startNanos = System.nanoTime();
+        // messages depend on locale of request thread, so they are resolved before parallel validation
+        Messages messages = new Messages();
+        Map<String, Optional<Aircraft>> aircraftByNames = new HashMap<>();
+        List<FlightImportErrorDTO> errors = new ArrayList<>();
+        int importedQuantity = 0;
+
+        List<FlightScheduleRow> rows = new ArrayList<>(batchSize);
+        FlightScheduleRow row;
+        do {
+            row = reader.next();
+            if (row != null) {
+                rows.add(row);
+            }
+            if (rows.size() == batchSize || (row == null && !rows.isEmpty())) {
+                importedQuantity += importBatch(rows, aircraftByNames, messages, errors);
+                rows.clear();
+            }
+        } while (row != null);
+
+        if (importedQuantity > 0) {
+            routeIndexService.reload();
+        }
+        LOG.info("{} flights imported, {} rows rejected in {} ms.", importedQuantity, errors.size(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return new FlightImportResultDTO(importedQuantity, errors);
+    }
+
+    private int importBatch(List<FlightScheduleRow> rows, Map<String, Optional<Aircraft>> aircraftByNames,
+                            Messages messages, List<FlightImportErrorDTO> errors) {
+        // aircraft are loaded from database, so they are looked up sequentially and validation is done in memory
+        rows.stream()
+                .map(scheduleRow -> scheduleRow.get(FlightScheduleRow.AIRCRAFT_NAME))
+                .filter(name -> name != null && !aircraftByNames.containsKey(name))
+                .distinct()
+                .forEach(name -> aircraftByNames.put(name, Optional.ofNullable(aircraftService.getByName(name))));
+
+        List<ValidatedRow> validatedRows = rows.parallelStream()
+                .map(scheduleRow -> validate(scheduleRow, aircraftByNames, messages))
+                .collect(Collectors.toList());
+
+        List<ValidatedRow> validRows = new ArrayList<>(validatedRows.size());
+        for (ValidatedRow validatedRow : validatedRows) {
+            if (validatedRow.flight != null) {
+                validRows.add(validatedRow);
+            } else {
+                errors.add(new FlightImportErrorDTO(validatedRow.rowNumber, validatedRow.error));
+            }
+        }
+        if (validRows.isEmpty()) {
+            return 0;
+        }
+
+        String error = insert(validRows);
+        if (error == null) {
+            return validRows.size();
+        }
+        LOG.warn("Batch of {} flights is not imported: {}", validRows.size(), error);
+        int importedQuantity = 0;
+        for (ValidatedRow validRow : validRows) {
+            String rowError = validRows.size() > 1 ? insert(Collections.singletonList(validRow)) : error;
+            if (rowError == null) {
+                importedQuantity++;
+            } else {
+                errors.add(new FlightImportErrorDTO(validRow.rowNumber, rowError));
+            }
+        }
+        errors.sort((first, second) -> Integer.compare(first.getRowNumber(), second.getRowNumber()));
+        return importedQuantity;
+    }
+
+    /**
+     * @return null if flights of rows are inserted, otherwise message of database error
+     */
+    private String insert(List<ValidatedRow> validRows) {
+        try {
+            flightRepository.insertAll(validRows.stream()
+                    .map(validRow -> validRow.flight)
+                    .collect(Collectors.toList()));
+            return null;
+        } catch (DataAccessException e) {
+            return getRootCause(e).getMessage();
+        }
+    }
+
+    private ValidatedRow validate(FlightScheduleRow row, Map<String, Optional<Aircraft>> aircraftByNames,
+                                  Messages messages) {
+        try {
+            Airport departureAirport = getAirport(row, FlightScheduleRow.DEPARTURE_AIRPORT, messages);
+            Airport arrivalAirport = getAirport(row, FlightScheduleRow.ARRIVAL_AIRPORT, messages);
+            checkNotEqual(departureAirport, arrivalAirport, messages.mustNotBeSame);
+
+            LocalDateTime departureUtcDateTime = DateTimeUtil.zoneIdToUtc(
+                    getDateTime(row, FlightScheduleRow.DEPARTURE_LOCAL_DATE_TIME, messages),
+                    departureAirport.getCity().getZoneId());
+            LocalDateTime arrivalUtcDateTime = DateTimeUtil.zoneIdToUtc(
+                    getDateTime(row, FlightScheduleRow.ARRIVAL_LOCAL_DATE_TIME, messages),
+                    arrivalAirport.getCity().getZoneId());
+            validateFromToDates(departureUtcDateTime, arrivalUtcDateTime, messages.fromCannotBeAfterTo);
+
+            String aircraftName = getRequired(row, FlightScheduleRow.AIRCRAFT_NAME, messages);
+            Aircraft aircraft = checkNotFound(aircraftByNames.get(aircraftName).orElse(null),
+                    messages.notFoundByName + aircraftName);
+
+            BigDecimal initialTicketBasePrice = getPrice(row, FlightScheduleRow.INITIAL_BASE_TICKET_PRICE, messages);
+            BigDecimal maxTicketBasePrice = getPrice(row, FlightScheduleRow.MAX_BASE_TICKET_PRICE, messages);
+            validate(initialTicketBasePrice.compareTo(maxTicketBasePrice) <= 0, messages.initialPriceCantBeGreater);
+
+            return new ValidatedRow(row.getRowNumber(), new Flight(departureAirport, arrivalAirport, aircraft,
+                    departureUtcDateTime, arrivalUtcDateTime, initialTicketBasePrice, maxTicketBasePrice), null);
+        } catch (RuntimeException e) {
+            return new ValidatedRow(row.getRowNumber(), null, e.getMessage());
+        }
+    }
+
+    private Airport getAirport(FlightScheduleRow row, String column, Messages messages) {
+        String name = getRequired(row, column, messages);
+        return checkNotFound(airportService.getByName(name), messages.notFoundByName + name);
+    }
+
+    private LocalDateTime getDateTime(FlightScheduleRow row, String column, Messages messages) {
+        String value = getRequired(row, column, messages);
+        try {
+            return DateTimeUtil.parseToLocalDateTime(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + messages.invalidValue + value);
+        }
+    }
+
+    private BigDecimal getPrice(FlightScheduleRow row, String column, Messages messages) {
+        String value = getRequired(row, column, messages);
+        try {
+            BigDecimal price = new BigDecimal(value);
+            validate(price.signum() >= 0 && price.scale() <= PRICE_SCALE
+                            && price.precision() - price.scale() <= PRICE_INTEGER_DIGITS,
+                    column + messages.invalidValue + value);
+            return price;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + messages.invalidValue + value);
+        }
+    }
+
+    private String getRequired(FlightScheduleRow row, String column, Messages messages) {
+        String value = row.get(column);
+        validate(value != null, column + messages.mustBeFilled);
+        return value;
+    }
+
+    @Override
+    public void setMessageSource(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    private final class Messages {
+
+        private final String mustBeFilled = getMessage(messageSource, "exception.mustBeFilled");
+
+        private final String invalidValue = getMessage(messageSource, "exception.invalidValue");
+
+        private final String notFoundByName = getMessage(messageSource, "exception.notFoundByName");
+
+        private final String mustNotBeSame = getMessage(messageSource, "exception.mustNotBeSame");
+
+        private final String fromCannotBeAfterTo = getMessage(messageSource, "exception.fromCannotBeAfterTo");
+
+        private final String initialPriceCantBeGreater = getMessage(messageSource, "flight.initialPriceCantBeGreater");
+    }
+
+    private static final class ValidatedRow {
+
+        private final int rowNumber;
+
+        /**
+         * Null if row is not valid
+         */
+        private final Flight flight;
+
+        private final String error;
+
+        private ValidatedRow(int rowNumber, Flight flight, String error) {
+            this.rowNumber = rowNumber;
+            this.flight = flight;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.dto.CacheStatsDTO;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.model.TariffsDetails;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Results are kept in access ordered map, so least recently used result is first to be evicted.
+ * Search itself is done without lock. Result is not cached if any result has been evicted by flight
+ * while it was searched, as it could have read tickets quantity which has been changed in between.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class FlightSearchCacheServiceImpl implements FlightSearchCacheService {
+
+    /**
+     * 0 means search results are not cached
+     */
+    @Value("${search.cache.maxSize:10000}")
+    private int maxSize;
+
+    @Value("${search.cache.timeToLiveMillis:60000}")
+    private long timeToLiveMillis;
+
+    @Autowired
+    private RouteIndexService routeIndexService;
+
+    @Autowired
+    private TicketPricingService ticketPricingService;
+
+    // fields below are guarded by this
+    private final LinkedHashMap<SearchKey, CachedSearch> cachedSearchMap = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<Long, Set<SearchKey>> flightSearchKeysMap = new HashMap<>();
+
+    private long flightEvictionsCount;
+
+    private long hitsCount;
+
+    private long missesCount;
+
+    private long evictionsCount;
+
+    @Override
+    public Map<Flight, Long> getFlightTicketPriceMap(TariffsDetails tariffsDetails,
+                                                     long departureAirportId, long arrivalAirportId,
+                                                     LocalDateTime fromDepartureUtcDateTime,
+                                                     LocalDateTime toDepartureUtcDateTime,
+                                                     int first, int limit,
+                                                     Function<List<Flight>, Map<Flight, Long>> search) {
+        SearchKey searchKey = new SearchKey(departureAirportId, arrivalAirportId,
+                fromDepartureUtcDateTime, toDepartureUtcDateTime, first, limit);
+        long nowMillis = System.currentTimeMillis();
+        long nowEpochSecond = LocalDateTime.now(ZoneId.of("UTC")).toEpochSecond(ZoneOffset.UTC);
+        // read before flights, so result found from route changed in between is searched again on next call
+        long routeVersion = routeIndexService.getRouteVersion(departureAirportId, arrivalAirportId);
+
+        long searchFlightEvictionsCount;
+        synchronized (this) {
+            CachedSearch cachedSearch = cachedSearchMap.get(searchKey);
+            if (cachedSearch != null && cachedSearch.isValid(tariffsDetails, routeVersion, nowMillis, nowEpochSecond)) {
+                hitsCount++;
+                return cachedSearch.flightTicketPriceMap;
+            }
+            if (cachedSearch != null) {
+                remove(searchKey);
+            }
+            missesCount++;
+            searchFlightEvictionsCount = flightEvictionsCount;
+        }
+
+        List<Flight> flights = routeIndexService.getFlights(departureAirportId, arrivalAirportId,
+                fromDepartureUtcDateTime, toDepartureUtcDateTime);
+        Map<Flight, Long> flightTicketPriceMap = Collections.unmodifiableMap(search.apply(flights));
+        if (maxSize <= 0) {
+            return flightTicketPriceMap;
+        }
+
+        long validUntilEpochSecond = Long.MAX_VALUE;
+        for (Flight flight : flights) {
+            validUntilEpochSecond = Math.min(validUntilEpochSecond,
+                    Math.min(flight.getDepartureUtcDateTime().toEpochSecond(ZoneOffset.UTC),
+                            ticketPricingService.getNextPriceGrowthEpochSecond(tariffsDetails, flight)));
+        }
+        CachedSearch cachedSearch = new CachedSearch(flightTicketPriceMap, flights, tariffsDetails,
+                routeVersion, nowMillis + timeToLiveMillis, validUntilEpochSecond);
+
+        synchronized (this) {
+            if (searchFlightEvictionsCount == flightEvictionsCount) {
+                put(searchKey, cachedSearch);
+            }
+        }
+        return flightTicketPriceMap;
+    }
+
+    @Override
+    public synchronized void evict(long flightId) {
+        flightEvictionsCount++;
+        Set<SearchKey> searchKeys = flightSearchKeysMap.get(flightId);
+        if (searchKeys != null) {
+            new HashSet<>(searchKeys).forEach(this::remove);
+        }
+    }
+
+    @Override
+    public synchronized void evictAll() {
+        flightEvictionsCount++;
+        evictionsCount += cachedSearchMap.size();
+        cachedSearchMap.clear();
+        flightSearchKeysMap.clear();
+    }
+
+    @Override
+    public synchronized CacheStatsDTO getStats() {
+        return new CacheStatsDTO(hitsCount, missesCount, evictionsCount, cachedSearchMap.size());
+    }
+
+    private void put(SearchKey searchKey, CachedSearch cachedSearch) {
+        if (cachedSearchMap.containsKey(searchKey)) {
+            remove(searchKey);
+        }
+        cachedSearchMap.put(searchKey, cachedSearch);
+        for (long flightId : cachedSearch.flightIds) {
+            flightSearchKeysMap.computeIfAbsent(flightId, id -> new HashSet<>()).add(searchKey);
+        }
+        Iterator<Map.Entry<SearchKey, CachedSearch>> leastRecentlyUsed = cachedSearchMap.entrySet().iterator();
+        while (cachedSearchMap.size() > maxSize) {
+            Map.Entry<SearchKey, CachedSearch> evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            removeFlightSearchKeys(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    private void remove(SearchKey searchKey) {
+        CachedSearch cachedSearch = cachedSearchMap.remove(searchKey);
+        if (cachedSearch != null) {
+            removeFlightSearchKeys(searchKey, cachedSearch);
+        }
+    }
+
+    /**
+     * Called for result which has just been removed from cachedSearchMap
+     */
+    private void removeFlightSearchKeys(SearchKey searchKey, CachedSearch cachedSearch) {
+        evictionsCount++;
+        for (long flightId : cachedSearch.flightIds) {
+            Set<SearchKey> searchKeys = flightSearchKeysMap.get(flightId);
+            if (searchKeys != null && searchKeys.remove(searchKey) && searchKeys.isEmpty()) {
+                flightSearchKeysMap.remove(flightId);
+            }
+        }
+    }
+
+    private static final class SearchKey {
+
+        private final long departureAirportId;
+
+        private final long arrivalAirportId;
+
+        private final LocalDateTime fromDepartureUtcDateTime;
+
+        private final LocalDateTime toDepartureUtcDateTime;
+
+        private final int first;
+
+        private final int limit;
+
+        SearchKey(long departureAirportId, long arrivalAirportId, LocalDateTime fromDepartureUtcDateTime,
+                  LocalDateTime toDepartureUtcDateTime, int first, int limit) {
+            this.departureAirportId = departureAirportId;
+            this.arrivalAirportId = arrivalAirportId;
+            this.fromDepartureUtcDateTime = fromDepartureUtcDateTime;
+            this.toDepartureUtcDateTime = toDepartureUtcDateTime;
+            this.first = first;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            SearchKey that = (SearchKey) o;
+
+            return departureAirportId == that.departureAirportId
+                    && arrivalAirportId == that.arrivalAirportId
+                    && first == that.first
+                    && limit == that.limit
+                    && fromDepartureUtcDateTime.equals(that.fromDepartureUtcDateTime)
+                    && toDepartureUtcDateTime.equals(that.toDepartureUtcDateTime);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(departureAirportId);
+            result = 31 * result + Long.hashCode(arrivalAirportId);
+            result = 31 * result + fromDepartureUtcDateTime.hashCode();
+            result = 31 * result + toDepartureUtcDateTime.hashCode();
+            result = 31 * result + first;
+            result = 31 * result + limit;
+            return result;
+        }
+    }
+
+    /**
+     * Search result with flights it has been found from (including full and skipped ones,
+     * as their changes can change result too)
+     */
+    private static final class CachedSearch {
+
+        private final Map<Flight, Long> flightTicketPriceMap;
+
+        private final long[] flightIds;
+
+        private final Long tariffsDetailsId;
+
+        private final Integer tariffsDetailsVersion;
+
+        private final long routeVersion;
+
+        private final long expirationMillis;
+
+        private final long validUntilEpochSecond;
+
+        CachedSearch(Map<Flight, Long> flightTicketPriceMap, List<Flight> flights, TariffsDetails tariffsDetails,
+                     long routeVersion, long expirationMillis, long validUntilEpochSecond) {
+            this.flightTicketPriceMap = flightTicketPriceMap;
+            this.flightIds = flights.stream().mapToLong(Flight::getId).toArray();
+            this.tariffsDetailsId = tariffsDetails.getId();
+            this.tariffsDetailsVersion = tariffsDetails.getVersion();
+            this.routeVersion = routeVersion;
+            this.expirationMillis = expirationMillis;
+            this.validUntilEpochSecond = validUntilEpochSecond;
+        }
+
+        boolean isValid(TariffsDetails tariffsDetails, long routeVersion, long nowMillis, long nowEpochSecond) {
+            return Objects.equals(tariffsDetailsId, tariffsDetails.getId())
+                    && Objects.equals(tariffsDetailsVersion, tariffsDetails.getVersion())
+                    && this.routeVersion == routeVersion
+                    && nowMillis < expirationMillis
+                    && nowEpochSecond < validUntilEpochSecond;
+        }
+    }
+}
@@ -1,19 +1,29 @@
 package com.malikov.ticketsystem.service.impl;
 
+import com.malikov.ticketsystem.dto.FlightDTO;
 import com.malikov.ticketsystem.dto.FlightManageableDTO;
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
+import com.malikov.ticketsystem.dto.FlightQuoteDTO;
 import com.malikov.ticketsystem.dto.TicketPriceDetailsDTO;
 import com.malikov.ticketsystem.model.Aircraft;
 import com.malikov.ticketsystem.model.Airport;
 import com.malikov.ticketsystem.model.Flight;
 import com.malikov.ticketsystem.model.TariffsDetails;
-import com.malikov.ticketsystem.repository.AirportRepository;
 import com.malikov.ticketsystem.repository.FlightRepository;
-import com.malikov.ticketsystem.repository.TariffsDetailsRepository;
-import com.malikov.ticketsystem.repository.TicketRepository;
 import com.malikov.ticketsystem.service.AircraftService;
+import com.malikov.ticketsystem.service.AirportService;
+import com.malikov.ticketsystem.service.FareCalendarService;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
 import com.malikov.ticketsystem.service.FlightService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.service.TariffsDetailsSnapshotService;
+import com.malikov.ticketsystem.service.TicketPricingService;
 import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.MoneyUtil;
+import com.malikov.ticketsystem.util.PageCursor;
 import com.malikov.ticketsystem.util.ValidationUtil;
+import com.malikov.ticketsystem.util.dtoconverter.FlightDTOConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,15 +32,16 @@ import org.springframework.context.MessageSourceAware;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.malikov.ticketsystem.util.MessageUtil.getMessage;
+import static com.malikov.ticketsystem.util.TransactionUtil.runAfterCommit;
 import static com.malikov.ticketsystem.util.ValidationUtil.*;
-import static java.math.RoundingMode.HALF_UP;
-import static java.time.temporal.ChronoUnit.DAYS;
 
 /**
  * @author Yurii Malikov
@@ -40,22 +51,36 @@ public class FlightServiceImpl implements FlightService, MessageSourceAware {
 
     private static final Logger LOG = LoggerFactory.getLogger(FlightServiceImpl.class);
 
+    private static final int MAX_QUOTED_FLIGHTS_QUANTITY = 100;
+
     private MessageSource messageSource;
 
     @Autowired
     private FlightRepository flightRepository;
 
     @Autowired
-    private AirportRepository airportRepository;
+    private AirportService airportService;
 
     @Autowired
     private AircraftService aircraftService;
 
     @Autowired
-    private TicketRepository ticketRepository;
+    private TariffsDetailsSnapshotService tariffsDetailsSnapshotService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private TicketPricingService ticketPricingService;
+
+    @Autowired
+    private RouteIndexService routeIndexService;
 
     @Autowired
-    private TariffsDetailsRepository tariffsDetailsRepository;
+    private FareCalendarService fareCalendarService;
+
+    @Autowired
+    private FlightSearchCacheService flightSearchCacheService;
 
     @Override
     public Flight get(long flightId) {
@@ -69,11 +94,11 @@ public class FlightServiceImpl implements FlightService, MessageSourceAware {
         ValidationUtil.checkNew(flightManageableDTO,
                 getMessage(messageSource, "exception.mustBeNew"));
 
-        Airport departureAirport = airportRepository.getByName(flightManageableDTO.getDepartureAirport());
+        Airport departureAirport = airportService.getByName(flightManageableDTO.getDepartureAirport());
         checkNotFound(departureAirport, getMessage(messageSource, "exception.notFoundByName")
                 + flightManageableDTO.getDepartureAirport());
 
-        Airport arrivalAirport = airportRepository.getByName(flightManageableDTO.getArrivalAirport());
+        Airport arrivalAirport = airportService.getByName(flightManageableDTO.getArrivalAirport());
         checkNotFound(arrivalAirport, getMessage(messageSource, "exception.notFoundByName")
                 + flightManageableDTO.getArrivalAirport());
 
@@ -92,9 +117,11 @@ public class FlightServiceImpl implements FlightService, MessageSourceAware {
         checkNotFound(aircraft, getMessage(messageSource, "exception.notFoundByName")
                 + flightManageableDTO.getAircraftName());
 
-        return flightRepository.save(new Flight(departureAirport, arrivalAirport, aircraft,
+        Flight flight = flightRepository.save(new Flight(departureAirport, arrivalAirport, aircraft,
                 departureUtcDateTime, arrivalUtcDateTime, flightManageableDTO.getInitialBaseTicketPrice(),
                 flightManageableDTO.getMaxBaseTicketPrice()));
+        routeIndexService.refresh(flight.getId());
+        return flight;
     }
 
     @Override
@@ -105,12 +132,12 @@ public class FlightServiceImpl implements FlightService, MessageSourceAware {
 
         Flight flight = get(flightManageableDTO.getId());
 
-        Airport departureAirport = airportRepository.getByName(flightManageableDTO.getDepartureAirport());
+        Airport departureAirport = airportService.getByName(flightManageableDTO.getDepartureAirport());
         checkNotFound(departureAirport, getMessage(messageSource, "exception.notFoundByName")
                 + flightManageableDTO.getDepartureAirport());
         flight.setDepartureAirport(departureAirport);
 
-        Airport arrivalAirport = airportRepository.getByName(flightManageableDTO.getArrivalAirport());
+        Airport arrivalAirport = airportService.getByName(flightManageableDTO.getArrivalAirport());
         checkNotFound(arrivalAirport, getMessage(messageSource, "exception.notFoundByName")
                 + flightManageableDTO.getArrivalAirport());
         flight.setArrivalAirport(arrivalAirport);
@@ -136,6 +163,9 @@ public class FlightServiceImpl implements FlightService, MessageSourceAware {
         flight.setMaxTicketBasePrice(flightManageableDTO.getMaxBaseTicketPrice());
 
         flightRepository.save(flight);
+        runAfterCommit(() -> seatInventoryService.evict(flight.getId()));
+        runAfterCommit(() -> ticketPricingService.evict(flight.getId()));
+        routeIndexService.refresh(flight.getId());
 
         LOG.info("{} updated.", flight);
     }
@@ -144,6 +174,9 @@ public class FlightServiceImpl implements FlightService, MessageSourceAware {
     public void delete(long flightId) {
         checkNotFound(flightRepository.delete(flightId),
                 getMessage(messageSource, "exception.notFoundById") + flightId);
+        runAfterCommit(() -> seatInventoryService.evict(flightId));
+        runAfterCommit(() -> ticketPricingService.evict(flightId));
+        routeIndexService.remove(flightId);
         LOG.info("Flight with id={} deleted.", flightId);
     }
 
@@ -154,49 +187,227 @@ public class FlightServiceImpl implements FlightService, MessageSourceAware {
                 getMessage(messageSource, "exception.notFoundById") + flightId);
         flight.setCanceled(cancelStatus);
         flightRepository.save(flight);
+        routeIndexService.refresh(flightId);
         LOG.info("Flight with id= {} changed status to.", flightId, cancelStatus);
     }
 
     @Override
     public TicketPriceDetailsDTO getTicketPriceDetails(Long flightId) {
         Flight flight = get(flightId);
-        Integer bookedTicketsQuantity = ticketRepository.countTickets(flightId);
+        int bookedTicketsQuantity = seatInventoryService.getOccupiedSeatsQuantity(flightId);
 
-        TariffsDetails tariffsDetails = tariffsDetailsRepository.getActiveTariffsDetails();
+        TariffsDetails tariffsDetails = tariffsDetailsSnapshotService.getActive();
         checkNotFound(tariffsDetails,
                 getMessage(messageSource, "exception.notFoundByActiveTariffDetails"));
 
-        BigDecimal ticketPrice = calculateTicketPrice(tariffsDetails, flight, bookedTicketsQuantity.longValue());
-        BigDecimal baggagePrice = tariffsDetails.getBaggageSurchargeOverMaxBaseTicketPrice()
-                .add(flight.getMaxTicketBasePrice());
+        long ticketPrice = ticketPricingService.calculateTicketPrice(tariffsDetails, flight, bookedTicketsQuantity);
+        long baggagePrice = MoneyUtil.toMicros(tariffsDetails.getBaggageSurchargeOverMaxBaseTicketPrice())
+                + MoneyUtil.toMicros(flight.getMaxTicketBasePrice());
 
         return new TicketPriceDetailsDTO(ticketPrice, baggagePrice,
-                tariffsDetails.getPriorityRegistrationAndBoardingTariff());
+                MoneyUtil.toMicros(tariffsDetails.getPriorityRegistrationAndBoardingTariff()));
     }
 
     @Override
     public Set<Integer> getFreeSeats(Long flightId) {
-        List<Integer> occupiedSeatNumbers = ticketRepository.getOccupiedSeatNumbers(flightId);
-        Set<Integer> freeSeats = new HashSet<>();
+        return seatInventoryService.getFreeSeats(flightId);
+    }
 
-        for (int i = 1; i <= get(flightId).getAircraft().getModel().getPassengerSeatsQuantity(); i++) {
-            if (!occupiedSeatNumbers.contains(i)) {
-                freeSeats.add(i);
+    @Override
+    public List<FlightQuoteDTO> getQuotes(List<Long> flightIds) {
+        validate(flightIds.size() <= MAX_QUOTED_FLIGHTS_QUANTITY,
+                getMessage(messageSource, "exception.tooManyFlights") + MAX_QUOTED_FLIGHTS_QUANTITY);
+
+        Map<Long, Flight> flightMap = flightRepository.getByIds(flightIds).stream()
+                .collect(Collectors.toMap(Flight::getId, Function.identity()));
+        if (flightMap.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        TariffsDetails tariffsDetails = checkNotFound(tariffsDetailsSnapshotService.getActive(),
+                getMessage(messageSource, "exception.notFoundByActiveTariffDetails"));
+
+        long baggageSurcharge = MoneyUtil.toMicros(tariffsDetails.getBaggageSurchargeOverMaxBaseTicketPrice());
+        long priorityRegistrationAndBoardingPrice =
+                MoneyUtil.toMicros(tariffsDetails.getPriorityRegistrationAndBoardingTariff());
+
+        List<FlightQuoteDTO> quotes = new ArrayList<>(flightMap.size());
+        for (Long flightId : new LinkedHashSet<>(flightIds)) {
+            Flight flight = flightMap.get(flightId);
+            if (flight == null) {
+                continue;
             }
+            int ticketsQuantity = seatInventoryService.getOccupiedSeatsQuantity(flightId);
+            int freeSeatsQuantity = flight.getAircraft().getModel().getPassengerSeatsQuantity() - ticketsQuantity;
+            quotes.add(new FlightQuoteDTO(flightId,
+                    ticketPricingService.calculateTicketPrice(tariffsDetails, flight, ticketsQuantity),
+                    baggageSurcharge + MoneyUtil.toMicros(flight.getMaxTicketBasePrice()),
+                    priorityRegistrationAndBoardingPrice,
+                    Math.max(0, freeSeatsQuantity)));
         }
+        return quotes;
+    }
 
-        return freeSeats;
+    @Override
+    public Map<LocalDate, Long> getMinTicketPriceMap(String departureAirportName, String arrivalAirportName,
+                                                     YearMonth month) {
+        Airport departureAirport = airportService.getByName(departureAirportName);
+        checkNotFound(departureAirport, getMessage(messageSource, "exception.notFoundByName")
+                + departureAirportName);
+
+        Airport arrivalAirport = airportService.getByName(arrivalAirportName);
+        checkNotFound(arrivalAirport, getMessage(messageSource, "exception.notFoundByName")
+                + arrivalAirportName);
+        checkNotEqual(departureAirport, arrivalAirport,
+                getMessage(messageSource, "exception.mustNotBeSame"));
+
+        TariffsDetails tariffsDetails = checkNotFound(tariffsDetailsSnapshotService.getActive(),
+                getMessage(messageSource, "exception.notFoundByActiveTariffDetails"));
+
+        return fareCalendarService.getMinTicketPriceMap(tariffsDetails, departureAirport, arrivalAirport, month);
     }
 
     @Override
     @Transactional
-    public List<Flight> getAllFiltered(String departureAirportNameCondition, String arrivalAirportNameCondition,
-                                       LocalDateTime fromDepartureDateTimeCondition,
-                                       LocalDateTime toDepartureDateTimeCondition,
-                                       Integer first, Integer limit) {
+    public List<FlightManageableDTO> getAllFiltered(String departureAirportNameCondition,
+                                                    String arrivalAirportNameCondition,
+                                                    LocalDateTime fromDepartureDateTimeCondition,
+                                                    LocalDateTime toDepartureDateTimeCondition,
+                                                    Integer first, Integer limit) {
+        FlightConditions conditions = resolveOptionalConditions(departureAirportNameCondition,
+                arrivalAirportNameCondition, fromDepartureDateTimeCondition, toDepartureDateTimeCondition);
+        return flightRepository.getFiltered(conditions.departureAirport, conditions.arrivalAirport,
+                conditions.fromDepartureUtcDateTime, conditions.toDepartureUtcDateTime, first, limit);
+    }
+
+    @Override
+    @Transactional
+    public KeysetPageDTO<FlightManageableDTO> getAllFilteredPage(String departureAirportNameCondition,
+                                                                 String arrivalAirportNameCondition,
+                                                                 LocalDateTime fromDepartureDateTimeCondition,
+                                                                 LocalDateTime toDepartureDateTimeCondition,
+                                                                 PageCursor after, int limit) {
+        FlightConditions conditions = resolveOptionalConditions(departureAirportNameCondition,
+                arrivalAirportNameCondition, fromDepartureDateTimeCondition, toDepartureDateTimeCondition);
+        List<FlightManageableDTO> flights = flightRepository.getFiltered(conditions.departureAirport,
+                conditions.arrivalAirport, conditions.fromDepartureUtcDateTime, conditions.toDepartureUtcDateTime,
+                after, limit + 1);
+        return KeysetPageDTO.of(flights, limit, Function.identity(), flight -> PageCursor.of(flight.getId()));
+    }
+
+    @Override
+    public Map<Flight, Long> getFlightTicketPriceMap(String departureAirportNameCondition,
+                                                     String arrivalAirportNameCondition,
+                                                     LocalDateTime fromDepartureDateTimeCondition,
+                                                     LocalDateTime toDepartureDateTimeCondition,
+                                                     Integer first, Integer limit) {
+        TariffsDetails tariffsDetails = checkNotFound(tariffsDetailsSnapshotService.getActive(),
+                getMessage(messageSource, "exception.notFoundByActiveTariffDetails"));
+        FlightConditions conditions = resolveConditions(departureAirportNameCondition, arrivalAirportNameCondition,
+                fromDepartureDateTimeCondition, toDepartureDateTimeCondition);
+
+        return flightSearchCacheService.getFlightTicketPriceMap(tariffsDetails,
+                conditions.departureAirport.getId(), conditions.arrivalAirport.getId(),
+                conditions.fromDepartureUtcDateTime, conditions.toDepartureUtcDateTime, first, limit,
+                flights -> getFlightTicketPriceMap(tariffsDetails, flights, null, first, limit));
+    }
+
+    @Override
+    public KeysetPageDTO<FlightDTO> getFlightTicketPricePage(String departureAirportNameCondition,
+                                                             String arrivalAirportNameCondition,
+                                                             LocalDateTime fromDepartureDateTimeCondition,
+                                                             LocalDateTime toDepartureDateTimeCondition,
+                                                             PageCursor after, int limit) {
+        TariffsDetails tariffsDetails = checkNotFound(tariffsDetailsSnapshotService.getActive(),
+                getMessage(messageSource, "exception.notFoundByActiveTariffDetails"));
+        FlightConditions conditions = resolveConditions(departureAirportNameCondition, arrivalAirportNameCondition,
+                fromDepartureDateTimeCondition, toDepartureDateTimeCondition);
+
+        LocalDateTime fromDepartureUtcDateTime = after != null && after.getSortDateTime() != null
+                && after.getSortDateTime().isAfter(conditions.fromDepartureUtcDateTime)
+                ? after.getSortDateTime()
+                : conditions.fromDepartureUtcDateTime;
+        Map<Flight, Long> flightTicketPriceMap = getFlightTicketPriceMap(tariffsDetails,
+                routeIndexService.getFlights(conditions.departureAirport.getId(), conditions.arrivalAirport.getId(),
+                        fromDepartureUtcDateTime, conditions.toDepartureUtcDateTime), after, 0, limit + 1);
+        return KeysetPageDTO.of(new ArrayList<>(flightTicketPriceMap.entrySet()), limit,
+                entry -> FlightDTOConverter.asDTO(entry.getKey(), entry.getValue()),
+                entry -> PageCursor.of(entry.getKey().getDepartureUtcDateTime(), entry.getKey().getId()));
+    }
+
+    /**
+     * Tickets quantities are taken from seat inventory, so search of loaded flights does not touch database
+     * @param flights ordered by departure datetime and id
+     * @param after cursor of last flight of previous page or null
+     * @param first quantity of not full flights after cursor to be skipped
+     */
+    private Map<Flight, Long> getFlightTicketPriceMap(TariffsDetails tariffsDetails, List<Flight> flights,
+                                                      PageCursor after, int first, int limit) {
+        if (flights.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Flight, Long> flightTicketPriceMap = new LinkedHashMap<>();
+        int skipped = 0;
+        for (Flight flight : flights) {
+            if (flightTicketPriceMap.size() == limit) {
+                break;
+            }
+            if (after != null && after.getSortDateTime() != null
+                    && flight.getDepartureUtcDateTime().equals(after.getSortDateTime())
+                    && flight.getId() <= after.getId()) {
+                continue;
+            }
+            int ticketsQuantity = seatInventoryService.getOccupiedSeatsQuantity(flight.getId());
+            if (flight.getAircraft().getModel().getPassengerSeatsQuantity() <= ticketsQuantity
+                    || skipped++ < first) {
+                continue;
+            }
+            flightTicketPriceMap.put(flight,
+                    ticketPricingService.calculateTicketPrice(tariffsDetails, flight, ticketsQuantity));
+        }
+
+        return flightTicketPriceMap;
+    }
+
+    /**
+     * All conditions should be not null
+     */
+    private FlightConditions resolveConditions(String departureAirportNameCondition,
+                                               String arrivalAirportNameCondition,
+                                               LocalDateTime fromDepartureDateTimeCondition,
+                                               LocalDateTime toDepartureDateTimeCondition) {
+        Airport departureAirport = airportService.getByName(departureAirportNameCondition);
+        checkNotFound(departureAirport, getMessage(messageSource, "exception.notFoundByName")
+                + departureAirportNameCondition);
+
+        Airport arrivalAirport = airportService.getByName(arrivalAirportNameCondition);
+        checkNotFound(arrivalAirport, getMessage(messageSource, "exception.notFoundByName")
+                + arrivalAirportNameCondition);
+        checkNotEqual(departureAirport, arrivalAirport,
+                getMessage(messageSource, "exception.mustNotBeSame"));
+
+        LocalDateTime fromDepartureUtcDateTime = DateTimeUtil.zoneIdToUtc(fromDepartureDateTimeCondition,
+                departureAirport.getCity().getZoneId());
+        LocalDateTime toDepartureUtcDateTime = DateTimeUtil.zoneIdToUtc(toDepartureDateTimeCondition,
+                departureAirport.getCity().getZoneId());
+        validateFromToDates(fromDepartureUtcDateTime, toDepartureUtcDateTime,
+                getMessage(messageSource, "exception.fromCannotBeAfterTo"));
+
+        return new FlightConditions(departureAirport, arrivalAirport,
+                fromDepartureUtcDateTime, toDepartureUtcDateTime);
+    }
+
+    /**
+     * Any condition may be null
+     */
+    private FlightConditions resolveOptionalConditions(String departureAirportNameCondition,
+                                                       String arrivalAirportNameCondition,
+                                                       LocalDateTime fromDepartureDateTimeCondition,
+                                                       LocalDateTime toDepartureDateTimeCondition) {
         Airport departureAirport;
         if (departureAirportNameCondition != null && departureAirportNameCondition.length() != 0) {
-            departureAirport = airportRepository.getByName(departureAirportNameCondition);
+            departureAirport = airportService.getByName(departureAirportNameCondition);
             checkNotFound(departureAirport, getMessage(messageSource, "exception.notFoundByName")
                     + departureAirportNameCondition);
         } else {
@@ -205,7 +416,7 @@ public class FlightServiceImpl implements FlightService, MessageSourceAware {
 
         Airport arrivalAirport;
         if (arrivalAirportNameCondition != null && arrivalAirportNameCondition.length() != 0) {
-            arrivalAirport = airportRepository.getByName(arrivalAirportNameCondition);
+            arrivalAirport = airportService.getByName(arrivalAirportNameCondition);
             checkNotFound(arrivalAirport, getMessage(messageSource, "exception.notFoundByName")
                     + arrivalAirportNameCondition);
         } else {
@@ -233,88 +444,34 @@ public class FlightServiceImpl implements FlightService, MessageSourceAware {
         ValidationUtil.validateFromToDates(fromDepartureUtcDateTime, toDepartureUtcDateTime,
                 getMessage(messageSource, "exception.fromCannotBeAfterTo"));
 
-        return flightRepository.getFiltered(departureAirport, arrivalAirport,
-                fromDepartureUtcDateTime, toDepartureUtcDateTime, first, limit);
+        return new FlightConditions(departureAirport, arrivalAirport,
+                fromDepartureUtcDateTime, toDepartureUtcDateTime);
     }
 
     @Override
-    public Map<Flight, BigDecimal> getFlightTicketPriceMap(String departureAirportNameCondition,
-                                                           String arrivalAirportNameCondition,
-                                                           LocalDateTime fromDepartureDateTimeCondition,
-                                                           LocalDateTime toDepartureDateTimeCondition,
-                                                           Integer first, Integer limit) {
-        TariffsDetails tariffsDetails = tariffsDetailsRepository.getActiveTariffsDetails();
-
-        Airport departureAirport = airportRepository.getByName(departureAirportNameCondition);
-        checkNotFound(departureAirport, getMessage(messageSource, "exception.notFoundByName")
-                + departureAirportNameCondition);
-
-        Airport arrivalAirport = airportRepository.getByName(arrivalAirportNameCondition);
-        checkNotFound(arrivalAirport, getMessage(messageSource, "exception.notFoundByName")
-                + arrivalAirportNameCondition);
-        checkNotEqual(departureAirport, arrivalAirport,
-                getMessage(messageSource, "exception.mustNotBeSame"));
-
-        LocalDateTime fromDepartureUtcDateTime = DateTimeUtil.zoneIdToUtc(fromDepartureDateTimeCondition,
-                departureAirport.getCity().getZoneId());
-        LocalDateTime toDepartureUtcDateTime = DateTimeUtil.zoneIdToUtc(toDepartureDateTimeCondition,
-                departureAirport.getCity().getZoneId());
-        validateFromToDates(fromDepartureUtcDateTime, toDepartureUtcDateTime,
-                getMessage(messageSource, "exception.fromCannotBeAfterTo"));
-
-        Map<Flight, Long> filteredFlightsTicketCountMap = flightRepository.getFilteredFlightTicketCountMap(
-                departureAirport, arrivalAirport, fromDepartureUtcDateTime, toDepartureUtcDateTime, first, limit);
-
-        if (filteredFlightsTicketCountMap.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        Map<Flight, BigDecimal> flightTicketPriceMap = new HashMap<>();
-        filteredFlightsTicketCountMap
-                .forEach((flight, ticketsQuantity) -> {
-                    if (flight.getAircraft().getModel().getPassengerSeatsQuantity() > ticketsQuantity) {
-                        flightTicketPriceMap.put(flight,
-                                calculateTicketPrice(tariffsDetails, flight, ticketsQuantity)
-                                        .setScale(6, HALF_UP));
-                    }
-                });
-
-        return flightTicketPriceMap;
+    public void setMessageSource(MessageSource messageSource) {
+        this.messageSource = messageSource;
     }
 
     /**
-     * @param ticketsQuantity current quantity of purchased or booked tickets
-     * @return current ticket price for flight calculated using tariff details and ticketsQuantity
+     * Flight search conditions resolved to entities and UTC datetimes
      */
-    private BigDecimal calculateTicketPrice(TariffsDetails tariffsDetails, Flight flight, Long ticketsQuantity) {
-        BigDecimal ticketPrice = flight.getInitialTicketBasePrice();
+    private static class FlightConditions {
 
-        BigDecimal totalGrowthPotential = flight.getMaxTicketBasePrice().subtract(flight.getInitialTicketBasePrice());
-        BigDecimal timeGrowthPotential = totalGrowthPotential.multiply(tariffsDetails.getWeightOfTimeGrowthFactor());
-        BigDecimal fillingGrowthPotential = totalGrowthPotential.subtract(timeGrowthPotential);
+        private final Airport departureAirport;
 
-        BigDecimal perTicketPriceGrowth = fillingGrowthPotential.divide(new BigDecimal(flight.getAircraft().getModel()
-                .getPassengerSeatsQuantity()), HALF_UP);
-        BigDecimal perDayPriceGrowth = timeGrowthPotential.divide(new BigDecimal(tariffsDetails
-                .getDaysCountBeforeTicketPriceStartsToGrow()), HALF_UP);
+        private final Airport arrivalAirport;
 
-        LocalDateTime utcTimePointPriceStartsToGrow = flight.getDepartureUtcDateTime()
-                .minusDays(tariffsDetails.getDaysCountBeforeTicketPriceStartsToGrow());
-        long daysBetweenGrowthStartAndNow = utcTimePointPriceStartsToGrow.until(LocalDateTime.now(ZoneId.of("UTC")), DAYS);
+        private final LocalDateTime fromDepartureUtcDateTime;
 
-        if (daysBetweenGrowthStartAndNow > 0) {
-            ticketPrice = ticketPrice.add(perDayPriceGrowth.multiply(new BigDecimal(daysBetweenGrowthStartAndNow)));
-        }
+        private final LocalDateTime toDepartureUtcDateTime;
 
-        if (ticketsQuantity > 0) {
-            ticketPrice = ticketPrice.add(perTicketPriceGrowth.multiply(new BigDecimal(ticketsQuantity)));
+        private FlightConditions(Airport departureAirport, Airport arrivalAirport,
+                                 LocalDateTime fromDepartureUtcDateTime, LocalDateTime toDepartureUtcDateTime) {
+            this.departureAirport = departureAirport;
+            this.arrivalAirport = arrivalAirport;
+            this.fromDepartureUtcDateTime = fromDepartureUtcDateTime;
+            this.toDepartureUtcDateTime = toDepartureUtcDateTime;
         }
-
-        return ticketPrice;
-    }
-
-    @Override
-    public void setMessageSource(MessageSource messageSource) {
-        this.messageSource = messageSource;
     }
 }
@@ -0,0 +1,338 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.malikov.ticketsystem.util.TransactionUtil.runAfterCommit;
+
+/**
+ * Searches read immutable route arrays without locking. Flight changes are rare, so they replace
+ * route array with changed copy and are serialized with loading of index.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class RouteIndexServiceImpl implements RouteIndexService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RouteIndexServiceImpl.class);
+
+    /**
+     * 0 means loaded index is never reloaded
+     */
+    @Value("${route.index.maxAgeMillis:0}")
+    private long maxAgeMillis;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private TaskScheduler scheduler;
+
+    private volatile Index index;
+
+    /**
+     * Changed by thread holding service lock only
+     */
+    private volatile long version;
+
+    /**
+     * Source of versions of changed routes, it is not reset by reloading, so route versions of reloaded
+     * index differ from previous ones
+     */
+    private final AtomicLong routeVersions = new AtomicLong();
+
+    @Override
+    public List<Flight> getFlights(long departureAirportId, long arrivalAirportId,
+                                   LocalDateTime fromDepartureUtcDateTime, LocalDateTime toDepartureUtcDateTime) {
+        RouteFlights routeFlights = getIndex().routeFlightsMap.get(new RouteKey(departureAirportId, arrivalAirportId));
+        if (routeFlights == null) {
+            return Collections.emptyList();
+        }
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+        return routeFlights.slice(fromDepartureUtcDateTime.isBefore(now) ? now : fromDepartureUtcDateTime,
+                toDepartureUtcDateTime);
+    }
+
+    @Override
+    public Set<Long> getArrivalAirportIds(long departureAirportId) {
+        return getIndex().arrivalAirportIdsMap.getOrDefault(departureAirportId, Collections.emptySet());
+    }
+
+    @Override
+    public Set<Long> getDepartureAirportIds(long arrivalAirportId) {
+        return getIndex().departureAirportIdsMap.getOrDefault(arrivalAirportId, Collections.emptySet());
+    }
+
+    @Override
+    public long getVersion() {
+        getIndex();
+        return version;
+    }
+
+    /**
+     * Route without flights has version 0
+     */
+    @Override
+    public long getRouteVersion(long departureAirportId, long arrivalAirportId) {
+        RouteFlights routeFlights = getIndex().routeFlightsMap.get(new RouteKey(departureAirportId, arrivalAirportId));
+        return routeFlights != null ? routeFlights.version : 0;
+    }
+
+    /**
+     * Flight is reloaded by scheduler thread, so it is read by new persistence context
+     * rather than by one of committed transaction which may hold not initialized proxies
+     */
+    @Override
+    public void refresh(long flightId) {
+        runAfterCommit(() -> scheduler.schedule(() -> update(flightId, true), new Date()));
+    }
+
+    @Override
+    public void remove(long flightId) {
+        runAfterCommit(() -> update(flightId, false));
+    }
+
+    @Override
+    public void reload() {
+        runAfterCommit(() -> scheduler.schedule(this::reloadLoaded, new Date()));
+    }
+
+    /**
+     * Not loaded index is not reloaded: it will be loaded with committed changes on first access
+     */
+    private synchronized void reloadLoaded() {
+        if (index != null) {
+            load(index);
+        }
+    }
+
+    /**
+     * Not loaded index is not updated: it will be loaded with committed changes on first access
+     */
+    private synchronized void update(long flightId, boolean reload) {
+        if (index == null) {
+            return;
+        }
+        Flight flight = reload ? flightRepository.get(flightId) : null;
+        index.remove(flightId);
+        if (flight != null && !Boolean.TRUE.equals(flight.isCanceled())) {
+            index.add(flight);
+        }
+        version++;
+    }
+
+    private Index getIndex() {
+        Index current = index;
+        if (current != null
+                && (maxAgeMillis <= 0 || System.currentTimeMillis() - current.loadedMillis <= maxAgeMillis)) {
+            return current;
+        }
+        return load(current);
+    }
+
+    /**
+     * @param expired index which has been found missing or expired, so index loaded by concurrent caller
+     *                in between is not loaded again
+     */
+    private synchronized Index load(Index expired) {
+        if (index != expired) {
+            return index;
+        }
+        long start = System.currentTimeMillis();
+        Index loaded = new Index(routeVersions);
+        List<Flight> flights = flightRepository.getUpcoming(LocalDateTime.now(ZoneId.of("UTC")));
+        flights.forEach(loaded::add);
+        index = loaded;
+        version++;
+        LOG.info("Route index of {} flights loaded in {} ms.", flights.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    private static final class Index {
+
+        private final ConcurrentMap<RouteKey, RouteFlights> routeFlightsMap = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Long, Set<Long>> arrivalAirportIdsMap = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Long, Set<Long>> departureAirportIdsMap = new ConcurrentHashMap<>();
+
+        /**
+         * Changed by thread holding service lock only
+         */
+        private final Map<Long, RouteKey> flightRouteKeyMap = new HashMap<>();
+
+        private final long loadedMillis = System.currentTimeMillis();
+
+        private final AtomicLong routeVersions;
+
+        Index(AtomicLong routeVersions) {
+            this.routeVersions = routeVersions;
+        }
+
+        void add(Flight flight) {
+            RouteKey routeKey = new RouteKey(flight.getDepartureAirport().getId(), flight.getArrivalAirport().getId());
+            flightRouteKeyMap.put(flight.getId(), routeKey);
+            long routeVersion = routeVersions.incrementAndGet();
+            routeFlightsMap.merge(routeKey, new RouteFlights(flight, routeVersion),
+                    (routeFlights, singleFlight) -> routeFlights.with(flight, routeVersion));
+            arrivalAirportIdsMap.computeIfAbsent(routeKey.departureAirportId, id -> ConcurrentHashMap.newKeySet())
+                    .add(routeKey.arrivalAirportId);
+            departureAirportIdsMap.computeIfAbsent(routeKey.arrivalAirportId, id -> ConcurrentHashMap.newKeySet())
+                    .add(routeKey.departureAirportId);
+        }
+
+        void remove(long flightId) {
+            RouteKey routeKey = flightRouteKeyMap.remove(flightId);
+            if (routeKey != null && routeFlightsMap.computeIfPresent(routeKey,
+                    (key, routeFlights) -> routeFlights.without(flightId, routeVersions.incrementAndGet())) == null) {
+                arrivalAirportIdsMap.getOrDefault(routeKey.departureAirportId, Collections.emptySet())
+                        .remove(routeKey.arrivalAirportId);
+                departureAirportIdsMap.getOrDefault(routeKey.arrivalAirportId, Collections.emptySet())
+                        .remove(routeKey.departureAirportId);
+            }
+        }
+    }
+
+    private static final class RouteKey {
+
+        private final long departureAirportId;
+
+        private final long arrivalAirportId;
+
+        RouteKey(long departureAirportId, long arrivalAirportId) {
+            this.departureAirportId = departureAirportId;
+            this.arrivalAirportId = arrivalAirportId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            RouteKey that = (RouteKey) o;
+
+            return departureAirportId == that.departureAirportId && arrivalAirportId == that.arrivalAirportId;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(departureAirportId) + Long.hashCode(arrivalAirportId);
+        }
+    }
+
+    /**
+     * Immutable flights of route sorted by departure datetime and id. Departure datetimes are
+     * duplicated to array of UTC epoch seconds, so binary search does not touch flights.
+     */
+    private static final class RouteFlights {
+
+        private final long[] departureEpochSeconds;
+
+        private final Flight[] flights;
+
+        private final long version;
+
+        RouteFlights(Flight flight, long version) {
+            this(new long[]{toEpochSecond(flight.getDepartureUtcDateTime())}, new Flight[]{flight}, version);
+        }
+
+        private RouteFlights(long[] departureEpochSeconds, Flight[] flights, long version) {
+            this.departureEpochSeconds = departureEpochSeconds;
+            this.flights = flights;
+            this.version = version;
+        }
+
+        List<Flight> slice(LocalDateTime fromDepartureUtcDateTime, LocalDateTime toDepartureUtcDateTime) {
+            int from = lowerBound(toEpochSecond(fromDepartureUtcDateTime));
+            int to = lowerBound(toEpochSecond(toDepartureUtcDateTime) + 1);
+            return from < to
+                    ? Collections.unmodifiableList(Arrays.asList(flights).subList(from, to))
+                    : Collections.emptyList();
+        }
+
+        RouteFlights with(Flight flight, long version) {
+            long departureEpochSecond = toEpochSecond(flight.getDepartureUtcDateTime());
+            int position = lowerBound(departureEpochSecond);
+            while (position < flights.length && departureEpochSeconds[position] == departureEpochSecond
+                    && flights[position].getId() < flight.getId()) {
+                position++;
+            }
+            long[] newDepartureEpochSeconds = new long[flights.length + 1];
+            Flight[] newFlights = new Flight[flights.length + 1];
+            System.arraycopy(departureEpochSeconds, 0, newDepartureEpochSeconds, 0, position);
+            System.arraycopy(flights, 0, newFlights, 0, position);
+            newDepartureEpochSeconds[position] = departureEpochSecond;
+            newFlights[position] = flight;
+            System.arraycopy(departureEpochSeconds, position, newDepartureEpochSeconds, position + 1,
+                    flights.length - position);
+            System.arraycopy(flights, position, newFlights, position + 1, flights.length - position);
+            return new RouteFlights(newDepartureEpochSeconds, newFlights, version);
+        }
+
+        /**
+         * @return null if route has no flights left, so route is removed from index
+         */
+        RouteFlights without(long flightId, long version) {
+            int position = 0;
+            while (position < flights.length && flights[position].getId() != flightId) {
+                position++;
+            }
+            if (position == flights.length) {
+                return this;
+            }
+            if (flights.length == 1) {
+                return null;
+            }
+            long[] newDepartureEpochSeconds = new long[flights.length - 1];
+            Flight[] newFlights = new Flight[flights.length - 1];
+            System.arraycopy(departureEpochSeconds, 0, newDepartureEpochSeconds, 0, position);
+            System.arraycopy(flights, 0, newFlights, 0, position);
+            System.arraycopy(departureEpochSeconds, position + 1, newDepartureEpochSeconds, position,
+                    flights.length - position - 1);
+            System.arraycopy(flights, position + 1, newFlights, position, flights.length - position - 1);
+            return new RouteFlights(newDepartureEpochSeconds, newFlights, version);
+        }
+
+        /**
+         * @return index of first flight departing not earlier than departureEpochSecond
+         */
+        private int lowerBound(long departureEpochSecond) {
+            int low = 0;
+            int high = departureEpochSeconds.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (departureEpochSeconds[middle] < departureEpochSecond) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static long toEpochSecond(LocalDateTime utcDateTime) {
+            return utcDateTime.toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.repository.TicketRepository;
+import com.malikov.ticketsystem.service.FareCalendarService;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.util.exception.SeatNotFreeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceAware;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import static com.malikov.ticketsystem.util.MessageUtil.getMessage;
+import static com.malikov.ticketsystem.util.TransactionUtil.runAfterCommit;
+import static com.malikov.ticketsystem.util.ValidationUtil.checkNotFound;
+
+/**
+ * @author Yurii Malikov
+ */
+@Service
+public class SeatInventoryServiceImpl implements SeatInventoryService, MessageSourceAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SeatInventoryServiceImpl.class);
+
+    private final ConcurrentMap<Long, FlightSeats> flightSeatsMap = new ConcurrentHashMap<>();
+
+    private MessageSource messageSource;
+
+    private ScheduledFuture<?> departedFlightsRemoval;
+
+    /**
+     * 0 means loaded seats are never reloaded
+     */
+    @Value("${seat.inventory.maxAgeMillis:0}")
+    private long maxAgeMillis;
+
+    /**
+     * 0 means seats of departed flights are never removed
+     */
+    @Value("${seat.inventory.departedRemovalPeriodMillis:600000}")
+    private long departedRemovalPeriodMillis;
+
+    @Autowired
+    private TaskScheduler scheduler;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private FareCalendarService fareCalendarService;
+
+    @Autowired
+    private FlightSearchCacheService flightSearchCacheService;
+
+    @PostConstruct
+    public void startDepartedFlightsRemoval() {
+        if (departedRemovalPeriodMillis > 0) {
+            departedFlightsRemoval = scheduler.scheduleWithFixedDelay(this::removeDepartedFlights,
+                    departedRemovalPeriodMillis);
+        }
+    }
+
+    @PreDestroy
+    public void stopDepartedFlightsRemoval() {
+        if (departedFlightsRemoval != null) {
+            departedFlightsRemoval.cancel(false);
+        }
+    }
+
+    @Override
+    public Set<Integer> getFreeSeats(long flightId) {
+        return getFlightSeats(flightId).getFreeSeats();
+    }
+
+    @Override
+    public int getOccupiedSeatsQuantity(long flightId) {
+        return getFlightSeats(flightId).getOccupiedSeatsQuantity();
+    }
+
+    @Override
+    public void checkSeatIsFree(long flightId, int seatNumber) {
+        FlightSeats flightSeats = getFlightSeats(flightId);
+        checkNotFound(flightSeats.hasSeat(seatNumber),
+                getMessage(messageSource, "exception.notFoundById") + seatNumber);
+        if (flightSeats.isOccupied(seatNumber)) {
+            throw new SeatNotFreeException(getMessage(messageSource, "exception.sorrySeatIsNotFreeAlready"));
+        }
+    }
+
+    @Override
+    public <T> T bookSeat(long flightId, int seatNumber, Supplier<T> booking) {
+        FlightSeats flightSeats = getFlightSeats(flightId);
+        checkNotFound(flightSeats.hasSeat(seatNumber),
+                getMessage(messageSource, "exception.notFoundById") + seatNumber);
+        if (!flightSeats.claim(seatNumber)) {
+            throw new SeatNotFreeException(getMessage(messageSource, "exception.sorrySeatIsNotFreeAlready"));
+        }
+        seatsChanged(flightId);
+
+        T result;
+        try {
+            result = booking.get();
+        } catch (RuntimeException | Error e) {
+            flightSeats.release(seatNumber);
+            seatsChanged(flightId);
+            throw e;
+        }
+        releaseOnRollback(flightId, flightSeats, seatNumber);
+        return result;
+    }
+
+    @Override
+    public void release(long flightId, int seatNumber) {
+        runAfterCommit(() -> {
+            flightSeatsMap.computeIfPresent(flightId, (id, flightSeats) -> {
+                flightSeats.release(seatNumber);
+                return flightSeats;
+            });
+            seatsChanged(flightId);
+        });
+    }
+
+    @Override
+    public void evict(long flightId) {
+        flightSeatsMap.remove(flightId);
+    }
+
+    /**
+     * Loading is done inside computeIfAbsent, so release of seat which happens while flight seats
+     * are being loaded waits for loading and is applied to loaded seats.
+     * Seats older than maxAgeMillis are reloaded, so changes made by other nodes become visible.
+     */
+    private FlightSeats getFlightSeats(long flightId) {
+        FlightSeats flightSeats = flightSeatsMap.get(flightId);
+        if (flightSeats != null && maxAgeMillis > 0
+                && System.currentTimeMillis() - flightSeats.loadedMillis > maxAgeMillis) {
+            flightSeatsMap.remove(flightId, flightSeats);
+            flightSeats = null;
+        }
+        return flightSeats != null ? flightSeats : flightSeatsMap.computeIfAbsent(flightId, this::load);
+    }
+
+    private FlightSeats load(long flightId) {
+        Flight flight = checkNotFound(flightRepository.get(flightId),
+                getMessage(messageSource, "exception.notFoundById") + flightId);
+        FlightSeats flightSeats = new FlightSeats(flight.getAircraft().getModel().getPassengerSeatsQuantity(),
+                flight.getDepartureUtcDateTime());
+        ticketRepository.getOccupiedSeatNumbers(flightId).forEach(flightSeats::occupy);
+        seatsChanged(flightId);
+        LOG.info("Seats of flight with id={} loaded.", flightId);
+        return flightSeats;
+    }
+
+    /**
+     * Seats of departed flights are not booked anymore, so they are removed to keep map bounded
+     * by upcoming flights. Seats of departed flight which is still read are loaded again on demand.
+     */
+    void removeDepartedFlights() {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+        int sizeBefore = flightSeatsMap.size();
+        flightSeatsMap.values().removeIf(flightSeats -> flightSeats.departureUtcDateTime.isBefore(now));
+        LOG.debug("Seats of {} departed flights removed.", sizeBefore - flightSeatsMap.size());
+    }
+
+    /**
+     * Drops cached prices which depend on occupied seats quantity of flight
+     */
+    private void seatsChanged(long flightId) {
+        fareCalendarService.evict(flightId);
+        flightSearchCacheService.evict(flightId);
+    }
+
+    /**
+     * Registered only after booking succeeded, so seat released in bookSeat catch block is never released twice
+     * (second release could free seat which has been claimed by another user in between).
+     */
+    private void releaseOnRollback(long flightId, FlightSeats flightSeats, int seatNumber) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                        flightSeats.release(seatNumber);
+                        seatsChanged(flightId);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void setMessageSource(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Occupied seats of single flight. Seat with number n is stored as bit (n - 1) % 64
+     * of word with index (n - 1) / 64. Words are changed by compare-and-set only, so concurrent
+     * claims of different seats never block each other and exactly one of concurrent claims of same seat wins.
+     */
+    private static class FlightSeats {
+
+        private static final int WORD_SIZE = Long.SIZE;
+
+        private final int seatsQuantity;
+
+        private final AtomicLongArray occupiedSeatsWords;
+
+        private final long loadedMillis = System.currentTimeMillis();
+
+        private final LocalDateTime departureUtcDateTime;
+
+        FlightSeats(int seatsQuantity, LocalDateTime departureUtcDateTime) {
+            this.seatsQuantity = seatsQuantity;
+            this.departureUtcDateTime = departureUtcDateTime;
+            occupiedSeatsWords = new AtomicLongArray((seatsQuantity + WORD_SIZE - 1) / WORD_SIZE);
+        }
+
+        boolean hasSeat(int seatNumber) {
+            return seatNumber >= 1 && seatNumber <= seatsQuantity;
+        }
+
+        /**
+         * @return true if seat was free and now is occupied by caller, false if seat was already occupied
+         */
+        boolean claim(int seatNumber) {
+            int wordIndex = (seatNumber - 1) / WORD_SIZE;
+            long seatMask = 1L << ((seatNumber - 1) % WORD_SIZE);
+            long word;
+            do {
+                word = occupiedSeatsWords.get(wordIndex);
+                if ((word & seatMask) != 0) {
+                    return false;
+                }
+            } while (!occupiedSeatsWords.compareAndSet(wordIndex, word, word | seatMask));
+            return true;
+        }
+
+        boolean isOccupied(int seatNumber) {
+            int wordIndex = (seatNumber - 1) / WORD_SIZE;
+            long seatMask = 1L << ((seatNumber - 1) % WORD_SIZE);
+            return (occupiedSeatsWords.get(wordIndex) & seatMask) != 0;
+        }
+
+        void occupy(int seatNumber) {
+            if (hasSeat(seatNumber)) {
+                claim(seatNumber);
+            }
+        }
+
+        void release(int seatNumber) {
+            if (!hasSeat(seatNumber)) {
+                return;
+            }
+            int wordIndex = (seatNumber - 1) / WORD_SIZE;
+            long seatMask = 1L << ((seatNumber - 1) % WORD_SIZE);
+            long word;
+            do {
+                word = occupiedSeatsWords.get(wordIndex);
+            } while ((word & seatMask) != 0
+                    && !occupiedSeatsWords.compareAndSet(wordIndex, word, word & ~seatMask));
+        }
+
+        int getOccupiedSeatsQuantity() {
+            int occupiedSeatsQuantity = 0;
+            for (int wordIndex = 0; wordIndex < occupiedSeatsWords.length(); wordIndex++) {
+                occupiedSeatsQuantity += Long.bitCount(occupiedSeatsWords.get(wordIndex));
+            }
+            return occupiedSeatsQuantity;
+        }
+
+        Set<Integer> getFreeSeats() {
+            Set<Integer> freeSeats = new HashSet<>();
+            for (int wordIndex = 0; wordIndex < occupiedSeatsWords.length(); wordIndex++) {
+                long freeSeatsWord = ~occupiedSeatsWords.get(wordIndex);
+                while (freeSeatsWord != 0) {
+                    int seatNumber = wordIndex * WORD_SIZE + Long.numberOfTrailingZeros(freeSeatsWord) + 1;
+                    if (seatNumber > seatsQuantity) {
+                        break;
+                    }
+                    freeSeats.add(seatNumber);
+                    freeSeatsWord &= freeSeatsWord - 1;
+                }
+            }
+            return freeSeats;
+        }
+    }
+}
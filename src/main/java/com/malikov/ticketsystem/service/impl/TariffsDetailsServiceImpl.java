@@ -3,6 +3,7 @@ package com.malikov.ticketsystem.service.impl;
 import com.malikov.ticketsystem.model.TariffsDetails;
 import com.malikov.ticketsystem.repository.TariffsDetailsRepository;
 import com.malikov.ticketsystem.service.TariffsDetailsService;
+import com.malikov.ticketsystem.service.TariffsDetailsSnapshotService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,15 +27,18 @@ public class TariffsDetailsServiceImpl implements TariffsDetailsService, Message
     @Autowired
     private TariffsDetailsRepository repository;
 
+    @Autowired
+    private TariffsDetailsSnapshotService tariffsDetailsSnapshotService;
+
     @Override
     public TariffsDetails getActive() {
-        return repository.getActiveTariffsDetails();
+        return checkNotFound(repository.getActiveTariffsDetails(),
+                getMessage(messageSource, "exception.notFoundByActiveTariffDetails"));
     }
 
     @Override
     public void update(TariffsDetails tariffsDetailsDTO) {
-        TariffsDetails tariffsDetails = checkNotFound(getActive(),
-                getMessage(messageSource, "exception.notFoundByActiveTariffDetails"));
+        TariffsDetails tariffsDetails = getActive();
         tariffsDetails.setBaggageSurchargeOverMaxBaseTicketPrice(tariffsDetailsDTO
                 .getBaggageSurchargeOverMaxBaseTicketPrice());
         tariffsDetails.setPriorityRegistrationAndBoardingTariff(tariffsDetailsDTO
@@ -45,6 +49,7 @@ public class TariffsDetailsServiceImpl implements TariffsDetailsService, Message
         tariffsDetails.setActive(tariffsDetailsDTO.getActive());
         checkNotFound(repository.save(tariffsDetails),
                 getMessage(messageSource, "exception.notFoundById") + tariffsDetailsDTO.getId());
+        tariffsDetailsSnapshotService.refresh();
         LOG.info("Tariff {} updated.", tariffsDetails);
     }
 
@@ -0,0 +1,137 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.model.TariffsDetails;
+import com.malikov.ticketsystem.repository.TariffsDetailsRepository;
+import com.malikov.ticketsystem.service.FareCalendarService;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
+import com.malikov.ticketsystem.service.TariffsDetailsSnapshotService;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.malikov.ticketsystem.util.TransactionUtil.runAfterCommit;
+
+/**
+ * Readers do single volatile read of current snapshot. Snapshot is never changed, it is replaced
+ * by new one, so reader which has got snapshot sees consistent tariff details till the end of its request.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class TariffsDetailsSnapshotServiceImpl implements TariffsDetailsSnapshotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TariffsDetailsSnapshotServiceImpl.class);
+
+    private final AtomicReference<TariffsDetails> snapshot = new AtomicReference<>();
+
+    private ScheduledFuture<?> versionPolling;
+
+    /**
+     * 0 means version is not polled
+     */
+    @Value("${tariffs.snapshot.pollPeriodMillis:0}")
+    private long pollPeriodMillis;
+
+    @Autowired
+    private TaskScheduler scheduler;
+
+    @Autowired
+    private TariffsDetailsRepository repository;
+
+    @Autowired
+    private TicketPricingService ticketPricingService;
+
+    @Autowired
+    private FareCalendarService fareCalendarService;
+
+    @Autowired
+    private FlightSearchCacheService flightSearchCacheService;
+
+    /**
+     * Application is started even if tariff details can not be loaded yet (e.g. database is not populated),
+     * they are loaded on first access then
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            LOG.warn("Active tariff details are not loaded at startup: {}", e.getMessage());
+        }
+        if (pollPeriodMillis > 0) {
+            versionPolling = scheduler.scheduleWithFixedDelay(this::pollVersion, pollPeriodMillis);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (versionPolling != null) {
+            versionPolling.cancel(false);
+        }
+    }
+
+    @Override
+    public TariffsDetails getActive() {
+        TariffsDetails active = snapshot.get();
+        return active != null ? active : reload();
+    }
+
+    @Override
+    public void refresh() {
+        runAfterCommit(this::reload);
+    }
+
+    /**
+     * Reads version only, so tariff details are reloaded only if they have been changed or deactivated.
+     * Failed poll is logged and next poll is done as scheduled, so polling is never stopped.
+     */
+    void pollVersion() {
+        try {
+            TariffsDetails active = snapshot.get();
+            if (active == null
+                    || !Objects.equals(active.getVersion(), repository.getVersionIfActive(active.getId()))) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Version of active tariff details is not polled: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Caches derived from tariff details are dropped after snapshot is replaced,
+     * so they are not filled from previous snapshot again.
+     * If no tariff details are active, snapshot is cleared, so pricing fails as not found
+     * instead of using deactivated tariff details.
+     */
+    private synchronized TariffsDetails reload() {
+        TariffsDetails active = repository.getActiveTariffsDetails();
+        TariffsDetails loaded = active != null ? new TariffsDetails(active) : null;
+        TariffsDetails previous = snapshot.getAndSet(loaded);
+        if (loaded == null) {
+            if (previous != null) {
+                evictDerivedCaches();
+            }
+            LOG.warn("No active tariff details found.");
+            return null;
+        }
+        evictDerivedCaches();
+        LOG.info("Tariff details with id={} of version {} loaded.", loaded.getId(), loaded.getVersion());
+        return loaded;
+    }
+
+    private void evictDerivedCaches() {
+        ticketPricingService.evictAll();
+        fareCalendarService.evictAll();
+        flightSearchCacheService.evictAll();
+    }
+}
@@ -0,0 +1,138 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.model.TariffsDetails;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import com.malikov.ticketsystem.util.MoneyUtil;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.math.RoundingMode.HALF_UP;
+
+/**
+ * Coefficients are kept as longs scaled by 10^9, so pricing itself is two multiply-adds on longs.
+ * Current time is still read by LocalDateTime.now (tests fix clock through it), which allocates
+ * few short-lived objects per call.
+ * Scale 9 keeps error of per ticket growth multiplied by any realistic tickets quantity
+ * below price scale (10^-6), while products of coefficients and quantities do not overflow long.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class TicketPricingServiceImpl implements TicketPricingService {
+
+    private static final int COEFFICIENT_SCALE = 9;
+
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private final ConcurrentMap<Long, FlightPriceCurve> flightPriceCurveMap = new ConcurrentHashMap<>();
+
+    @Override
+    public long calculateTicketPrice(TariffsDetails tariffsDetails, Flight flight, long ticketsQuantity) {
+        long nowEpochSecond = LocalDateTime.now(UTC).toEpochSecond(ZoneOffset.UTC);
+        return MoneyUtil.toMicros(getPriceCurve(tariffsDetails, flight).getScaledPrice(nowEpochSecond,
+                ticketsQuantity), COEFFICIENT_SCALE);
+    }
+
+    @Override
+    public long getNextPriceGrowthEpochSecond(TariffsDetails tariffsDetails, Flight flight) {
+        long nowEpochSecond = LocalDateTime.now(UTC).toEpochSecond(ZoneOffset.UTC);
+        return getPriceCurve(tariffsDetails, flight).getNextGrowthEpochSecond(nowEpochSecond);
+    }
+
+    @Override
+    public void evict(long flightId) {
+        flightPriceCurveMap.remove(flightId);
+    }
+
+    @Override
+    public void evictAll() {
+        flightPriceCurveMap.clear();
+    }
+
+    private FlightPriceCurve getPriceCurve(TariffsDetails tariffsDetails, Flight flight) {
+        FlightPriceCurve priceCurve = flightPriceCurveMap.get(flight.getId());
+        if (priceCurve == null || !Objects.equals(priceCurve.tariffsDetailsId, tariffsDetails.getId())
+                || !Objects.equals(priceCurve.tariffsDetailsVersion, tariffsDetails.getVersion())) {
+            priceCurve = new FlightPriceCurve(tariffsDetails, flight);
+            flightPriceCurveMap.put(flight.getId(), priceCurve);
+        }
+        return priceCurve;
+    }
+
+    private static long toScaled(BigDecimal value) {
+        return value.setScale(COEFFICIENT_SCALE, HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Price of flight ticket as function of tickets quantity and time
+     */
+    private static class FlightPriceCurve {
+
+        private final Long tariffsDetailsId;
+
+        private final Integer tariffsDetailsVersion;
+
+        private final long initialScaledPrice;
+
+        private final long perTicketScaledPriceGrowth;
+
+        private final long perDayScaledPriceGrowth;
+
+        private final long growthStartEpochSecond;
+
+        FlightPriceCurve(TariffsDetails tariffsDetails, Flight flight) {
+            BigDecimal totalGrowthPotential = flight.getMaxTicketBasePrice()
+                    .subtract(flight.getInitialTicketBasePrice());
+            BigDecimal timeGrowthPotential = totalGrowthPotential
+                    .multiply(tariffsDetails.getWeightOfTimeGrowthFactor());
+            BigDecimal fillingGrowthPotential = totalGrowthPotential.subtract(timeGrowthPotential);
+
+            tariffsDetailsId = tariffsDetails.getId();
+            tariffsDetailsVersion = tariffsDetails.getVersion();
+            initialScaledPrice = toScaled(flight.getInitialTicketBasePrice());
+            perTicketScaledPriceGrowth = toScaled(fillingGrowthPotential.divide(new BigDecimal(flight.getAircraft()
+                    .getModel().getPassengerSeatsQuantity()), COEFFICIENT_SCALE, HALF_UP));
+            perDayScaledPriceGrowth = toScaled(timeGrowthPotential.divide(new BigDecimal(tariffsDetails
+                    .getDaysCountBeforeTicketPriceStartsToGrow()), COEFFICIENT_SCALE, HALF_UP));
+            growthStartEpochSecond = flight.getDepartureUtcDateTime()
+                    .minusDays(tariffsDetails.getDaysCountBeforeTicketPriceStartsToGrow())
+                    .toEpochSecond(ZoneOffset.UTC);
+        }
+
+        /**
+         * Only whole days passed since growth start are taken into account
+         */
+        long getScaledPrice(long nowEpochSecond, long ticketsQuantity) {
+            long scaledPrice = initialScaledPrice;
+            long daysSinceGrowthStart = (nowEpochSecond - growthStartEpochSecond) / SECONDS_PER_DAY;
+            if (daysSinceGrowthStart > 0) {
+                scaledPrice += perDayScaledPriceGrowth * daysSinceGrowthStart;
+            }
+            if (ticketsQuantity > 0) {
+                scaledPrice += perTicketScaledPriceGrowth * ticketsQuantity;
+            }
+            return scaledPrice;
+        }
+
+        /**
+         * Quantity of whole days is truncated towards zero, so first growth happens one day after growth start
+         */
+        long getNextGrowthEpochSecond(long nowEpochSecond) {
+            if (perDayScaledPriceGrowth == 0) {
+                return Long.MAX_VALUE;
+            }
+            long daysSinceGrowthStart = Math.max(0, (nowEpochSecond - growthStartEpochSecond) / SECONDS_PER_DAY);
+            return growthStartEpochSecond + (daysSinceGrowthStart + 1) * SECONDS_PER_DAY;
+        }
+    }
+}
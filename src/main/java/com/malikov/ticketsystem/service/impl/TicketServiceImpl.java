@@ -1,6 +1,7 @@
 package com.malikov.ticketsystem.service.impl;
 
 import com.malikov.ticketsystem.AuthorizedUser;
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
 import com.malikov.ticketsystem.dto.TicketDTO;
 import com.malikov.ticketsystem.dto.TicketPriceDetailsDTO;
 import com.malikov.ticketsystem.dto.TicketWithRemainingDelayDTO;
@@ -10,36 +11,39 @@ import com.malikov.ticketsystem.model.TicketStatus;
 import com.malikov.ticketsystem.repository.FlightRepository;
 import com.malikov.ticketsystem.repository.TicketRepository;
 import com.malikov.ticketsystem.repository.UserRepository;
+import com.malikov.ticketsystem.service.BookingExpiryService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
 import com.malikov.ticketsystem.service.TicketService;
+import com.malikov.ticketsystem.util.MoneyUtil;
+import com.malikov.ticketsystem.util.PageCursor;
 import com.malikov.ticketsystem.util.dtoconverter.TicketDTOConverter;
+import com.malikov.ticketsystem.util.ticketexport.TicketExportWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.MessageSourceAware;
-import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
-import java.util.Date;
-import java.util.HashMap;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.malikov.ticketsystem.util.DateTimeUtil.BOOKING_DURATION_MILLIS;
 import static com.malikov.ticketsystem.util.MessageUtil.getMessage;
 import static com.malikov.ticketsystem.util.ValidationUtil.checkEqual;
 import static com.malikov.ticketsystem.util.ValidationUtil.checkNotFound;
+import static com.malikov.ticketsystem.util.ValidationUtil.validate;
+import static com.malikov.ticketsystem.util.ValidationUtil.validateFromToDates;
 
 /**
  * @author Yurii Malikov
@@ -50,13 +54,8 @@ public class TicketServiceImpl implements TicketService, MessageSourceAware {
 
     private static final Logger LOG = LoggerFactory.getLogger(TicketServiceImpl.class);
 
-    private static final Map<Long, ScheduledFuture> ticketIdRemovalTaskMap = new HashMap<>();
-
     private MessageSource messageSource;
 
-    @Autowired
-    private TaskScheduler scheduler;
-
     @Autowired
     private TicketRepository ticketRepository;
 
@@ -66,6 +65,12 @@ public class TicketServiceImpl implements TicketService, MessageSourceAware {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private BookingExpiryService bookingExpiryService;
+
 
     @Override
     public void update(TicketDTO ticketDTO) {
@@ -81,38 +86,69 @@ public class TicketServiceImpl implements TicketService, MessageSourceAware {
 
     @Override
     public void delete(long ticketId) {
+        Ticket ticket = checkNotFound(ticketRepository.get(ticketId),
+                getMessage(messageSource, "exception.notFoundById") + ticketId);
         checkNotFound(ticketRepository.delete(ticketId),
                 getMessage(messageSource, "exception.notFoundById") + ticketId);
+        seatInventoryService.release(ticket.getFlight().getId(), ticket.getSeatNumber());
         LOG.info("Ticket deleted.");
-        terminateAutomaticRemovalTask(ticketId);
+        bookingExpiryService.cancel(ticketId);
     }
 
     @Override
-    public List<Ticket> getByUserEmail(String email, Integer start, Integer limit) {
+    public List<TicketDTO> getByUserEmail(String email, Integer start, Integer limit) {
         return ticketRepository.getByEmail(email, start, limit);
     }
 
+    @Override
+    public KeysetPageDTO<TicketDTO> getByUserEmailPage(String email, PageCursor after, int limit) {
+        return KeysetPageDTO.of(ticketRepository.getByEmail(email, after, limit + 1), limit,
+                Function.identity(), ticketDTO -> PageCursor.of(ticketDTO.getDepartureUtcDateTime(),
+                        ticketDTO.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportByDepartureUtcDateTime(LocalDateTime fromDepartureUtcDateTime,
+                                             LocalDateTime toDepartureUtcDateTime,
+                                             TicketExportWriter writer) throws IOException {
+        validateFromToDates(fromDepartureUtcDateTime, toDepartureUtcDateTime,
+                getMessage(messageSource, "exception.fromCannotBeAfterTo"));
+        ticketRepository.exportByDepartureUtcDateTime(fromDepartureUtcDateTime, toDepartureUtcDateTime, writer);
+    }
+
     @Override
     public List<TicketWithRemainingDelayDTO> getActiveTicketsWithDelays(long userId, Integer start, Integer limit) {
         return ticketRepository
                 .getActiveByUserId(userId, start, limit)
                 .stream()
-                .map(ticket -> {
-                    ScheduledFuture ticketRemovalTask = ticketIdRemovalTaskMap.get(ticket.getId());
-                    return TicketDTOConverter.getTicketWithRemaimingDelayDTO(ticket,
-                            ticketRemovalTask != null
-                                    ? ticketRemovalTask.getDelay(TimeUnit.MILLISECONDS)
-                                    : null);
-                })
+                .map(this::setRemainingDelay)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public KeysetPageDTO<TicketWithRemainingDelayDTO> getActiveTicketsWithDelaysPage(long userId, PageCursor after,
+                                                                                     int limit) {
+        return KeysetPageDTO.of(ticketRepository.getActiveByUserId(userId, after, limit + 1), limit,
+                this::setRemainingDelay, ticketDTO -> PageCursor.of(ticketDTO.getDepartureUtcDateTime(),
+                        ticketDTO.getId()));
+    }
+
+    private TicketWithRemainingDelayDTO setRemainingDelay(TicketWithRemainingDelayDTO ticketDTO) {
+        ticketDTO.setRemainingDelay(bookingExpiryService.getRemainingDelay(ticketDTO.getBookedUntilUtcDateTime()));
+        return ticketDTO;
+    }
+
     @Override
     public List<TicketDTO> getArchivedTickets(Long userId, Integer start, Integer limit) {
-        return ticketRepository.getArchivedByUserId(userId, start, limit)
-                .stream()
-                .map(TicketDTOConverter::asDTO)
-                .collect(Collectors.toList());
+        return ticketRepository.getArchivedByUserId(userId, start, limit);
+    }
+
+    @Override
+    public KeysetPageDTO<TicketDTO> getArchivedTicketsPage(Long userId, PageCursor after, int limit) {
+        return KeysetPageDTO.of(ticketRepository.getArchivedByUserId(userId, after, limit + 1), limit,
+                Function.identity(), ticketDTO -> PageCursor.of(ticketDTO.getDepartureUtcDateTime(),
+                        ticketDTO.getId()));
     }
 
     @Override
@@ -131,27 +167,33 @@ public class TicketServiceImpl implements TicketService, MessageSourceAware {
     @Transactional
     public Ticket createNewBookedTicketAndScheduledTask(TicketDTO ticketDTO, long flightId,
                                                         TicketPriceDetailsDTO ticketPriceDetailsDTO) {
+        Assert.notNull(ticketDTO.getSeatNumber(), "seat number must not be null");
+        return seatInventoryService.bookSeat(flightId, ticketDTO.getSeatNumber(),
+                () -> createNewBookedTicket(ticketDTO, flightId, ticketPriceDetailsDTO));
+    }
+
+    private Ticket createNewBookedTicket(TicketDTO ticketDTO, long flightId,
+                                         TicketPriceDetailsDTO ticketPriceDetailsDTO) {
         Ticket newTicket = new Ticket();
-        BigDecimal ticketPrice;
         Flight flight = checkNotFound(flightRepository.get(flightId),
                 getMessage(messageSource, "exception.notFoundById") + flightId);
 
-
-        ticketPrice = ticketPriceDetailsDTO.getBaseTicketPrice();
+        long ticketPrice = ticketPriceDetailsDTO.getBaseTicketPrice();
 
         if (ticketDTO.isHasBaggage() != null && ticketDTO.isHasBaggage()) {
-            ticketPrice = ticketPrice.add(ticketPriceDetailsDTO.getBaggagePrice());
+            ticketPrice += ticketPriceDetailsDTO.getBaggagePrice();
         }
 
         if (ticketDTO.isHasPriorityRegistrationAndBoarding() != null
                 && ticketDTO.isHasPriorityRegistrationAndBoarding()) {
-            ticketPrice = ticketPrice.add(ticketPriceDetailsDTO.getPriorityRegistrationAndBoardingPrice());
+            ticketPrice += ticketPriceDetailsDTO.getPriorityRegistrationAndBoardingPrice();
         }
 
-        checkEqual(ticketPrice, ticketDTO.getPrice(),
+        validate(ticketDTO.getPrice() != null, "price" + getMessage(messageSource, "exception.mustBeFilled"));
+        checkEqual(ticketPrice, MoneyUtil.toMicros(ticketDTO.getPrice()),
                 getMessage(messageSource, "exception.mustBeSame"));
 
-        ticketDTO.setPrice(ticketPrice);
+        ticketDTO.setPrice(MoneyUtil.toBigDecimal(ticketPrice));
         newTicket.setFlight(flight);
 
         newTicket = TicketDTOConverter.updateFromDTOBeforeBooking(newTicket, ticketDTO);
@@ -169,9 +211,11 @@ public class TicketServiceImpl implements TicketService, MessageSourceAware {
         newTicket.setUser(userRepository.get(AuthorizedUser.id()));
         newTicket.setDepartureZoneId(flight.getDepartureAirport().getCity().getZoneId());
         newTicket.setStatus(TicketStatus.BOOKED);
+        newTicket.setBookedUntilUtcDateTime(LocalDateTime.now(ZoneId.of("UTC"))
+                .plus(BOOKING_DURATION_MILLIS, ChronoUnit.MILLIS));
 
         Ticket bookedTicket = ticketRepository.save(newTicket);
-        ticketIdRemovalTaskMap.put(bookedTicket.getId(), getDeleteIfNotPaidTask(bookedTicket.getId()));
+        bookingExpiryService.schedule(bookedTicket);
         LOG.info("New booked ticket {} created.", newTicket);
 
         return bookedTicket;
@@ -196,32 +240,14 @@ public class TicketServiceImpl implements TicketService, MessageSourceAware {
                 getMessage(messageSource, "exception.rejectedByBank"));
 
         ticket.setStatus(TicketStatus.PAID);
+        ticket.setBookedUntilUtcDateTime(null);
         ticket.setPurchaseOffsetDateTime(purchaseOffsetDateTime);
 
         ticketRepository.save(ticket);
-        terminateAutomaticRemovalTask(ticketId);
+        bookingExpiryService.cancel(ticketId);
         LOG.info("Payment succeed.");
     }
 
-    private ScheduledFuture getDeleteIfNotPaidTask(long ticketId) {
-        ScheduledExecutorService localExecutor = Executors.newSingleThreadScheduledExecutor();
-        scheduler = new ConcurrentTaskScheduler(localExecutor);
-        LOG.info("Scheduled future for ticket {} created.", ticketId);
-
-        return scheduler.schedule(() -> {
-                    checkNotFound(ticketRepository.deleteIfNotPaid(ticketId),
-                            getMessage(messageSource, "exception.notFoundById") + ticketId);
-                    ticketIdRemovalTaskMap.remove(ticketId);
-                },
-                new Date(System.currentTimeMillis() + BOOKING_DURATION_MILLIS));
-    }
-
-    private void terminateAutomaticRemovalTask(Long ticketId) {
-        ticketIdRemovalTaskMap.get(ticketId).cancel(false);
-        ticketIdRemovalTaskMap.remove(ticketId);
-        LOG.info("Removal task terminated.");
-    }
-
     /**
      * Method imitates withdrawal processing using bank API
      *
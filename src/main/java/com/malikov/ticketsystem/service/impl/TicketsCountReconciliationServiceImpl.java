@@ -0,0 +1,73 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.service.TicketsCountReconciliationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Counters are changed in same transactions as tickets, so mismatch means counter has been changed
+ * bypassing ticket repository (e.g. by manual sql). Batch is checked by flight_id index of tickets table.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class TicketsCountReconciliationServiceImpl implements TicketsCountReconciliationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TicketsCountReconciliationServiceImpl.class);
+
+    private static final int FLIGHTS_BATCH_SIZE = 500;
+
+    /**
+     * Guarded by this
+     */
+    private long lastCheckedFlightId;
+
+    private ScheduledFuture<?> reconciliation;
+
+    @Value("${tickets.count.reconciliation.periodMillis:60000}")
+    private long periodMillis;
+
+    @Autowired
+    private TaskScheduler scheduler;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @PostConstruct
+    public void startReconciliation() {
+        if (periodMillis > 0) {
+            reconciliation = scheduler.scheduleWithFixedDelay(this::reconcileNextBatch, periodMillis);
+        }
+    }
+
+    @PreDestroy
+    public void stopReconciliation() {
+        if (reconciliation != null) {
+            reconciliation.cancel(false);
+        }
+    }
+
+    @Override
+    public synchronized int reconcileNextBatch() {
+        List<Long> flightIds = flightRepository.getIdsAfter(lastCheckedFlightId, FLIGHTS_BATCH_SIZE);
+        lastCheckedFlightId = flightIds.size() < FLIGHTS_BATCH_SIZE ? 0 : flightIds.get(flightIds.size() - 1);
+
+        List<Long> mismatchedFlightIds = flightRepository.getTicketsCountMismatchedIds(flightIds);
+        if (!mismatchedFlightIds.isEmpty()) {
+            flightRepository.recountTickets(mismatchedFlightIds);
+            LOG.warn("Tickets count of flights {} did not match tickets and has been recounted.",
+                    mismatchedFlightIds);
+        }
+        return mismatchedFlightIds.size();
+    }
+}
@@ -0,0 +1,187 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.dto.TimetableRuleDTO;
+import com.malikov.ticketsystem.model.Aircraft;
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.model.TimetableRule;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.repository.TimetableRuleRepository;
+import com.malikov.ticketsystem.service.AircraftService;
+import com.malikov.ticketsystem.service.AirportService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.TimetableService;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.dtoconverter.TimetableRuleDTOConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceAware;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.malikov.ticketsystem.util.MessageUtil.getMessage;
+import static com.malikov.ticketsystem.util.ValidationUtil.*;
+
+/**
+ * Flights are generated in memory route by route: departures existing in database are loaded with one query
+ * per route, so rules of route are expanded against set of taken departure moments.
+ * Generated flights are inserted by JDBC batches of batchSize.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class TimetableServiceImpl implements TimetableService, MessageSourceAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimetableServiceImpl.class);
+
+    private MessageSource messageSource;
+
+    @Value("${timetable.generation.horizonDays:180}")
+    private int horizonDays;
+
+    @Value("${flights.import.batchSize:1000}")
+    private int batchSize;
+
+    @Autowired
+    private TimetableRuleRepository timetableRuleRepository;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private AirportService airportService;
+
+    @Autowired
+    private AircraftService aircraftService;
+
+    @Autowired
+    private RouteIndexService routeIndexService;
+
+    @Override
+    public List<TimetableRuleDTO> getAll() {
+        return timetableRuleRepository.getAll().stream()
+                .map(TimetableRuleDTOConverter::asDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public TimetableRule create(TimetableRuleDTO timetableRuleDTO) {
+        checkNew(timetableRuleDTO, getMessage(messageSource, "exception.mustBeNew"));
+
+        Airport departureAirport = checkNotFound(airportService.getByName(timetableRuleDTO.getDepartureAirport()),
+                getMessage(messageSource, "exception.notFoundByName") + timetableRuleDTO.getDepartureAirport());
+        Airport arrivalAirport = checkNotFound(airportService.getByName(timetableRuleDTO.getArrivalAirport()),
+                getMessage(messageSource, "exception.notFoundByName") + timetableRuleDTO.getArrivalAirport());
+        checkNotEqual(departureAirport, arrivalAirport, getMessage(messageSource, "exception.mustNotBeSame"));
+
+        validate(!timetableRuleDTO.getValidFrom().isAfter(timetableRuleDTO.getValidTo()),
+                getMessage(messageSource, "exception.fromCannotBeAfterTo"));
+
+        Aircraft aircraft = checkNotFound(aircraftService.getByName(timetableRuleDTO.getAircraftName()),
+                getMessage(messageSource, "exception.notFoundByName") + timetableRuleDTO.getAircraftName());
+
+        return timetableRuleRepository.save(new TimetableRule(null, departureAirport, arrivalAirport, aircraft,
+                timetableRuleDTO.getDepartureLocalTime(), timetableRuleDTO.getDurationMinutes(),
+                EnumSet.copyOf(timetableRuleDTO.getDaysOfWeek()), timetableRuleDTO.getValidFrom(),
+                timetableRuleDTO.getValidTo(), timetableRuleDTO.getInitialBaseTicketPrice(),
+                timetableRuleDTO.getMaxBaseTicketPrice()));
+    }
+
+    @Override
+    public void delete(long timetableRuleId) {
+        checkNotFound(timetableRuleRepository.delete(timetableRuleId),
+                getMessage(messageSource, "exception.notFoundById") + timetableRuleId);
+        LOG.info("Timetable rule with id={} deleted.", timetableRuleId);
+    }
+
+    @Override
+    public int generateFlights() {
+        long startNanos = System.nanoTime();
+        LocalDateTime fromDepartureUtcDateTime = LocalDateTime.now(ZoneId.of("UTC"));
+        LocalDateTime toDepartureUtcDateTime = fromDepartureUtcDateTime.plusDays(horizonDays);
+
+        // local date of departure airport may be day behind UTC date
+        Map<List<Long>, List<TimetableRule>> rulesByRoutes = timetableRuleRepository
+                .getValidTill(fromDepartureUtcDateTime.toLocalDate().minusDays(1)).stream()
+                .collect(Collectors.groupingBy(rule -> Arrays.asList(rule.getDepartureAirport().getId(),
+                        rule.getArrivalAirport().getId()), LinkedHashMap::new, Collectors.toList()));
+
+        List<Flight> flights = new ArrayList<>();
+        for (List<TimetableRule> routeRules : rulesByRoutes.values()) {
+            TimetableRule firstRule = routeRules.get(0);
+            Set<LocalDateTime> takenDepartures = flightRepository.getDepartureUtcDateTimes(
+                    firstRule.getDepartureAirport().getId(), firstRule.getArrivalAirport().getId(),
+                    fromDepartureUtcDateTime, toDepartureUtcDateTime);
+            for (TimetableRule rule : routeRules) {
+                addMissingFlights(rule, fromDepartureUtcDateTime, toDepartureUtcDateTime, takenDepartures, flights);
+            }
+        }
+
+        for (int i = 0; i < flights.size(); i += batchSize) {
+            flightRepository.insertAll(flights.subList(i, Math.min(i + batchSize, flights.size())));
+        }
+        if (!flights.isEmpty()) {
+            routeIndexService.reload();
+        }
+        LOG.info("{} flights generated by {} timetable routes in {} ms.", flights.size(), rulesByRoutes.size(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return flights.size();
+    }
+
+    /**
+     * Local departure time which falls into DST gap is moved forward by gap length,
+     * in DST overlap earlier offset is used (see {@link java.time.ZonedDateTime#of})
+     */
+    private static void addMissingFlights(TimetableRule rule, LocalDateTime fromDepartureUtcDateTime,
+                                          LocalDateTime toDepartureUtcDateTime, Set<LocalDateTime> takenDepartures,
+                                          List<Flight> flights) {
+        ZoneId zoneId = rule.getDepartureAirport().getCity().getZoneId();
+        LocalDate fromDate = max(rule.getValidFrom(),
+                DateTimeUtil.utcToZoneId(fromDepartureUtcDateTime, zoneId).toLocalDate());
+        LocalDate toDate = min(rule.getValidTo(),
+                DateTimeUtil.utcToZoneId(toDepartureUtcDateTime, zoneId).toLocalDate());
+
+        for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+            if (!rule.getDaysOfWeek().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime departureUtcDateTime = DateTimeUtil.zoneIdToUtc(date.atTime(rule.getDepartureLocalTime()),
+                    zoneId);
+            if (departureUtcDateTime.isBefore(fromDepartureUtcDateTime)
+                    || departureUtcDateTime.isAfter(toDepartureUtcDateTime)
+                    || !takenDepartures.add(departureUtcDateTime)) {
+                continue;
+            }
+            flights.add(new Flight(rule.getDepartureAirport(), rule.getArrivalAirport(), rule.getAircraft(),
+                    departureUtcDateTime, departureUtcDateTime.plusMinutes(rule.getDurationMinutes()),
+                    rule.getInitialTicketBasePrice(), rule.getMaxTicketBasePrice()));
+        }
+    }
+
+    private static LocalDate max(LocalDate first, LocalDate second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static LocalDate min(LocalDate first, LocalDate second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    @Override
+    public void setMessageSource(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+}
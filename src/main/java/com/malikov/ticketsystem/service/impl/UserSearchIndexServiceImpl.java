@@ -0,0 +1,238 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.model.User;
+import com.malikov.ticketsystem.repository.UserRepository;
+import com.malikov.ticketsystem.service.UserSearchIndexService;
+import com.malikov.ticketsystem.util.search.TermsIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.malikov.ticketsystem.util.TransactionUtil.runAfterCommit;
+
+/**
+ * Searches do not lock. User changes are applied to loaded indexes as pending changes, which are merged
+ * into indexes by scheduler thread once there are many of them. Changes made while indexes are loaded
+ * are replayed on loaded indexes against terms of user as loaded, so change which has been committed
+ * before load query and is already loaded changes nothing.
+ *
+ * @author Yurii Malikov
+ */
+@Service
+public class UserSearchIndexServiceImpl implements UserSearchIndexService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserSearchIndexServiceImpl.class);
+
+    private static final int MAX_PENDING_CHANGES = 10_000;
+
+    /**
+     * 0 means loaded index is never reloaded
+     */
+    @Value("${user.search.maxAgeMillis:0}")
+    private long maxAgeMillis;
+
+    @Value("${autocomplete.maxResults:10}")
+    private int maxResults;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskScheduler scheduler;
+
+    private volatile Indexes indexes;
+
+    private final Object loadLock = new Object();
+
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+
+    /**
+     * Not null while indexes are loaded, guarded by this
+     */
+    private List<Change> changesDuringLoad;
+
+    @Override
+    public List<String> getEmailsByMask(String emailMask) {
+        return getIndexes().emails.search(emailMask, maxResults);
+    }
+
+    @Override
+    public List<String> getLastNamesByMask(String lastNameMask) {
+        return getIndexes().lastNames.search(lastNameMask, maxResults);
+    }
+
+    @Override
+    public void add(User user) {
+        Change change = new Change(user.getId(), null, null, user.getEmail(), user.getLastName());
+        runAfterCommit(() -> apply(change));
+    }
+
+    @Override
+    public void update(String previousEmail, String previousLastName, User user) {
+        Change change = new Change(user.getId(), previousEmail, previousLastName, user.getEmail(),
+                user.getLastName());
+        runAfterCommit(() -> apply(change));
+    }
+
+    @Override
+    public void remove(User user) {
+        Change change = new Change(user.getId(), user.getEmail(), user.getLastName(), null, null);
+        runAfterCommit(() -> apply(change));
+    }
+
+    /**
+     * Not loaded indexes are not changed: they will be loaded with committed changes on first access
+     */
+    private synchronized void apply(Change change) {
+        if (changesDuringLoad != null) {
+            changesDuringLoad.add(change);
+        }
+        Indexes current = indexes;
+        if (current != null && change.applyTo(current)) {
+            scheduler.schedule(current::merge, new Date());
+        }
+    }
+
+    private Indexes getIndexes() {
+        Indexes current = indexes;
+        if (current == null) {
+            return load(null);
+        }
+        if (maxAgeMillis > 0 && System.currentTimeMillis() - current.loadedMillis > maxAgeMillis
+                && reloadScheduled.compareAndSet(false, true)) {
+            // expired indexes are searched while new ones are loaded
+            scheduler.schedule(() -> {
+                try {
+                    load(current);
+                } finally {
+                    reloadScheduled.set(false);
+                }
+            }, new Date());
+        }
+        return current;
+    }
+
+    /**
+     * @param expired indexes which have been found missing or expired, so indexes loaded by concurrent caller
+     *                in between are not loaded again
+     */
+    private Indexes load(Indexes expired) {
+        synchronized (loadLock) {
+            if (indexes != expired) {
+                return indexes;
+            }
+            long start = System.currentTimeMillis();
+            synchronized (this) {
+                changesDuringLoad = new ArrayList<>();
+            }
+            try {
+                // loaded users by id, change creating user holds loaded terms of user
+                Map<Long, Change> loadedUsers = new HashMap<>();
+                List<String> emails = new ArrayList<>();
+                List<String> lastNames = new ArrayList<>();
+                for (Object[] user : userRepository.getAllIdsEmailsAndLastNames()) {
+                    Change loadedUser = new Change((Long) user[0], null, null, (String) user[1], (String) user[2]);
+                    loadedUsers.put(loadedUser.userId, loadedUser);
+                    emails.add(loadedUser.email);
+                    lastNames.add(loadedUser.lastName);
+                }
+                Indexes loaded = new Indexes(emails, lastNames);
+                synchronized (this) {
+                    changesDuringLoad.forEach(change -> change.replayOn(loaded, loadedUsers));
+                    indexes = loaded;
+                }
+                LOG.info("User search index loaded in {} ms.", System.currentTimeMillis() - start);
+                return loaded;
+            } finally {
+                synchronized (this) {
+                    changesDuringLoad = null;
+                }
+            }
+        }
+    }
+
+    private static final class Indexes {
+
+        private final TermsIndex emails;
+
+        private final TermsIndex lastNames;
+
+        private final long loadedMillis = System.currentTimeMillis();
+
+        private Indexes(List<String> emails, List<String> lastNames) {
+            this.emails = new TermsIndex(emails, MAX_PENDING_CHANGES);
+            this.lastNames = new TermsIndex(lastNames, MAX_PENDING_CHANGES);
+        }
+
+        private void merge() {
+            emails.merge();
+            lastNames.merge();
+        }
+    }
+
+    /**
+     * Null previous values mean user is created, null new values mean user is deleted
+     */
+    private static final class Change {
+
+        private final Long userId;
+
+        private final String previousEmail;
+
+        private final String previousLastName;
+
+        private final String email;
+
+        private final String lastName;
+
+        private Change(Long userId, String previousEmail, String previousLastName, String email, String lastName) {
+            this.userId = userId;
+            this.previousEmail = previousEmail;
+            this.previousLastName = previousLastName;
+            this.email = email;
+            this.lastName = lastName;
+        }
+
+        /**
+         * @return true if indexes should be merged
+         */
+        private boolean applyTo(Indexes indexes) {
+            boolean mergeNeeded = false;
+            if (!Objects.equals(previousEmail, email)) {
+                mergeNeeded |= indexes.emails.remove(previousEmail);
+                mergeNeeded |= indexes.emails.add(email);
+            }
+            if (!Objects.equals(previousLastName, lastName)) {
+                mergeNeeded |= indexes.lastNames.remove(previousLastName);
+                mergeNeeded |= indexes.lastNames.add(lastName);
+            }
+            return mergeNeeded;
+        }
+
+        /**
+         * Changes indexes from terms of user as loaded (or as changed by change replayed before) to new terms,
+         * so replay of change which is already loaded changes nothing
+         */
+        private void replayOn(Indexes indexes, Map<Long, Change> loadedUsers) {
+            Change loadedUser = loadedUsers.get(userId);
+            new Change(userId, loadedUser != null ? loadedUser.email : null,
+                    loadedUser != null ? loadedUser.lastName : null, email, lastName).applyTo(indexes);
+            if (email == null && lastName == null) {
+                loadedUsers.remove(userId);
+            } else {
+                loadedUsers.put(userId, this);
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.malikov.ticketsystem.dto.UserDTO;
 import com.malikov.ticketsystem.model.User;
 import com.malikov.ticketsystem.repository.RoleRepository;
 import com.malikov.ticketsystem.repository.UserRepository;
+import com.malikov.ticketsystem.service.UserSearchIndexService;
 import com.malikov.ticketsystem.service.UserService;
 import com.malikov.ticketsystem.util.ValidationUtil;
 import com.malikov.ticketsystem.util.dtoconverter.UserDTOConverter;
@@ -43,6 +44,9 @@ public class UserServiceImpl implements UserService, UserDetailsService, Message
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private UserSearchIndexService userSearchIndexService;
+
     @Override
     public User get(long userId) {
         return checkNotFound(userRepository.get(userId),
@@ -54,14 +58,19 @@ public class UserServiceImpl implements UserService, UserDetailsService, Message
         ValidationUtil.checkNew(userDTO, getMessage(messageSource, "exception.mustBeNew"));
         User user = UserDTOConverter.createNewFromDTO(userDTO);
         user.setRoles(Collections.singleton(roleRepository.getByName("ROLE_USER")));
-        return userRepository.save(prepareToSave(user));
+        User created = userRepository.save(prepareToSave(user));
+        userSearchIndexService.add(created);
+        return created;
     }
 
     @Override
     public void update(UserDTO userDTO) {
         ValidationUtil.checkNotNew(userDTO, getMessage(messageSource, "exception.mustBeNotNew"));
-        User user = updateFromTo(get(userDTO.getId()), userDTO);
-        userRepository.save(prepareToSave(user));
+        User user = get(userDTO.getId());
+        String previousEmail = user.getEmail();
+        String previousLastName = user.getLastName();
+        user = userRepository.save(prepareToSave(updateFromTo(user, userDTO)));
+        userSearchIndexService.update(previousEmail, previousLastName, user);
         LOG.info("{} updated.", userDTO);
     }
 
@@ -72,8 +81,10 @@ public class UserServiceImpl implements UserService, UserDetailsService, Message
 
     @Override
     public void delete(long userId) {
+        User user = userRepository.get(userId);
         checkNotFound(userRepository.delete(userId),
                 getMessage(messageSource, "exception.notFoundById") + userId);
+        userSearchIndexService.remove(user);
         LOG.info("User={} deleted.", userId);
     }
 
@@ -95,12 +106,12 @@ public class UserServiceImpl implements UserService, UserDetailsService, Message
 
     @Override
     public List<String> getEmailsByMask(String emailMask) {
-        return userRepository.getByEmailMask(emailMask);
+        return userSearchIndexService.getEmailsByMask(emailMask);
     }
 
     @Override
     public List<String> getLastNamesByMask(String lastNameMask) {
-        return userRepository.getLastNamesBy(lastNameMask);
+        return userSearchIndexService.getLastNamesByMask(lastNameMask);
     }
 
     @Override
@@ -0,0 +1,28 @@
+package com.malikov.ticketsystem.util;
+
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
+import org.springframework.ui.ModelMap;
+
+/**
+ * @author Yurii Malikov
+ */
+public class DataTablesUtil {
+
+    /**
+     * Keyset page does not know total records quantity, so DataTables gets quantity of records
+     * shown so far plus one if there is next page, which is enough to enable next page button.
+     *
+     * @param startingFrom index of first record of page
+     */
+    public static ModelMap getKeysetPageModel(Integer draw, Integer startingFrom, KeysetPageDTO<?> page) {
+        ModelMap model = new ModelMap();
+        int dataTableHasNextPageIndicator = startingFrom + page.getContent().size()
+                + (page.getNextCursor() != null ? 1 : 0);
+        model.put("draw", draw);
+        model.put("recordsTotal", dataTableHasNextPageIndicator);
+        model.put("recordsFiltered", dataTableHasNextPageIndicator);
+        model.put("data", page.getContent());
+        model.put("nextCursor", page.getNextCursor());
+        return model;
+    }
+}
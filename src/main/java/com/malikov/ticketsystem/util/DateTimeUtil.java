@@ -13,6 +13,10 @@ public class DateTimeUtil {
 
     public static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm";
     public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
+    public static final String DATE_PATTERN = "yyyy-MM-dd";
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_PATTERN);
+    public static final String TIME_PATTERN = "HH:mm";
+    public static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern(TIME_PATTERN);
     public static final LocalDateTime MIN = LocalDateTime.of(2000, 1, 1, 1, 1);
     public static final LocalDateTime MAX = LocalDateTime.of(2030, 1, 1, 1, 1);
     public static final long ONE_MINUTE_IN_MILLIS = 60000;
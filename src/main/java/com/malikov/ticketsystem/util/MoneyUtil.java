@@ -0,0 +1,66 @@
+package com.malikov.ticketsystem.util;
+
+import java.math.BigDecimal;
+
+import static java.math.RoundingMode.HALF_UP;
+
+/**
+ * Money amounts are passed between services as long quantity of micro-units (10^-6 of currency unit),
+ * which matches DECIMAL(13, 6) price columns. BigDecimal is used only at JPA and form binding boundaries.
+ *
+ * @author Yurii Malikov
+ */
+public class MoneyUtil {
+
+    public static final int SCALE = 6;
+
+    public static final long MICROS_PER_UNIT = 1_000_000;
+
+    /**
+     * Values with scale greater than 6 are rounded half up
+     */
+    public static long toMicros(BigDecimal amount) {
+        return amount.setScale(SCALE, HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long micros) {
+        return BigDecimal.valueOf(micros, SCALE);
+    }
+
+    /**
+     * Rounds half up amount which has higher scale (e.g. intermediate pricing results) to micros
+     *
+     * @param scaledAmount amount multiplied by 10^scale
+     * @param scale should be not less than 6
+     */
+    public static long toMicros(long scaledAmount, int scale) {
+        if (scale == SCALE) {
+            return scaledAmount;
+        }
+        long divisor = 1;
+        for (int i = SCALE; i < scale; i++) {
+            divisor *= 10;
+        }
+        long half = divisor / 2;
+        return scaledAmount >= 0
+                ? (scaledAmount + half) / divisor
+                : -((-scaledAmount + half) / divisor);
+    }
+
+    /**
+     * @return amount with exactly 6 fraction digits, e.g. "47.000000"
+     */
+    public static String toString(long micros) {
+        StringBuilder result = new StringBuilder(24);
+        if (micros < 0) {
+            result.append('-');
+        }
+        long absMicros = Math.abs(micros);
+        result.append(absMicros / MICROS_PER_UNIT).append('.');
+        String fraction = Long.toString(absMicros % MICROS_PER_UNIT);
+        for (int i = fraction.length(); i < SCALE; i++) {
+            result.append('0');
+        }
+        return result.append(fraction).toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.malikov.ticketsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after last row of page for keyset pagination: sort key of row (if rows are not sorted by id only)
+ * and row id as tie breaker. Clients get it as opaque url safe token.
+ *
+ * @author Yurii Malikov
+ */
+public class PageCursor {
+
+    private static final String KEY_SEPARATOR = "_";
+
+    private final LocalDateTime sortDateTime;
+
+    private final long id;
+
+    private PageCursor(LocalDateTime sortDateTime, long id) {
+        this.sortDateTime = sortDateTime;
+        this.id = id;
+    }
+
+    public static PageCursor of(long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor of(LocalDateTime sortDateTime, long id) {
+        return new PageCursor(sortDateTime, id);
+    }
+
+    /**
+     * @return null for null or empty token (first page)
+     * @throws IllegalArgumentException if token is malformed
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = key.indexOf(KEY_SEPARATOR);
+            return separatorIndex < 0
+                    ? of(Long.parseLong(key))
+                    : of(LocalDateTime.parse(key.substring(0, separatorIndex)),
+                            Long.parseLong(key.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed page cursor " + token, e);
+        }
+    }
+
+    public String encode() {
+        String key = sortDateTime == null ? Long.toString(id) : sortDateTime + KEY_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return sort key or null if rows are sorted by id only
+     */
+    public LocalDateTime getSortDateTime() {
+        return sortDateTime;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{" +
+                "sortDateTime=" + sortDateTime +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,27 @@
+package com.malikov.ticketsystem.util;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @author Yurii Malikov
+ */
+public class TransactionUtil {
+
+    /**
+     * Runs action once current transaction is committed, or immediately if there is no active transaction.
+     * Used for in-memory state which must not reflect changes of rolled back transactions.
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
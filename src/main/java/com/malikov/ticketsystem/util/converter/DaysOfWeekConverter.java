@@ -0,0 +1,36 @@
+package com.malikov.ticketsystem.util.converter;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stores days of week as bit mask: bit 0 - Monday ... bit 6 - Sunday
+ *
+ * @author Yurii Malikov
+ */
+@Converter
+public class DaysOfWeekConverter implements AttributeConverter<Set<DayOfWeek>, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<DayOfWeek> attribute) {
+        int mask = 0;
+        for (DayOfWeek dayOfWeek : attribute) {
+            mask |= 1 << dayOfWeek.ordinal();
+        }
+        return mask;
+    }
+
+    @Override
+    public Set<DayOfWeek> convertToEntityAttribute(Integer dbData) {
+        Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if ((dbData & 1 << dayOfWeek.ordinal()) != 0) {
+                daysOfWeek.add(dayOfWeek);
+            }
+        }
+        return daysOfWeek;
+    }
+}
@@ -1,7 +1,6 @@
 package com.malikov.ticketsystem.util.dtoconverter;
 
 import com.malikov.ticketsystem.dto.TicketDTO;
-import com.malikov.ticketsystem.dto.TicketWithRemainingDelayDTO;
 import com.malikov.ticketsystem.model.Flight;
 import com.malikov.ticketsystem.model.Ticket;
 import com.malikov.ticketsystem.util.DateTimeUtil;
@@ -15,25 +14,6 @@ import java.time.ZoneOffset;
  */
 public class TicketDTOConverter {
 
-    public static TicketDTO asDTO(Ticket ticket) {
-        return new TicketDTO(ticket.getId(), ticket.getPassengerFirstName(), ticket.getPassengerLastName(),
-                ticket.getDepartureAirportName(), ticket.getArrivalAirportName(), ticket.getDepartureCityName(),
-                ticket.getArrivalCityName(), DateTimeUtil.utcToZoneId(ticket.getDepartureUtcDateTime(),
-                ticket.getDepartureZoneId()), ticket.getArrivalOffsetDateTime().toLocalDateTime(), ticket.getPrice(),
-                ticket.isHasBaggage(), ticket.isHasPriorityRegistration(),
-                ticket.getSeatNumber(), ticket.getStatus());
-    }
-
-    public static TicketWithRemainingDelayDTO getTicketWithRemaimingDelayDTO(Ticket ticket, Long remaininDelay) {
-        return new TicketWithRemainingDelayDTO(ticket.getId(), ticket.getPassengerFirstName(),
-                ticket.getPassengerLastName(), ticket.getDepartureAirportName(), ticket.getArrivalAirportName(),
-                ticket.getDepartureCityName(), ticket.getArrivalCityName(),
-                DateTimeUtil.utcToZoneId(ticket.getDepartureUtcDateTime(), ticket.getDepartureZoneId()),
-                ticket.getArrivalOffsetDateTime().toLocalDateTime(),
-                ticket.getPrice(), ticket.isHasBaggage(), ticket.isHasPriorityRegistration(),
-                ticket.getSeatNumber(), ticket.getStatus(), remaininDelay);
-    }
-
     public static Ticket updateFromDTOBeforeBooking(Ticket ticket, TicketDTO ticketDTO) {
         Flight flight = ticket.getFlight();
         LocalDateTime dtoDepartureUtcDateTime = DateTimeUtil.zoneIdToUtc(ticketDTO.getDepartureLocalDateTime(),
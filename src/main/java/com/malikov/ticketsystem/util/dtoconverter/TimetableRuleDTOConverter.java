@@ -0,0 +1,18 @@
+package com.malikov.ticketsystem.util.dtoconverter;
+
+import com.malikov.ticketsystem.dto.TimetableRuleDTO;
+import com.malikov.ticketsystem.model.TimetableRule;
+
+/**
+ * @author Yurii Malikov
+ */
+public class TimetableRuleDTOConverter {
+
+    public static TimetableRuleDTO asDTO(TimetableRule timetableRule) {
+        return new TimetableRuleDTO(timetableRule.getId(), timetableRule.getDepartureAirport().getName(),
+                timetableRule.getArrivalAirport().getName(), timetableRule.getAircraft().getName(),
+                timetableRule.getDepartureLocalTime(), timetableRule.getDurationMinutes(),
+                timetableRule.getDaysOfWeek(), timetableRule.getValidFrom(), timetableRule.getValidTo(),
+                timetableRule.getInitialTicketBasePrice(), timetableRule.getMaxTicketBasePrice());
+    }
+}
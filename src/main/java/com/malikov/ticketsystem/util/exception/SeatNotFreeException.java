@@ -0,0 +1,13 @@
+package com.malikov.ticketsystem.util.exception;
+
+/**
+ * Thrown when requested seat is already booked or purchased by another user.
+ *
+ * @author Yurii Malikov
+ */
+public class SeatNotFreeException extends RuntimeException {
+
+    public SeatNotFreeException(String message) {
+        super(message);
+    }
+}
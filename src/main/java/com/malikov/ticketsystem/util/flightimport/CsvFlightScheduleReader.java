@@ -0,0 +1,90 @@
+package com.malikov.ticketsystem.util.flightimport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads comma separated rows with header row of column names.
+ * Values may be quoted, quote inside quoted value is escaped by another quote;
+ * values spanning several lines are not supported. Empty lines are skipped.
+ *
+ * @author Yurii Malikov
+ */
+public class CsvFlightScheduleReader implements FlightScheduleReader {
+
+    private static final char SEPARATOR = ',';
+
+    private static final char QUOTE = '"';
+
+    private final BufferedReader reader;
+
+    private List<String> columns;
+
+    private int rowNumber;
+
+    public CsvFlightScheduleReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public FlightScheduleRow next() throws IOException {
+        if (columns == null) {
+            String header = nextNotEmptyLine();
+            if (header == null) {
+                return null;
+            }
+            columns = split(header);
+        }
+        String line = nextNotEmptyLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> values = split(line);
+        Map<String, String> valuesByColumns = new HashMap<>();
+        for (int i = 0; i < columns.size() && i < values.size(); i++) {
+            valuesByColumns.put(columns.get(i).trim(), values.get(i));
+        }
+        return new FlightScheduleRow(++rowNumber, valuesByColumns);
+    }
+
+    private String nextNotEmptyLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.trim().isEmpty());
+        return line;
+    }
+
+    static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != QUOTE) {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                    value.append(QUOTE);
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == QUOTE) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,16 @@
+package com.malikov.ticketsystem.util.flightimport;
+
+import java.io.IOException;
+
+/**
+ * Reads imported flight schedule row by row, so whole schedule is never kept in memory
+ *
+ * @author Yurii Malikov
+ */
+public interface FlightScheduleReader {
+
+    /**
+     * @return next row or null if there are no more rows
+     */
+    FlightScheduleRow next() throws IOException;
+}
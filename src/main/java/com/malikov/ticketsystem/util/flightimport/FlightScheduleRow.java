@@ -0,0 +1,57 @@
+package com.malikov.ticketsystem.util.flightimport;
+
+import java.util.Map;
+
+/**
+ * Row of imported flight schedule: values by column names, which are same as field names
+ * of {@link com.malikov.ticketsystem.dto.FlightManageableDTO}
+ *
+ * @author Yurii Malikov
+ */
+public class FlightScheduleRow {
+
+    public static final String DEPARTURE_AIRPORT = "departureAirport";
+
+    public static final String ARRIVAL_AIRPORT = "arrivalAirport";
+
+    /**
+     * Local time of departure airport in {@link com.malikov.ticketsystem.util.DateTimeUtil#DATE_TIME_PATTERN}
+     */
+    public static final String DEPARTURE_LOCAL_DATE_TIME = "departureLocalDateTime";
+
+    /**
+     * Local time of arrival airport in {@link com.malikov.ticketsystem.util.DateTimeUtil#DATE_TIME_PATTERN}
+     */
+    public static final String ARRIVAL_LOCAL_DATE_TIME = "arrivalLocalDateTime";
+
+    public static final String AIRCRAFT_NAME = "aircraftName";
+
+    public static final String INITIAL_BASE_TICKET_PRICE = "initialBaseTicketPrice";
+
+    public static final String MAX_BASE_TICKET_PRICE = "maxBaseTicketPrice";
+
+    private final int rowNumber;
+
+    private final Map<String, String> values;
+
+    public FlightScheduleRow(int rowNumber, Map<String, String> values) {
+        this.rowNumber = rowNumber;
+        this.values = values;
+    }
+
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * @return trimmed value or null if column is absent or value is blank
+     */
+    public String get(String column) {
+        String value = values.get(column);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+}
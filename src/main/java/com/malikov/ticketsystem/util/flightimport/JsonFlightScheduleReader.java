@@ -0,0 +1,53 @@
+package com.malikov.ticketsystem.util.flightimport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.malikov.ticketsystem.web.json.JacksonObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reads JSON array of objects, which field names are column names.
+ * Array is parsed as stream, so only current object is kept in memory.
+ * Array element which is not object is returned as row without values.
+ *
+ * @author Yurii Malikov
+ */
+public class JsonFlightScheduleReader implements FlightScheduleReader {
+
+    private final JsonParser parser;
+
+    private boolean started;
+
+    private int rowNumber;
+
+    public JsonFlightScheduleReader(InputStream inputStream) throws IOException {
+        this.parser = JacksonObjectMapper.getMapper().getFactory().createParser(inputStream);
+    }
+
+    @Override
+    public FlightScheduleRow next() throws IOException {
+        if (!started) {
+            started = true;
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("JSON array of flights expected");
+            }
+        }
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        JsonNode node = parser.readValueAsTree();
+        Map<String, String> values = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            values.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText());
+        }
+        return new FlightScheduleRow(++rowNumber, values);
+    }
+}
@@ -0,0 +1,226 @@
+package com.malikov.ticketsystem.util.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel: timeouts are hashed into ring of buckets by deadline tick, timeouts with deadlines
+ * further than one wheel revolution wait for required quantity of rounds in their bucket.
+ * Scheduling and cancellation are O(1) and may be done from any thread: they only enqueue timeout
+ * (or CAS its state), buckets themselves are changed only by thread calling {@link #advance(long)}.
+ * Wheel has no own thread, it should be advanced periodically (e.g. once per tick duration).
+ *
+ * @param <T> type of payload returned when timeout expires
+ * @author Yurii Malikov
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickDurationMillis;
+
+    private final long startMillis;
+
+    private final int mask;
+
+    private final Bucket<T>[] wheel;
+
+    private final Queue<Timeout<T>> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout<T>> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Next tick to be processed, accessed by advancing thread only
+     */
+    private long tick;
+
+    /**
+     * @param ticksPerWheel is rounded up to power of two
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickDurationMillis, int ticksPerWheel, long startMillis) {
+        if (tickDurationMillis <= 0) {
+            throw new IllegalArgumentException("tickDurationMillis must be positive: " + tickDurationMillis);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel must be in range (0, 2^30]: " + ticksPerWheel);
+        }
+        int wheelSize = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        wheelSize = wheelSize == 0 ? 1 : wheelSize;
+        this.tickDurationMillis = tickDurationMillis;
+        this.startMillis = startMillis;
+        this.mask = wheelSize - 1;
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket<>();
+        }
+    }
+
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(this, payload, deadlineMillis);
+        scheduledTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Processes all ticks elapsed till nowMillis.
+     * Timeout expires at first tick end which is not earlier than its deadline.
+     *
+     * @return payloads of expired timeouts in order of expiration
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long elapsedTicks = (nowMillis - startMillis) / tickDurationMillis;
+        while (tick < elapsedTicks) {
+            removeCancelledTimeouts();
+            transferScheduledTimeouts();
+            wheel[(int) (tick & mask)].expireTimeouts(expired);
+            tick++;
+        }
+        return expired;
+    }
+
+    private void transferScheduledTimeouts() {
+        Timeout<T> timeout;
+        while ((timeout = scheduledTimeouts.poll()) != null) {
+            if (timeout.state.get() != Timeout.ST_INIT) {
+                continue;
+            }
+            long deadlineTick = Math.max(0, (timeout.deadlineMillis - startMillis) / tickDurationMillis);
+            timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+            // timeout with elapsed deadline goes to current tick bucket
+            long bucketTick = Math.max(deadlineTick, tick);
+            wheel[(int) (bucketTick & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout<T> timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    public static final class Timeout<T> {
+
+        private static final int ST_INIT = 0;
+
+        private static final int ST_CANCELLED = 1;
+
+        private static final int ST_EXPIRED = 2;
+
+        private final HashedTimingWheel<T> timingWheel;
+
+        private final T payload;
+
+        private final long deadlineMillis;
+
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        // fields below are accessed by advancing thread only
+        private long remainingRounds;
+
+        private Bucket<T> bucket;
+
+        private Timeout<T> next;
+
+        private Timeout<T> prev;
+
+        private Timeout(HashedTimingWheel<T> timingWheel, T payload, long deadlineMillis) {
+            this.timingWheel = timingWheel;
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public long getRemainingMillis(long nowMillis) {
+            return Math.max(0, deadlineMillis - nowMillis);
+        }
+
+        /**
+         * @return false if timeout has already expired or has been cancelled
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            timingWheel.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, so cancelled timeout is removed in O(1)
+     */
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout<T> remove(Timeout<T> timeout) {
+            Timeout<T> next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+
+        void expireTimeouts(List<T> expired) {
+            Timeout<T> timeout = head;
+            while (timeout != null) {
+                if (timeout.remainingRounds <= 0) {
+                    Timeout<T> next = remove(timeout);
+                    if (timeout.state.compareAndSet(Timeout.ST_INIT, Timeout.ST_EXPIRED)) {
+                        expired.add(timeout.payload);
+                    }
+                    timeout = next;
+                } else {
+                    timeout.remainingRounds--;
+                    timeout = timeout.next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.malikov.ticketsystem.util.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable case insensitive substring index over names of reference data (airports, cities, aircraft).
+ * Every bigram and trigram of indexed texts is mapped to sorted ids of values which texts contain it,
+ * so search checks only values from the shortest posting list of term grams instead of all values.
+ * Values which text starts with term go first, then values which text has word starting with term,
+ * then values containing term in any other position, in order of indexed list within each group.
+ *
+ * @param <T> type of found values
+ * @author Yurii Malikov
+ */
+public class NGramIndex<T> {
+
+    private static final int MIN_GRAM_LENGTH = 2;
+
+    private static final int MAX_GRAM_LENGTH = 3;
+
+    private static final int RANK_TEXT_PREFIX = 0;
+
+    private static final int RANK_WORD_PREFIX = 1;
+
+    private static final int RANK_SUBSTRING = 2;
+
+    private static final int RANKS_COUNT = 3;
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final List<T> values;
+
+    private final String[][] texts;
+
+    private final Map<String, int[]> postings;
+
+    /**
+     * @param textsFunction returns texts by which value is found, e.g. airport name and its city name
+     */
+    public NGramIndex(List<T> values, Function<T, List<String>> textsFunction) {
+        this.values = new ArrayList<>(values);
+        this.texts = new String[values.size()][];
+        Map<String, List<Integer>> idsMap = new HashMap<>();
+        for (int id = 0; id < this.values.size(); id++) {
+            texts[id] = textsFunction.apply(this.values.get(id)).stream()
+                    .filter(text -> text != null && !text.isEmpty())
+                    .map(NGramIndex::normalize)
+                    .toArray(String[]::new);
+            for (String text : texts[id]) {
+                for (int length = MIN_GRAM_LENGTH; length <= MAX_GRAM_LENGTH; length++) {
+                    for (int start = 0; start + length <= text.length(); start++) {
+                        List<Integer> ids = idsMap.computeIfAbsent(text.substring(start, start + length),
+                                gram -> new ArrayList<>());
+                        // ids are added in ascending order, so only last one may be duplicated
+                        if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                            ids.add(id);
+                        }
+                    }
+                }
+            }
+        }
+        this.postings = new HashMap<>(idsMap.size() * 4 / 3 + 1);
+        idsMap.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * @return at most limit values which texts contain term, best matches first
+     */
+    public List<T> search(String term, int limit) {
+        if (term == null || term.trim().isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String normalizedTerm = normalize(term.trim());
+        List<List<T>> rankedValues = new ArrayList<>(RANKS_COUNT);
+        for (int rank = 0; rank < RANKS_COUNT; rank++) {
+            rankedValues.add(new ArrayList<>());
+        }
+        for (int id : getCandidateIds(normalizedTerm)) {
+            int rank = getRank(texts[id], normalizedTerm);
+            if (rank < 0) {
+                continue;
+            }
+            rankedValues.get(rank).add(values.get(id));
+            if (rank == RANK_TEXT_PREFIX && rankedValues.get(rank).size() == limit) {
+                break;
+            }
+        }
+        List<T> found = new ArrayList<>(limit);
+        for (List<T> valuesOfRank : rankedValues) {
+            for (T value : valuesOfRank) {
+                if (found.size() == limit) {
+                    return found;
+                }
+                found.add(value);
+            }
+        }
+        return found;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Any value containing term contains all its grams, so the rarest gram gives the fewest candidates
+     */
+    private int[] getCandidateIds(String term) {
+        if (term.length() < MIN_GRAM_LENGTH) {
+            int[] allIds = new int[values.size()];
+            Arrays.setAll(allIds, id -> id);
+            return allIds;
+        }
+        int gramLength = Math.min(term.length(), MAX_GRAM_LENGTH);
+        int[] candidateIds = null;
+        for (int start = 0; start + gramLength <= term.length(); start++) {
+            int[] ids = postings.getOrDefault(term.substring(start, start + gramLength), NO_IDS);
+            if (candidateIds == null || ids.length < candidateIds.length) {
+                candidateIds = ids;
+            }
+            if (candidateIds.length == 0) {
+                break;
+            }
+        }
+        return candidateIds;
+    }
+
+    /**
+     * @return best rank among texts of value or -1 if none of them contains term
+     */
+    private static int getRank(String[] valueTexts, String term) {
+        int bestRank = -1;
+        for (String text : valueTexts) {
+            int index = text.indexOf(term);
+            while (index >= 0) {
+                int rank = index == 0 ? RANK_TEXT_PREFIX
+                        : Character.isLetterOrDigit(text.charAt(index - 1)) ? RANK_SUBSTRING : RANK_WORD_PREFIX;
+                if (bestRank < 0 || rank < bestRank) {
+                    bestRank = rank;
+                }
+                if (bestRank <= RANK_WORD_PREFIX) {
+                    break;
+                }
+                index = text.indexOf(term, index + 1);
+            }
+            if (bestRank == RANK_TEXT_PREFIX) {
+                break;
+            }
+        }
+        return bestRank;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,332 @@
+package com.malikov.ticketsystem.util.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Case insensitive search of large quantity of short terms (e.g. emails or last names of all users).
+ * Distinct terms are kept in sorted array, so terms starting with searched text are found by binary search
+ * and go first, then terms containing searched text are found through posting lists of bigrams and trigrams.
+ * Both groups are sorted alphabetically, as in ORDER BY of database query.
+ * <p>
+ * Sorted array is rebuilt only by {@link #merge()}, terms added or removed since then are kept
+ * as pending changes of term counts which are applied during search. Readers take no locks.
+ *
+ * @author Yurii Malikov
+ */
+public class TermsIndex {
+
+    private static final Comparator<String> ORDER = Comparator.comparing(TermsIndex::normalize)
+            .thenComparing(Comparator.naturalOrder());
+
+    private static final BiFunction<Integer, Integer, Integer> SUM_OR_REMOVE = (count, delta) ->
+            count + delta != 0 ? count + delta : null;
+
+    private static final int MIN_GRAM_LENGTH = 2;
+
+    private static final int MAX_GRAM_LENGTH = 3;
+
+    /**
+     * Bounds search time when posting list of the rarest gram of searched text is still long,
+     * containing terms beyond checked ones are not found then
+     */
+    private static final int MAX_CHECKED_CANDIDATES = 20_000;
+
+    private final int maxPendingChanges;
+
+    private volatile State state;
+
+    /**
+     * Guarded by this
+     */
+    private boolean merging;
+
+    /**
+     * @param terms may contain duplicates, term is found while at least one of them is not removed
+     * @param maxPendingChanges quantity of changed terms after which {@link #add} and {@link #remove}
+     *                          report that index should be merged
+     */
+    public TermsIndex(Collection<String> terms, int maxPendingChanges) {
+        Map<String, Integer> termCounts = new HashMap<>(terms.size() * 4 / 3 + 1);
+        for (String term : terms) {
+            if (term != null) {
+                termCounts.merge(term, 1, Integer::sum);
+            }
+        }
+        this.state = new State(new SortedTerms(termCounts), new ConcurrentSkipListMap<>(ORDER));
+        this.maxPendingChanges = maxPendingChanges;
+    }
+
+    /**
+     * @return true if index should be merged
+     */
+    public synchronized boolean add(String term) {
+        return change(term, 1);
+    }
+
+    /**
+     * @return true if index should be merged
+     */
+    public synchronized boolean remove(String term) {
+        return change(term, -1);
+    }
+
+    private boolean change(String term, int delta) {
+        if (term == null) {
+            return false;
+        }
+        state.pendingCounts.merge(term, delta, SUM_OR_REMOVE);
+        return !merging && state.pendingCounts.size() >= maxPendingChanges;
+    }
+
+    /**
+     * Rebuilds sorted terms with pending changes once there are maxPendingChanges of them.
+     * Takes time proportional to quantity of terms, so should be called in background,
+     * index is searched and changed meanwhile.
+     */
+    public void merge() {
+        State merged;
+        Map<String, Integer> mergedPendingCounts;
+        synchronized (this) {
+            if (merging || state.pendingCounts.size() < maxPendingChanges) {
+                return;
+            }
+            merging = true;
+            merged = state;
+            mergedPendingCounts = new HashMap<>(merged.pendingCounts);
+        }
+        try {
+            Map<String, Integer> termCounts = merged.sortedTerms.getTermCounts();
+            mergedPendingCounts.forEach((term, delta) -> termCounts.merge(term, delta, Integer::sum));
+            SortedTerms sortedTerms = new SortedTerms(termCounts);
+            synchronized (this) {
+                // changes made during merge stay pending
+                ConcurrentSkipListMap<String, Integer> pendingCounts = new ConcurrentSkipListMap<>(ORDER);
+                pendingCounts.putAll(state.pendingCounts);
+                mergedPendingCounts.forEach((term, delta) -> pendingCounts.merge(term, -delta, SUM_OR_REMOVE));
+                state = new State(sortedTerms, pendingCounts);
+            }
+        } finally {
+            synchronized (this) {
+                merging = false;
+            }
+        }
+    }
+
+    /**
+     * @return at most limit terms which contain text (case insensitive),
+     * terms starting with text go first
+     */
+    public List<String> search(String text, int limit) {
+        if (text == null || text.trim().isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String key = normalize(text.trim());
+        State current = state;
+        SortedTerms sortedTerms = current.sortedTerms;
+        ConcurrentSkipListMap<String, Integer> pendingCounts = current.pendingCounts;
+
+        IntPredicate isPresent = pendingCounts.isEmpty() ? id -> true
+                : id -> sortedTerms.counts[id] + pendingCounts.getOrDefault(sortedTerms.terms[id], 0) > 0;
+        List<String> prefixMatches = new ArrayList<>();
+        List<String> infixMatches = new ArrayList<>();
+        sortedTerms.search(key, limit, isPresent, prefixMatches, infixMatches);
+
+        if (!pendingCounts.isEmpty()) {
+            List<String> pendingPrefixMatches = new ArrayList<>();
+            List<String> pendingInfixMatches = new ArrayList<>();
+            pendingCounts.forEach((term, delta) -> {
+                // pending changes of sorted terms are already applied by isPresent
+                if (delta <= 0 || sortedTerms.getCount(term) > 0) {
+                    return;
+                }
+                int index = normalize(term).indexOf(key);
+                if (index == 0) {
+                    pendingPrefixMatches.add(term);
+                } else if (index > 0) {
+                    pendingInfixMatches.add(term);
+                }
+            });
+            prefixMatches = mergeSorted(prefixMatches, pendingPrefixMatches, limit);
+            infixMatches = mergeSorted(infixMatches, pendingInfixMatches, limit - prefixMatches.size());
+        }
+
+        List<String> found = new ArrayList<>(Math.min(limit, prefixMatches.size() + infixMatches.size()));
+        found.addAll(prefixMatches);
+        found.addAll(infixMatches.subList(0, Math.min(infixMatches.size(), limit - found.size())));
+        return found;
+    }
+
+    private static List<String> mergeSorted(List<String> first, List<String> second, int limit) {
+        if (second.isEmpty()) {
+            return first;
+        }
+        List<String> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            if (j == second.size() || i < first.size() && ORDER.compare(first.get(i), second.get(j)) <= 0) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private static String normalize(String term) {
+        return term.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class State {
+
+        private final SortedTerms sortedTerms;
+
+        /**
+         * Term -> change of its count since sorted terms were built, ordered as sorted terms
+         */
+        private final ConcurrentSkipListMap<String, Integer> pendingCounts;
+
+        private State(SortedTerms sortedTerms, ConcurrentSkipListMap<String, Integer> pendingCounts) {
+            this.sortedTerms = sortedTerms;
+            this.pendingCounts = pendingCounts;
+        }
+    }
+
+    /**
+     * Immutable, ids of terms are their positions in sorted array
+     */
+    private static final class SortedTerms {
+
+        private final String[] terms;
+
+        private final String[] keys;
+
+        private final int[] counts;
+
+        private final Map<String, int[]> postings;
+
+        private SortedTerms(Map<String, Integer> termCounts) {
+            terms = termCounts.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 0)
+                    .map(Map.Entry::getKey)
+                    .sorted(ORDER)
+                    .toArray(String[]::new);
+            keys = new String[terms.length];
+            counts = new int[terms.length];
+            Map<String, IdsBuilder> idsBuilders = new HashMap<>();
+            for (int id = 0; id < terms.length; id++) {
+                keys[id] = normalize(terms[id]);
+                counts[id] = termCounts.get(terms[id]);
+                for (int length = MIN_GRAM_LENGTH; length <= MAX_GRAM_LENGTH; length++) {
+                    for (int start = 0; start + length <= keys[id].length(); start++) {
+                        idsBuilders.computeIfAbsent(keys[id].substring(start, start + length), gram -> new IdsBuilder())
+                                .add(id);
+                    }
+                }
+            }
+            postings = new HashMap<>(idsBuilders.size() * 4 / 3 + 1);
+            idsBuilders.forEach((gram, idsBuilder) -> postings.put(gram, idsBuilder.build()));
+        }
+
+        private void search(String key, int limit, IntPredicate isPresent,
+                            List<String> prefixMatches, List<String> infixMatches) {
+            for (int id = getFirstIdNotLessThan(key); id < keys.length && prefixMatches.size() < limit
+                    && keys[id].startsWith(key); id++) {
+                if (isPresent.test(id)) {
+                    prefixMatches.add(terms[id]);
+                }
+            }
+            int infixLimit = limit - prefixMatches.size();
+            int[] candidateIds = getCandidateIds(key);
+            int candidatesCount = candidateIds != null ? candidateIds.length : terms.length;
+            for (int i = 0; i < candidatesCount && i < MAX_CHECKED_CANDIDATES
+                    && infixMatches.size() < infixLimit; i++) {
+                int id = candidateIds != null ? candidateIds[i] : i;
+                // terms starting with key are prefix matches
+                if (keys[id].indexOf(key) > 0 && isPresent.test(id)) {
+                    infixMatches.add(terms[id]);
+                }
+            }
+        }
+
+        /**
+         * @return ids from the shortest posting list of key grams or null if key is too short to have grams
+         */
+        private int[] getCandidateIds(String key) {
+            if (key.length() < MIN_GRAM_LENGTH) {
+                return null;
+            }
+            int gramLength = Math.min(key.length(), MAX_GRAM_LENGTH);
+            int[] candidateIds = null;
+            for (int start = 0; start + gramLength <= key.length(); start++) {
+                int[] ids = postings.getOrDefault(key.substring(start, start + gramLength), IdsBuilder.NO_IDS);
+                if (candidateIds == null || ids.length < candidateIds.length) {
+                    candidateIds = ids;
+                }
+            }
+            return candidateIds;
+        }
+
+        private int getFirstIdNotLessThan(String key) {
+            int id = Arrays.binarySearch(keys, key);
+            if (id < 0) {
+                return -id - 1;
+            }
+            // terms differing in case only have equal keys
+            while (id > 0 && keys[id - 1].equals(key)) {
+                id--;
+            }
+            return id;
+        }
+
+        private int getCount(String term) {
+            int id = Arrays.binarySearch(terms, term, ORDER);
+            return id >= 0 ? counts[id] : 0;
+        }
+
+        private Map<String, Integer> getTermCounts() {
+            Map<String, Integer> termCounts = new HashMap<>(terms.length * 4 / 3 + 1);
+            for (int id = 0; id < terms.length; id++) {
+                termCounts.put(terms[id], counts[id]);
+            }
+            return termCounts;
+        }
+    }
+
+    /**
+     * Ids are added in ascending order, so duplicate of last added id is skipped
+     */
+    private static final class IdsBuilder {
+
+        private static final int[] NO_IDS = new int[0];
+
+        private int[] ids = new int[2];
+
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private int[] build() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
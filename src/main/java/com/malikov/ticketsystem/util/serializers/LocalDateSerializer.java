@@ -0,0 +1,27 @@
+package com.malikov.ticketsystem.util.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static com.malikov.ticketsystem.util.DateTimeUtil.DATE_FORMATTER;
+
+/**
+ * @author Yurii Malikov
+ */
+public class LocalDateSerializer extends StdSerializer<LocalDate> {
+
+    private static final long serialVersionUID = 1L;
+
+    public LocalDateSerializer() {
+        super(LocalDate.class);
+    }
+
+    @Override
+    public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider sp) throws IOException {
+        gen.writeString(value.format(DATE_FORMATTER));
+    }
+}
@@ -0,0 +1,27 @@
+package com.malikov.ticketsystem.util.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalTime;
+
+import static com.malikov.ticketsystem.util.DateTimeUtil.TIME_FORMATTER;
+
+/**
+ * @author Yurii Malikov
+ */
+public class LocalTimeSerializer extends StdSerializer<LocalTime> {
+
+    private static final long serialVersionUID = 1L;
+
+    public LocalTimeSerializer() {
+        super(LocalTime.class);
+    }
+
+    @Override
+    public void serialize(LocalTime value, JsonGenerator gen, SerializerProvider sp) throws IOException {
+        gen.writeString(value.format(TIME_FORMATTER));
+    }
+}
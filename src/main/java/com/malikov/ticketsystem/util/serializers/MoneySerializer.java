@@ -0,0 +1,27 @@
+package com.malikov.ticketsystem.util.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.malikov.ticketsystem.util.MoneyUtil;
+
+import java.io.IOException;
+
+/**
+ * Writes money amount kept as micro-units as JSON number with 6 fraction digits
+ *
+ * @author Yurii Malikov
+ */
+public class MoneySerializer extends StdSerializer<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    public MoneySerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long value, JsonGenerator gen, SerializerProvider sp) throws IOException {
+        gen.writeNumber(MoneyUtil.toString(value));
+    }
+}
@@ -0,0 +1,80 @@
+package com.malikov.ticketsystem.util.ticketexport;
+
+import com.malikov.ticketsystem.dto.TicketDTO;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes header row and comma separated row per ticket. Local datetimes are in
+ * {@link DateTimeUtil#DATE_TIME_PATTERN}, values containing separator, quote or line break are quoted.
+ * CSV has no end of document, so aborted export ends with {@link #ABORTED_MARKER} row.
+ *
+ * @author Yurii Malikov
+ */
+public class CsvTicketExportWriter implements TicketExportWriter {
+
+    private static final String HEADER = "id,passengerFirstName,passengerLastName,departureAirport,arrivalAirport," +
+            "departureCity,arrivalCity,departureLocalDateTime,arrivalLocalDateTime,price,hasBaggage," +
+            "hasPriorityRegistrationAndBoarding,seatNumber,status";
+
+    public static final String ABORTED_MARKER = "EXPORT ABORTED, tickets above are incomplete";
+
+    private final Writer writer;
+
+    public CsvTicketExportWriter(Writer writer) throws IOException {
+        this.writer = new BufferedWriter(writer);
+        this.writer.write(HEADER);
+        this.writer.write("\r\n");
+    }
+
+    @Override
+    public void write(TicketDTO ticket) throws IOException {
+        writer.write(String.valueOf(ticket.getId()));
+        writeValue(ticket.getPassengerFirstName());
+        writeValue(ticket.getPassengerLastName());
+        writeValue(ticket.getDepartureAirport());
+        writeValue(ticket.getArrivalAirport());
+        writeValue(ticket.getDepartureCity());
+        writeValue(ticket.getArrivalCity());
+        writeValue(DateTimeUtil.toString(ticket.getDepartureLocalDateTime()));
+        writeValue(DateTimeUtil.toString(ticket.getArrivalLocalDateTime()));
+        writeValue(ticket.getPrice() != null ? ticket.getPrice().toPlainString() : null);
+        writeValue(ticket.isHasBaggage());
+        writeValue(ticket.isHasPriorityRegistrationAndBoarding());
+        writeValue(ticket.getSeatNumber());
+        writeValue(ticket.getStatus());
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void abort() throws IOException {
+        writer.write("\r\n\"");
+        writer.write(ABORTED_MARKER);
+        writer.write("\"\r\n");
+        writer.flush();
+    }
+
+    private void writeValue(Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String string = value.toString();
+        if (string.indexOf(',') < 0 && string.indexOf('"') < 0
+                && string.indexOf('\n') < 0 && string.indexOf('\r') < 0) {
+            writer.write(string);
+            return;
+        }
+        writer.write('"');
+        writer.write(string.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
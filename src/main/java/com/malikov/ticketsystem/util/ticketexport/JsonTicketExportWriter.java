@@ -0,0 +1,42 @@
+package com.malikov.ticketsystem.util.ticketexport;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.malikov.ticketsystem.dto.TicketDTO;
+import com.malikov.ticketsystem.web.json.JacksonObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes JSON array of tickets serialized same way as in admin grid.
+ * Underlying stream is flushed, but not closed. Aborted array is not closed, so aborted export is not valid JSON.
+ *
+ * @author Yurii Malikov
+ */
+public class JsonTicketExportWriter implements TicketExportWriter {
+
+    private final JsonGenerator generator;
+
+    public JsonTicketExportWriter(OutputStream outputStream) throws IOException {
+        this.generator = JacksonObjectMapper.getMapper().getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.writeStartArray();
+    }
+
+    @Override
+    public void write(TicketDTO ticket) throws IOException {
+        generator.writeObject(ticket);
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+    }
+
+    @Override
+    public void abort() throws IOException {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.close();
+    }
+}
@@ -0,0 +1,28 @@
+package com.malikov.ticketsystem.util.ticketexport;
+
+import com.malikov.ticketsystem.dto.TicketDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes exported tickets one by one straight to output, so export does not keep tickets in memory
+ *
+ * @author Yurii Malikov
+ */
+public interface TicketExportWriter extends Closeable {
+
+    void write(TicketDTO ticket) throws IOException;
+
+    /**
+     * Completes document and flushes it to output
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Flushes written tickets without completing document, so export failed in the middle is not taken
+     * for complete one. Writer must not be closed then.
+     */
+    void abort() throws IOException;
+}
@@ -0,0 +1,36 @@
+package com.malikov.ticketsystem.web.controller.cache;
+
+import com.malikov.ticketsystem.dto.EntityCacheStatsDTO;
+import com.malikov.ticketsystem.service.EntityCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * @author Yurii Malikov
+ */
+@RestController
+@RequestMapping(value = "/ajax/admin/cache")
+public class CacheAdminAjaxController {
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @GetMapping(value = "/entity-stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, EntityCacheStatsDTO> getEntityCacheStats() {
+        return entityCacheService.getStats();
+    }
+
+    @PostMapping(value = "/entity-evict")
+    public ResponseEntity<String> evictEntityCache() {
+        entityCacheService.evictAll();
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+}
@@ -1,21 +1,34 @@
 package com.malikov.ticketsystem.web.controller.flight;
 
+import com.malikov.ticketsystem.dto.CacheStatsDTO;
+import com.malikov.ticketsystem.dto.FlightImportResultDTO;
 import com.malikov.ticketsystem.dto.FlightManageableDTO;
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
+import com.malikov.ticketsystem.service.FlightImportService;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
 import com.malikov.ticketsystem.service.FlightService;
 import com.malikov.ticketsystem.util.DateTimeUtil;
-import com.malikov.ticketsystem.util.dtoconverter.FlightDTOConverter;
+import com.malikov.ticketsystem.util.PageCursor;
+import com.malikov.ticketsystem.util.flightimport.CsvFlightScheduleReader;
+import com.malikov.ticketsystem.util.flightimport.JsonFlightScheduleReader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.ui.ModelMap;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+
+import static com.malikov.ticketsystem.util.DataTablesUtil.getKeysetPageModel;
 
 /**
  * @author Yurii Malikov
@@ -27,6 +40,12 @@ public class FlightAdminAjaxController {
     @Autowired
     private FlightService flightService;
 
+    @Autowired
+    private FlightSearchCacheService flightSearchCacheService;
+
+    @Autowired
+    private FlightImportService flightImportService;
+
     @PostMapping
     public ResponseEntity<String> create(@Valid FlightManageableDTO flightManageableDTO) {
         flightService.create(flightManageableDTO);
@@ -52,6 +71,22 @@ public class FlightAdminAjaxController {
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public FlightImportResultDTO importCsv(InputStream inputStream) throws IOException {
+        return flightImportService.importFlights(
+                new CsvFlightScheduleReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public FlightImportResultDTO importJson(InputStream inputStream) throws IOException {
+        return flightImportService.importFlights(new JsonFlightScheduleReader(inputStream));
+    }
+
+    @GetMapping(value = "/search-cache-stats")
+    public CacheStatsDTO getSearchCacheStats() {
+        return flightSearchCacheService.getStats();
+    }
+
     @GetMapping
     public ModelMap getFilteredPage(
             @RequestParam(value = "fromDepartureDateTimeCondition", required = false)
@@ -62,13 +97,19 @@ public class FlightAdminAjaxController {
             @RequestParam(value = "arrivalAirportCondition", required = false) String arrivalAirportName,
             @RequestParam(value = "draw") Integer draw,
             @RequestParam(value = "start") Integer startingFrom,
-            @RequestParam(value = "length") Integer pageCapacity) {
+            @RequestParam(value = "length") Integer pageCapacity,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        if (cursor != null) {
+            KeysetPageDTO<FlightManageableDTO> page = flightService.getAllFilteredPage(departureAirportName,
+                    arrivalAirportName, fromDepartureDateTime, toDepartureDateTime,
+                    PageCursor.decode(cursor), pageCapacity);
+            return getKeysetPageModel(draw, startingFrom, page);
+        }
 
         List<FlightManageableDTO> flightManageableDTOS = flightService.getAllFiltered(departureAirportName,
                     arrivalAirportName, fromDepartureDateTime, toDepartureDateTime,
-                    startingFrom, pageCapacity).stream()
-                .map(FlightDTOConverter::asManageableDTO)
-                .collect(Collectors.toList());
+                    startingFrom, pageCapacity);
         ModelMap model = new ModelMap();
         int dataTableHasNextPageIndicator;
 
@@ -1,8 +1,14 @@
 package com.malikov.ticketsystem.web.controller.flight;
 
+import com.malikov.ticketsystem.dto.DayFareDTO;
 import com.malikov.ticketsystem.dto.FlightDTO;
+import com.malikov.ticketsystem.dto.FlightQuoteDTO;
+import com.malikov.ticketsystem.dto.ItineraryDTO;
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
+import com.malikov.ticketsystem.service.ConnectionSearchService;
 import com.malikov.ticketsystem.service.FlightService;
 import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.PageCursor;
 import com.malikov.ticketsystem.util.dtoconverter.FlightDTOConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -15,9 +21,12 @@ import org.springframework.web.bind.annotation.RestController;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static com.malikov.ticketsystem.util.DataTablesUtil.getKeysetPageModel;
+
 /**
  * @author Yurii Malikov
  */
@@ -29,6 +38,9 @@ public class FlightAnonymousAjaxController {
     @Autowired
     private FlightService flightService;
 
+    @Autowired
+    private ConnectionSearchService connectionSearchService;
+
     @GetMapping
     public ModelMap getFilteredPage(
             @RequestParam(value = "fromDepartureDateTimeCondition") @NotNull
@@ -39,7 +51,15 @@ public class FlightAnonymousAjaxController {
             @RequestParam(value = "arrivalAirportCondition") @Size(min = 2, max = 255) String arrivalAirportName,
             @RequestParam(value = "draw") int draw,
             @RequestParam(value = "start") int startingFrom,
-            @RequestParam(value = "length") int pageCapacity) {
+            @RequestParam(value = "length") int pageCapacity,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        if (cursor != null) {
+            KeysetPageDTO<FlightDTO> page = flightService.getFlightTicketPricePage(departureAirportName,
+                    arrivalAirportName, fromDepartureDateTime, toDepartureDateTime,
+                    PageCursor.decode(cursor), pageCapacity);
+            return getKeysetPageModel(draw, startingFrom, page);
+        }
 
         List<FlightDTO> flightDTOs = flightService.getFlightTicketPriceMap(departureAirportName, arrivalAirportName,
                         fromDepartureDateTime, toDepartureDateTime, startingFrom, pageCapacity).entrySet()
@@ -62,4 +82,36 @@ public class FlightAnonymousAjaxController {
 
         return model;
     }
+
+    @GetMapping(value = "/connections")
+    public List<ItineraryDTO> getConnections(
+            @RequestParam(value = "fromDepartureDateTimeCondition") @NotNull
+                    @DateTimeFormat(pattern = DateTimeUtil.DATE_TIME_PATTERN) LocalDateTime fromDepartureDateTime,
+            @RequestParam(value = "toDepartureDateTimeCondition") @NotNull
+                    @DateTimeFormat(pattern = DateTimeUtil.DATE_TIME_PATTERN) LocalDateTime toDepartureDateTime,
+            @RequestParam(value = "departureAirportCondition") @Size(min = 2, max = 255) String departureAirportName,
+            @RequestParam(value = "arrivalAirportCondition") @Size(min = 2, max = 255) String arrivalAirportName,
+            @RequestParam(value = "maxStops", defaultValue = "2") int maxStops) {
+        return connectionSearchService.search(departureAirportName, arrivalAirportName,
+                fromDepartureDateTime, toDepartureDateTime, maxStops);
+    }
+
+    /**
+     * @param month month of departure in yyyy-MM format
+     */
+    @GetMapping(value = "/calendar")
+    public List<DayFareDTO> getLowFareCalendar(
+            @RequestParam(value = "departureAirportCondition") @Size(min = 2, max = 255) String departureAirportName,
+            @RequestParam(value = "arrivalAirportCondition") @Size(min = 2, max = 255) String arrivalAirportName,
+            @RequestParam(value = "month") @NotNull YearMonth month) {
+        return flightService.getMinTicketPriceMap(departureAirportName, arrivalAirportName, month).entrySet()
+                .stream()
+                .map(entry -> new DayFareDTO(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @GetMapping(value = "/quotes")
+    public List<FlightQuoteDTO> getQuotes(@RequestParam(value = "flightIds") List<Long> flightIds) {
+        return flightService.getQuotes(flightIds);
+    }
 }
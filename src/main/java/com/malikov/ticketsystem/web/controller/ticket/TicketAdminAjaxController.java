@@ -1,17 +1,32 @@
 package com.malikov.ticketsystem.web.controller.ticket;
 
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
 import com.malikov.ticketsystem.dto.TicketDTO;
-import com.malikov.ticketsystem.model.Ticket;
 import com.malikov.ticketsystem.service.TicketService;
-import com.malikov.ticketsystem.util.dtoconverter.TicketDTOConverter;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.PageCursor;
+import com.malikov.ticketsystem.util.ticketexport.CsvTicketExportWriter;
+import com.malikov.ticketsystem.util.ticketexport.JsonTicketExportWriter;
+import com.malikov.ticketsystem.util.ticketexport.TicketExportWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.ui.ModelMap;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+
+import static com.malikov.ticketsystem.util.DataTablesUtil.getKeysetPageModel;
+import static com.malikov.ticketsystem.util.MessageUtil.getMessage;
+import static com.malikov.ticketsystem.util.ValidationUtil.validateFromToDates;
 
 /**
  * @author Yurii Malikov
@@ -23,13 +38,23 @@ public class TicketAdminAjaxController {
     @Autowired
     private TicketService ticketService;
 
+    @Autowired
+    private MessageSource messageSource;
+
     @GetMapping
     public ModelMap getFilteredPage(
             @RequestParam(value = "userEmailCondition") @Size(min = 5, max = 255) String userEmailCondition,
             @RequestParam(value = "draw") Integer draw,
             @RequestParam(value = "start") Integer startingFrom,
-            @RequestParam(value = "length") Integer pageCapacity) {
-        List<Ticket> tickets = ticketService.getByUserEmail(userEmailCondition, startingFrom, pageCapacity + 1);
+            @RequestParam(value = "length") Integer pageCapacity,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            KeysetPageDTO<TicketDTO> page = ticketService.getByUserEmailPage(userEmailCondition,
+                    PageCursor.decode(cursor), pageCapacity);
+            return getKeysetPageModel(draw, startingFrom, page);
+        }
+
+        List<TicketDTO> tickets = ticketService.getByUserEmail(userEmailCondition, startingFrom, pageCapacity + 1);
         if (tickets.size() > pageCapacity) {
             tickets.remove(tickets.size() - 1);
         }
@@ -39,11 +64,54 @@ public class TicketAdminAjaxController {
 
         model.put("recordsTotal", dataTableHasNextPageIndicator);
         model.put("recordsFiltered", dataTableHasNextPageIndicator);
-        model.put("data", tickets.stream().map(TicketDTOConverter::asDTO).collect(Collectors.toList()));
+        model.put("data", tickets);
         return model;
     }
 
 
+    /**
+     * Dates are validated before response is written, so invalid request gets error response
+     * instead of empty document
+     */
+    @GetMapping(value = "/export", params = "format=csv")
+    public void exportCsv(@RequestParam(value = "fromDepartureUtcDateTime")
+                              @DateTimeFormat(pattern = DateTimeUtil.DATE_TIME_PATTERN) LocalDateTime from,
+                          @RequestParam(value = "toDepartureUtcDateTime")
+                              @DateTimeFormat(pattern = DateTimeUtil.DATE_TIME_PATTERN) LocalDateTime to,
+                          HttpServletResponse response) throws IOException {
+        validateFromToDates(from, to, getMessage(messageSource, "exception.fromCannotBeAfterTo"));
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"tickets.csv\"");
+        export(from, to, new CsvTicketExportWriter(
+                new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)));
+    }
+
+    @GetMapping(value = "/export", params = "format=json")
+    public void exportJson(@RequestParam(value = "fromDepartureUtcDateTime")
+                               @DateTimeFormat(pattern = DateTimeUtil.DATE_TIME_PATTERN) LocalDateTime from,
+                           @RequestParam(value = "toDepartureUtcDateTime")
+                               @DateTimeFormat(pattern = DateTimeUtil.DATE_TIME_PATTERN) LocalDateTime to,
+                           HttpServletResponse response) throws IOException {
+        validateFromToDates(from, to, getMessage(messageSource, "exception.fromCannotBeAfterTo"));
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        response.setHeader("Content-Disposition", "attachment; filename=\"tickets.json\"");
+        export(from, to, new JsonTicketExportWriter(response.getOutputStream()));
+    }
+
+    /**
+     * Export failed after response has been committed is aborted, so it is not completed as if
+     * all tickets were written
+     */
+    private void export(LocalDateTime from, LocalDateTime to, TicketExportWriter writer) throws IOException {
+        try {
+            ticketService.exportByDepartureUtcDateTime(from, to, writer);
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+        writer.close();
+    }
+
     @PutMapping
     public void updateTicket(@Valid TicketDTO ticketDTO) {
         ticketService.update(ticketDTO);
@@ -1,17 +1,21 @@
 package com.malikov.ticketsystem.web.controller.ticket;
 
 import com.malikov.ticketsystem.AuthorizedUser;
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
 import com.malikov.ticketsystem.dto.TicketDTO;
 import com.malikov.ticketsystem.dto.TicketPriceDetailsDTO;
 import com.malikov.ticketsystem.dto.TicketWithRemainingDelayDTO;
 import com.malikov.ticketsystem.model.Flight;
 import com.malikov.ticketsystem.model.Ticket;
 import com.malikov.ticketsystem.service.FlightService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
 import com.malikov.ticketsystem.service.TicketService;
 import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.ui.ModelMap;
+import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpSession;
@@ -19,6 +23,7 @@ import javax.validation.Valid;
 import java.time.OffsetDateTime;
 import java.util.List;
 
+import static com.malikov.ticketsystem.util.DataTablesUtil.getKeysetPageModel;
 import static com.malikov.ticketsystem.util.DateTimeUtil.BOOKING_DURATION_MILLIS;
 
 /**
@@ -34,10 +39,20 @@ public class TicketUserAjaxController {
     @Autowired
     private FlightService flightService;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ModelMap getActiveUserTicketsWithRemainingDelaysPage(@RequestParam(value = "draw") Integer draw,
                                                                 @RequestParam(value = "start") Integer startingFrom,
-                                                                @RequestParam(value = "length") Integer pageCapacity) {
+                                                                @RequestParam(value = "length") Integer pageCapacity,
+                                                                @RequestParam(value = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            KeysetPageDTO<TicketWithRemainingDelayDTO> page = ticketService.getActiveTicketsWithDelaysPage(
+                    AuthorizedUser.id(), PageCursor.decode(cursor), pageCapacity);
+            return getKeysetPageModel(draw, startingFrom, page);
+        }
+
         List<TicketWithRemainingDelayDTO> ticketWithRemainingDelayDTOs =
                 ticketService.getActiveTicketsWithDelays(AuthorizedUser.id(),startingFrom, pageCapacity);
         ModelMap model = new ModelMap();
@@ -58,7 +73,14 @@ public class TicketUserAjaxController {
     @GetMapping(value = "/archived", produces = MediaType.APPLICATION_JSON_VALUE)
     public ModelMap getArchivedUserTickets(@RequestParam(value = "draw") Integer draw,
                                                                 @RequestParam(value = "start") Integer startingFrom,
-                                                                @RequestParam(value = "length") Integer pageCapacity) {
+                                                                @RequestParam(value = "length") Integer pageCapacity,
+                                                                @RequestParam(value = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            KeysetPageDTO<TicketDTO> page = ticketService.getArchivedTicketsPage(AuthorizedUser.id(),
+                    PageCursor.decode(cursor), pageCapacity);
+            return getKeysetPageModel(draw, startingFrom, page);
+        }
+
         List<TicketDTO> ticketDTOs = ticketService.getArchivedTickets(AuthorizedUser.id(),startingFrom, pageCapacity);
         ModelMap model = new ModelMap();
 
@@ -109,6 +131,8 @@ public class TicketUserAjaxController {
     @PostMapping
     public ModelMap createNewBookedTicket(@Valid TicketDTO ticketDTO, HttpSession session) {
         Long flightId = (Long) session.getAttribute("flightId");
+        Assert.notNull(ticketDTO.getSeatNumber(), "seat number must not be null");
+        seatInventoryService.checkSeatIsFree(flightId, ticketDTO.getSeatNumber());
         Ticket bookedTicket = ticketService.createNewBookedTicketAndScheduledTask(ticketDTO, flightId,
                 flightService.getTicketPriceDetails(flightId));
         ModelMap model = new ModelMap();
@@ -0,0 +1,48 @@
+package com.malikov.ticketsystem.web.controller.timetable;
+
+import com.malikov.ticketsystem.dto.TimetableRuleDTO;
+import com.malikov.ticketsystem.service.TimetableService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * @author Yurii Malikov
+ */
+@RestController
+@RequestMapping(value = "/ajax/admin/timetable")
+public class TimetableAdminAjaxController {
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<TimetableRuleDTO> getAll() {
+        return timetableService.getAll();
+    }
+
+    @PostMapping
+    public ResponseEntity<String> create(@Valid TimetableRuleDTO timetableRuleDTO) {
+        timetableService.create(timetableRuleDTO);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @DeleteMapping(value = "/{id}")
+    public ResponseEntity<String> delete(@PathVariable("id") long id) {
+        timetableService.delete(id);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    /**
+     * @return quantity of created flights
+     */
+    @PostMapping(value = "/generate-flights")
+    public int generateFlights() {
+        return timetableService.generateFlights();
+    }
+}
@@ -3,6 +3,7 @@ package com.malikov.ticketsystem.web.exceptionhandler;
 import com.malikov.ticketsystem.util.ValidationUtil;
 import com.malikov.ticketsystem.util.exception.ErrorInfo;
 import com.malikov.ticketsystem.util.exception.NotFoundException;
+import com.malikov.ticketsystem.util.exception.SeatNotFreeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -57,6 +58,13 @@ public class RestExceptionHandler {
         return logAndGetErrorInfo(req, e, true);
     }
 
+    @ResponseStatus(value = HttpStatus.CONFLICT)  // 409
+    @ExceptionHandler(SeatNotFreeException.class)
+    @ResponseBody
+    public ErrorInfo seatConflict(HttpServletRequest req, SeatNotFreeException e) {
+        return logAndGetErrorInfo(req, e, false);
+    }
+
     @ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)  // 422
     @ExceptionHandler(BindException.class)
     @ResponseBody
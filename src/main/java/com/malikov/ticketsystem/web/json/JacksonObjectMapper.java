@@ -6,9 +6,13 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.malikov.ticketsystem.util.serializers.LocalDateSerializer;
 import com.malikov.ticketsystem.util.serializers.LocalDateTimeSerializer;
+import com.malikov.ticketsystem.util.serializers.LocalTimeSerializer;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 /**
  * @author Yurii Malikov
@@ -24,6 +28,8 @@ public class JacksonObjectMapper extends ObjectMapper {
     private JacksonObjectMapper() {
         SimpleModule module = new SimpleModule();
         module.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer());
+        module.addSerializer(LocalDate.class, new LocalDateSerializer());
+        module.addSerializer(LocalTime.class, new LocalTimeSerializer());
         registerModule(module);
         configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
 
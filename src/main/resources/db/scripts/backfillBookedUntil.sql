@@ -0,0 +1,2 @@
+UPDATE tickets SET booked_until = DATE_ADD(UTC_TIMESTAMP(), INTERVAL 2 MINUTE)
+WHERE status = 'BOOKED' AND booked_until IS NULL;
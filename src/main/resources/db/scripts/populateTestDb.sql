@@ -7,6 +7,7 @@ TRUNCATE TABLE airports;
 TRUNCATE TABLE aircraft_models;
 TRUNCATE TABLE aircraft;
 TRUNCATE TABLE flights;
+TRUNCATE TABLE timetable_rules;
 TRUNCATE TABLE tariffs_details;
 TRUNCATE TABLE tickets;
 SET FOREIGN_KEY_CHECKS = 1;
@@ -18,6 +19,7 @@ ALTER TABLE airports AUTO_INCREMENT 1;
 ALTER TABLE aircraft_models AUTO_INCREMENT 1;
 ALTER TABLE aircraft AUTO_INCREMENT 1;
 ALTER TABLE flights AUTO_INCREMENT 1;
+ALTER TABLE timetable_rules AUTO_INCREMENT 1;
 ALTER TABLE tickets AUTO_INCREMENT 1;
 
 INSERT INTO users (name, last_name, email, password, phone_number) VALUES
@@ -127,3 +129,5 @@ VALUES
 
   (6, 8, 40, '2017-05-20T08:30+02:00', FALSE, FALSE, 'Abu', 'Kumar', 'Leonardo da Vinci International Airport', 'Rome',
       'Boryspil International Airport', 'Kyiv', '2017-06-27T12:00', 'Europe/Rome', '2017-06-27T16:00+03:00', 1, 'PAID');
+
+UPDATE flights f SET tickets_count = (SELECT COUNT(*) FROM tickets t WHERE t.flight_id = f.id);
@@ -0,0 +1,221 @@
+package com.malikov.ticketsystem.benchmark;
+
+import com.malikov.ticketsystem.dto.ItineraryDTO;
+import com.malikov.ticketsystem.model.Aircraft;
+import com.malikov.ticketsystem.model.AircraftModel;
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.City;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.repository.AirportRepository;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.repository.TicketRepository;
+import com.malikov.ticketsystem.service.AirportService;
+import com.malikov.ticketsystem.service.ConnectionSearchService;
+import com.malikov.ticketsystem.service.FareCalendarService;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.service.TariffsDetailsSnapshotService;
+import com.malikov.ticketsystem.service.impl.AirportServiceImpl;
+import com.malikov.ticketsystem.service.impl.ConnectionSearchServiceImpl;
+import com.malikov.ticketsystem.service.impl.RouteIndexServiceImpl;
+import com.malikov.ticketsystem.service.impl.SeatInventoryServiceImpl;
+import com.malikov.ticketsystem.service.impl.TicketPricingServiceImpl;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.MessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.malikov.ticketsystem.TariffDetailsTestData.ACTIVE_TARIFF_DETAILS;
+import static java.math.RoundingMode.HALF_UP;
+import static org.mockito.Mockito.when;
+
+/**
+ * Connection search with up to 2 stops for one day departure window over a year of generated schedule
+ * (40 airports in 5 time zones, 6 routes from every airport, 2 flights per route a day, ~175 000 flights).
+ * Found journeys are priced with real SeatInventoryServiceImpl, which loads seats of flight from repository
+ * (mocked, every flight has 20 occupied seats) on first access: "cold" search drops loaded seats before
+ * every call, so every priced flight is loaded as after restart, "warm" search reuses seats loaded before:
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ *         com.malikov.ticketsystem.benchmark.ConnectionSearchBenchmark
+ * </pre>
+ *
+ * @author Yurii Malikov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionSearchBenchmark {
+
+    private static final int AIRPORTS_QUANTITY = 40;
+
+    private static final int ROUTES_PER_AIRPORT = 6;
+
+    private static final int FLIGHTS_PER_ROUTE_A_DAY = 2;
+
+    private static final int SCHEDULE_DAYS = 365;
+
+    private static final ZoneId[] ZONE_IDS = {ZoneId.of("Europe/Kiev"), ZoneId.of("Europe/London"),
+            ZoneId.of("Europe/Rome"), ZoneId.of("America/New_York"), ZoneId.of("Asia/Tokyo")};
+
+    private static final List<Integer> OCCUPIED_SEAT_NUMBERS = new ArrayList<>();
+
+    static {
+        for (int seatNumber = 1; seatNumber <= 20; seatNumber++) {
+            OCCUPIED_SEAT_NUMBERS.add(seatNumber);
+        }
+    }
+
+    private final ConnectionSearchService connectionSearchService = new ConnectionSearchServiceImpl();
+
+    private final SeatInventoryService seatInventoryService = new SeatInventoryServiceImpl();
+
+    private Map<?, ?> loadedFlightSeatsMap;
+
+    private Airport[] airports;
+
+    private LocalDateTime firstScheduleDay;
+
+    private int searchesQuantity;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        airports = new Airport[AIRPORTS_QUANTITY];
+        for (int i = 0; i < AIRPORTS_QUANTITY; i++) {
+            City city = new City((long) i + 1, "City " + i, ZONE_IDS[i % ZONE_IDS.length]);
+            airports[i] = new Airport((long) i + 1, "Airport " + i, city);
+        }
+
+        Aircraft aircraft = new Aircraft(1L, "A320-1", new AircraftModel(1L, "AIRBUS A320", 150));
+        firstScheduleDay = LocalDate.now(ZoneId.of("UTC")).plusDays(1).atStartOfDay();
+        List<Flight> flights = new ArrayList<>();
+        long flightId = 1;
+        for (Airport departureAirport : airports) {
+            Set<Airport> arrivalAirports = new HashSet<>();
+            while (arrivalAirports.size() < ROUTES_PER_AIRPORT) {
+                Airport arrivalAirport = airports[random.nextInt(AIRPORTS_QUANTITY)];
+                if (arrivalAirport != departureAirport) {
+                    arrivalAirports.add(arrivalAirport);
+                }
+            }
+            for (Airport arrivalAirport : arrivalAirports) {
+                int durationMinutes = 60 + random.nextInt(300);
+                for (int day = 0; day < SCHEDULE_DAYS; day++) {
+                    for (int i = 0; i < FLIGHTS_PER_ROUTE_A_DAY; i++) {
+                        LocalDateTime departure = firstScheduleDay.plusDays(day)
+                                .plusMinutes(i * 720 + random.nextInt(720) / 5 * 5);
+                        flights.add(new Flight(flightId++, departureAirport, arrivalAirport, aircraft,
+                                departure, departure.plusMinutes(durationMinutes),
+                                new BigDecimal(30).setScale(6, HALF_UP), new BigDecimal(50).setScale(6, HALF_UP)));
+                    }
+                }
+            }
+        }
+        flights.sort(Comparator.comparing(Flight::getDepartureUtcDateTime));
+        Map<Long, Flight> flightsById = new HashMap<>();
+        flights.forEach(flight -> flightsById.put(flight.getId(), flight));
+
+        FlightRepository flightRepository = Mockito.mock(FlightRepository.class);
+        when(flightRepository.getUpcoming(Mockito.any(LocalDateTime.class))).thenReturn(flights);
+        AirportRepository airportRepository = Mockito.mock(AirportRepository.class);
+        when(airportRepository.getAll()).thenReturn(Arrays.asList(airports));
+        TariffsDetailsSnapshotService tariffsDetailsSnapshotService = Mockito.mock(TariffsDetailsSnapshotService.class);
+        when(tariffsDetailsSnapshotService.getActive()).thenReturn(ACTIVE_TARIFF_DETAILS);
+        when(flightRepository.get(Mockito.anyLong()))
+                .thenAnswer(invocation -> flightsById.get((Long) invocation.getArguments()[0]));
+        TicketRepository ticketRepository = Mockito.mock(TicketRepository.class);
+        when(ticketRepository.getOccupiedSeatNumbers(Mockito.anyLong())).thenReturn(OCCUPIED_SEAT_NUMBERS);
+
+        ReflectionTestUtils.setField(seatInventoryService, "flightRepository", flightRepository);
+        ReflectionTestUtils.setField(seatInventoryService, "ticketRepository", ticketRepository);
+        ReflectionTestUtils.setField(seatInventoryService, "fareCalendarService",
+                Mockito.mock(FareCalendarService.class));
+        ReflectionTestUtils.setField(seatInventoryService, "flightSearchCacheService",
+                Mockito.mock(FlightSearchCacheService.class));
+        ((SeatInventoryServiceImpl) seatInventoryService).setMessageSource(Mockito.mock(MessageSource.class));
+        loadedFlightSeatsMap = (Map<?, ?>) ReflectionTestUtils.getField(seatInventoryService, "flightSeatsMap");
+
+        RouteIndexService routeIndexService = new RouteIndexServiceImpl();
+        ReflectionTestUtils.setField(routeIndexService, "flightRepository", flightRepository);
+
+        AirportService airportService = new AirportServiceImpl();
+        ReflectionTestUtils.setField(airportService, "airportRepository", airportRepository);
+
+        ReflectionTestUtils.setField(connectionSearchService, "airportService", airportService);
+        ReflectionTestUtils.setField(connectionSearchService, "tariffsDetailsSnapshotService",
+                tariffsDetailsSnapshotService);
+        ReflectionTestUtils.setField(connectionSearchService, "routeIndexService", routeIndexService);
+        ReflectionTestUtils.setField(connectionSearchService, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(connectionSearchService, "ticketPricingService", new TicketPricingServiceImpl());
+        ReflectionTestUtils.setField(connectionSearchService, "minConnectionMinutes", 60L);
+        ReflectionTestUtils.setField(connectionSearchService, "maxLayoverMinutes", 720L);
+        ReflectionTestUtils.setField(connectionSearchService, "maxItineraries", 50);
+        ((ConnectionSearchServiceImpl) connectionSearchService).setMessageSource(Mockito.mock(MessageSource.class));
+    }
+
+    /**
+     * Every call searches another pair of airports and another day of schedule
+     */
+    @Benchmark
+    public List<ItineraryDTO> searchWithTwoStops() {
+        return search();
+    }
+
+    @Benchmark
+    public List<ItineraryDTO> searchWithTwoStopsColdInventory() {
+        loadedFlightSeatsMap.clear();
+        return search();
+    }
+
+    private List<ItineraryDTO> search() {
+        int search = searchesQuantity++;
+        Airport departureAirport = airports[search % AIRPORTS_QUANTITY];
+        Airport arrivalAirport = airports[(search * 7 + 13) % AIRPORTS_QUANTITY];
+        if (departureAirport == arrivalAirport) {
+            arrivalAirport = airports[(search + 1) % AIRPORTS_QUANTITY];
+        }
+        LocalDateTime fromDeparture = firstScheduleDay.plusDays(search % (SCHEDULE_DAYS - 1));
+        return connectionSearchService.search(departureAirport.getName(), arrivalAirport.getName(),
+                fromDeparture, fromDeparture.plusDays(1), ConnectionSearchService.MAX_STOPS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ConnectionSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,189 @@
+package com.malikov.ticketsystem.benchmark;
+
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.model.TariffsDetails;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import com.malikov.ticketsystem.service.impl.TicketPricingServiceImpl;
+import com.malikov.ticketsystem.util.MoneyUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.malikov.ticketsystem.FlightTestData.*;
+import static com.malikov.ticketsystem.TariffDetailsTestData.ACTIVE_TARIFF_DETAILS;
+import static java.math.RoundingMode.HALF_UP;
+
+/**
+ * Prices one page of search results and verifies price of booked ticket with baggage, with money
+ * as BigDecimal (pricing and verification as they were before MoneyUtil) and as long micro-units
+ * (current TicketPricingServiceImpl, FlightServiceImpl.getTicketPriceDetails and TicketServiceImpl).
+ * Requested prices are calculated once in setup, as if they were sent by client, so verification
+ * compares freshly calculated price with them.
+ * Allocation per search is reported by gc profiler ("gc.alloc.rate.norm"):
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ *         com.malikov.ticketsystem.benchmark.TicketPricingBenchmark
+ * </pre>
+ *
+ * @author Yurii Malikov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketPricingBenchmark {
+
+    private final TicketPricingService ticketPricingService = new TicketPricingServiceImpl();
+
+    private final BigDecimalTicketPricing bigDecimalTicketPricing = new BigDecimalTicketPricing();
+
+    private final Flight[] flights = {FLIGHT_1, FLIGHT_2, FLIGHT_3, FLIGHT_4, FLIGHT_5, FLIGHT_6};
+
+    private final long[] ticketsQuantities = {0, 3, 7, 2, 5, 1};
+
+    private final BigDecimal[] requestedPrices = new BigDecimal[flights.length];
+
+    private final long[] requestedMicros = new long[flights.length];
+
+    private TariffsDetails tariffsDetails;
+
+    @Setup
+    public void setUp() {
+        tariffsDetails = ACTIVE_TARIFF_DETAILS;
+        for (int i = 0; i < flights.length; i++) {
+            requestedPrices[i] = bigDecimalTicketPricing.calculateTicketPrice(tariffsDetails, flights[i],
+                    ticketsQuantities[i]).add(tariffsDetails.getBaggageSurchargeOverMaxBaseTicketPrice()
+                    .add(flights[i].getMaxTicketBasePrice()));
+            requestedMicros[i] = MoneyUtil.toMicros(requestedPrices[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean bigDecimalSearchAndVerify() {
+        boolean allVerified = true;
+        for (int i = 0; i < flights.length; i++) {
+            BigDecimal ticketPrice = bigDecimalTicketPricing.calculateTicketPrice(
+                    tariffsDetails, flights[i], ticketsQuantities[i]);
+            BigDecimal baggagePrice = tariffsDetails.getBaggageSurchargeOverMaxBaseTicketPrice()
+                    .add(flights[i].getMaxTicketBasePrice());
+            allVerified &= ticketPrice.add(baggagePrice).equals(requestedPrices[i]);
+        }
+        return allVerified;
+    }
+
+    @Benchmark
+    public boolean longSearchAndVerify() {
+        boolean allVerified = true;
+        for (int i = 0; i < flights.length; i++) {
+            long ticketPrice = ticketPricingService.calculateTicketPrice(
+                    tariffsDetails, flights[i], ticketsQuantities[i]);
+            long baggagePrice = MoneyUtil.toMicros(tariffsDetails.getBaggageSurchargeOverMaxBaseTicketPrice())
+                    + MoneyUtil.toMicros(flights[i].getMaxTicketBasePrice());
+            allVerified &= ticketPrice + baggagePrice == requestedMicros[i];
+        }
+        return allVerified;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TicketPricingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * TicketPricingServiceImpl as it was before prices were passed as long micro-units
+     */
+    private static class BigDecimalTicketPricing {
+
+        private static final int COEFFICIENT_SCALE = 9;
+
+        private static final int PRICE_SCALE = 6;
+
+        private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+        private final ConcurrentMap<Long, FlightPriceCurve> flightPriceCurveMap = new ConcurrentHashMap<>();
+
+        BigDecimal calculateTicketPrice(TariffsDetails tariffsDetails, Flight flight, long ticketsQuantity) {
+            FlightPriceCurve priceCurve = flightPriceCurveMap.get(flight.getId());
+            if (priceCurve == null || !Objects.equals(priceCurve.tariffsDetailsId, tariffsDetails.getId())) {
+                priceCurve = new FlightPriceCurve(tariffsDetails, flight);
+                flightPriceCurveMap.put(flight.getId(), priceCurve);
+            }
+            long nowEpochSecond = LocalDateTime.now(ZoneId.of("UTC")).toEpochSecond(ZoneOffset.UTC);
+            return BigDecimal.valueOf(priceCurve.getScaledPrice(nowEpochSecond, ticketsQuantity), COEFFICIENT_SCALE)
+                    .setScale(PRICE_SCALE, HALF_UP);
+        }
+
+        private static long toScaled(BigDecimal value) {
+            return value.setScale(COEFFICIENT_SCALE, HALF_UP).unscaledValue().longValueExact();
+        }
+
+        private static class FlightPriceCurve {
+
+            private final Long tariffsDetailsId;
+
+            private final long initialScaledPrice;
+
+            private final long perTicketScaledPriceGrowth;
+
+            private final long perDayScaledPriceGrowth;
+
+            private final long growthStartEpochSecond;
+
+            FlightPriceCurve(TariffsDetails tariffsDetails, Flight flight) {
+                BigDecimal totalGrowthPotential = flight.getMaxTicketBasePrice()
+                        .subtract(flight.getInitialTicketBasePrice());
+                BigDecimal timeGrowthPotential = totalGrowthPotential
+                        .multiply(tariffsDetails.getWeightOfTimeGrowthFactor());
+                BigDecimal fillingGrowthPotential = totalGrowthPotential.subtract(timeGrowthPotential);
+
+                tariffsDetailsId = tariffsDetails.getId();
+                initialScaledPrice = toScaled(flight.getInitialTicketBasePrice());
+                perTicketScaledPriceGrowth = toScaled(fillingGrowthPotential.divide(new BigDecimal(flight
+                        .getAircraft().getModel().getPassengerSeatsQuantity()), COEFFICIENT_SCALE, HALF_UP));
+                perDayScaledPriceGrowth = toScaled(timeGrowthPotential.divide(new BigDecimal(tariffsDetails
+                        .getDaysCountBeforeTicketPriceStartsToGrow()), COEFFICIENT_SCALE, HALF_UP));
+                growthStartEpochSecond = flight.getDepartureUtcDateTime()
+                        .minusDays(tariffsDetails.getDaysCountBeforeTicketPriceStartsToGrow())
+                        .toEpochSecond(ZoneOffset.UTC);
+            }
+
+            long getScaledPrice(long nowEpochSecond, long ticketsQuantity) {
+                long scaledPrice = initialScaledPrice;
+                long daysSinceGrowthStart = (nowEpochSecond - growthStartEpochSecond) / SECONDS_PER_DAY;
+                if (daysSinceGrowthStart > 0) {
+                    scaledPrice += perDayScaledPriceGrowth * daysSinceGrowthStart;
+                }
+                if (ticketsQuantity > 0) {
+                    scaledPrice += perTicketScaledPriceGrowth * ticketsQuantity;
+                }
+                return scaledPrice;
+            }
+        }
+    }
+}
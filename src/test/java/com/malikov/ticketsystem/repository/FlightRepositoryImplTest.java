@@ -1,19 +1,35 @@
 package com.malikov.ticketsystem.repository;
 
+import com.malikov.ticketsystem.dto.FlightManageableDTO;
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.City;
 import com.malikov.ticketsystem.model.Flight;
 import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.PageCursor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_2_HEATHROW;
 import static com.malikov.ticketsystem.AirportTestData.AIRPORT_BORISPOL;
 import static com.malikov.ticketsystem.AirportTestData.AIRPORT_LUTON;
+import static com.malikov.ticketsystem.FlightTestData.FLIGHT_1;
+import static com.malikov.ticketsystem.FlightTestData.FLIGHT_2;
 import static com.malikov.ticketsystem.FlightTestData.FLIGHT_4;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Yurii Malikov
@@ -23,30 +39,130 @@ public class FlightRepositoryImplTest extends AbstractRepositoryTest {
     @Autowired
     private FlightRepository flightRepository;
 
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
-    public void testGetFilteredFlightTicketCountMap(){
-        Map<Flight, Long> expected = new HashMap<Flight, Long>() {{ put(FLIGHT_4, 2L); }};
+    public void testReferenceDataIsReadFromSecondLevelCache() {
+        flightRepository.getByIds(Collections.singletonList(FLIGHT_4.getId()));
 
-        Map<Flight, Long> actual = flightRepository.getFilteredFlightTicketCountMap(AIRPORT_BORISPOL,
-                AIRPORT_LUTON,
-                DateTimeUtil.zoneIdToUtc(DateTimeUtil.MIN, AIRPORT_BORISPOL.getCity().getZoneId()),
-                DateTimeUtil.zoneIdToUtc(DateTimeUtil.MAX, AIRPORT_BORISPOL.getCity().getZoneId()),
-                0, 10);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<Flight> actual = flightRepository.getByIds(Collections.singletonList(FLIGHT_4.getId()));
+
+        assertEquals(Collections.singletonList(FLIGHT_4), actual);
+        // airports and their cities, which are not in quotes fetch plan, are not selected again
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getSecondLevelCacheMissCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    public void testSearchPageIsLoadedWithSingleStatement() {
+        Statistics statistics = clearCachesAndStatistics();
+        List<Flight> actual = flightRepository.getUpcoming(DateTimeUtil.MIN);
+
+        assertEquals(Arrays.asList(4L, 2L, 5L, 3L, 6L, 1L),
+                actual.stream().map(Flight::getId).collect(Collectors.toList()));
+        // route index reads airports, their cities and seats quantity of every flight
+        actual.forEach(flight -> {
+            flight.getDepartureAirport().getCity().getZoneId();
+            flight.getArrivalAirport().getCity().getZoneId();
+            flight.getAircraft().getModel().getPassengerSeatsQuantity();
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testAdminPageIsLoadedWithSingleStatement() {
+        Statistics statistics = clearCachesAndStatistics();
+        List<FlightManageableDTO> actual = flightRepository.getFiltered(null, null, null, null, null, 10);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L), getIds(actual));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testBookedFlightIsLoadedWithSingleStatement() {
+        Statistics statistics = clearCachesAndStatistics();
+        Flight actual = flightRepository.get(FLIGHT_4.getId());
+
+        assertEquals(FLIGHT_4, actual);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetByIds() {
+        List<Flight> actual = flightRepository.getByIds(Arrays.asList(FLIGHT_4.getId(), 100L));
 
-        assertEquals(expected, actual);
+        assertEquals(Collections.singletonList(FLIGHT_4), actual);
+    }
+
+    @Test
+    public void testGetDepartureUtcDateTimes() {
+        Set<LocalDateTime> actual = flightRepository.getDepartureUtcDateTimes(AIRPORT_BORISPOL.getId(),
+                AIRPORT_2_HEATHROW.getId(), FLIGHT_2.getDepartureUtcDateTime(), DateTimeUtil.MAX);
+
+        assertEquals(new HashSet<>(Arrays.asList(FLIGHT_1.getDepartureUtcDateTime(),
+                FLIGHT_2.getDepartureUtcDateTime())), actual);
+    }
+
+    @Test
+    public void testRecountTicketsKeepsReferenceDataCached() {
+        flightRepository.getByIds(Collections.singletonList(FLIGHT_4.getId()));
+        Cache cache = entityManagerFactory.getCache();
+        assertTrue(cache.contains(Airport.class, AIRPORT_BORISPOL.getId()));
+        assertTrue(cache.contains(City.class, AIRPORT_BORISPOL.getCity().getId()));
+
+        flightRepository.recountTickets(Collections.singletonList(FLIGHT_4.getId()));
+
+        assertTrue(cache.contains(Airport.class, AIRPORT_BORISPOL.getId()));
+        assertTrue(cache.contains(City.class, AIRPORT_BORISPOL.getCity().getId()));
+    }
+
+    @Test
+    public void testTicketsCountMatchesTickets() {
+        List<Long> flightIds = flightRepository.getIdsAfter(0, 10);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L), flightIds);
+        assertEquals(Collections.emptyList(), flightRepository.getTicketsCountMismatchedIds(flightIds));
+    }
+
+    @Test
+    public void testGetFilteredKeysetPages() {
+        LocalDateTime fromUtc = DateTimeUtil.zoneIdToUtc(DateTimeUtil.MIN, AIRPORT_BORISPOL.getCity().getZoneId());
+        LocalDateTime toUtc = DateTimeUtil.zoneIdToUtc(DateTimeUtil.MAX, AIRPORT_BORISPOL.getCity().getZoneId());
+
+        assertEquals(Collections.singletonList(FLIGHT_4.getId()), getIds(flightRepository.getFiltered(
+                AIRPORT_BORISPOL, AIRPORT_LUTON, fromUtc, toUtc, null, 10)));
+        assertEquals(Collections.emptyList(), flightRepository.getFiltered(AIRPORT_BORISPOL,
+                AIRPORT_LUTON, fromUtc, toUtc, PageCursor.of(FLIGHT_4.getId()), 10));
     }
 
     @Test
     public void testGetFiltered(){
 
-        List<Flight> expected = Collections.singletonList(FLIGHT_4);
+        List<Long> expected = Collections.singletonList(FLIGHT_4.getId());
 
-        List<Flight> actual = flightRepository.getFiltered(AIRPORT_BORISPOL,
+        List<FlightManageableDTO> actual = flightRepository.getFiltered(AIRPORT_BORISPOL,
                 AIRPORT_LUTON,
                 DateTimeUtil.zoneIdToUtc(DateTimeUtil.MIN, AIRPORT_BORISPOL.getCity().getZoneId()),
                 DateTimeUtil.zoneIdToUtc(DateTimeUtil.MAX, AIRPORT_BORISPOL.getCity().getZoneId()),
                 0, 10);
 
-        assertEquals(expected, actual);
+        assertEquals(expected, getIds(actual));
+        assertEquals(DateTimeUtil.utcToZoneId(FLIGHT_4.getDepartureUtcDateTime(),
+                AIRPORT_BORISPOL.getCity().getZoneId()), actual.get(0).getDepartureLocalDateTime());
+    }
+
+    private static List<Long> getIds(List<FlightManageableDTO> flights) {
+        return flights.stream().map(FlightManageableDTO::getId).collect(Collectors.toList());
+    }
+
+    private Statistics clearCachesAndStatistics() {
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
     }
 }
@@ -1,25 +1,62 @@
 package com.malikov.ticketsystem.repository;
 
+import com.malikov.ticketsystem.dto.TicketBookingDTO;
+import com.malikov.ticketsystem.dto.TicketDTO;
+import com.malikov.ticketsystem.dto.TicketWithRemainingDelayDTO;
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.City;
 import com.malikov.ticketsystem.model.Ticket;
+import com.malikov.ticketsystem.model.TicketStatus;
+import com.malikov.ticketsystem.service.SeatInventoryService;
 import com.malikov.ticketsystem.service.impl.FlightServiceImplTest;
+import com.malikov.ticketsystem.util.PageCursor;
+import com.malikov.ticketsystem.util.scheduling.HashedTimingWheel;
+import com.malikov.ticketsystem.util.ticketexport.TicketExportWriter;
 import mockit.Expectations;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_BORISPOL;
 import static com.malikov.ticketsystem.FlightTestData.FLIGHT_4;
 import static com.malikov.ticketsystem.SharedTestData.NOT_LIMITED;
 import static com.malikov.ticketsystem.SharedTestData.STARTING_FROM_FIRST;
 import static com.malikov.ticketsystem.TicketTestData.*;
 import static com.malikov.ticketsystem.UserTestData.USER_2;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Yurii Malikov
@@ -28,9 +65,46 @@ public class TicketRepositoryImplTest extends AbstractRepositoryTest {
 
     private static final Logger LOG = LoggerFactory.getLogger(FlightServiceImplTest.class);
 
+    private static final long TICK_DURATION_MILLIS = 1000;
+
+    private static final int OVERDUE_BOOKINGS_QUANTITY = 500;
+
+    private static final int FIRST_OVERDUE_BOOKING_SEAT_NUMBER = 100;
+
+    private static final int CLAIMERS_QUANTITY = 4;
+
+    private static final int CLAIM_BATCH_SIZE = 20;
+
+    /**
+     * Copies ticket to new booked ticket with provided seat number and booking expiration moment
+     */
+    private static final String INSERT_OVERDUE_BOOKING_SQL = "INSERT INTO tickets (flight_id, user_id, price, " +
+            "has_baggage, has_priority_registration, passenger_name, passenger_last_name, " +
+            "departure_airport_name, departure_city_name, arrival_airport_name, arrival_city_name, " +
+            "departure_utc_datetime, departure_time_zone, arrival_offset_datetime, seat_number, status, booked_until) " +
+            "SELECT flight_id, user_id, price, has_baggage, has_priority_registration, passenger_name, " +
+            "passenger_last_name, departure_airport_name, departure_city_name, arrival_airport_name, " +
+            "arrival_city_name, departure_utc_datetime, departure_time_zone, arrival_offset_datetime, ?, 'BOOKED', ? " +
+            "FROM tickets WHERE id=?";
+
     @Autowired
     private TicketRepository ticketRepository;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AirportRepository airportRepository;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     public void testGetActiveByUserId() {
         new Expectations(LocalDateTime.class) {{
@@ -38,11 +112,13 @@ public class TicketRepositoryImplTest extends AbstractRepositoryTest {
         }};
         LOG.info("LocalDateTime.now()=" + LocalDateTime.now());
 
-        List<Ticket> expected = Collections.singletonList(USER_2_LAST_TICKET);
-        List<Ticket> actual = ticketRepository.getActiveByUserId(USER_2.getId(),
+        List<Long> expected = Collections.singletonList(USER_2_LAST_TICKET.getId());
+        List<TicketWithRemainingDelayDTO> actual = ticketRepository.getActiveByUserId(USER_2.getId(),
                 STARTING_FROM_FIRST, NOT_LIMITED);
 
-        assertEquals(expected, actual);
+        assertEquals(expected, actual.stream()
+                .map(TicketWithRemainingDelayDTO::getId)
+                .collect(Collectors.toList()));
     }
 
     @Test
@@ -52,11 +128,22 @@ public class TicketRepositoryImplTest extends AbstractRepositoryTest {
         }};
         LOG.info("LocalDateTime.now()=" + LocalDateTime.now());
 
-        List<Ticket> expected = Collections.singletonList(USER_2_FIRST_TICKET);
-        List<Ticket> actual = ticketRepository.getArchivedByUserId(USER_2.getId(),
+        List<Long> expected = Collections.singletonList(USER_2_FIRST_TICKET.getId());
+        List<TicketDTO> actual = ticketRepository.getArchivedByUserId(USER_2.getId(),
                 STARTING_FROM_FIRST, NOT_LIMITED);
 
-        assertEquals(expected, actual);
+        assertEquals(expected, getIds(actual));
+    }
+
+    @Test
+    public void testGetByEmailKeysetPages() {
+        List<TicketDTO> firstPage = ticketRepository.getByEmail(USER_2.getEmail(), null, 1);
+        assertEquals(Collections.singletonList(USER_2_LAST_TICKET.getId()), getIds(firstPage));
+
+        TicketDTO last = firstPage.get(0);
+        List<TicketDTO> secondPage = ticketRepository.getByEmail(USER_2.getEmail(),
+                PageCursor.of(last.getDepartureUtcDateTime(), last.getId()), 10);
+        assertEquals(Collections.singletonList(USER_2_FIRST_TICKET.getId()), getIds(secondPage));
     }
 
     @Test
@@ -70,10 +157,196 @@ public class TicketRepositoryImplTest extends AbstractRepositoryTest {
     }
 
     @Test
-    public void testCountTickets() {
-        Integer expected = FLIGHT_4_TICKET_QUANTITY;
-        Integer actual = ticketRepository.countTickets(FLIGHT_4.getId());
+    public void testDeleteDecrementsTicketsCount() {
+        ticketRepository.delete(FLIGHT_4_USER_6_TICKET.getId());
 
-        assertEquals(expected, actual);
+        assertEquals((Integer) (FLIGHT_4_TICKET_QUANTITY - 1), getTicketsCount(FLIGHT_4.getId()));
+    }
+
+    /**
+     * Batch mixes paid tickets with expired booking: only booking is deleted, and its seat is free
+     * once flight seats are loaded to inventory again, while paid seats stay occupied.
+     */
+    @Test
+    public void testDeleteIfNotPaidKeepsPaidTickets() {
+        Ticket bookedTicket = new Ticket(null, FLIGHT_4, USER_2, USER_2.getName(), USER_2.getLastName(),
+                new BigDecimal(40), null, false, false, 5, TicketStatus.BOOKED);
+        bookedTicket.setBookedUntilUtcDateTime(LocalDateTime.now(ZoneId.of("UTC")).minusMinutes(1));
+        long bookedTicketId = ticketRepository.save(bookedTicket).getId();
+
+        List<Long> actual = ticketRepository.deleteIfNotPaid(Arrays.asList(FLIGHT_4_USER_6_TICKET.getId(),
+                bookedTicketId, FLIGHT_4_USER_7_TICKET.getId()));
+
+        assertEquals(Collections.singletonList(bookedTicketId), actual);
+        assertNull(ticketRepository.get(bookedTicketId));
+        assertEquals((Integer) FLIGHT_4_TICKET_QUANTITY, getTicketsCount(FLIGHT_4.getId()));
+        assertEquals(Arrays.asList(FLIGHT_4_USER_6_TICKET.getSeatNumber(), FLIGHT_4_USER_7_TICKET.getSeatNumber()),
+                ticketRepository.getOccupiedSeatNumbers(FLIGHT_4.getId()));
+
+        seatInventoryService.evict(FLIGHT_4.getId());
+        Set<Integer> freeSeats = seatInventoryService.getFreeSeats(FLIGHT_4.getId());
+        assertTrue(freeSeats.contains(5));
+        assertFalse(freeSeats.contains(FLIGHT_4_USER_6_TICKET.getSeatNumber()));
+        assertFalse(freeSeats.contains(FLIGHT_4_USER_7_TICKET.getSeatNumber()));
+    }
+
+    @Test
+    public void testGetPendingBookings() {
+        assertEquals(Collections.emptyList(), ticketRepository.getPendingBookings());
+    }
+
+    /**
+     * BOOKED ticket stored before booked_until column existed gets deadline from backfill script,
+     * so it is recovered as pending booking, expires on timing wheel and is deleted.
+     */
+    @Test
+    public void testRecoveredBookingIsScheduledAndExpired() {
+        jdbcTemplate.update("UPDATE tickets SET status='BOOKED', booked_until=NULL WHERE id=?",
+                FLIGHT_4_USER_6_TICKET.getId());
+        new ResourceDatabasePopulator(new ClassPathResource("db/scripts/backfillBookedUntil.sql"))
+                .execute(dataSource);
+
+        List<TicketBookingDTO> pendingBookings = ticketRepository.getPendingBookings();
+        assertEquals(1, pendingBookings.size());
+        TicketBookingDTO recoveredBooking = pendingBookings.get(0);
+        assertEquals(FLIGHT_4_USER_6_TICKET.getId(), recoveredBooking.getId());
+
+        long deadlineMillis = recoveredBooking.getBookedUntilUtcDateTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+        HashedTimingWheel<TicketBookingDTO> timingWheel = new HashedTimingWheel<>(TICK_DURATION_MILLIS, 256,
+                Math.min(System.currentTimeMillis(), deadlineMillis));
+        timingWheel.schedule(recoveredBooking, deadlineMillis);
+
+        assertEquals(Collections.emptyList(), timingWheel.advance(deadlineMillis - TICK_DURATION_MILLIS));
+        List<Long> expiredTicketIds = timingWheel.advance(deadlineMillis + TICK_DURATION_MILLIS).stream()
+                .map(TicketBookingDTO::getId)
+                .collect(Collectors.toList());
+        assertEquals(Collections.singletonList(FLIGHT_4_USER_6_TICKET.getId()), expiredTicketIds);
+        assertEquals(expiredTicketIds, ticketRepository.deleteIfNotPaid(expiredTicketIds));
+        assertEquals(Collections.emptyList(), ticketRepository.getPendingBookings());
+    }
+
+    /**
+     * Booking is long overdue, but its claim is fresh: claim is taken over only once it is older than
+     * abandoned claim timeout, no matter how long ago booking expired.
+     */
+    @Test
+    public void testClaimDueBookings() {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+        Ticket bookedTicket = new Ticket(null, FLIGHT_4, USER_2, USER_2.getName(), USER_2.getLastName(),
+                new BigDecimal(40), null, false, false, 5, TicketStatus.BOOKED);
+        bookedTicket.setBookedUntilUtcDateTime(now.minusMinutes(10));
+        long bookedTicketId = ticketRepository.save(bookedTicket).getId();
+
+        List<Long> firstClaimedIds = getBookingIds(ticketRepository
+                .claimDueBookings("first-node-claim", now, now.minusMinutes(1), 10));
+        List<Long> secondClaimedIds = getBookingIds(ticketRepository
+                .claimDueBookings("second-node-claim", now, now.minusMinutes(1), 10));
+        List<Long> takenOverIds = getBookingIds(ticketRepository
+                .claimDueBookings("third-node-claim", now.plusMinutes(2), now.plusMinutes(1), 10));
+
+        assertEquals(Collections.singletonList(bookedTicketId), firstClaimedIds);
+        assertEquals(Collections.emptyList(), secondClaimedIds);
+        assertEquals(Collections.singletonList(bookedTicketId), takenOverIds);
+        assertEquals(Collections.singletonList(bookedTicketId), ticketRepository.deleteIfNotPaid(takenOverIds));
+        assertEquals(Collections.emptyList(), ticketRepository.deleteIfNotPaid(firstClaimedIds));
+    }
+
+    @Test
+    public void testClaimDueBookingsKeepsReferenceDataCached() {
+        airportRepository.get(AIRPORT_BORISPOL.getId());
+        Cache cache = entityManagerFactory.getCache();
+        assertTrue(cache.contains(Airport.class, AIRPORT_BORISPOL.getId()));
+        assertTrue(cache.contains(City.class, AIRPORT_BORISPOL.getCity().getId()));
+
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+        ticketRepository.claimDueBookings("reference-data-claim", now, now.minusMinutes(1), 10);
+
+        assertTrue(cache.contains(Airport.class, AIRPORT_BORISPOL.getId()));
+        assertTrue(cache.contains(City.class, AIRPORT_BORISPOL.getCity().getId()));
+    }
+
+    /**
+     * Claimers stand for nodes sharing database and run concurrently over backlog of overdue bookings:
+     * every booking is claimed by single claimer and is deleted once.
+     */
+    @Test
+    public void testConcurrentClaimDueBookings() throws Exception {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+        List<Object[]> overdueBookings = new ArrayList<>();
+        for (int i = 0; i < OVERDUE_BOOKINGS_QUANTITY; i++) {
+            overdueBookings.add(new Object[]{FIRST_OVERDUE_BOOKING_SEAT_NUMBER + i,
+                    Timestamp.valueOf(now.minusSeconds(i + 1)), FLIGHT_4_USER_6_TICKET.getId()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_OVERDUE_BOOKING_SQL, overdueBookings);
+        jdbcTemplate.update("UPDATE flights f SET tickets_count = " +
+                "(SELECT COUNT(*) FROM tickets t WHERE t.flight_id = f.id)");
+        Set<Long> overdueBookingIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM tickets WHERE status='BOOKED'", Long.class));
+
+        Queue<Long> claimedIds = new ConcurrentLinkedQueue<>();
+        Queue<Long> deletedIds = new ConcurrentLinkedQueue<>();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CLAIMERS_QUANTITY);
+        List<Future<?>> claimers = new ArrayList<>();
+        for (int i = 0; i < CLAIMERS_QUANTITY; i++) {
+            claimers.add(executor.submit((Callable<Void>) () -> {
+                startLatch.await();
+                List<Long> batchIds;
+                do {
+                    batchIds = getBookingIds(ticketRepository.claimDueBookings(UUID.randomUUID().toString(), now,
+                            now.minusMinutes(1), CLAIM_BATCH_SIZE));
+                    claimedIds.addAll(batchIds);
+                    deletedIds.addAll(ticketRepository.deleteIfNotPaid(batchIds));
+                } while (!batchIds.isEmpty());
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        for (Future<?> claimer : claimers) {
+            claimer.get();
+        }
+        executor.shutdown();
+
+        assertEquals(OVERDUE_BOOKINGS_QUANTITY, overdueBookingIds.size());
+        assertEquals(OVERDUE_BOOKINGS_QUANTITY, claimedIds.size());
+        assertEquals(overdueBookingIds, new HashSet<>(claimedIds));
+        assertEquals(OVERDUE_BOOKINGS_QUANTITY, deletedIds.size());
+        assertEquals(overdueBookingIds, new HashSet<>(deletedIds));
+        assertEquals((Integer) FLIGHT_4_TICKET_QUANTITY, getTicketsCount(FLIGHT_4.getId()));
+    }
+
+    @Test
+    public void testExportByDepartureUtcDateTime() throws IOException {
+        List<TicketDTO> exported = new ArrayList<>();
+        ticketRepository.exportByDepartureUtcDateTime(LocalDateTime.of(2017, 6, 23, 0, 0),
+                LocalDateTime.of(2017, 6, 23, 23, 59), new TicketExportWriter() {
+                    @Override
+                    public void write(TicketDTO ticket) {
+                        exported.add(ticket);
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+
+                    @Override
+                    public void abort() {
+                    }
+                });
+
+        assertEquals(Arrays.asList(USER_2_FIRST_TICKET.getId(), TICKET_3_BELONGS_USER_3.getId(), TICKET_4.getId(),
+                TICKET_5.getId()), getIds(exported));
+    }
+
+    private Integer getTicketsCount(long flightId) {
+        return jdbcTemplate.queryForObject("SELECT tickets_count FROM flights WHERE id=?", Integer.class, flightId);
+    }
+
+    private static List<Long> getIds(List<TicketDTO> tickets) {
+        return tickets.stream().map(TicketDTO::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> getBookingIds(List<TicketBookingDTO> bookings) {
+        return bookings.stream().map(TicketBookingDTO::getId).collect(Collectors.toList());
     }
 }
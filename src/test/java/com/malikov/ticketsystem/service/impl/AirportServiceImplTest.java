@@ -0,0 +1,69 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.model.Airport;
+import com.malikov.ticketsystem.model.City;
+import com.malikov.ticketsystem.repository.AirportRepository;
+import com.malikov.ticketsystem.repository.ReferenceDataChangedEvent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.malikov.ticketsystem.AirportTestData.*;
+import static com.malikov.ticketsystem.CityTestData.LONDON;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AirportServiceImplTest extends AbstractTest {
+
+    @Mock
+    private AirportRepository airportRepository;
+
+    private AirportServiceImpl airportService = new AirportServiceImpl();
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        when(airportRepository.getAll()).thenReturn(AIRPORTS);
+
+        ReflectionTestUtils.setField(airportService, "airportRepository", airportRepository);
+        ReflectionTestUtils.setField(airportService, "autocompleteMaxResults", 10);
+    }
+
+    @Test
+    public void testGetByName() {
+        Assert.assertSame(AIRPORT_LUTON, airportService.getByName("london LUTON airport"));
+        Assert.assertSame(AIRPORT_2_HEATHROW, airportService.getByName(AIRPORT_2_HEATHROW.getName()));
+        Assert.assertNull(airportService.getByName("Gatwick Airport"));
+        Assert.assertNull(airportService.getByName(null));
+        verify(airportRepository, times(1)).getAll();
+    }
+
+    @Test
+    public void testReloadedAfterChange() {
+        Assert.assertEquals(Arrays.asList(AIRPORT_2_HEATHROW.getName(), AIRPORT_LUTON.getName()),
+                airportService.getNamesByNameMask("london"));
+
+        Airport gatwick = new Airport(5L, "Gatwick Airport", LONDON);
+        when(airportRepository.getAll()).thenReturn(Collections.singletonList(gatwick));
+        airportService.onReferenceDataChanged(new ReferenceDataChangedEvent(City.class));
+
+        Assert.assertEquals(Collections.singletonList(gatwick.getName()), airportService.getNamesByNameMask("london"));
+        Assert.assertSame(gatwick, airportService.getByName("gatwick airport"));
+        verify(airportRepository, times(2)).getAll();
+    }
+}
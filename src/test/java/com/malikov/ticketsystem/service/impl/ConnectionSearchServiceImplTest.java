@@ -0,0 +1,201 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.dto.ItineraryDTO;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.service.AirportService;
+import com.malikov.ticketsystem.service.ConnectionSearchService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.service.TariffsDetailsSnapshotService;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.dtoconverter.FlightDTOConverter;
+import mockit.Expectations;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.context.MessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static com.malikov.ticketsystem.AircraftTestData.AIRCRAFT_1;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_2_HEATHROW;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_4_DA_VINCI;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_BORISPOL;
+import static com.malikov.ticketsystem.FlightTestData.*;
+import static com.malikov.ticketsystem.TariffDetailsTestData.ACTIVE_TARIFF_DETAILS;
+import static com.malikov.ticketsystem.service.impl.FlightServiceImplTest.FIXED_DATE_TIME;
+import static java.math.RoundingMode.HALF_UP;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ConnectionSearchServiceImplTest extends AbstractTest {
+
+    /**
+     * Departs 2 hours after arrival of FLIGHT_6 to Borispol
+     */
+    private static final Flight CONNECTING_FLIGHT = new Flight(7L, AIRPORT_BORISPOL, AIRPORT_2_HEATHROW, AIRCRAFT_1,
+            DateTimeUtil.parseToLocalDateTime("2017-06-27 15:00"), DateTimeUtil.parseToLocalDateTime("2017-06-27 18:30"),
+            new BigDecimal(30).setScale(6, HALF_UP), new BigDecimal(50).setScale(6, HALF_UP));
+
+    /**
+     * Departs 30 minutes after arrival of FLIGHT_6 to Borispol, which is less than minimal connection time
+     */
+    private static final Flight TOO_CLOSE_FLIGHT = new Flight(8L, AIRPORT_BORISPOL, AIRPORT_2_HEATHROW, AIRCRAFT_1,
+            DateTimeUtil.parseToLocalDateTime("2017-06-27 13:30"), DateTimeUtil.parseToLocalDateTime("2017-06-27 17:00"),
+            new BigDecimal(30).setScale(6, HALF_UP), new BigDecimal(50).setScale(6, HALF_UP));
+
+    /**
+     * Departs from Da Vinci 3 hours before FLIGHT_6, so it connects to both TOO_CLOSE_FLIGHT and CONNECTING_FLIGHT
+     */
+    private static final Flight EARLIER_FLIGHT = new Flight(9L, AIRPORT_4_DA_VINCI, AIRPORT_BORISPOL, AIRCRAFT_1,
+            DateTimeUtil.parseToLocalDateTime("2017-06-27 09:00"), DateTimeUtil.parseToLocalDateTime("2017-06-27 10:00"),
+            new BigDecimal(30).setScale(6, HALF_UP), new BigDecimal(50).setScale(6, HALF_UP));
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private AirportService airportService;
+
+    @Mock
+    private TariffsDetailsSnapshotService tariffsDetailsSnapshotService;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    MessageSource messageSource;
+
+    @Spy
+    private TicketPricingService ticketPricingService = new TicketPricingServiceImpl();
+
+    @InjectMocks
+    private RouteIndexService routeIndexService = new RouteIndexServiceImpl();
+
+    private ConnectionSearchService connectionSearchService = new ConnectionSearchServiceImpl();
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        new Expectations(LocalDateTime.class) {{ LocalDateTime.now(ZoneId.of("UTC")); result = FIXED_DATE_TIME; }};
+
+        when(flightRepository.getUpcoming(Mockito.any(LocalDateTime.class))).thenReturn(Arrays.asList(
+                FLIGHT_4, FLIGHT_2, FLIGHT_5, FLIGHT_3, FLIGHT_6, TOO_CLOSE_FLIGHT, CONNECTING_FLIGHT, FLIGHT_1));
+        when(airportService.getByName(AIRPORT_4_DA_VINCI.getName())).thenReturn(AIRPORT_4_DA_VINCI);
+        when(airportService.getByName(AIRPORT_2_HEATHROW.getName())).thenReturn(AIRPORT_2_HEATHROW);
+        when(tariffsDetailsSnapshotService.getActive()).thenReturn(ACTIVE_TARIFF_DETAILS);
+        when(seatInventoryService.getOccupiedSeatsQuantity(Mockito.anyLong())).thenReturn(0);
+        when(messageSource.getMessage(Mockito.anyString(), Mockito.any(), Mockito.any(Locale.class)))
+                .thenReturn("dummy text");
+
+        ReflectionTestUtils.setField(connectionSearchService, "airportService", airportService);
+        ReflectionTestUtils.setField(connectionSearchService, "tariffsDetailsSnapshotService",
+                tariffsDetailsSnapshotService);
+        ReflectionTestUtils.setField(connectionSearchService, "routeIndexService", routeIndexService);
+        ReflectionTestUtils.setField(connectionSearchService, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(connectionSearchService, "ticketPricingService", ticketPricingService);
+        ReflectionTestUtils.setField(connectionSearchService, "minConnectionMinutes", 60L);
+        ReflectionTestUtils.setField(connectionSearchService, "maxLayoverMinutes", 720L);
+        ReflectionTestUtils.setField(connectionSearchService, "maxItineraries", 50);
+        ((ConnectionSearchServiceImpl) connectionSearchService).setMessageSource(messageSource);
+    }
+
+    @Test
+    public void testSearchWithConnection() {
+        long flight6Price = ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, FLIGHT_6, 0);
+        long connectingFlightPrice = ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS,
+                CONNECTING_FLIGHT, 0);
+        List<ItineraryDTO> expected = Collections.singletonList(new ItineraryDTO(Arrays.asList(
+                FlightDTOConverter.asDTO(FLIGHT_6, flight6Price),
+                FlightDTOConverter.asDTO(CONNECTING_FLIGHT, connectingFlightPrice)),
+                flight6Price + connectingFlightPrice));
+
+        List<ItineraryDTO> actual = connectionSearchService.search(AIRPORT_4_DA_VINCI.getName(),
+                AIRPORT_2_HEATHROW.getName(), DateTimeUtil.MIN, DateTimeUtil.MAX, 2);
+
+        Assert.assertEquals(expected, actual);
+    }
+
+    /**
+     * EARLIER_FLIGHT with CONNECTING_FLIGHT is dominated by FLIGHT_6 with CONNECTING_FLIGHT, which departs later
+     */
+    @Test
+    public void testDominatedJourneyPruned() {
+        when(flightRepository.getUpcoming(Mockito.any(LocalDateTime.class))).thenReturn(Arrays.asList(
+                EARLIER_FLIGHT, FLIGHT_6, TOO_CLOSE_FLIGHT, CONNECTING_FLIGHT));
+        long earlierFlightPrice = ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, EARLIER_FLIGHT, 0);
+        long tooCloseFlightPrice = ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS,
+                TOO_CLOSE_FLIGHT, 0);
+        long flight6Price = ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, FLIGHT_6, 0);
+        long connectingFlightPrice = ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS,
+                CONNECTING_FLIGHT, 0);
+        List<ItineraryDTO> expected = Arrays.asList(
+                new ItineraryDTO(Arrays.asList(
+                        FlightDTOConverter.asDTO(EARLIER_FLIGHT, earlierFlightPrice),
+                        FlightDTOConverter.asDTO(TOO_CLOSE_FLIGHT, tooCloseFlightPrice)),
+                        earlierFlightPrice + tooCloseFlightPrice),
+                new ItineraryDTO(Arrays.asList(
+                        FlightDTOConverter.asDTO(FLIGHT_6, flight6Price),
+                        FlightDTOConverter.asDTO(CONNECTING_FLIGHT, connectingFlightPrice)),
+                        flight6Price + connectingFlightPrice));
+
+        List<ItineraryDTO> actual = connectionSearchService.search(AIRPORT_4_DA_VINCI.getName(),
+                AIRPORT_2_HEATHROW.getName(), DateTimeUtil.MIN, DateTimeUtil.MAX, 2);
+
+        Assert.assertEquals(expected, actual);
+    }
+
+    /**
+     * Journey with CONNECTING_FLIGHT arrives after maxItineraries journeys have been priced, so its seats are
+     * not loaded
+     */
+    @Test
+    public void testPricingStopsAtMaxItineraries() {
+        when(flightRepository.getUpcoming(Mockito.any(LocalDateTime.class))).thenReturn(Arrays.asList(
+                EARLIER_FLIGHT, FLIGHT_6, TOO_CLOSE_FLIGHT, CONNECTING_FLIGHT));
+        ReflectionTestUtils.setField(connectionSearchService, "maxItineraries", 1);
+
+        List<ItineraryDTO> actual = connectionSearchService.search(AIRPORT_4_DA_VINCI.getName(),
+                AIRPORT_2_HEATHROW.getName(), DateTimeUtil.MIN, DateTimeUtil.MAX, 2);
+
+        Assert.assertEquals(1, actual.size());
+        Assert.assertEquals(TOO_CLOSE_FLIGHT.getId(), actual.get(0).getFlights().get(1).getId());
+        Mockito.verify(seatInventoryService, Mockito.never()).getOccupiedSeatsQuantity(CONNECTING_FLIGHT.getId());
+    }
+
+    @Test
+    public void testSearchDirectOnly() {
+        Assert.assertEquals(Collections.emptyList(), connectionSearchService.search(AIRPORT_4_DA_VINCI.getName(),
+                AIRPORT_2_HEATHROW.getName(), DateTimeUtil.MIN, DateTimeUtil.MAX, 0));
+    }
+
+    @Test
+    public void testFullFlightsSkipped() {
+        when(seatInventoryService.getOccupiedSeatsQuantity(CONNECTING_FLIGHT.getId()))
+                .thenReturn(AIRCRAFT_1.getModel().getPassengerSeatsQuantity());
+
+        Assert.assertEquals(Collections.emptyList(), connectionSearchService.search(AIRPORT_4_DA_VINCI.getName(),
+                AIRPORT_2_HEATHROW.getName(), DateTimeUtil.MIN, DateTimeUtil.MAX, 2));
+    }
+}
@@ -0,0 +1,119 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.service.FareCalendarService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import mockit.Expectations;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.malikov.ticketsystem.AircraftTestData.AIRCRAFT_1;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_2_HEATHROW;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_BORISPOL;
+import static com.malikov.ticketsystem.FlightTestData.*;
+import static com.malikov.ticketsystem.TariffDetailsTestData.ACTIVE_TARIFF_DETAILS;
+import static com.malikov.ticketsystem.service.impl.FlightServiceImplTest.FIXED_DATE_TIME;
+import static java.math.RoundingMode.HALF_UP;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FareCalendarServiceImplTest extends AbstractTest {
+
+    private static final YearMonth JUNE_2017 = YearMonth.of(2017, 6);
+
+    /**
+     * Departs same Kyiv day as FLIGHT_2, but is cheaper
+     */
+    private static final Flight CHEAP_FLIGHT = new Flight(7L, AIRPORT_BORISPOL, AIRPORT_2_HEATHROW, AIRCRAFT_1,
+            DateTimeUtil.parseToLocalDateTime("2017-06-23 15:00"), DateTimeUtil.parseToLocalDateTime("2017-06-23 18:30"),
+            new BigDecimal(20).setScale(6, HALF_UP), new BigDecimal(40).setScale(6, HALF_UP));
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Spy
+    private TicketPricingService ticketPricingService = new TicketPricingServiceImpl();
+
+    @InjectMocks
+    private RouteIndexService routeIndexService = new RouteIndexServiceImpl();
+
+    private FareCalendarService fareCalendarService = new FareCalendarServiceImpl();
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        new Expectations(LocalDateTime.class) {{ LocalDateTime.now(ZoneId.of("UTC")); result = FIXED_DATE_TIME; }};
+
+        when(flightRepository.getUpcoming(Mockito.any(LocalDateTime.class)))
+                .thenReturn(Arrays.asList(FLIGHT_4, FLIGHT_2, CHEAP_FLIGHT, FLIGHT_5, FLIGHT_1));
+        when(seatInventoryService.getOccupiedSeatsQuantity(Mockito.anyLong())).thenReturn(0);
+
+        ReflectionTestUtils.setField(fareCalendarService, "routeIndexService", routeIndexService);
+        ReflectionTestUtils.setField(fareCalendarService, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(fareCalendarService, "ticketPricingService", ticketPricingService);
+    }
+
+    @Test
+    public void testGetMinTicketPriceMap() {
+        Map<LocalDate, Long> expected = new LinkedHashMap<>();
+        expected.put(LocalDate.of(2017, 6, 23),
+                ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, CHEAP_FLIGHT, 0));
+        expected.put(LocalDate.of(2017, 6, 30),
+                ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, FLIGHT_1, 0));
+
+        Assert.assertEquals(expected, fareCalendarService.getMinTicketPriceMap(ACTIVE_TARIFF_DETAILS,
+                AIRPORT_BORISPOL, AIRPORT_2_HEATHROW, JUNE_2017));
+    }
+
+    @Test
+    public void testEvictRecalculatesDayOfFlight() {
+        fareCalendarService.getMinTicketPriceMap(ACTIVE_TARIFF_DETAILS, AIRPORT_BORISPOL, AIRPORT_2_HEATHROW,
+                JUNE_2017);
+        int seatsQuantity = CHEAP_FLIGHT.getAircraft().getModel().getPassengerSeatsQuantity();
+        when(seatInventoryService.getOccupiedSeatsQuantity(CHEAP_FLIGHT.getId())).thenReturn(seatsQuantity);
+
+        Assert.assertEquals(ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, CHEAP_FLIGHT, 0),
+                (long) fareCalendarService.getMinTicketPriceMap(ACTIVE_TARIFF_DETAILS, AIRPORT_BORISPOL,
+                        AIRPORT_2_HEATHROW, JUNE_2017).get(LocalDate.of(2017, 6, 23)));
+
+        fareCalendarService.evict(CHEAP_FLIGHT.getId());
+
+        Assert.assertEquals(ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, FLIGHT_2, 0),
+                (long) fareCalendarService.getMinTicketPriceMap(ACTIVE_TARIFF_DETAILS, AIRPORT_BORISPOL,
+                        AIRPORT_2_HEATHROW, JUNE_2017).get(LocalDate.of(2017, 6, 23)));
+        verify(seatInventoryService, times(2)).getOccupiedSeatsQuantity(FLIGHT_2.getId());
+        verify(seatInventoryService, times(1)).getOccupiedSeatsQuantity(FLIGHT_1.getId());
+    }
+}
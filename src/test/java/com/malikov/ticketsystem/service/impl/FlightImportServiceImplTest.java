@@ -0,0 +1,173 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.dto.FlightImportErrorDTO;
+import com.malikov.ticketsystem.dto.FlightImportResultDTO;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.service.AircraftService;
+import com.malikov.ticketsystem.service.AirportService;
+import com.malikov.ticketsystem.service.FlightImportService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import com.malikov.ticketsystem.util.flightimport.CsvFlightScheduleReader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.context.MessageSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static com.malikov.ticketsystem.AircraftTestData.AIRCRAFT_1;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_BORISPOL;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_LUTON;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FlightImportServiceImplTest extends AbstractTest {
+
+    private static final String SCHEDULE =
+            "departureAirport,arrivalAirport,departureLocalDateTime,arrivalLocalDateTime,aircraftName,"
+                    + "initialBaseTicketPrice,maxBaseTicketPrice\n"
+                    + "Boryspil International Airport,London Luton Airport,2017-06-01 10:00,2017-06-01 12:00,B737-1,10,20\n"
+                    + "Boryspil International Airport,Boryspil International Airport,2017-06-01 10:00,2017-06-01 12:00,B737-1,10,20\n"
+                    + "Boryspil International Airport,London Luton Airport,2017-06-01 10:00,2017-06-01 12:00,Unknown,10,20\n"
+                    + "Boryspil International Airport,London Luton Airport,2017-06-01 10:00,2017-06-01 12:00,B737-1,abc,20\n"
+                    + "Boryspil International Airport,London Luton Airport,,2017-06-01 12:00,B737-1,10,20\n"
+                    + "\"London Luton Airport\",Boryspil International Airport,2017-06-02 10:00,2017-06-02 15:00,\"B737-1\",15,25\n";
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private AirportService airportService;
+
+    @Mock
+    private AircraftService aircraftService;
+
+    @Mock
+    private RouteIndexService routeIndexService;
+
+    @Mock
+    MessageSource messageSource;
+
+    private FlightImportService flightImportService = new FlightImportServiceImpl();
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        when(airportService.getByName(AIRPORT_BORISPOL.getName())).thenReturn(AIRPORT_BORISPOL);
+        when(airportService.getByName(AIRPORT_LUTON.getName())).thenReturn(AIRPORT_LUTON);
+        when(aircraftService.getByName(AIRCRAFT_1.getName())).thenReturn(AIRCRAFT_1);
+        when(messageSource.getMessage(Mockito.anyString(), Mockito.any(), Mockito.any(Locale.class)))
+                .thenReturn("dummy text");
+
+        ReflectionTestUtils.setField(flightImportService, "flightRepository", flightRepository);
+        ReflectionTestUtils.setField(flightImportService, "airportService", airportService);
+        ReflectionTestUtils.setField(flightImportService, "aircraftService", aircraftService);
+        ReflectionTestUtils.setField(flightImportService, "routeIndexService", routeIndexService);
+        ReflectionTestUtils.setField(flightImportService, "batchSize", 2);
+        ((FlightImportServiceImpl) flightImportService).setMessageSource(messageSource);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testImportFlights() throws IOException {
+        FlightImportResultDTO result = importSchedule();
+
+        Assert.assertEquals(2, result.getImportedQuantity());
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5), getRowNumbers(result.getErrors()));
+
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(flightRepository, times(2)).insertAll(captor.capture());
+        Flight firstFlight = (Flight) captor.getAllValues().get(0).get(0);
+        Flight lastFlight = (Flight) captor.getAllValues().get(1).get(0);
+        Assert.assertEquals(AIRPORT_BORISPOL, firstFlight.getDepartureAirport());
+        Assert.assertEquals(AIRPORT_LUTON, firstFlight.getArrivalAirport());
+        Assert.assertEquals(DateTimeUtil.parseToLocalDateTime("2017-06-01 07:00"), firstFlight.getDepartureUtcDateTime());
+        Assert.assertEquals(DateTimeUtil.parseToLocalDateTime("2017-06-01 11:00"), firstFlight.getArrivalUtcDateTime());
+        Assert.assertEquals(new BigDecimal(15), lastFlight.getInitialTicketBasePrice());
+        Assert.assertEquals(new BigDecimal(25), lastFlight.getMaxTicketBasePrice());
+
+        verify(aircraftService, times(1)).getByName(AIRCRAFT_1.getName());
+        verify(routeIndexService).reload();
+    }
+
+    @Test
+    public void testImportFlightsReportsFailedBatch() throws IOException {
+        doThrow(new DataIntegrityViolationException("duplicate")).doNothing()
+                .when(flightRepository).insertAll(Mockito.anyListOf(Flight.class));
+
+        FlightImportResultDTO result = importSchedule();
+
+        Assert.assertEquals(1, result.getImportedQuantity());
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), getRowNumbers(result.getErrors()));
+        Assert.assertEquals("duplicate", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    public void testImportFlightsRejectsPricesNotFittingColumn() throws IOException {
+        String schedule = "departureAirport,arrivalAirport,departureLocalDateTime,arrivalLocalDateTime,aircraftName,"
+                + "initialBaseTicketPrice,maxBaseTicketPrice\n"
+                + "Boryspil International Airport,London Luton Airport,2017-06-01 10:00,2017-06-01 12:00,B737-1,10,12345678\n"
+                + "Boryspil International Airport,London Luton Airport,2017-06-01 10:00,2017-06-01 12:00,B737-1,10.1234567,20\n"
+                + "Boryspil International Airport,London Luton Airport,2017-06-01 10:00,2017-06-01 12:00,B737-1,30,20\n"
+                + "Boryspil International Airport,London Luton Airport,2017-06-01 10:00,2017-06-01 12:00,B737-1,10.123456,"
+                + "9999999.999999\n";
+
+        FlightImportResultDTO result = flightImportService.importFlights(
+                new CsvFlightScheduleReader(new StringReader(schedule)));
+
+        Assert.assertEquals(1, result.getImportedQuantity());
+        Assert.assertEquals(Arrays.asList(1, 2, 3), getRowNumbers(result.getErrors()));
+    }
+
+    /**
+     * Batch of rows 1 and 6 fails because of row 6, so row 1 is imported by retry
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testImportFlightsRetriesFailedBatchByRows() throws IOException {
+        ReflectionTestUtils.setField(flightImportService, "batchSize", 10);
+        doAnswer(invocation -> {
+            List<Flight> flights = (List<Flight>) invocation.getArguments()[0];
+            if (flights.stream().anyMatch(flight -> flight.getInitialTicketBasePrice().equals(new BigDecimal(15)))) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return null;
+        }).when(flightRepository).insertAll(Mockito.anyListOf(Flight.class));
+
+        FlightImportResultDTO result = importSchedule();
+
+        Assert.assertEquals(1, result.getImportedQuantity());
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5, 6), getRowNumbers(result.getErrors()));
+        Assert.assertEquals("duplicate", result.getErrors().get(4).getMessage());
+        verify(flightRepository, times(3)).insertAll(Mockito.anyListOf(Flight.class));
+    }
+
+    private FlightImportResultDTO importSchedule() throws IOException {
+        return flightImportService.importFlights(new CsvFlightScheduleReader(new StringReader(SCHEDULE)));
+    }
+
+    private static List<Integer> getRowNumbers(List<FlightImportErrorDTO> errors) {
+        return errors.stream().map(FlightImportErrorDTO::getRowNumber).collect(Collectors.toList());
+    }
+}
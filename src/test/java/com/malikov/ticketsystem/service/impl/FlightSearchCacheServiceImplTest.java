@@ -0,0 +1,114 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.dto.CacheStatsDTO;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import mockit.Expectations;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_2_HEATHROW;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_BORISPOL;
+import static com.malikov.ticketsystem.FlightTestData.FLIGHT_1;
+import static com.malikov.ticketsystem.FlightTestData.FLIGHT_2;
+import static com.malikov.ticketsystem.TariffDetailsTestData.ACTIVE_TARIFF_DETAILS;
+import static com.malikov.ticketsystem.service.impl.FlightServiceImplTest.FIXED_DATE_TIME;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FlightSearchCacheServiceImplTest extends AbstractTest {
+
+    private static final LocalDateTime FROM = FIXED_DATE_TIME;
+
+    private static final LocalDateTime TO = FIXED_DATE_TIME.plusMonths(1);
+
+    @Mock
+    private RouteIndexService routeIndexService;
+
+    private TicketPricingService ticketPricingService = new TicketPricingServiceImpl();
+
+    private FlightSearchCacheService flightSearchCacheService = new FlightSearchCacheServiceImpl();
+
+    private final AtomicInteger searchesCount = new AtomicInteger();
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        new Expectations(LocalDateTime.class) {{ LocalDateTime.now(ZoneId.of("UTC")); result = FIXED_DATE_TIME; }};
+
+        when(routeIndexService.getRouteVersion(AIRPORT_BORISPOL.getId(), AIRPORT_2_HEATHROW.getId())).thenReturn(1L);
+        when(routeIndexService.getFlights(AIRPORT_BORISPOL.getId(), AIRPORT_2_HEATHROW.getId(), FROM, TO))
+                .thenReturn(Arrays.asList(FLIGHT_2, FLIGHT_1));
+
+        ReflectionTestUtils.setField(flightSearchCacheService, "routeIndexService", routeIndexService);
+        ReflectionTestUtils.setField(flightSearchCacheService, "ticketPricingService", ticketPricingService);
+        ReflectionTestUtils.setField(flightSearchCacheService, "maxSize", 1);
+        ReflectionTestUtils.setField(flightSearchCacheService, "timeToLiveMillis", 60000L);
+    }
+
+    @Test
+    public void testCachedUntilFlightEvicted() {
+        Map<Flight, Long> expected = search(0, 10);
+        Assert.assertEquals(expected, search(0, 10));
+        Assert.assertEquals(1, searchesCount.get());
+
+        flightSearchCacheService.evict(FLIGHT_1.getId());
+        search(0, 10);
+        Assert.assertEquals(2, searchesCount.get());
+
+        CacheStatsDTO stats = flightSearchCacheService.getStats();
+        Assert.assertEquals(1, stats.getHitsCount());
+        Assert.assertEquals(2, stats.getMissesCount());
+        Assert.assertEquals(1, stats.getEvictionsCount());
+    }
+
+    @Test
+    public void testRouteChangeInvalidates() {
+        search(0, 10);
+        when(routeIndexService.getRouteVersion(AIRPORT_BORISPOL.getId(), AIRPORT_2_HEATHROW.getId())).thenReturn(2L);
+        search(0, 10);
+        Assert.assertEquals(2, searchesCount.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        search(0, 10);
+        search(1, 10);
+        search(0, 10);
+        Assert.assertEquals(3, searchesCount.get());
+        Assert.assertEquals(1, flightSearchCacheService.getStats().getSize());
+    }
+
+    private Map<Flight, Long> search(int first, int limit) {
+        return flightSearchCacheService.getFlightTicketPriceMap(ACTIVE_TARIFF_DETAILS,
+                AIRPORT_BORISPOL.getId(), AIRPORT_2_HEATHROW.getId(), FROM, TO, first, limit,
+                this::priceFirstFlight);
+    }
+
+    private Map<Flight, Long> priceFirstFlight(List<Flight> flights) {
+        searchesCount.incrementAndGet();
+        return Collections.singletonMap(flights.get(0),
+                ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, flights.get(0), 0));
+    }
+}
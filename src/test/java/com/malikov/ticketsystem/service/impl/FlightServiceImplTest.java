@@ -1,13 +1,17 @@
 package com.malikov.ticketsystem.service.impl;
 
 import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.dto.FlightQuoteDTO;
 import com.malikov.ticketsystem.dto.TicketPriceDetailsDTO;
 import com.malikov.ticketsystem.model.Flight;
-import com.malikov.ticketsystem.repository.AirportRepository;
 import com.malikov.ticketsystem.repository.FlightRepository;
-import com.malikov.ticketsystem.repository.TariffsDetailsRepository;
-import com.malikov.ticketsystem.repository.TicketRepository;
+import com.malikov.ticketsystem.service.AirportService;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
 import com.malikov.ticketsystem.service.FlightService;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.service.TariffsDetailsSnapshotService;
+import com.malikov.ticketsystem.service.TicketPricingService;
 import com.malikov.ticketsystem.util.DateTimeUtil;
 import mockit.Expectations;
 import org.junit.Assert;
@@ -18,15 +22,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -35,7 +43,6 @@ import static com.malikov.ticketsystem.AirportTestData.AIRPORT_LUTON;
 import static com.malikov.ticketsystem.FlightTestData.FLIGHT_4;
 import static com.malikov.ticketsystem.TariffDetailsTestData.ACTIVE_TARIFF_DETAILS;
 import static com.malikov.ticketsystem.TicketTestData.FLIGHT_4_TICKET_QUANTITY;
-import static java.math.RoundingMode.HALF_UP;
 import static org.mockito.Mockito.when;
 
 /**
@@ -51,17 +58,26 @@ public class FlightServiceImplTest extends AbstractTest{
     private FlightRepository flightRepository;
 
     @Mock
-    private TariffsDetailsRepository tariffsDetailsRepository;
+    private TariffsDetailsSnapshotService tariffsDetailsSnapshotService;
 
     @Mock
-    private TicketRepository ticketRepository;
+    private AirportService airportService;
 
     @Mock
-    private AirportRepository airportRepository;
+    private RouteIndexService routeIndexService;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
 
     @Mock
     MessageSource messageSource;
 
+    @Spy
+    private TicketPricingService ticketPricingService = new TicketPricingServiceImpl();
+
+    @Spy
+    private FlightSearchCacheService flightSearchCacheService = new FlightSearchCacheServiceImpl();
+
     @InjectMocks
     private FlightService flightService = new FlightServiceImpl();
 
@@ -73,39 +89,58 @@ public class FlightServiceImplTest extends AbstractTest{
         new Expectations(LocalDateTime.class) {{ LocalDateTime.now(ZoneId.of("UTC")); result = FIXED_DATE_TIME; }};
         LOG.info("LocalDateTime.now()=" + LocalDateTime.now() + ". FIXED_DATE_TIME = " + FIXED_DATE_TIME);
 
-        when(tariffsDetailsRepository.getActiveTariffsDetails()).thenReturn(ACTIVE_TARIFF_DETAILS);
+        when(tariffsDetailsSnapshotService.getActive()).thenReturn(ACTIVE_TARIFF_DETAILS);
+
+        ReflectionTestUtils.setField(flightSearchCacheService, "routeIndexService", routeIndexService);
+        ReflectionTestUtils.setField(flightSearchCacheService, "ticketPricingService", ticketPricingService);
     }
 
     @Test
     public void testGetTicketPriceDetails() {
         when(messageSource.getMessage(Mockito.anyString(), Mockito.any(), Mockito.any(Locale.class)))
                 .thenReturn("dummy text");
-        when(ticketRepository.countTickets(FLIGHT_4.getId())).thenReturn(FLIGHT_4_TICKET_QUANTITY);
+        when(seatInventoryService.getOccupiedSeatsQuantity(FLIGHT_4.getId())).thenReturn(FLIGHT_4_TICKET_QUANTITY);
         when(flightRepository.get(FLIGHT_4.getId())).thenReturn(FLIGHT_4);
 
         TicketPriceDetailsDTO actual = flightService.getTicketPriceDetails(FLIGHT_4.getId());
-        TicketPriceDetailsDTO expected = new TicketPriceDetailsDTO(new BigDecimal(47).setScale(6, HALF_UP),
-                new BigDecimal(62).setScale(6, HALF_UP), new BigDecimal(7).setScale(6, HALF_UP));
+        TicketPriceDetailsDTO expected = new TicketPriceDetailsDTO(47_000_000L, 62_000_000L, 7_000_000L);
 
         Assert.assertEquals(expected, actual);
     }
 
+    @Test
+    public void testGetQuotes() {
+        Flight flight = new Flight(FLIGHT_4.getId(), FLIGHT_4.getDepartureAirport(), FLIGHT_4.getArrivalAirport(),
+                FLIGHT_4.getAircraft(), FLIGHT_4.getDepartureUtcDateTime(), FLIGHT_4.getArrivalUtcDateTime(),
+                FLIGHT_4.getInitialTicketBasePrice(), FLIGHT_4.getMaxTicketBasePrice());
+        // stale counter is not used for pricing
+        flight.setTicketsCount(0);
+        List<Long> flightIds = Arrays.asList(100L, FLIGHT_4.getId());
+        when(flightRepository.getByIds(flightIds)).thenReturn(Collections.singletonList(flight));
+        when(seatInventoryService.getOccupiedSeatsQuantity(FLIGHT_4.getId())).thenReturn(FLIGHT_4_TICKET_QUANTITY);
+
+        List<FlightQuoteDTO> expected = Collections.singletonList(new FlightQuoteDTO(FLIGHT_4.getId(),
+                47_000_000L, 62_000_000L, 7_000_000L, 8));
+
+        Assert.assertEquals(expected, flightService.getQuotes(flightIds));
+    }
+
     @Test
     public void testGetFlightTicketPriceMap(){
         when(messageSource.getMessage(Mockito.anyString(), Mockito.any(), Mockito.any(Locale.class)))
                 .thenReturn("dummy text");
-        when(airportRepository.getByName(AIRPORT_BORISPOL.getName())).thenReturn(AIRPORT_BORISPOL);
-        when(airportRepository.getByName(AIRPORT_LUTON.getName())).thenReturn(AIRPORT_LUTON);
-        when(flightRepository.getFilteredFlightTicketCountMap(AIRPORT_BORISPOL, AIRPORT_LUTON,
+        when(airportService.getByName(AIRPORT_BORISPOL.getName())).thenReturn(AIRPORT_BORISPOL);
+        when(airportService.getByName(AIRPORT_LUTON.getName())).thenReturn(AIRPORT_LUTON);
+        when(routeIndexService.getFlights(AIRPORT_BORISPOL.getId(), AIRPORT_LUTON.getId(),
                         DateTimeUtil.zoneIdToUtc(DateTimeUtil.MIN, AIRPORT_BORISPOL.getCity().getZoneId()),
-                        DateTimeUtil.zoneIdToUtc(DateTimeUtil.MAX, AIRPORT_BORISPOL.getCity().getZoneId()),
-                        0, 10))
-                .thenReturn(new HashMap<Flight, Long>() {{ put(FLIGHT_4, 2L); }});
+                        DateTimeUtil.zoneIdToUtc(DateTimeUtil.MAX, AIRPORT_BORISPOL.getCity().getZoneId())))
+                .thenReturn(Collections.singletonList(FLIGHT_4));
+        when(seatInventoryService.getOccupiedSeatsQuantity(FLIGHT_4.getId())).thenReturn(FLIGHT_4_TICKET_QUANTITY);
 
-        Map<Flight, BigDecimal> expected = new HashMap<Flight, BigDecimal>() {{
-            put(FLIGHT_4, new BigDecimal(47).setScale(6, HALF_UP)); }};
+        Map<Flight, Long> expected = new HashMap<Flight, Long>() {{
+            put(FLIGHT_4, 47_000_000L); }};
 
-        Map<Flight, BigDecimal> actual = flightService.getFlightTicketPriceMap(AIRPORT_BORISPOL.getName(),
+        Map<Flight, Long> actual = flightService.getFlightTicketPriceMap(AIRPORT_BORISPOL.getName(),
                 AIRPORT_LUTON.getName(),DateTimeUtil.MIN, DateTimeUtil.MAX, 0, 10);
 
         Assert.assertEquals(expected, actual);
@@ -0,0 +1,85 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import mockit.Expectations;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_2_HEATHROW;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_BORISPOL;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_LUTON;
+import static com.malikov.ticketsystem.FlightTestData.*;
+import static com.malikov.ticketsystem.service.impl.FlightServiceImplTest.FIXED_DATE_TIME;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RouteIndexServiceImplTest extends AbstractTest {
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @InjectMocks
+    private RouteIndexService routeIndexService = new RouteIndexServiceImpl();
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        new Expectations(LocalDateTime.class) {{ LocalDateTime.now(ZoneId.of("UTC")); result = FIXED_DATE_TIME; }};
+
+        when(flightRepository.getUpcoming(Mockito.any(LocalDateTime.class)))
+                .thenReturn(Arrays.asList(FLIGHT_4, FLIGHT_2, FLIGHT_5, FLIGHT_1));
+    }
+
+    @Test
+    public void testGetFlights() {
+        Assert.assertEquals(Arrays.asList(FLIGHT_2, FLIGHT_1),
+                routeIndexService.getFlights(AIRPORT_BORISPOL.getId(), AIRPORT_2_HEATHROW.getId(),
+                        FIXED_DATE_TIME, FLIGHT_1.getDepartureUtcDateTime()));
+        Assert.assertEquals(Collections.singletonList(FLIGHT_2),
+                routeIndexService.getFlights(AIRPORT_BORISPOL.getId(), AIRPORT_2_HEATHROW.getId(),
+                        FLIGHT_2.getDepartureUtcDateTime(), FLIGHT_1.getDepartureUtcDateTime().minusMinutes(1)));
+        Assert.assertEquals(Collections.emptyList(),
+                routeIndexService.getFlights(AIRPORT_LUTON.getId(), AIRPORT_2_HEATHROW.getId(),
+                        FIXED_DATE_TIME, FLIGHT_1.getDepartureUtcDateTime()));
+    }
+
+    @Test
+    public void testDepartedFlightsExcluded() {
+        Assert.assertEquals(Collections.singletonList(FLIGHT_4),
+                routeIndexService.getFlights(AIRPORT_BORISPOL.getId(), AIRPORT_LUTON.getId(),
+                        FIXED_DATE_TIME.minusYears(1), FIXED_DATE_TIME.plusYears(1)));
+        Assert.assertEquals(Collections.emptyList(),
+                routeIndexService.getFlights(AIRPORT_BORISPOL.getId(), AIRPORT_LUTON.getId(),
+                        FIXED_DATE_TIME.minusYears(1), FIXED_DATE_TIME));
+    }
+
+    @Test
+    public void testRemove() {
+        routeIndexService.getFlights(AIRPORT_BORISPOL.getId(), AIRPORT_LUTON.getId(),
+                FIXED_DATE_TIME, FIXED_DATE_TIME);
+        routeIndexService.remove(FLIGHT_2.getId());
+
+        Assert.assertEquals(Collections.singletonList(FLIGHT_1),
+                routeIndexService.getFlights(AIRPORT_BORISPOL.getId(), AIRPORT_2_HEATHROW.getId(),
+                        FIXED_DATE_TIME, FLIGHT_1.getDepartureUtcDateTime()));
+    }
+}
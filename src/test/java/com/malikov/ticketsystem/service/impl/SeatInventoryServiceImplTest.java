@@ -0,0 +1,204 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.repository.TicketRepository;
+import com.malikov.ticketsystem.service.FareCalendarService;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
+import com.malikov.ticketsystem.service.SeatInventoryService;
+import com.malikov.ticketsystem.util.exception.SeatNotFreeException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.MessageSource;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.malikov.ticketsystem.FlightTestData.FLIGHT_4;
+import static com.malikov.ticketsystem.TicketTestData.FLIGHT_4_USER_6_TICKET;
+import static com.malikov.ticketsystem.TicketTestData.FLIGHT_4_USER_7_TICKET;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SeatInventoryServiceImplTest extends AbstractTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SeatInventoryServiceImplTest.class);
+
+    private static final int CONCURRENT_CLAIMS_QUANTITY = 4000;
+
+    private static final int CLAIMING_THREADS_QUANTITY = 16;
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private FareCalendarService fareCalendarService;
+
+    @Mock
+    private FlightSearchCacheService flightSearchCacheService;
+
+    @Mock
+    MessageSource messageSource;
+
+    @InjectMocks
+    private SeatInventoryService seatInventoryService = new SeatInventoryServiceImpl();
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        when(flightRepository.get(FLIGHT_4.getId())).thenReturn(FLIGHT_4);
+        when(ticketRepository.getOccupiedSeatNumbers(FLIGHT_4.getId()))
+                .thenReturn(Arrays.asList(FLIGHT_4_USER_6_TICKET.getSeatNumber(),
+                        FLIGHT_4_USER_7_TICKET.getSeatNumber()));
+    }
+
+    @Test
+    public void testGetFreeSeats() {
+        Set<Integer> expected = new HashSet<>(Arrays.asList(3, 4, 5, 6, 7, 8, 9, 10));
+
+        Assert.assertEquals(expected, seatInventoryService.getFreeSeats(FLIGHT_4.getId()));
+        Assert.assertEquals(expected, seatInventoryService.getFreeSeats(FLIGHT_4.getId()));
+        verify(ticketRepository, times(1)).getOccupiedSeatNumbers(FLIGHT_4.getId());
+    }
+
+    @Test
+    public void testBookSeatAndRelease() {
+        Assert.assertEquals("booked", seatInventoryService.bookSeat(FLIGHT_4.getId(), 5, () -> "booked"));
+        seatInventoryService.release(FLIGHT_4.getId(), FLIGHT_4_USER_6_TICKET.getSeatNumber());
+
+        Set<Integer> expected = new HashSet<>(Arrays.asList(1, 3, 4, 6, 7, 8, 9, 10));
+
+        Assert.assertEquals(expected, seatInventoryService.getFreeSeats(FLIGHT_4.getId()));
+    }
+
+    @Test(expected = SeatNotFreeException.class)
+    public void testBookOccupiedSeat() {
+        seatInventoryService.bookSeat(FLIGHT_4.getId(), FLIGHT_4_USER_6_TICKET.getSeatNumber(), () -> "booked");
+    }
+
+    @Test
+    public void testCheckSeatIsFree() {
+        seatInventoryService.checkSeatIsFree(FLIGHT_4.getId(), 5);
+        try {
+            seatInventoryService.checkSeatIsFree(FLIGHT_4.getId(), FLIGHT_4_USER_6_TICKET.getSeatNumber());
+            Assert.fail();
+        } catch (SeatNotFreeException e) {
+            Assert.assertTrue(seatInventoryService.getFreeSeats(FLIGHT_4.getId()).contains(5));
+        }
+    }
+
+    @Test
+    public void testFailedBookingReleasesSeat() {
+        try {
+            seatInventoryService.bookSeat(FLIGHT_4.getId(), 5, () -> {
+                throw new IllegalStateException();
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(seatInventoryService.getFreeSeats(FLIGHT_4.getId()).contains(5));
+        }
+    }
+
+    /**
+     * Thousands of concurrent claims of FLIGHT_4 seats: exactly one claim per free seat must win,
+     * while claims of already occupied seats must be rejected without running booking.
+     */
+    @Test
+    public void testConcurrentBookSeat() throws Exception {
+        int seatsQuantity = FLIGHT_4.getAircraft().getModel().getPassengerSeatsQuantity();
+        int freeSeatsQuantity = seatInventoryService.getFreeSeats(FLIGHT_4.getId()).size();
+        AtomicInteger bookingsQuantity = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CLAIMING_THREADS_QUANTITY);
+        List<Future<Boolean>> claimResults = new ArrayList<>();
+
+        for (int i = 0; i < CONCURRENT_CLAIMS_QUANTITY; i++) {
+            int seatNumber = i % seatsQuantity + 1;
+            claimResults.add(executor.submit((Callable<Boolean>) () -> {
+                startLatch.await();
+                try {
+                    return seatInventoryService.bookSeat(FLIGHT_4.getId(), seatNumber,
+                            () -> bookingsQuantity.incrementAndGet() > 0);
+                } catch (SeatNotFreeException e) {
+                    return false;
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        startLatch.countDown();
+        int wonClaimsQuantity = 0;
+        for (Future<Boolean> claimResult : claimResults) {
+            if (claimResult.get()) {
+                wonClaimsQuantity++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        LOG.info("{} concurrent seat claims in {} threads took {} ms ({} ns per claim).",
+                CONCURRENT_CLAIMS_QUANTITY, CLAIMING_THREADS_QUANTITY,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), elapsedNanos / CONCURRENT_CLAIMS_QUANTITY);
+
+        Assert.assertEquals(freeSeatsQuantity, wonClaimsQuantity);
+        Assert.assertEquals(freeSeatsQuantity, bookingsQuantity.get());
+        Assert.assertTrue(seatInventoryService.getFreeSeats(FLIGHT_4.getId()).isEmpty());
+    }
+
+    @Test
+    public void testEvict() {
+        seatInventoryService.getFreeSeats(FLIGHT_4.getId());
+        seatInventoryService.evict(FLIGHT_4.getId());
+        seatInventoryService.getFreeSeats(FLIGHT_4.getId());
+
+        verify(ticketRepository, times(2)).getOccupiedSeatNumbers(FLIGHT_4.getId());
+    }
+
+    @Test
+    public void testRemoveDepartedFlights() {
+        LocalDateTime tomorrow = LocalDateTime.now(ZoneId.of("UTC")).plusDays(1);
+        Flight upcomingFlight = new Flight(100L, FLIGHT_4.getDepartureAirport(), FLIGHT_4.getArrivalAirport(),
+                FLIGHT_4.getAircraft(), tomorrow, tomorrow.plusHours(2), FLIGHT_4.getInitialTicketBasePrice(),
+                FLIGHT_4.getMaxTicketBasePrice());
+        when(flightRepository.get(upcomingFlight.getId())).thenReturn(upcomingFlight);
+        seatInventoryService.getFreeSeats(FLIGHT_4.getId());
+        seatInventoryService.getFreeSeats(upcomingFlight.getId());
+
+        ((SeatInventoryServiceImpl) seatInventoryService).removeDepartedFlights();
+        seatInventoryService.getFreeSeats(FLIGHT_4.getId());
+        seatInventoryService.getFreeSeats(upcomingFlight.getId());
+
+        verify(ticketRepository, times(2)).getOccupiedSeatNumbers(FLIGHT_4.getId());
+        verify(ticketRepository, times(1)).getOccupiedSeatNumbers(upcomingFlight.getId());
+    }
+}
@@ -0,0 +1,108 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.model.TariffsDetails;
+import com.malikov.ticketsystem.repository.TariffsDetailsRepository;
+import com.malikov.ticketsystem.service.FareCalendarService;
+import com.malikov.ticketsystem.service.FlightSearchCacheService;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static com.malikov.ticketsystem.TariffDetailsTestData.ACTIVE_TARIFF_DETAILS;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TariffsDetailsSnapshotServiceImplTest extends AbstractTest {
+
+    private static final long TARIFFS_DETAILS_ID = 1L;
+
+    @Mock
+    private TariffsDetailsRepository repository;
+
+    @Mock
+    private TicketPricingService ticketPricingService;
+
+    @Mock
+    private FareCalendarService fareCalendarService;
+
+    @Mock
+    private FlightSearchCacheService flightSearchCacheService;
+
+    private TariffsDetailsSnapshotServiceImpl tariffsDetailsSnapshotService = new TariffsDetailsSnapshotServiceImpl();
+
+    private TariffsDetails tariffsDetails;
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        tariffsDetails = new TariffsDetails(ACTIVE_TARIFF_DETAILS);
+        tariffsDetails.setId(TARIFFS_DETAILS_ID);
+        tariffsDetails.setVersion(0);
+        when(repository.getActiveTariffsDetails()).thenReturn(tariffsDetails);
+
+        ReflectionTestUtils.setField(tariffsDetailsSnapshotService, "repository", repository);
+        ReflectionTestUtils.setField(tariffsDetailsSnapshotService, "ticketPricingService", ticketPricingService);
+        ReflectionTestUtils.setField(tariffsDetailsSnapshotService, "fareCalendarService", fareCalendarService);
+        ReflectionTestUtils.setField(tariffsDetailsSnapshotService, "flightSearchCacheService",
+                flightSearchCacheService);
+        tariffsDetailsSnapshotService.start();
+    }
+
+    @Test
+    public void testGetActiveDoesNotQueryDatabase() {
+        TariffsDetails active = tariffsDetailsSnapshotService.getActive();
+        Assert.assertSame(active, tariffsDetailsSnapshotService.getActive());
+        Assert.assertEquals(tariffsDetails.getVersion(), active.getVersion());
+        verify(repository, times(1)).getActiveTariffsDetails();
+    }
+
+    @Test
+    public void testPollVersion() {
+        when(repository.getVersionIfActive(TARIFFS_DETAILS_ID)).thenReturn(0);
+        tariffsDetailsSnapshotService.pollVersion();
+        verify(repository, times(1)).getActiveTariffsDetails();
+
+        when(repository.getVersionIfActive(TARIFFS_DETAILS_ID)).thenReturn(1);
+        tariffsDetailsSnapshotService.pollVersion();
+        verify(repository, times(2)).getActiveTariffsDetails();
+        verify(flightSearchCacheService, times(2)).evictAll();
+    }
+
+    @Test
+    public void testPollVersionClearsSnapshotIfNoneActive() {
+        when(repository.getVersionIfActive(TARIFFS_DETAILS_ID)).thenReturn(null);
+        when(repository.getActiveTariffsDetails()).thenReturn(null);
+        tariffsDetailsSnapshotService.pollVersion();
+        Assert.assertNull(tariffsDetailsSnapshotService.getActive());
+        verify(flightSearchCacheService, times(2)).evictAll();
+
+        tariffsDetailsSnapshotService.pollVersion();
+        verify(flightSearchCacheService, times(2)).evictAll();
+
+        when(repository.getActiveTariffsDetails()).thenReturn(tariffsDetails);
+        tariffsDetailsSnapshotService.pollVersion();
+        Assert.assertEquals(tariffsDetails.getId(), tariffsDetailsSnapshotService.getActive().getId());
+        verify(flightSearchCacheService, times(3)).evictAll();
+    }
+
+    @Test
+    public void testFailedPollVersionKeepsSnapshot() {
+        TariffsDetails active = tariffsDetailsSnapshotService.getActive();
+        when(repository.getVersionIfActive(TARIFFS_DETAILS_ID)).thenThrow(new IllegalStateException("dummy text"));
+        tariffsDetailsSnapshotService.pollVersion();
+        Assert.assertSame(active, tariffsDetailsSnapshotService.getActive());
+    }
+}
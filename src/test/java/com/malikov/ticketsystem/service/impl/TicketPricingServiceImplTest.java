@@ -0,0 +1,56 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.service.TicketPricingService;
+import com.malikov.ticketsystem.util.MoneyUtil;
+import mockit.Expectations;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static com.malikov.ticketsystem.FlightTestData.FLIGHT_4;
+import static com.malikov.ticketsystem.TariffDetailsTestData.ACTIVE_TARIFF_DETAILS;
+import static com.malikov.ticketsystem.TicketTestData.FLIGHT_4_TICKET_QUANTITY;
+import static com.malikov.ticketsystem.service.impl.FlightServiceImplTest.FIXED_DATE_TIME;
+
+/**
+ * @author Yurii Malikov
+ */
+public class TicketPricingServiceImplTest {
+
+    private TicketPricingService ticketPricingService = new TicketPricingServiceImpl();
+
+    @Test
+    public void testEvict() {
+        Flight flight = new Flight(FLIGHT_4.getId(), FLIGHT_4.getDepartureAirport(), FLIGHT_4.getArrivalAirport(),
+                FLIGHT_4.getAircraft(), FLIGHT_4.getDepartureUtcDateTime(), FLIGHT_4.getArrivalUtcDateTime(),
+                FLIGHT_4.getInitialTicketBasePrice(), FLIGHT_4.getMaxTicketBasePrice());
+        long price = ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, flight,
+                FLIGHT_4_TICKET_QUANTITY);
+
+        BigDecimal priceShift = new BigDecimal(10);
+        flight.setInitialTicketBasePrice(flight.getInitialTicketBasePrice().add(priceShift));
+        flight.setMaxTicketBasePrice(flight.getMaxTicketBasePrice().add(priceShift));
+
+        Assert.assertEquals(price, ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS, flight,
+                FLIGHT_4_TICKET_QUANTITY));
+
+        ticketPricingService.evict(flight.getId());
+
+        Assert.assertEquals(price + MoneyUtil.toMicros(priceShift), ticketPricingService.calculateTicketPrice(ACTIVE_TARIFF_DETAILS,
+                flight, FLIGHT_4_TICKET_QUANTITY));
+    }
+
+    @Test
+    public void testGetNextPriceGrowthEpochSecond() {
+        new Expectations(LocalDateTime.class) {{ LocalDateTime.now(ZoneId.of("UTC")); result = FIXED_DATE_TIME; }};
+
+        // price of flight 4 starts to grow 10 days before departure at 2017-06-22 06:30
+        Assert.assertEquals(LocalDateTime.of(2017, 6, 18, 6, 30).toEpochSecond(ZoneOffset.UTC),
+                ticketPricingService.getNextPriceGrowthEpochSecond(ACTIVE_TARIFF_DETAILS, FLIGHT_4));
+    }
+}
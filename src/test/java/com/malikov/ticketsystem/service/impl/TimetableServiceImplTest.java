@@ -0,0 +1,143 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.model.Flight;
+import com.malikov.ticketsystem.model.TimetableRule;
+import com.malikov.ticketsystem.repository.FlightRepository;
+import com.malikov.ticketsystem.repository.TimetableRuleRepository;
+import com.malikov.ticketsystem.service.RouteIndexService;
+import com.malikov.ticketsystem.service.TimetableService;
+import com.malikov.ticketsystem.util.DateTimeUtil;
+import mockit.Expectations;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.malikov.ticketsystem.AircraftTestData.AIRCRAFT_1;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_BORISPOL;
+import static com.malikov.ticketsystem.AirportTestData.AIRPORT_LUTON;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TimetableServiceImplTest extends AbstractTest {
+
+    /**
+     * Kyiv switches to summer time on 2017-03-26
+     */
+    private static final LocalDateTime NOW = DateTimeUtil.parseToLocalDateTime("2017-03-20 00:00");
+
+    private static final TimetableRule DAILY_RULE = new TimetableRule(1L, AIRPORT_BORISPOL, AIRPORT_LUTON, AIRCRAFT_1,
+            LocalTime.of(10, 0), 180, EnumSet.allOf(DayOfWeek.class),
+            LocalDate.of(2017, 3, 1), LocalDate.of(2017, 3, 31), new BigDecimal(30), new BigDecimal(50));
+
+    private static final TimetableRule MONDAY_RULE = new TimetableRule(2L, AIRPORT_BORISPOL, AIRPORT_LUTON, AIRCRAFT_1,
+            LocalTime.of(10, 0), 180, EnumSet.of(DayOfWeek.MONDAY),
+            LocalDate.of(2017, 3, 1), LocalDate.of(2017, 3, 31), new BigDecimal(30), new BigDecimal(50));
+
+    @Mock
+    private TimetableRuleRepository timetableRuleRepository;
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private RouteIndexService routeIndexService;
+
+    private TimetableService timetableService = new TimetableServiceImpl();
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        new Expectations(LocalDateTime.class) {{ LocalDateTime.now(ZoneId.of("UTC")); result = NOW; }};
+
+        when(timetableRuleRepository.getValidTill(Mockito.any(LocalDate.class)))
+                .thenReturn(Arrays.asList(DAILY_RULE, MONDAY_RULE));
+        when(flightRepository.getDepartureUtcDateTimes(Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class)))
+                .thenReturn(new HashSet<>(Collections.singletonList(
+                        DateTimeUtil.parseToLocalDateTime("2017-03-21 08:00"))));
+
+        ReflectionTestUtils.setField(timetableService, "timetableRuleRepository", timetableRuleRepository);
+        ReflectionTestUtils.setField(timetableService, "flightRepository", flightRepository);
+        ReflectionTestUtils.setField(timetableService, "routeIndexService", routeIndexService);
+        ReflectionTestUtils.setField(timetableService, "horizonDays", 14);
+        ReflectionTestUtils.setField(timetableService, "batchSize", 5);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGenerateFlights() {
+        Assert.assertEquals(11, timetableService.generateFlights());
+
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(flightRepository, times(3)).insertAll(captor.capture());
+        List<Flight> flights = ((List<List<Flight>>) (List) captor.getAllValues()).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        List<LocalDateTime> departures = flights.stream()
+                .map(Flight::getDepartureUtcDateTime)
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(DateTimeUtil.parseToLocalDateTime("2017-03-20 08:00"), departures.get(0));
+        Assert.assertFalse(departures.contains(DateTimeUtil.parseToLocalDateTime("2017-03-21 08:00")));
+        Assert.assertTrue(departures.contains(DateTimeUtil.parseToLocalDateTime("2017-03-25 08:00")));
+        Assert.assertTrue(departures.contains(DateTimeUtil.parseToLocalDateTime("2017-03-26 07:00")));
+        Assert.assertEquals(DateTimeUtil.parseToLocalDateTime("2017-03-31 07:00"), departures.get(10));
+        Assert.assertEquals(DateTimeUtil.parseToLocalDateTime("2017-03-31 10:00"),
+                flights.get(10).getArrivalUtcDateTime());
+
+        verify(flightRepository, times(1)).getDepartureUtcDateTimes(Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class));
+        verify(routeIndexService).reload();
+    }
+
+    @Test
+    public void testGenerateFlightsTwice() {
+        timetableService.generateFlights();
+        verify(flightRepository, times(3)).insertAll(Mockito.anyListOf(Flight.class));
+
+        when(flightRepository.getDepartureUtcDateTimes(Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.any(LocalDateTime.class), Mockito.any(LocalDateTime.class)))
+                .thenReturn(new HashSet<>(Arrays.asList(
+                        DateTimeUtil.parseToLocalDateTime("2017-03-20 08:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-21 08:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-22 08:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-23 08:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-24 08:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-25 08:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-26 07:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-27 07:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-28 07:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-29 07:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-30 07:00"),
+                        DateTimeUtil.parseToLocalDateTime("2017-03-31 07:00"))));
+
+        Assert.assertEquals(0, timetableService.generateFlights());
+        verify(flightRepository, times(3)).insertAll(Mockito.anyListOf(Flight.class));
+        verify(routeIndexService, times(1)).reload();
+    }
+}
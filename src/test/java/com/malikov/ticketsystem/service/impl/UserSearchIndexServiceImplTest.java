@@ -0,0 +1,98 @@
+package com.malikov.ticketsystem.service.impl;
+
+import com.malikov.ticketsystem.AbstractTest;
+import com.malikov.ticketsystem.model.User;
+import com.malikov.ticketsystem.repository.UserRepository;
+import com.malikov.ticketsystem.service.UserSearchIndexService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.malikov.ticketsystem.UserTestData.USER_1;
+import static com.malikov.ticketsystem.UserTestData.USER_2;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Yurii Malikov
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserSearchIndexServiceImplTest extends AbstractTest {
+
+    private static final User NEW_USER = new User(100L, "Nikolay", "Newmanov", "newmanov@gmail.com",
+            "password", "+380501112233");
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TaskScheduler scheduler;
+
+    private UserSearchIndexService userSearchIndexService = new UserSearchIndexServiceImpl();
+
+    @Before
+    public void initializeMockito() {
+        MockitoAnnotations.initMocks(this);
+
+        ReflectionTestUtils.setField(userSearchIndexService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userSearchIndexService, "scheduler", scheduler);
+        ReflectionTestUtils.setField(userSearchIndexService, "maxResults", 10);
+    }
+
+    /**
+     * User is created while index is loaded and is already read by load query
+     */
+    @Test
+    public void testLoadedChangeIsNotCountedTwice() {
+        when(userRepository.getAllIdsEmailsAndLastNames()).thenAnswer(invocation -> {
+            userSearchIndexService.add(NEW_USER);
+            return getRows(USER_1, USER_2, NEW_USER);
+        });
+
+        Assert.assertEquals(Collections.singletonList(NEW_USER.getLastName()),
+                userSearchIndexService.getLastNamesByMask("newman"));
+
+        userSearchIndexService.remove(NEW_USER);
+        Assert.assertEquals(Collections.emptyList(), userSearchIndexService.getLastNamesByMask("newman"));
+        Assert.assertEquals(Collections.emptyList(), userSearchIndexService.getEmailsByMask("newman"));
+    }
+
+    /**
+     * User is updated while index is loaded and is read by load query as before update
+     */
+    @Test
+    public void testChangeMissedByLoadIsReplayed() {
+        String previousEmail = NEW_USER.getEmail();
+        String previousLastName = NEW_USER.getLastName();
+        User updated = new User(NEW_USER.getId(), NEW_USER.getName(), "Oldmanov", "oldmanov@gmail.com",
+                "password", "+380501112233");
+        when(userRepository.getAllIdsEmailsAndLastNames()).thenAnswer(invocation -> {
+            List<Object[]> rows = getRows(USER_1, USER_2, NEW_USER);
+            userSearchIndexService.update(previousEmail, previousLastName, updated);
+            return rows;
+        });
+
+        Assert.assertEquals(Collections.emptyList(), userSearchIndexService.getLastNamesByMask("newman"));
+        Assert.assertEquals(Collections.singletonList(updated.getLastName()),
+                userSearchIndexService.getLastNamesByMask("oldman"));
+        Assert.assertEquals(Collections.singletonList(updated.getEmail()),
+                userSearchIndexService.getEmailsByMask("oldman"));
+    }
+
+    private static List<Object[]> getRows(User... users) {
+        List<Object[]> rows = new ArrayList<>();
+        Arrays.stream(users).forEach(user -> rows.add(new Object[]{user.getId(), user.getEmail(),
+                user.getLastName()}));
+        return rows;
+    }
+}
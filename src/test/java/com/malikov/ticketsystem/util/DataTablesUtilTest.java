@@ -0,0 +1,38 @@
+package com.malikov.ticketsystem.util;
+
+import com.malikov.ticketsystem.dto.KeysetPageDTO;
+import org.junit.Test;
+import org.springframework.ui.ModelMap;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Yurii Malikov
+ */
+public class DataTablesUtilTest {
+
+    @Test
+    public void testGetKeysetPageModel() {
+        ModelMap model = DataTablesUtil.getKeysetPageModel(3, 20,
+                new KeysetPageDTO<>(Arrays.asList("a", "b"), "cursor"));
+
+        assertEquals(3, model.get("draw"));
+        assertEquals(23, model.get("recordsTotal"));
+        assertEquals(23, model.get("recordsFiltered"));
+        assertEquals(Arrays.asList("a", "b"), model.get("data"));
+        assertEquals("cursor", model.get("nextCursor"));
+    }
+
+    @Test
+    public void testGetKeysetPageModelOfLastPage() {
+        ModelMap model = DataTablesUtil.getKeysetPageModel(4, 22,
+                new KeysetPageDTO<>(Arrays.asList("c"), null));
+
+        assertEquals(23, model.get("recordsTotal"));
+        assertEquals(23, model.get("recordsFiltered"));
+        assertNull(model.get("nextCursor"));
+    }
+}
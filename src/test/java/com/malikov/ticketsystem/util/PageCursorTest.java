@@ -0,0 +1,38 @@
+package com.malikov.ticketsystem.util;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Yurii Malikov
+ */
+public class PageCursorTest {
+
+    @Test
+    public void testEncodeDecode() {
+        LocalDateTime dateTime = LocalDateTime.of(2017, 6, 17, 12, 30);
+        PageCursor decoded = PageCursor.decode(PageCursor.of(dateTime, 42).encode());
+
+        assertEquals(dateTime, decoded.getSortDateTime());
+        assertEquals(42, decoded.getId());
+
+        decoded = PageCursor.decode(PageCursor.of(7).encode());
+        assertNull(decoded.getSortDateTime());
+        assertEquals(7, decoded.getId());
+    }
+
+    @Test
+    public void testDecodeFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeMalformed() {
+        PageCursor.decode("not a cursor");
+    }
+}
@@ -0,0 +1,38 @@
+package com.malikov.ticketsystem.util.flightimport;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Yurii Malikov
+ */
+public class CsvFlightScheduleReaderTest {
+
+    @Test
+    public void testNext() throws IOException {
+        CsvFlightScheduleReader reader = new CsvFlightScheduleReader(
+                new StringReader("aircraftName, departureAirport\n\n\"B737,\"\"1\"\"\",  Boryspil \nB737-2\n"));
+
+        FlightScheduleRow row = reader.next();
+        assertEquals(1, row.getRowNumber());
+        assertEquals("B737,\"1\"", row.get(FlightScheduleRow.AIRCRAFT_NAME));
+        assertEquals("Boryspil", row.get(FlightScheduleRow.DEPARTURE_AIRPORT));
+
+        row = reader.next();
+        assertEquals(2, row.getRowNumber());
+        assertEquals("B737-2", row.get(FlightScheduleRow.AIRCRAFT_NAME));
+        assertNull(row.get(FlightScheduleRow.DEPARTURE_AIRPORT));
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testNextOfEmpty() throws IOException {
+        assertNull(new CsvFlightScheduleReader(new StringReader("")).next());
+    }
+}
@@ -0,0 +1,69 @@
+package com.malikov.ticketsystem.util.scheduling;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Yurii Malikov
+ */
+public class HashedTimingWheelTest {
+
+    private static final long START_MILLIS = 1_000_000;
+
+    private static final long TICK_MILLIS = 100;
+
+    @Test
+    public void testExpiresNotEarlierThanDeadline() {
+        HashedTimingWheel<String> timingWheel = new HashedTimingWheel<>(TICK_MILLIS, 8, START_MILLIS);
+        timingWheel.schedule("first", START_MILLIS + 250);
+        timingWheel.schedule("second", START_MILLIS + 250);
+
+        assertEquals(Collections.emptyList(), timingWheel.advance(START_MILLIS + 250));
+        assertEquals(Arrays.asList("first", "second"), timingWheel.advance(START_MILLIS + 300));
+        assertEquals(Collections.emptyList(), timingWheel.advance(START_MILLIS + 1000));
+    }
+
+    @Test
+    public void testExpiresAfterSeveralRounds() {
+        HashedTimingWheel<String> timingWheel = new HashedTimingWheel<>(TICK_MILLIS, 4, START_MILLIS);
+        HashedTimingWheel.Timeout<String> timeout = timingWheel.schedule("far", START_MILLIS + 1050);
+
+        assertEquals(Collections.emptyList(), timingWheel.advance(START_MILLIS + 1000));
+        assertEquals(50, timeout.getRemainingMillis(START_MILLIS + 1000));
+        assertEquals(Collections.singletonList("far"), timingWheel.advance(START_MILLIS + 1100));
+        assertTrue(timeout.isExpired());
+    }
+
+    @Test
+    public void testCancel() {
+        HashedTimingWheel<String> timingWheel = new HashedTimingWheel<>(TICK_MILLIS, 8, START_MILLIS);
+        HashedTimingWheel.Timeout<String> cancelledBeforeTransfer = timingWheel.schedule("first", START_MILLIS + 500);
+        HashedTimingWheel.Timeout<String> cancelledAfterTransfer = timingWheel.schedule("second", START_MILLIS + 500);
+        timingWheel.schedule("third", START_MILLIS + 500);
+
+        assertTrue(cancelledBeforeTransfer.cancel());
+        timingWheel.advance(START_MILLIS + 100);
+        assertTrue(cancelledAfterTransfer.cancel());
+        assertFalse(cancelledAfterTransfer.cancel());
+
+        assertEquals(Collections.singletonList("third"), timingWheel.advance(START_MILLIS + 600));
+        assertTrue(cancelledBeforeTransfer.isCancelled());
+        assertTrue(cancelledAfterTransfer.isCancelled());
+    }
+
+    @Test
+    public void testElapsedDeadlineExpiresOnNextTick() {
+        HashedTimingWheel<String> timingWheel = new HashedTimingWheel<>(TICK_MILLIS, 8, START_MILLIS);
+        timingWheel.advance(START_MILLIS + 500);
+        HashedTimingWheel.Timeout<String> timeout = timingWheel.schedule("late", START_MILLIS + 100);
+
+        assertEquals(Collections.singletonList("late"), timingWheel.advance(START_MILLIS + 600));
+        assertFalse(timeout.cancel());
+    }
+}
@@ -0,0 +1,46 @@
+package com.malikov.ticketsystem.util.search;
+
+import com.malikov.ticketsystem.model.Airport;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.malikov.ticketsystem.AirportTestData.*;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Yurii Malikov
+ */
+public class NGramIndexTest {
+
+    private final NGramIndex<Airport> index = new NGramIndex<>(AIRPORTS,
+            airport -> Arrays.asList(airport.getName(), airport.getCity().getName()));
+
+    @Test
+    public void testSearchByAirportAndCityName() {
+        assertEquals(Arrays.asList(AIRPORT_2_HEATHROW, AIRPORT_LUTON), index.search("lon", 10));
+        assertEquals(Collections.singletonList(AIRPORT_LUTON), index.search(" LUTON ", 10));
+        assertEquals(Collections.emptyList(), index.search("xyz", 10));
+    }
+
+    @Test
+    public void testPrefixMatchesGoFirst() {
+        // "Rome" starts with term, "Heathrow" only contains it
+        assertEquals(Arrays.asList(AIRPORT_4_DA_VINCI, AIRPORT_2_HEATHROW), index.search("ro", 10));
+    }
+
+    @Test
+    public void testWordPrefixGoesBeforeSubstring() {
+        NGramIndex<String> namesIndex = new NGramIndex<>(
+                Arrays.asList("Uberlandia Airport", "Lufthansa Berlin", "Berlin Air"), Collections::singletonList);
+        assertEquals(Arrays.asList("Berlin Air", "Lufthansa Berlin", "Uberlandia Airport"),
+                namesIndex.search("ber", 10));
+    }
+
+    @Test
+    public void testLimit() {
+        assertEquals(Arrays.asList(AIRPORT_BORISPOL, AIRPORT_2_HEATHROW), index.search("airport", 2));
+        assertEquals(Collections.emptyList(), index.search("airport", 0));
+    }
+}
@@ -0,0 +1,48 @@
+package com.malikov.ticketsystem.util.search;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Yurii Malikov
+ */
+public class TermsIndexTest {
+
+    private static final int MAX_PENDING_CHANGES = 2;
+
+    @Test
+    public void testPrefixMatchesGoFirst() {
+        TermsIndex index = new TermsIndex(Arrays.asList("Smithson", "Arrowsmith", "smith", "Smith", "Brown",
+                "Goldsmith", "Smith"), MAX_PENDING_CHANGES);
+
+        assertEquals(Arrays.asList("Smith", "smith", "Smithson", "Arrowsmith", "Goldsmith"),
+                index.search("SMITH", 10));
+        assertEquals(Arrays.asList("Arrowsmith", "Goldsmith", "Smith", "smith"), index.search("mith", 4));
+        assertEquals(Arrays.asList("Arrowsmith", "Brown"), index.search("ow", 10));
+        assertEquals(Collections.emptyList(), index.search("xyz", 10));
+    }
+
+    @Test
+    public void testPendingChanges() {
+        TermsIndex index = new TermsIndex(Arrays.asList("Smith", "Smith", "Goldsmith"), MAX_PENDING_CHANGES);
+
+        assertFalse(index.remove("Smith"));
+        assertEquals(Arrays.asList("Smith", "Goldsmith"), index.search("smith", 10));
+        assertTrue(index.remove("Goldsmith"));
+        assertEquals(Collections.singletonList("Smith"), index.search("smith", 10));
+        index.add("Arrowsmith");
+        index.add("Smithson");
+        assertEquals(Arrays.asList("Smith", "Smithson", "Arrowsmith"), index.search("smith", 10));
+
+        index.merge();
+        assertEquals(Arrays.asList("Smith", "Smithson", "Arrowsmith"), index.search("smith", 10));
+        assertFalse(index.remove("Smith"));
+        assertEquals(Arrays.asList("Smithson", "Arrowsmith"), index.search("smith", 10));
+    }
+}
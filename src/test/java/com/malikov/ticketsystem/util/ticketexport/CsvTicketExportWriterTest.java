@@ -0,0 +1,47 @@
+package com.malikov.ticketsystem.util.ticketexport;
+
+import com.malikov.ticketsystem.dto.TicketDTO;
+import com.malikov.ticketsystem.model.TicketStatus;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Yurii Malikov
+ */
+public class CsvTicketExportWriterTest {
+
+    @Test
+    public void testWrite() throws IOException {
+        StringWriter output = new StringWriter();
+        try (TicketExportWriter writer = new CsvTicketExportWriter(output)) {
+            writer.write(new TicketDTO(1L, "Eduard", "O\"Neil, Jr", "Boryspil International Airport",
+                    "Heathrow Airport", "Kyiv", "London", LocalDateTime.of(2017, 6, 30, 10, 30),
+                    LocalDateTime.of(2017, 6, 30, 12, 0), new BigDecimal("30.500000"), true, null, 1,
+                    TicketStatus.PAID));
+        }
+
+        assertEquals("id,passengerFirstName,passengerLastName,departureAirport,arrivalAirport," +
+                "departureCity,arrivalCity,departureLocalDateTime,arrivalLocalDateTime,price,hasBaggage," +
+                "hasPriorityRegistrationAndBoarding,seatNumber,status\r\n" +
+                "1,Eduard,\"O\"\"Neil, Jr\",Boryspil International Airport,Heathrow Airport,Kyiv,London," +
+                "2017-06-30 10:30,2017-06-30 12:00,30.500000,true,false,1,PAID\r\n", output.toString());
+    }
+
+    @Test
+    public void testAbort() throws IOException {
+        StringWriter output = new StringWriter();
+        TicketExportWriter writer = new CsvTicketExportWriter(output);
+        writer.abort();
+
+        assertEquals("id,passengerFirstName,passengerLastName,departureAirport,arrivalAirport," +
+                "departureCity,arrivalCity,departureLocalDateTime,arrivalLocalDateTime,price,hasBaggage," +
+                "hasPriorityRegistrationAndBoarding,seatNumber,status\r\n\r\n\"" +
+                CsvTicketExportWriter.ABORTED_MARKER + "\"\r\n", output.toString());
+    }
+}
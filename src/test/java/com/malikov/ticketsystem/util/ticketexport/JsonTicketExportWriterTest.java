@@ -0,0 +1,49 @@
+package com.malikov.ticketsystem.util.ticketexport;
+
+import com.malikov.ticketsystem.dto.TicketDTO;
+import com.malikov.ticketsystem.model.TicketStatus;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Yurii Malikov
+ */
+public class JsonTicketExportWriterTest {
+
+    private static final TicketDTO TICKET = new TicketDTO(1L, "Eduard", "Eduardov", "Boryspil International Airport",
+            "Heathrow Airport", "Kyiv", "London", LocalDateTime.of(2017, 6, 30, 10, 30),
+            LocalDateTime.of(2017, 6, 30, 12, 0), new BigDecimal("30.500000"), true, null, 1, TicketStatus.PAID);
+
+    @Test
+    public void testClose() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TicketExportWriter writer = new JsonTicketExportWriter(output);
+        writer.write(TICKET);
+        writer.close();
+
+        String json = output.toString(StandardCharsets.UTF_8.name());
+        assertTrue(json.startsWith("[{"));
+        assertTrue(json.endsWith("}]"));
+    }
+
+    @Test
+    public void testAbort() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TicketExportWriter writer = new JsonTicketExportWriter(output);
+        writer.write(TICKET);
+        writer.abort();
+
+        String json = output.toString(StandardCharsets.UTF_8.name());
+        assertTrue(json.startsWith("[{"));
+        assertTrue(json.endsWith("}"));
+        assertFalse(json.endsWith("]"));
+    }
+}